@@ -0,0 +1,62 @@
+package org.howard.edu.lsp.assignment3.bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+import org.howard.edu.lsp.assignment3.ProductFileGenerator;
+
+/**
+ * Creates the products.csv inputs that the benchmarks run over.
+ * Files are generated by {@link ProductFileGenerator} from a fixed seed, so
+ * every run sees the same rows, and are kept in the {@code lsp.bench.dir}
+ * directory (a folder under {@code java.io.tmpdir} by default) so that forks
+ * reuse them.
+ */
+final class BenchmarkData {
+
+    private static final long SEED = 20251017L;
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Gets a products.csv input with the given number of data rows, generating it on first use.
+     * @param rows The number of data rows.
+     * @return The path to the input file.
+     * @throws IOException if the file cannot be written.
+     */
+    static Path products(int rows) throws IOException {
+        Path file = directory().resolve("products-" + rows + "-" + SEED + ".csv");
+        if (!Files.exists(file)) {
+            // Write to a temporary file first so that an interrupted run
+            // never leaves a truncated input behind.
+            Path partial = Files.createTempFile(directory(), "products-" + rows, ".partial");
+            ProductFileGenerator generator = new ProductFileGenerator(partial.toString());
+            generator.setRows(rows);
+            generator.setSeed(SEED);
+            generator.generate();
+            Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        return file;
+    }
+
+    /**
+     * Creates an empty file for a benchmark to write its output to.
+     * @return The path to the output file.
+     * @throws IOException if the file cannot be created.
+     */
+    static Path outputFile() throws IOException {
+        Path file = Files.createTempFile(directory(), "transformed_products", ".csv");
+        file.toFile().deleteOnExit();
+        return file;
+    }
+
+    private static Path directory() throws IOException {
+        String dir = System.getProperty("lsp.bench.dir",
+                Paths.get(System.getProperty("java.io.tmpdir"), "lsp-bench").toString());
+        return Files.createDirectories(Paths.get(dir));
+    }
+}
@@ -0,0 +1,112 @@
+package org.howard.edu.lsp.assignment3.bench;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.howard.edu.lsp.assignment3.ColumnarFileReader;
+import org.howard.edu.lsp.assignment3.ETLPipeline;
+import org.howard.edu.lsp.assignment3.PipelineOptions;
+import org.howard.edu.lsp.assignment3.ProductBatch;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures what a downstream job pays to read the pipeline's output: parsing
+ * transformed_products.csv as text, or reading the binary columnar file
+ * written with {@code --binary}. Both files come from the same run.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+public class ColumnarFileBenchmark {
+
+    /** The number of data rows in the input file. */
+    @Param({"10000", "1000000"})
+    public int rows;
+
+    private String csvFile;
+    private String columnarFile;
+
+    /**
+     * Runs the pipeline once to write both output files.
+     * @throws IOException if a file cannot be read or written.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Path csv = BenchmarkData.outputFile();
+        Path columnar = BenchmarkData.outputFile();
+        columnar.toFile().deleteOnExit();
+        ETLPipeline.run(BenchmarkData.products(rows).toString(), csv.toString(),
+                PipelineOptions.parse(new String[] {"--columnar", "--binary", columnar.toString()}));
+        csvFile = csv.toString();
+        columnarFile = columnar.toString();
+    }
+
+    /**
+     * Sums the prices of the CSV output, parsing each row as text.
+     * @param counter Counts the rows read.
+     * @return The sum of the prices in cents.
+     * @throws IOException if the file cannot be read.
+     */
+    @Benchmark
+    public long csvPriceSum(RowCounter counter) throws IOException {
+        long sum = 0;
+        try (BufferedReader reader = new BufferedReader(new FileReader(csvFile))) {
+            reader.readLine();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] columns = line.split(",");
+                sum += new BigDecimal(columns[2]).unscaledValue().longValue();
+                counter.rows++;
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Sums the prices of the columnar file, reading only the mapped price column.
+     * @param counter Counts the rows read.
+     * @return The sum of the prices in cents.
+     * @throws IOException if the file cannot be read.
+     */
+    @Benchmark
+    public long columnarPriceSum(RowCounter counter) throws IOException {
+        ColumnarFileReader reader = new ColumnarFileReader(columnarFile);
+        long sum = 0;
+        for (int i = 0; i < reader.size(); i++) {
+            sum += reader.getPriceCents(i);
+        }
+        counter.rows += reader.size();
+        return sum;
+    }
+
+    /**
+     * Reads every row of the columnar file into a ProductBatch.
+     * @param counter Counts the rows read.
+     * @return The batch.
+     * @throws IOException if the file cannot be read.
+     */
+    @Benchmark
+    public ProductBatch columnarBatch(RowCounter counter) throws IOException {
+        ProductBatch batch = new ColumnarFileReader(columnarFile).readBatch();
+        counter.rows += batch.size();
+        return batch;
+    }
+}
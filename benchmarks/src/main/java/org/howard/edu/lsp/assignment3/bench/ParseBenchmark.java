@@ -0,0 +1,92 @@
+package org.howard.edu.lsp.assignment3.bench;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.howard.edu.lsp.assignment3.CSVReader;
+import org.howard.edu.lsp.assignment3.MappedCSVReader;
+import org.howard.edu.lsp.assignment3.Product;
+import org.howard.edu.lsp.assignment3.ProductBatch;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the "Extract" stage: parsing a products.csv file into Products or
+ * a columnar ProductBatch.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+public class ParseBenchmark {
+
+    /** The number of data rows in the input file. */
+    @Param({"10000", "1000000", "10000000"})
+    public int rows;
+
+    private String inputFile;
+
+    /**
+     * Generates the input file, or reuses it from an earlier run.
+     * @throws IOException if the input file cannot be written.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        inputFile = BenchmarkData.products(rows).toString();
+    }
+
+    /**
+     * Parses the file with the line-based CSVReader.
+     * @param counter Counts the rows parsed.
+     * @return The parsed products.
+     * @throws IOException if the file cannot be read.
+     */
+    @Benchmark
+    public List<Product> csvReader(RowCounter counter) throws IOException {
+        CSVReader reader = new CSVReader(inputFile);
+        List<Product> products = reader.readProducts();
+        counter.rows += reader.getRowsRead();
+        return products;
+    }
+
+    /**
+     * Parses the file with the memory-mapped MappedCSVReader.
+     * @param counter Counts the rows parsed.
+     * @return The parsed products.
+     * @throws IOException if the file cannot be read.
+     */
+    @Benchmark
+    public List<Product> mappedReader(RowCounter counter) throws IOException {
+        MappedCSVReader reader = new MappedCSVReader(inputFile);
+        List<Product> products = reader.readProducts();
+        counter.rows += reader.getRowsRead();
+        return products;
+    }
+
+    /**
+     * Parses the file into a columnar batch with MappedCSVReader.
+     * @param counter Counts the rows parsed.
+     * @return The parsed batch.
+     * @throws IOException if the file cannot be read.
+     */
+    @Benchmark
+    public ProductBatch mappedBatch(RowCounter counter) throws IOException {
+        MappedCSVReader reader = new MappedCSVReader(inputFile);
+        ProductBatch batch = reader.readBatch();
+        counter.rows += reader.getRowsRead();
+        return batch;
+    }
+}
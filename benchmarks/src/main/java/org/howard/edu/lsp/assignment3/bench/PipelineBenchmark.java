@@ -0,0 +1,71 @@
+package org.howard.edu.lsp.assignment3.bench;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.howard.edu.lsp.assignment3.ETLPipeline;
+import org.howard.edu.lsp.assignment3.PipelineOptions;
+import org.howard.edu.lsp.assignment3.RunSummary;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures a whole {@link ETLPipeline} run, from the input file to the output
+ * file, in each run mode.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+public class PipelineBenchmark {
+
+    /** The number of data rows in the input file. */
+    @Param({"10000", "1000000", "10000000"})
+    public int rows;
+
+    /** The command line options of the run; "default" runs without options. */
+    @Param({"default", "--stream", "--stream --mmap --byte-writer", "--pipelined", "--pipelined --mmap --byte-writer",
+            "--columnar --byte-writer", "--parallel"})
+    public String options;
+
+    private String inputFile;
+    private String outputFile;
+    private PipelineOptions pipelineOptions;
+
+    /**
+     * Generates the input file, or reuses it from an earlier run, and parses the options.
+     * @throws IOException if a file cannot be created.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        inputFile = BenchmarkData.products(rows).toString();
+        outputFile = BenchmarkData.outputFile().toString();
+        String[] args = "default".equals(options) ? new String[0] : options.split(" ");
+        pipelineOptions = PipelineOptions.parse(args);
+    }
+
+    /**
+     * Runs the pipeline over the input file.
+     * @param counter Counts the rows read.
+     * @return The counters of the run.
+     * @throws IOException if a file cannot be read or written.
+     */
+    @Benchmark
+    public RunSummary run(RowCounter counter) throws IOException {
+        RunSummary summary = ETLPipeline.run(inputFile, outputFile, pipelineOptions);
+        counter.rows += summary.getRowsRead();
+        return summary;
+    }
+}
@@ -0,0 +1,27 @@
+package org.howard.edu.lsp.assignment3.bench;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Counts the rows a benchmark processes. JMH reports the counter next to the
+ * primary score as a secondary "rows" result, in rows per second.
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+public class RowCounter {
+
+    /** The number of rows processed in the current iteration. */
+    public long rows;
+
+    /**
+     * Resets the counter at the start of each iteration.
+     */
+    @Setup(Level.Iteration)
+    public void reset() {
+        rows = 0;
+    }
+}
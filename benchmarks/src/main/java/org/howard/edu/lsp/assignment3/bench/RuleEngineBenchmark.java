@@ -0,0 +1,157 @@
+package org.howard.edu.lsp.assignment3.bench;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.howard.edu.lsp.assignment3.CSVReader;
+import org.howard.edu.lsp.assignment3.CategoryDictionary;
+import org.howard.edu.lsp.assignment3.Product;
+import org.howard.edu.lsp.assignment3.ProductTransformer;
+import org.howard.edu.lsp.assignment3.TransformRules;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the rules compiled from {@link TransformRules} with the hand-written
+ * {@code if} chain that {@link ProductTransformer#transform(Product)} used
+ * before the rules became configurable. Both apply the default rules to the
+ * same parsed rows, so the compiled decision table should be at least as fast.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class RuleEngineBenchmark {
+
+    /** The number of data rows in the input file. */
+    @Param({"10000", "1000000"})
+    public int rows;
+
+    private List<Product> parsed;
+    private CategoryDictionary categories;
+    private HandWrittenTransformer handWritten;
+    private ProductTransformer compiled;
+    private List<Product> products;
+
+    /**
+     * Parses the input file once per trial.
+     * @throws IOException if the input file cannot be written or read.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        CSVReader reader = new CSVReader(BenchmarkData.products(rows).toString());
+        parsed = reader.readProducts();
+        categories = reader.getCategories();
+        handWritten = new HandWrittenTransformer(categories);
+        compiled = new ProductTransformer(categories, TransformRules.defaults());
+    }
+
+    /**
+     * Copies the parsed Products so that each invocation transforms untouched rows.
+     */
+    @Setup(Level.Invocation)
+    public void copy() {
+        products = new ArrayList<>(parsed.size());
+        for (Product product : parsed) {
+            products.add(new Product(product.getProductId(), product.getName(),
+                    product.getPrice(), product.getCategory()));
+        }
+    }
+
+    /**
+     * Applies the rules with the hand-written {@code if} chain.
+     * @param counter Counts the rows transformed.
+     * @return The transformed products.
+     */
+    @Benchmark
+    public List<Product> handWritten(RowCounter counter) {
+        for (Product product : products) {
+            handWritten.transform(product);
+        }
+        counter.rows += products.size();
+        return products;
+    }
+
+    /**
+     * Applies the rules through the compiled decision table.
+     * @param counter Counts the rows transformed.
+     * @return The transformed products.
+     */
+    @Benchmark
+    public List<Product> compiled(RowCounter counter) {
+        for (Product product : products) {
+            compiled.transform(product);
+        }
+        counter.rows += products.size();
+        return products;
+    }
+
+    /**
+     * The default rules as ProductTransformer hard-coded them, kept as the baseline.
+     */
+    static final class HandWrittenTransformer {
+        private static final BigDecimal ELECTRONICS_DISCOUNT_RATE = new BigDecimal("0.10");
+        private static final BigDecimal ELECTRONICS_PREMIUM_THRESHOLD = new BigDecimal("500.00");
+        private static final BigDecimal LOW_PRICE_THRESHOLD = new BigDecimal("10.00");
+        private static final BigDecimal MEDIUM_PRICE_THRESHOLD = new BigDecimal("100.00");
+        private static final BigDecimal HIGH_PRICE_THRESHOLD = new BigDecimal("500.00");
+
+        private final CategoryDictionary categories;
+        // Whether each category code is "Electronics", ignoring case, as the dictionary used to record it.
+        private boolean[] electronicsCodes = new boolean[0];
+
+        HandWrittenTransformer(CategoryDictionary categories) {
+            this.categories = categories;
+        }
+
+        private boolean isElectronics(int code) {
+            if (code >= electronicsCodes.length) {
+                electronicsCodes = new boolean[categories.size()];
+                for (int i = 0; i < electronicsCodes.length; i++) {
+                    electronicsCodes[i] = "Electronics".equalsIgnoreCase(categories.name(i));
+                }
+            }
+            return electronicsCodes[code];
+        }
+
+        Product transform(Product product) {
+            product.setName(product.getName().toUpperCase());
+            boolean electronics = isElectronics(categories.encode(product.getCategory()));
+            BigDecimal price = product.getPrice();
+            if (electronics) {
+                price = price.subtract(price.multiply(ELECTRONICS_DISCOUNT_RATE));
+            }
+            price = price.setScale(2, RoundingMode.HALF_UP);
+            product.setPrice(price);
+            if (electronics && price.compareTo(ELECTRONICS_PREMIUM_THRESHOLD) > 0) {
+                product.setCategory(categories.name(CategoryDictionary.PREMIUM_ELECTRONICS));
+            }
+            if (price.compareTo(LOW_PRICE_THRESHOLD) <= 0) {
+                product.setPriceRange("Low");
+            } else if (price.compareTo(MEDIUM_PRICE_THRESHOLD) <= 0) {
+                product.setPriceRange("Medium");
+            } else if (price.compareTo(HIGH_PRICE_THRESHOLD) <= 0) {
+                product.setPriceRange("High");
+            } else {
+                product.setPriceRange("Premium");
+            }
+            return product;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package org.howard.edu.lsp.assignment3.bench;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.howard.edu.lsp.assignment3.CSVReader;
+import org.howard.edu.lsp.assignment3.MappedCSVReader;
+import org.howard.edu.lsp.assignment3.Product;
+import org.howard.edu.lsp.assignment3.ProductBatch;
+import org.howard.edu.lsp.assignment3.ProductTransformer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the "Transform" stage on rows that are already parsed.
+ * Transforming changes the rows in place, so every invocation gets a fresh
+ * copy of the parsed rows; the copy is made outside the measured time.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+public class TransformBenchmark {
+
+    /** The number of data rows in the input file. */
+    @Param({"10000", "1000000", "10000000"})
+    public int rows;
+
+    private String inputFile;
+
+    /**
+     * Generates the input file, or reuses it from an earlier run.
+     * @throws IOException if the input file cannot be written.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        inputFile = BenchmarkData.products(rows).toString();
+    }
+
+    /**
+     * Untransformed Products, copied from the parsed file before each invocation.
+     */
+    @State(Scope.Thread)
+    public static class Products {
+        private List<Product> parsed;
+        private ProductTransformer transformer;
+        List<Product> products;
+
+        /**
+         * Parses the input file once per trial.
+         * @param benchmark The benchmark that owns the input file.
+         * @throws IOException if the file cannot be read.
+         */
+        @Setup(Level.Trial)
+        public void parse(TransformBenchmark benchmark) throws IOException {
+            CSVReader reader = new CSVReader(benchmark.inputFile);
+            parsed = reader.readProducts();
+            transformer = new ProductTransformer(reader.getCategories());
+        }
+
+        /**
+         * Copies the parsed Products so that each invocation transforms untouched rows.
+         */
+        @Setup(Level.Invocation)
+        public void copy() {
+            products = new ArrayList<>(parsed.size());
+            for (Product product : parsed) {
+                products.add(new Product(product.getProductId(), product.getName(),
+                        product.getPrice(), product.getCategory()));
+            }
+        }
+    }
+
+    /**
+     * An untransformed columnar batch, read again before each invocation.
+     */
+    @State(Scope.Thread)
+    public static class Batch {
+        private ProductTransformer transformer;
+        ProductBatch batch;
+
+        /**
+         * Reads the input file into a fresh batch.
+         * @param benchmark The benchmark that owns the input file.
+         * @throws IOException if the file cannot be read.
+         */
+        @Setup(Level.Invocation)
+        public void read(TransformBenchmark benchmark) throws IOException {
+            MappedCSVReader reader = new MappedCSVReader(benchmark.inputFile);
+            batch = reader.readBatch();
+            transformer = new ProductTransformer(reader.getCategories());
+        }
+    }
+
+    /**
+     * Transforms one Product at a time with {@link ProductTransformer#transform(Product)}.
+     * @param state The Products to transform.
+     * @param counter Counts the rows transformed.
+     * @return The transformed products.
+     */
+    @Benchmark
+    public List<Product> transform(Products state, RowCounter counter) {
+        for (Product product : state.products) {
+            state.transformer.transform(product);
+        }
+        counter.rows += state.products.size();
+        return state.products;
+    }
+
+    /**
+     * Transforms a columnar batch in place with {@link ProductTransformer#transformBatch(ProductBatch)}.
+     * @param state The batch to transform.
+     * @param counter Counts the rows transformed.
+     * @return The transformed batch.
+     */
+    @Benchmark
+    public ProductBatch transformBatch(Batch state, RowCounter counter) {
+        state.transformer.transformBatch(state.batch);
+        counter.rows += state.batch.size();
+        return state.batch;
+    }
+}
@@ -0,0 +1,131 @@
+package org.howard.edu.lsp.assignment3.bench;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.howard.edu.lsp.assignment3.ByteCSVWriter;
+import org.howard.edu.lsp.assignment3.CSVReader;
+import org.howard.edu.lsp.assignment3.CSVWriter;
+import org.howard.edu.lsp.assignment3.MappedCSVReader;
+import org.howard.edu.lsp.assignment3.Product;
+import org.howard.edu.lsp.assignment3.ProductBatch;
+import org.howard.edu.lsp.assignment3.ProductTransformer;
+import org.howard.edu.lsp.assignment3.ProductWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the "Load" stage: writing rows that are already parsed and
+ * transformed to the output CSV file.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = {"-Xms3g", "-Xmx3g"})
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+public class WriteBenchmark {
+
+    /** The number of data rows in the input file. */
+    @Param({"10000", "1000000", "10000000"})
+    public int rows;
+
+    /** The writer to measure: "csv" for CSVWriter or "byte" for ByteCSVWriter. */
+    @Param({"csv", "byte"})
+    public String writer;
+
+    private String inputFile;
+    private String outputFile;
+
+    /**
+     * Generates the input file, or reuses it from an earlier run.
+     * @throws IOException if a file cannot be created.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        inputFile = BenchmarkData.products(rows).toString();
+        outputFile = BenchmarkData.outputFile().toString();
+    }
+
+    /**
+     * Transformed Products, prepared once per trial.
+     */
+    @State(Scope.Benchmark)
+    public static class Products {
+        List<Product> products;
+
+        /**
+         * Parses and transforms the input file.
+         * @param benchmark The benchmark that owns the input file.
+         * @throws IOException if the file cannot be read.
+         */
+        @Setup(Level.Trial)
+        public void prepare(WriteBenchmark benchmark) throws IOException {
+            CSVReader reader = new CSVReader(benchmark.inputFile);
+            products = reader.readProducts();
+            ProductTransformer transformer = new ProductTransformer(reader.getCategories());
+            for (Product product : products) {
+                transformer.transform(product);
+            }
+        }
+    }
+
+    /**
+     * A transformed columnar batch, prepared once per trial.
+     */
+    @State(Scope.Benchmark)
+    public static class Batch {
+        ProductBatch batch;
+
+        /**
+         * Reads the input file into a batch and transforms it.
+         * @param benchmark The benchmark that owns the input file.
+         * @throws IOException if the file cannot be read.
+         */
+        @Setup(Level.Trial)
+        public void prepare(WriteBenchmark benchmark) throws IOException {
+            MappedCSVReader reader = new MappedCSVReader(benchmark.inputFile);
+            batch = reader.readBatch();
+            new ProductTransformer(reader.getCategories()).transformBatch(batch);
+        }
+    }
+
+    /**
+     * Writes a list of Products.
+     * @param state The Products to write.
+     * @param counter Counts the rows written.
+     * @throws IOException if the output file cannot be written.
+     */
+    @Benchmark
+    public void writeProducts(Products state, RowCounter counter) throws IOException {
+        newWriter().writeProducts(state.products);
+        counter.rows += state.products.size();
+    }
+
+    /**
+     * Writes a columnar batch straight from its columns.
+     * @param state The batch to write.
+     * @param counter Counts the rows written.
+     * @throws IOException if the output file cannot be written.
+     */
+    @Benchmark
+    public void writeBatch(Batch state, RowCounter counter) throws IOException {
+        newWriter().writeProducts(state.batch);
+        counter.rows += state.batch.size();
+    }
+
+    private ProductWriter newWriter() {
+        return "byte".equals(writer) ? new ByteCSVWriter(outputFile) : new CSVWriter(outputFile);
+    }
+}
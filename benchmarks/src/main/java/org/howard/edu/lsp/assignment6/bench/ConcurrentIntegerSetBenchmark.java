@@ -0,0 +1,119 @@
+package org.howard.edu.lsp.assignment6.bench;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.howard.edu.lsp.assignment6.ConcurrentIntegerSet;
+import org.howard.edu.lsp.assignment6.IntegerSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares a shared {@link ConcurrentIntegerSet} with a shared {@link IntegerSet}
+ * guarded by one global lock, on every available core. Each operation is a
+ * {@code contains} of a random value, or, for {@code writePercent} percent of
+ * them, an {@code add} or {@code remove}. Run with {@code -t} to vary the number
+ * of threads: the score of the global lock should stay flat while that of the
+ * concurrent set grows with the threads, up to the number of cores.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Threads(Threads.MAX)
+public class ConcurrentIntegerSetBenchmark {
+
+    /** The number of values in the set; lookups hit about half of them. */
+    private static final int SIZE = 1_000_000;
+
+    /** The percentage of operations that change the set. */
+    @Param({"0", "10"})
+    public int writePercent;
+
+    private IntegerSet locked;
+    private ConcurrentIntegerSet concurrent;
+
+    /**
+     * The random values of one thread.
+     */
+    @State(Scope.Thread)
+    public static class ThreadRandom {
+        SplittableRandom random;
+
+        /**
+         * Seeds each thread differently.
+         */
+        @Setup(Level.Trial)
+        public void setUp() {
+            random = new SplittableRandom(System.identityHashCode(Thread.currentThread()));
+        }
+    }
+
+    /**
+     * Fills both sets with the same values once per trial.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(25);
+        locked = new IntegerSet();
+        concurrent = new ConcurrentIntegerSet();
+        int[] values = new int[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            values[i] = random.nextInt(2 * SIZE);
+        }
+        locked.addAll(values);
+        concurrent.addAll(values);
+    }
+
+    /**
+     * @param thread The random values of the calling thread.
+     * @return Whether the value looked up was found.
+     */
+    @Benchmark
+    public boolean globalLock(ThreadRandom thread) {
+        int value = thread.random.nextInt(2 * SIZE);
+        boolean write = thread.random.nextInt(100) < writePercent;
+        synchronized (locked) {
+            if (!write) {
+                return locked.contains(value);
+            }
+            if ((value & 1) == 0) {
+                locked.add(value);
+            } else {
+                locked.remove(value);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * @param thread The random values of the calling thread.
+     * @return Whether the value looked up was found.
+     */
+    @Benchmark
+    public boolean concurrentSet(ThreadRandom thread) {
+        int value = thread.random.nextInt(2 * SIZE);
+        if (thread.random.nextInt(100) >= writePercent) {
+            return concurrent.contains(value);
+        }
+        if ((value & 1) == 0) {
+            concurrent.add(value);
+        } else {
+            concurrent.remove(value);
+        }
+        return true;
+    }
+}
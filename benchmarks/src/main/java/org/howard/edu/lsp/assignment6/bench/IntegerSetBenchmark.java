@@ -0,0 +1,114 @@
+package org.howard.edu.lsp.assignment6.bench;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.howard.edu.lsp.assignment6.IntegerSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the set operations between two dense {@link IntegerSet.Representation#ROARING
+ * ROARING} sets, each holding about half of the values below {@code universe}, so that
+ * every chunk is a bitmap and the operations run word by word. {@link Scalar} runs them
+ * on the plain loops and {@link Vector} forks with {@code --add-modules jdk.incubator.vector}
+ * so that they run on the Vector API; compare the two scores of each operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public abstract class IntegerSetBenchmark {
+
+    /** The bitmap operations on the plain loops. */
+    @Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+    public static class Scalar extends IntegerSetBenchmark {
+    }
+
+    /** The bitmap operations on the Vector API. */
+    @Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g", "--add-modules", "jdk.incubator.vector"})
+    public static class Vector extends IntegerSetBenchmark {
+    }
+
+    /** The values are drawn from 0 to {@code universe - 1}: 16 and 256 chunks. */
+    @Param({"1048576", "16777216"})
+    public int universe;
+
+    private IntegerSet first;
+    private IntegerSet second;
+    private IntegerSet target;
+
+    /**
+     * Fills the two sets once per trial.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(23);
+        first = new IntegerSet(IntegerSet.Representation.ROARING);
+        second = new IntegerSet(IntegerSet.Representation.ROARING);
+        for (int value = 0; value < universe; value++) {
+            if (random.nextBoolean()) {
+                first.add(value);
+            }
+            if (random.nextBoolean()) {
+                second.add(value);
+            }
+        }
+    }
+
+    /**
+     * Copies the first set so that each invocation changes an untouched set.
+     */
+    @Setup(Level.Invocation)
+    public void copy() {
+        target = new IntegerSet(IntegerSet.Representation.ROARING);
+        target.union(first);
+    }
+
+    /**
+     * @return The union of the two sets.
+     */
+    @Benchmark
+    public IntegerSet union() {
+        target.union(second);
+        return target;
+    }
+
+    /**
+     * @return The intersection of the two sets.
+     */
+    @Benchmark
+    public IntegerSet intersect() {
+        target.intersect(second);
+        return target;
+    }
+
+    /**
+     * @return The first set minus the second.
+     */
+    @Benchmark
+    public IntegerSet diff() {
+        target.diff(second);
+        return target;
+    }
+
+    /**
+     * @return The second set minus the first.
+     */
+    @Benchmark
+    public IntegerSet complement() {
+        target.complement(second);
+        return target;
+    }
+}
@@ -0,0 +1,292 @@
+package org.howard.edu.lsp.assignment3;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+
+/**
+ * A drop-in alternative to {@link CSVWriter} that encodes rows straight to bytes.
+ * Instead of formatting each row with {@code Product.toString()}, it appends
+ * the id digits, the name, the price digits and the cached bytes of the
+ * category and price range into one reusable ByteBuffer, and flushes that
+ * buffer through a FileChannel when it fills up. The output is byte-identical
+ * to {@link CSVWriter}, and a file named {@code *.gz} is compressed as it is written.
+ */
+public class ByteCSVWriter implements ProductWriter {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final byte[] HEADER = CsvFormat.OUTPUT_HEADER.getBytes(CsvFormat.CHARSET);
+    private static final byte[] LINE_SEPARATOR = CsvFormat.LINE_SEPARATOR.getBytes(CsvFormat.CHARSET);
+    private static final byte[] COMMA = ",".getBytes(CsvFormat.CHARSET);
+
+    private String filePath;
+    private WritableByteChannel channel;
+    private ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final byte[] digits = new byte[20];
+    // Caches the encoded bytes of every category written from a Product.
+    private final CategoryDictionary categories = new CategoryDictionary();
+
+    /**
+     * Constructs a ByteCSVWriter object with the specified file path.
+     * @param filePath The path to the output CSV file.
+     */
+    public ByteCSVWriter(String filePath) {
+        this.filePath = filePath;
+    }
+
+    /**
+     * Writes a list of Product objects to a CSV file.
+     * The output file will include a header row and the transformed data.
+     * @param products The list of Product objects to write.
+     * @throws IOException if an I/O error occurs while writing to the file.
+     */
+    @Override
+    public void writeProducts(List<Product> products) throws IOException {
+        open();
+        try {
+            // Write the transformed data.
+            for (Product product : products) {
+                writeProduct(product);
+            }
+        } finally {
+            close();
+        }
+    }
+
+    /**
+     * Writes a columnar batch of products to a CSV file.
+     * The output file will include a header row and the transformed data.
+     * @param batch The transformed batch to write.
+     * @throws IOException if an I/O error occurs while writing to the file.
+     */
+    @Override
+    public void writeProducts(ProductBatch batch) throws IOException {
+        open();
+        try {
+            writeBatch(batch);
+        } finally {
+            close();
+        }
+    }
+
+    /**
+     * Opens the output file and writes the header row.
+     * @throws IOException if an I/O error occurs while opening the file.
+     */
+    @Override
+    public void open() throws IOException {
+        channel = Channels.newChannel(CompressionCodec.forPath(filePath).openOutput(filePath));
+        buffer.clear();
+        // Write the header row.
+        put(HEADER);
+        put(LINE_SEPARATOR);
+    }
+
+    /**
+     * Writes a single Product as the next row of the open output file.
+     * @param product The Product object to write.
+     * @throws IOException if an I/O error occurs while writing to the file.
+     * @throws IllegalStateException if the writer has not been opened.
+     */
+    @Override
+    public void writeProduct(Product product) throws IOException {
+        checkOpen();
+        putInt(product.getProductId());
+        put(COMMA);
+        putString(product.getName());
+        put(COMMA);
+        putPrice(product.getPrice());
+        put(COMMA);
+        put(categories.bytes(categories.encode(product.getCategory())));
+        put(COMMA);
+        PriceRange range = PriceRange.fromLabel(product.getPriceRange());
+        if (range != null) {
+            put(range.getBytes());
+        } else {
+            // An untransformed Product has an empty price range. Like
+            // Product.toString(), write "null" only after setPriceRange(null).
+            putString(String.valueOf(product.getPriceRange()));
+        }
+        put(LINE_SEPARATOR);
+    }
+
+    /**
+     * Writes every row of a columnar batch to the open output file, straight
+     * from the batch's columns.
+     * @param batch The transformed batch to write.
+     * @throws IOException if an I/O error occurs while writing to the file.
+     * @throws IllegalStateException if the writer has not been opened.
+     */
+    @Override
+    public void writeBatch(ProductBatch batch) throws IOException {
+        checkOpen();
+        CategoryDictionary batchCategories = batch.categories();
+        for (int i = 0; i < batch.size; i++) {
+            putInt(batch.ids[i]);
+            put(COMMA);
+            putName(batch, i);
+            put(COMMA);
+            if (batch.priceScales[i] == 2) {
+                putCents(batch.prices[i]);
+            } else {
+                putPrice(batch.getPrice(i));
+            }
+            put(COMMA);
+            put(batchCategories.bytes(batch.categoryCodes[i]));
+            put(COMMA);
+            byte range = batch.priceRanges[i];
+            if (range != ProductBatch.NO_PRICE_RANGE) {
+                put(PriceRange.fromOrdinal(range).getBytes());
+            }
+            put(LINE_SEPARATOR);
+        }
+    }
+
+    /**
+     * Checks whether the output file is currently open for writing.
+     * @return true if {@link #open()} has been called and the writer is not yet closed.
+     */
+    @Override
+    public boolean isOpen() {
+        return channel != null;
+    }
+
+    /**
+     * Flushes and closes the output file. Does nothing if the writer is not open.
+     * @throws IOException if an I/O error occurs while closing the file.
+     */
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            try {
+                flush();
+            } finally {
+                channel.close();
+                channel = null;
+            }
+        }
+    }
+
+    private void checkOpen() {
+        if (channel == null) {
+            throw new IllegalStateException("ByteCSVWriter is not open");
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /** Makes room for at least {@code length} more bytes in the buffer. */
+    private void ensureRemaining(int length) throws IOException {
+        if (buffer.remaining() < length) {
+            flush();
+            if (buffer.capacity() < length) {
+                buffer = ByteBuffer.allocate(length);
+            }
+        }
+    }
+
+    private void put(byte[] bytes) throws IOException {
+        ensureRemaining(bytes.length);
+        buffer.put(bytes);
+    }
+
+    /** Appends the decimal digits of an int, like {@code Integer.toString}. */
+    private void putInt(int value) throws IOException {
+        putLong(value);
+    }
+
+    private void putLong(long value) throws IOException {
+        if (!CsvFormat.ASCII_COMPATIBLE) {
+            put(Long.toString(value).getBytes(CsvFormat.CHARSET));
+            return;
+        }
+        int position = digits.length;
+        // Work with the negative value so Long.MIN_VALUE does not overflow.
+        long remaining = value < 0 ? value : -value;
+        do {
+            digits[--position] = (byte) ('0' - remaining % 10);
+            remaining /= 10;
+        } while (remaining != 0);
+        if (value < 0) {
+            digits[--position] = '-';
+        }
+        ensureRemaining(digits.length - position);
+        buffer.put(digits, position, digits.length - position);
+    }
+
+    /** Appends a price in cents in the form of {@code BigDecimal.toPlainString()} with scale 2. */
+    private void putCents(long cents) throws IOException {
+        if (!CsvFormat.ASCII_COMPATIBLE) {
+            put(BigDecimal.valueOf(cents, 2).toPlainString().getBytes(CsvFormat.CHARSET));
+            return;
+        }
+        long whole = cents / 100;
+        int fraction = (int) Math.abs(cents % 100);
+        if (cents < 0 && whole == 0) {
+            // "-0.05": the sign is not carried by the whole part.
+            ensureRemaining(1);
+            buffer.put((byte) '-');
+        }
+        putLong(whole);
+        ensureRemaining(3);
+        buffer.put((byte) '.');
+        buffer.put((byte) ('0' + fraction / 10));
+        buffer.put((byte) ('0' + fraction % 10));
+    }
+
+    private void putPrice(BigDecimal price) throws IOException {
+        if (price.scale() == 2 && price.unscaledValue().bitLength() < Long.SIZE) {
+            putCents(price.unscaledValue().longValue());
+        } else {
+            putString(price.toPlainString());
+        }
+    }
+
+    /** Appends a String, copying ASCII characters straight into the buffer. */
+    private void putString(String value) throws IOException {
+        int length = value.length();
+        if (CsvFormat.ASCII_COMPATIBLE) {
+            ensureRemaining(length);
+            int start = buffer.position();
+            for (int i = 0; i < length; i++) {
+                char c = value.charAt(i);
+                if (c >= 0x80) {
+                    // Not plain ASCII; let the charset encode the whole value.
+                    buffer.position(start);
+                    put(value.getBytes(CsvFormat.CHARSET));
+                    return;
+                }
+                buffer.put((byte) c);
+            }
+            return;
+        }
+        put(value.getBytes(CsvFormat.CHARSET));
+    }
+
+    /** Appends the name of a batch row from the batch's UTF-8 name arena. */
+    private void putName(ProductBatch batch, int row) throws IOException {
+        byte[] arena = batch.nameArena;
+        int start = batch.nameOffsets[row];
+        int length = batch.nameLengths[row];
+        boolean ascii = CsvFormat.ASCII_COMPATIBLE;
+        for (int i = start; i < start + length && ascii; i++) {
+            ascii = arena[i] >= 0;
+        }
+        if (ascii) {
+            ensureRemaining(length);
+            buffer.put(arena, start, length);
+        } else {
+            putString(batch.getName(row));
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package org.howard.edu.lsp.assignment3;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * JUnit 5 test class for {@link ByteCSVWriter}. Every file is checked
+ * byte for byte against the one {@link CSVWriter} writes.
+ */
+public class ByteCSVWriterTest {
+
+    /** Prices with 0, 1 and 2 decimals and more, negative, and too large for a long of cents. */
+    private static final String[] PRICES = {
+        "0", "7", "120", "0.1", "12.5", "0.00", "0.05", "19.99", "-0.05", "-1.05", "1.234", "1E+3",
+        "92233720368547758.07", "92233720368547758.08", "123456789012345678901.25",
+    };
+
+    /** Plain ASCII names and categories, and ones that the charset has to encode. */
+    private static final String[][] NAMES_AND_CATEGORIES = {
+        {"Laptop", "Electronics"},
+        {"Café crème", "Épicerie"},
+        {"日本茶", "飲み物"},
+        {"Chair ü", "Furniture"},
+        {"", "Toys"},
+    };
+
+    @TempDir
+    Path directory;
+
+    private List<Product> products;
+
+    /**
+     * Builds every combination of the prices, names and categories, once
+     * transformed and once with a price range set by hand, and repeats them
+     * so that the output is several times larger than the writer's buffer.
+     */
+    @BeforeEach
+    void setUp() {
+        ProductTransformer transformer = new ProductTransformer();
+        products = new ArrayList<>();
+        int id = Integer.MIN_VALUE;
+        for (int copy = 0; copy < 500; copy++) {
+            for (String price : PRICES) {
+                for (String[] nameAndCategory : NAMES_AND_CATEGORIES) {
+                    Product product = new Product(id++, nameAndCategory[0], new BigDecimal(price),
+                            nameAndCategory[1]);
+                    if (copy % 2 == 0) {
+                        products.add(transformer.transform(product));
+                    } else {
+                        product.setPriceRange("Low");
+                        products.add(product);
+                    }
+                }
+            }
+            id += 1_000_000;
+        }
+        products.add(new Product(Integer.MAX_VALUE, "Last", new BigDecimal("9.99"), "Toys"));
+    }
+
+    /**
+     * Tests Products written in one call and one at a time, including one
+     * that has not been given a price range.
+     */
+    @Test
+    @DisplayName("Test Products match CSVWriter")
+    void testProductsMatchCSVWriter() throws IOException {
+        Path expected = directory.resolve("expected.csv");
+        Path actual = directory.resolve("actual.csv");
+        new CSVWriter(expected.toString()).writeProducts(products);
+        new ByteCSVWriter(actual.toString()).writeProducts(products);
+        assertArrayEquals(Files.readAllBytes(expected), Files.readAllBytes(actual));
+
+        ByteCSVWriter writer = new ByteCSVWriter(actual.toString());
+        writer.open();
+        for (Product product : products) {
+            writer.writeProduct(product);
+        }
+        writer.close();
+        assertArrayEquals(Files.readAllBytes(expected), Files.readAllBytes(actual));
+    }
+
+    /**
+     * Tests batches, with the prices held as cents, at other scales and as
+     * BigDecimals, before and after they are given price ranges.
+     */
+    @Test
+    @DisplayName("Test batches match CSVWriter")
+    void testBatchesMatchCSVWriter() throws IOException {
+        ProductBatch transformed = new ProductBatch();
+        ProductBatch untransformed = new ProductBatch();
+        for (Product product : products) {
+            transformed.add(product);
+            untransformed.add(new Product(product.getProductId(), product.getName(), product.getPrice(),
+                    product.getCategory()));
+        }
+        for (ProductBatch batch : new ProductBatch[] {transformed, untransformed}) {
+            Path expected = directory.resolve("expected.csv");
+            Path actual = directory.resolve("actual.csv");
+            new CSVWriter(expected.toString()).writeProducts(batch);
+            new ByteCSVWriter(actual.toString()).writeProducts(batch);
+            assertArrayEquals(Files.readAllBytes(expected), Files.readAllBytes(actual));
+        }
+    }
+}
@@ -2,8 +2,8 @@ package org.howard.edu.lsp.assignment3;
 
 import java.io.BufferedReader;
 import java.io.FileNotFoundException;
-import java.io.FileReader;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
@@ -11,12 +11,15 @@ import java.util.List;
 /**
  * A service class for the "Extract" part of the ETL process.
  * It is responsible for reading and parsing data from a CSV file.
+ * A file named {@code *.gz} is decompressed as it is read.
  */
-public class CSVReader {
+public class CSVReader implements ProductReader {
 
     private String filePath;
     private int rowsRead = 0;
     private int rowsSkipped = 0;
+    private RejectedRowHandler rejectedRows = RejectedRowHandler.PRINT;
+    private final CategoryDictionary categories = new CategoryDictionary();
 
     /**
      * Constructs a CSVReader object with the specified file path.
@@ -32,46 +35,135 @@ public class CSVReader {
      * @throws FileNotFoundException if the input file does not exist.
      * @throws IOException if an I/O error occurs while reading the file.
      */
+    @Override
     public List<Product> readProducts() throws FileNotFoundException, IOException {
         List<Product> products = new ArrayList<>();
-        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
+        streamProducts(products::add);
+        return products;
+    }
+
+    /**
+     * Reads and parses product data from the CSV file, passing each product
+     * to the handler as soon as its row is parsed. Only one row is held in
+     * memory at a time, no matter how large the file is.
+     * @param handler The handler that receives each parsed Product.
+     * @throws FileNotFoundException if the input file does not exist.
+     * @throws IOException if an I/O error occurs while reading the file or in the handler.
+     */
+    @Override
+    public void streamProducts(ProductHandler handler) throws FileNotFoundException, IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                CompressionCodec.forPath(filePath).openInput(filePath), CsvFormat.CHARSET))) {
             // Read and discard the header row.
             String headerLine = reader.readLine();
             if (headerLine == null) {
                 // Handle empty file case
-                return products;
+                return;
             }
 
-            String line;
-            while ((line = reader.readLine()) != null) {
-                rowsRead++;
-                // Skip empty lines to avoid parsing errors.
-                if (line.trim().isEmpty()) {
-                    rowsSkipped++;
-                    continue;
-                }
-
-                try {
-                    String[] columns = line.split(",");
-                    int productId = Integer.parseInt(columns[0].trim());
-                    String name = columns[1].trim();
-                    BigDecimal price = new BigDecimal(columns[2].trim());
-                    String category = columns[3].trim();
-
-                    products.add(new Product(productId, name, price, category));
-                } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
-                    System.err.println("Skipping malformed row: " + line);
-                    rowsSkipped++;
-                }
+            readRows(reader, handler);
+        }
+    }
+
+    /**
+     * Parses data rows from an already positioned reader until it is exhausted.
+     * The header row must already have been consumed. Rows read and skipped are
+     * added to this reader's counters, which lets a chunk of a larger file be
+     * parsed on its own.
+     * @param reader The reader positioned at the start of a data row.
+     * @param handler The handler that receives each parsed Product.
+     * @throws IOException if an I/O error occurs while reading or in the handler.
+     */
+    void readRows(BufferedReader reader, ProductHandler handler) throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            Product product = parseRow(line);
+            if (product != null) {
+                handler.handle(product);
             }
         }
-        return products;
+    }
+
+    /**
+     * Parses one data row and counts it as read. Empty and malformed rows are
+     * counted as skipped, and malformed rows are passed to the rejected row handler.
+     * @param line The data row, without its line terminator.
+     * @return The parsed Product, or null if the row was skipped.
+     * @throws IOException if the rejected row handler fails.
+     */
+    Product parseRow(String line) throws IOException {
+        // The header is line 1.
+        return parseRow(line, rowsRead + 2);
+    }
+
+    /**
+     * Parses one data row and counts it as read, for a caller that tracks the
+     * line numbers of the file itself.
+     * @param line The data row, without its line terminator.
+     * @param lineNumber The line number of the row in the file, given to the rejected row handler.
+     * @return The parsed Product, or null if the row was skipped.
+     * @throws IOException if the rejected row handler fails.
+     */
+    Product parseRow(String line, long lineNumber) throws IOException {
+        rowsRead++;
+        // Skip empty lines to avoid parsing errors.
+        if (line.trim().isEmpty()) {
+            rowsSkipped++;
+            return null;
+        }
+
+        String[] columns = line.split(",");
+        if (columns.length < 4) {
+            return reject(line, lineNumber, RejectedRowHandler.MISSING_COLUMNS);
+        }
+        int productId;
+        try {
+            productId = Integer.parseInt(columns[0].trim());
+        } catch (NumberFormatException e) {
+            return reject(line, lineNumber, RejectedRowHandler.INVALID_PRODUCT_ID);
+        }
+        String name = columns[1].trim();
+        BigDecimal price;
+        try {
+            price = new BigDecimal(columns[2].trim());
+        } catch (NumberFormatException e) {
+            return reject(line, lineNumber, RejectedRowHandler.INVALID_PRICE);
+        }
+        // Share one String per distinct category instead of keeping one per row.
+        String category = categories.name(categories.encode(columns[3].trim()));
+
+        return new Product(productId, name, price, category);
+    }
+
+    private Product reject(String line, long lineNumber, String reason) throws IOException {
+        rowsSkipped++;
+        rejectedRows.reject(lineNumber, line, reason);
+        return null;
+    }
+
+    /**
+     * Sets the handler that receives each malformed row. By default each row
+     * is printed to standard error.
+     * @param rejectedRows The rejected row handler.
+     */
+    void setRejectedRowHandler(RejectedRowHandler rejectedRows) {
+        this.rejectedRows = rejectedRows;
+    }
+
+    /**
+     * Gets the dictionary of the categories read so far.
+     * @return The category dictionary.
+     */
+    @Override
+    public CategoryDictionary getCategories() {
+        return categories;
     }
 
     /**
      * Gets the number of data rows read from the file.
      * @return The total number of rows (excluding header) read.
      */
+    @Override
     public int getRowsRead() {
         return rowsRead;
     }
@@ -80,6 +172,7 @@ public class CSVReader {
      * Gets the number of malformed or empty rows skipped during reading.
      * @return The total number of rows skipped.
      */
+    @Override
     public int getRowsSkipped() {
         return rowsSkipped;
     }
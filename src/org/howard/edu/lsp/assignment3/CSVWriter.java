@@ -1,17 +1,22 @@
 package org.howard.edu.lsp.assignment3;
 
 import java.io.BufferedWriter;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
 import java.util.List;
 
 /**
  * A service class for the "Load" part of the ETL process.
  * It is responsible for writing a list of Product objects to a CSV file.
+ * Products can also be written one at a time by calling {@link #open()},
+ * {@link #writeProduct(Product)} for each row, and {@link #close()}.
+ * A file named {@code *.gz} is compressed as it is written.
  */
-public class CSVWriter {
+public class CSVWriter implements ProductWriter {
 
     private String filePath;
+    private BufferedWriter writer;
+    private final StringBuilder row = new StringBuilder(128);
 
     /**
      * Constructs a CSVWriter object with the specified file path.
@@ -27,17 +32,129 @@ public class CSVWriter {
      * @param products The list of Product objects to write.
      * @throws IOException if an I/O error occurs while writing to the file.
      */
+    @Override
     public void writeProducts(List<Product> products) throws IOException {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath))) {
-            // Write the header row.
-            writer.write("ProductID,Name,Price,Category,PriceRange");
-            writer.newLine();
-
+        open();
+        try {
             // Write the transformed data.
             for (Product product : products) {
-                writer.write(product.toString());
-                writer.newLine();
+                writeProduct(product);
+            }
+        } finally {
+            close();
+        }
+    }
+
+    /**
+     * Writes a columnar batch of products to a CSV file.
+     * The output file will include a header row and the transformed data.
+     * @param batch The transformed batch to write.
+     * @throws IOException if an I/O error occurs while writing to the file.
+     */
+    @Override
+    public void writeProducts(ProductBatch batch) throws IOException {
+        open();
+        try {
+            writeBatch(batch);
+        } finally {
+            close();
+        }
+    }
+
+    /**
+     * Opens the output file and writes the header row.
+     * @throws IOException if an I/O error occurs while opening the file.
+     */
+    @Override
+    public void open() throws IOException {
+        writer = new BufferedWriter(new OutputStreamWriter(
+                CompressionCodec.forPath(filePath).openOutput(filePath), CsvFormat.CHARSET));
+        // Write the header row.
+        writer.write(CsvFormat.OUTPUT_HEADER);
+        writer.newLine();
+    }
+
+    /**
+     * Writes a single Product as the next row of the open output file.
+     * @param product The Product object to write.
+     * @throws IOException if an I/O error occurs while writing to the file.
+     * @throws IllegalStateException if the writer has not been opened.
+     */
+    @Override
+    public void writeProduct(Product product) throws IOException {
+        if (writer == null) {
+            throw new IllegalStateException("CSVWriter is not open");
+        }
+        writer.write(product.toString());
+        writer.newLine();
+    }
+
+    /**
+     * Writes every row of a columnar batch to the open output file.
+     * Each row is built straight from the batch's columns, in the same format as
+     * {@link Product#toString()}, without creating a Product for it.
+     * @param batch The transformed batch to write.
+     * @throws IOException if an I/O error occurs while writing to the file.
+     * @throws IllegalStateException if the writer has not been opened.
+     */
+    @Override
+    public void writeBatch(ProductBatch batch) throws IOException {
+        if (writer == null) {
+            throw new IllegalStateException("CSVWriter is not open");
+        }
+        byte[] arena = batch.nameArena;
+        for (int i = 0; i < batch.size; i++) {
+            row.setLength(0);
+            row.append(batch.ids[i]).append(',');
+
+            int nameStart = batch.nameOffsets[i];
+            int nameEnd = nameStart + batch.nameLengths[i];
+            boolean ascii = true;
+            for (int j = nameStart; j < nameEnd && ascii; j++) {
+                ascii = arena[j] >= 0;
+            }
+            if (ascii) {
+                for (int j = nameStart; j < nameEnd; j++) {
+                    row.append((char) arena[j]);
+                }
+            } else {
+                row.append(batch.getName(i));
+            }
+            row.append(',');
+
+            if (batch.priceScales[i] == 2) {
+                PriceCents.appendTo(row, batch.prices[i]);
+            } else {
+                row.append(batch.getPrice(i).toPlainString());
+            }
+            row.append(',').append(batch.getCategory(i)).append(',').append(batch.getPriceRange(i));
+
+            writer.append(row);
+            writer.newLine();
+        }
+    }
+
+    /**
+     * Checks whether the output file is currently open for writing.
+     * @return true if {@link #open()} has been called and the writer is not yet closed.
+     */
+    @Override
+    public boolean isOpen() {
+        return writer != null;
+    }
+
+    /**
+     * Flushes and closes the output file. Does nothing if the writer is not open.
+     * @throws IOException if an I/O error occurs while closing the file.
+     */
+    @Override
+    public void close() throws IOException {
+        if (writer != null) {
+            try {
+                writer.close();
+            } finally {
+                writer = null;
             }
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,167 @@
+package org.howard.edu.lsp.assignment3;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps each distinct category to a small int code.
+ * There are only a handful of categories, so the String for each one is
+ * created once per run and every row refers to it by code. The transform
+ * rules compare codes instead of Strings, and the writers reuse the encoded
+ * bytes of each category instead of encoding it again for every row.
+ *
+ * A dictionary is not thread-safe; each reader, transformer or batch that is
+ * used on its own thread should have its own.
+ */
+public class CategoryDictionary {
+
+    /** The code of "Electronics", which is always registered first. */
+    public static final int ELECTRONICS = 0;
+
+    /** The code of "Premium Electronics", which is always registered second. */
+    public static final int PREMIUM_ELECTRONICS = 1;
+
+    private final List<String> names = new ArrayList<>();
+    private final List<byte[]> encodedNames = new ArrayList<>();
+    private final Map<String, Integer> codesByName = new HashMap<>();
+
+    // Open-addressing table from the raw bytes of a category to its code.
+    // A slot holds code + 1, or 0 when empty.
+    private int[] byteSlots = new int[16];
+    private byte[][] byteKeys = new byte[16][];
+    private int byteKeyCount = 0;
+
+    /**
+     * Constructs a CategoryDictionary holding "Electronics" and "Premium Electronics".
+     */
+    public CategoryDictionary() {
+        encode("Electronics");
+        encode("Premium Electronics");
+    }
+
+    /**
+     * Gets the code of a category, adding it to the dictionary if it is new.
+     * @param category The category.
+     * @return The category code.
+     */
+    public int encode(String category) {
+        Integer code = codesByName.get(category);
+        if (code != null) {
+            return code;
+        }
+        int newCode = names.size();
+        names.add(category);
+        encodedNames.add(category.getBytes(CsvFormat.CHARSET));
+        codesByName.put(category, newCode);
+        return newCode;
+    }
+
+    /**
+     * Gets the code of a category held as bytes in the input character set.
+     * A category that has been seen before is found without creating any objects.
+     * @param buffer The buffer holding the category.
+     * @param start The index of the first byte of the category.
+     * @param end The index just past the last byte of the category.
+     * @return The category code.
+     */
+    public int encode(ByteBuffer buffer, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + buffer.get(i);
+        }
+        int mask = byteSlots.length - 1;
+        int slot = mix(hash) & mask;
+        while (byteSlots[slot] != 0) {
+            if (matches(byteKeys[slot], buffer, start, end)) {
+                return byteSlots[slot] - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        // A new spelling: decode it once and share the code of an equal String.
+        byte[] key = new byte[end - start];
+        buffer.get(start, key, 0, key.length);
+        int code = encode(new String(key, CsvFormat.CHARSET));
+        byteKeys[slot] = key;
+        byteSlots[slot] = code + 1;
+        if (++byteKeyCount * 2 > byteSlots.length) {
+            rehash();
+        }
+        return code;
+    }
+
+    /**
+     * Gets the category with the given code.
+     * @param code The category code.
+     * @return The category, shared by every row with this code.
+     * @throws IndexOutOfBoundsException if no category has this code.
+     */
+    public String name(int code) {
+        return names.get(code);
+    }
+
+    /**
+     * Gets the category with the given code, encoded in the output character set.
+     * The returned array is shared and must not be modified.
+     * @param code The category code.
+     * @return The encoded category.
+     * @throws IndexOutOfBoundsException if no category has this code.
+     */
+    public byte[] bytes(int code) {
+        return encodedNames.get(code);
+    }
+
+    /**
+     * Gets the number of distinct categories.
+     * @return The number of codes in use.
+     */
+    public int size() {
+        return names.size();
+    }
+
+    private static boolean matches(byte[] key, ByteBuffer buffer, int start, int end) {
+        if (key.length != end - start) {
+            return false;
+        }
+        for (int i = 0; i < key.length; i++) {
+            if (key[i] != buffer.get(start + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Hashes a key the same way {@link #encode(ByteBuffer, int, int)} hashes the buffer. */
+    private static int hash(byte[] key) {
+        int hash = 0;
+        for (byte b : key) {
+            hash = 31 * hash + b;
+        }
+        return hash;
+    }
+
+    private static int mix(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private void rehash() {
+        int[] oldSlots = byteSlots;
+        byte[][] oldKeys = byteKeys;
+        byteSlots = new int[oldSlots.length * 2];
+        byteKeys = new byte[oldSlots.length * 2][];
+        int mask = byteSlots.length - 1;
+        for (int i = 0; i < oldSlots.length; i++) {
+            if (oldSlots[i] != 0) {
+                int slot = mix(hash(oldKeys[i])) & mask;
+                while (byteSlots[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                byteSlots[slot] = oldSlots[i];
+                byteKeys[slot] = oldKeys[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package org.howard.edu.lsp.assignment3;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit 5 test class for {@link CategoryDictionary}.
+ */
+public class CategoryDictionaryTest {
+
+    /**
+     * Tests that the Electronics categories come first, that each new
+     * category gets the next code, and that a category seen again, as a
+     * String or as bytes, gets its old code back.
+     */
+    @Test
+    @DisplayName("Test code assignment")
+    void testCodeAssignment() {
+        CategoryDictionary categories = new CategoryDictionary();
+        assertEquals(2, categories.size());
+        assertEquals("Electronics", categories.name(CategoryDictionary.ELECTRONICS));
+        assertEquals("Premium Electronics", categories.name(CategoryDictionary.PREMIUM_ELECTRONICS));
+        assertEquals(CategoryDictionary.ELECTRONICS, categories.encode("Electronics"));
+
+        assertEquals(2, categories.encode("Toys"));
+        assertEquals(3, categories.encode(bytes("Books"), 1, 6));
+        assertEquals(2, categories.encode(bytes("Toys"), 1, 5));
+        assertEquals(3, categories.encode("Books"));
+        // Codes are case-sensitive.
+        assertEquals(4, categories.encode("ELECTRONICS"));
+        assertEquals(5, categories.size());
+
+        // Every row with a code shares one String and one encoded array.
+        assertSame(categories.name(3), categories.name(categories.encode(new String("Books"))));
+        assertArrayEquals("Books".getBytes(CsvFormat.CHARSET), categories.bytes(3));
+        assertSame(categories.bytes(3), categories.bytes(3));
+    }
+
+    /**
+     * Tests that codes stay the same as the dictionary grows past its
+     * initial capacity and its byte table is rehashed.
+     */
+    @Test
+    @DisplayName("Test growth keeps codes")
+    void testGrowth() {
+        CategoryDictionary categories = new CategoryDictionary();
+        for (int i = 0; i < 200; i++) {
+            ByteBuffer buffer = bytes("Category " + i);
+            assertEquals(i + 2, categories.encode(buffer, 1, buffer.limit() - 1));
+        }
+        for (int i = 0; i < 200; i++) {
+            ByteBuffer buffer = bytes("Category " + i);
+            assertEquals(i + 2, categories.encode(buffer, 1, buffer.limit() - 1));
+            assertEquals(i + 2, categories.encode("Category " + i));
+            assertEquals("Category " + i, categories.name(i + 2));
+        }
+        assertEquals(202, categories.size());
+    }
+
+    /**
+     * Tests that every lookup of a code that has not been assigned fails.
+     */
+    @Test
+    @DisplayName("Test unknown codes")
+    void testUnknownCode() {
+        CategoryDictionary categories = new CategoryDictionary();
+        categories.encode("Toys");
+        for (int code : new int[] {-1, 3, 7, 100}) {
+            assertThrows(IndexOutOfBoundsException.class, () -> categories.name(code));
+            assertThrows(IndexOutOfBoundsException.class, () -> categories.bytes(code));
+        }
+        assertEquals(3, categories.size());
+    }
+
+    /**
+     * Wraps a category in a buffer with one byte of padding on each side, so
+     * that the range passed to the dictionary does not start at zero.
+     */
+    private static ByteBuffer bytes(String category) {
+        return ByteBuffer.wrap((" " + category + " ").getBytes(CsvFormat.CHARSET));
+    }
+}
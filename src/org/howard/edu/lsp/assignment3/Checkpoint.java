@@ -0,0 +1,154 @@
+package org.howard.edu.lsp.assignment3;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * The progress of a checkpointed ETL run at a row boundary.
+ * It records how far the input has been read, how much of the partial output
+ * file is known to be complete, and the row counters up to that point, so a
+ * later run can pick up from there. It also records the size and modification
+ * time of the input file and the fingerprint of the transformation rules, so a
+ * checkpoint is never applied to a different input or under different rules.
+ */
+class Checkpoint {
+
+    private static final int MAGIC = 0x43484B50; // "CHKP"
+    private static final int VERSION = 2;
+
+    private final long inputSize;
+    private final long inputModified;
+    private final long rulesFingerprint;
+    private final long inputOffset;
+    private final long outputPosition;
+    private final int rowsRead;
+    private final int rowsSkipped;
+    private final int rowsTransformed;
+
+    /**
+     * Constructs a Checkpoint.
+     * @param inputSize The size of the input file in bytes.
+     * @param inputModified The modification time of the input file in milliseconds.
+     * @param rulesFingerprint The {@link TransformRules#fingerprint() fingerprint} of the rules.
+     * @param inputOffset The offset of the first input row that has not been processed.
+     * @param outputPosition The length of the partial output file written so far.
+     * @param rowsRead The number of data rows read so far.
+     * @param rowsSkipped The number of rows skipped so far.
+     * @param rowsTransformed The number of rows transformed and written so far.
+     */
+    Checkpoint(long inputSize, long inputModified, long rulesFingerprint, long inputOffset, long outputPosition,
+            int rowsRead, int rowsSkipped, int rowsTransformed) {
+        this.inputSize = inputSize;
+        this.inputModified = inputModified;
+        this.rulesFingerprint = rulesFingerprint;
+        this.inputOffset = inputOffset;
+        this.outputPosition = outputPosition;
+        this.rowsRead = rowsRead;
+        this.rowsSkipped = rowsSkipped;
+        this.rowsTransformed = rowsTransformed;
+    }
+
+    /**
+     * Checks whether the checkpoint was taken over the given input file and rules.
+     * @param size The current size of the input file in bytes.
+     * @param modified The current modification time of the input file in milliseconds.
+     * @param rules The rules of the current run.
+     * @return true if neither the input file nor the rules have changed since the checkpoint was taken.
+     */
+    boolean matches(long size, long modified, TransformRules rules) {
+        return inputSize == size && inputModified == modified && rulesFingerprint == rules.fingerprint();
+    }
+
+    /**
+     * Gets the input offset to continue reading from.
+     * @return The offset of the first input row that has not been processed.
+     */
+    long getInputOffset() {
+        return inputOffset;
+    }
+
+    /**
+     * Gets the length of the complete part of the partial output file.
+     * @return The output position in bytes.
+     */
+    long getOutputPosition() {
+        return outputPosition;
+    }
+
+    /**
+     * Gets the number of data rows read before the checkpoint.
+     * @return The number of rows read.
+     */
+    int getRowsRead() {
+        return rowsRead;
+    }
+
+    /**
+     * Gets the number of rows skipped before the checkpoint.
+     * @return The number of rows skipped.
+     */
+    int getRowsSkipped() {
+        return rowsSkipped;
+    }
+
+    /**
+     * Gets the number of rows written before the checkpoint.
+     * @return The number of rows transformed and written.
+     */
+    int getRowsTransformed() {
+        return rowsTransformed;
+    }
+
+    /**
+     * Writes the checkpoint to a file and forces it to the storage device.
+     * @param filePath The path of the checkpoint file.
+     * @throws IOException if an I/O error occurs while writing the file.
+     */
+    void save(String filePath) throws IOException {
+        try (FileOutputStream file = new FileOutputStream(filePath);
+                DataOutputStream out = new DataOutputStream(file)) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(CsvFormat.CHARSET.name());
+            out.writeUTF(CsvFormat.LINE_SEPARATOR);
+            out.writeLong(inputSize);
+            out.writeLong(inputModified);
+            out.writeLong(rulesFingerprint);
+            out.writeLong(inputOffset);
+            out.writeLong(outputPosition);
+            out.writeInt(rowsRead);
+            out.writeInt(rowsSkipped);
+            out.writeInt(rowsTransformed);
+            out.flush();
+            file.getFD().sync();
+        }
+    }
+
+    /**
+     * Reads a checkpoint written by {@link #save(String)}.
+     * @param filePath The path of the checkpoint file.
+     * @return The checkpoint, or null if it was written for a different version,
+     *         output character set or line separator.
+     * @throws IOException if an I/O error occurs or the file is not a checkpoint.
+     */
+    static Checkpoint load(String filePath) throws IOException {
+        try (DataInputStream in = new DataInputStream(new FileInputStream(filePath))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a checkpoint: " + filePath);
+            }
+            if (in.readInt() != VERSION
+                    || !in.readUTF().equals(CsvFormat.CHARSET.name())
+                    || !in.readUTF().equals(CsvFormat.LINE_SEPARATOR)) {
+                return null;
+            }
+            return new Checkpoint(in.readLong(), in.readLong(), in.readLong(), in.readLong(), in.readLong(),
+                    in.readInt(), in.readInt(), in.readInt());
+        } catch (EOFException e) {
+            throw new IOException("Truncated checkpoint: " + filePath, e);
+        }
+    }
+}
@@ -0,0 +1,390 @@
+package org.howard.edu.lsp.assignment3;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+
+/**
+ * Runs the ETL process in batches of rows, taking a {@link Checkpoint} every
+ * N rows so that a run that dies part way can be resumed instead of started over.
+ * The rows are written to a partial output file next to the output file. At
+ * every checkpoint the partial output is forced to disk first, and then the
+ * input offset of the next row, the length of the partial output and the row
+ * counters are saved to a checkpoint file. A resumed run truncates the partial
+ * output to the checkpointed length, which drops any rows written after the
+ * checkpoint, and continues reading the input from the checkpointed offset.
+ * When the whole input has been processed the partial output is renamed onto
+ * the output file, so the output file is never left truncated.
+ */
+public class CheckpointedETLEngine {
+
+    /** The default number of rows between checkpoints. */
+    public static final int DEFAULT_CHECKPOINT_ROWS = 1_000_000;
+
+    private static final String PARTIAL_SUFFIX = ".partial";
+    private static final String CHECKPOINT_SUFFIX = ".checkpoint";
+
+    private final String inputPath;
+    private final String outputPath;
+    private final int checkpointRows;
+    private boolean resume = false;
+    private TransformRules rules = TransformRules.defaults();
+    private PipelineMetrics metrics = new PipelineMetrics();
+    private RejectedRowHandler rejectedRows = RejectedRowHandler.PRINT;
+    private int rowsRead = 0;
+    private int rowsSkipped = 0;
+    private int rowsTransformed = 0;
+    private int rowsResumed = 0;
+
+    /**
+     * Constructs a CheckpointedETLEngine using the default checkpoint interval.
+     * @param inputPath The path to the input CSV file.
+     * @param outputPath The path to the output CSV file.
+     */
+    public CheckpointedETLEngine(String inputPath, String outputPath) {
+        this(inputPath, outputPath, DEFAULT_CHECKPOINT_ROWS);
+    }
+
+    /**
+     * Constructs a CheckpointedETLEngine.
+     * @param inputPath The path to the input CSV file.
+     * @param outputPath The path to the output CSV file.
+     * @param checkpointRows The number of input rows between checkpoints; a
+     *        checkpoint is taken at the end of the batch that reaches it.
+     */
+    public CheckpointedETLEngine(String inputPath, String outputPath, int checkpointRows) {
+        if (checkpointRows < 1) {
+            throw new IllegalArgumentException("checkpointRows must be positive");
+        }
+        this.inputPath = inputPath;
+        this.outputPath = outputPath;
+        this.checkpointRows = checkpointRows;
+    }
+
+    /**
+     * Sets whether the run continues from the last checkpoint of an earlier run.
+     * Without a usable checkpoint, or if the input file has changed since it
+     * was taken, the run starts from the first row.
+     * @param resume true to resume from the last checkpoint.
+     */
+    public void setResume(boolean resume) {
+        this.resume = resume;
+    }
+
+    /**
+     * Sets the rules the rows are transformed with. A checkpoint taken under
+     * different rules is not resumed from.
+     * @param rules The transformation rules.
+     */
+    public void setRules(TransformRules rules) {
+        this.rules = rules;
+    }
+
+    /**
+     * Sets the metrics that the stages are recorded into. Each batch of
+     * {@link StageMetrics#BATCH_ROWS} input rows is timed as one batch:
+     * reading and parsing it as extract, transforming it as transform, and
+     * writing it as load.
+     * @param metrics The metrics to record into.
+     */
+    public void setMetrics(PipelineMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Sets the handler that receives each malformed row. By default each row
+     * is printed to standard error.
+     * @param rejectedRows The rejected row handler.
+     */
+    public void setRejectedRowHandler(RejectedRowHandler rejectedRows) {
+        this.rejectedRows = rejectedRows;
+    }
+
+    /**
+     * Extracts, transforms and loads the input file, taking checkpoints as it goes.
+     * @throws FileNotFoundException if the input file does not exist.
+     * @throws IOException if an I/O error occurs while reading or writing.
+     */
+    public void run() throws FileNotFoundException, IOException {
+        if (!CsvFormat.ASCII_COMPATIBLE) {
+            throw new IOException("Checkpointed runs need an ASCII-compatible character set, not "
+                    + CsvFormat.CHARSET.name());
+        }
+        File input = new File(inputPath);
+        String partialPath = outputPath + PARTIAL_SUFFIX;
+        String checkpointPath = outputPath + CHECKPOINT_SUFFIX;
+
+        try (FileInputStream in = new FileInputStream(input);
+                RandomAccessFile partial = new RandomAccessFile(partialPath, "rw")) {
+            long inputSize = input.length();
+            long inputModified = input.lastModified();
+            Checkpoint checkpoint = resume ? loadCheckpoint(checkpointPath, inputSize, inputModified, partial) : null;
+            long rulesFingerprint = rules.fingerprint();
+
+            FileChannel output = partial.getChannel();
+            LineScanner lines = new LineScanner(in.getChannel());
+            if (checkpoint != null) {
+                rowsResumed = checkpoint.getRowsRead();
+                rowsRead = checkpoint.getRowsRead();
+                rowsSkipped = checkpoint.getRowsSkipped();
+                rowsTransformed = checkpoint.getRowsTransformed();
+                lines.seek(checkpoint.getInputOffset());
+                output.truncate(checkpoint.getOutputPosition());
+                output.position(checkpoint.getOutputPosition());
+            } else {
+                // A checkpoint left by an earlier run no longer describes the partial output.
+                Files.deleteIfExists(Paths.get(checkpointPath));
+                output.truncate(0);
+                output.write(ByteBuffer.wrap(
+                        (CsvFormat.OUTPUT_HEADER + CsvFormat.LINE_SEPARATOR).getBytes(CsvFormat.CHARSET)));
+                // Read and discard the header row; an empty file has no data rows.
+                lines.readLine();
+            }
+
+            OutputStream out = new BufferedOutputStream(Channels.newOutputStream(output), 1 << 16);
+            CSVReader parser = new CSVReader(inputPath);
+            parser.setRejectedRowHandler(rejectedRows);
+            ProductTransformer transformer = new ProductTransformer(parser.getCategories(), rules);
+            Product[] products = new Product[StageMetrics.BATCH_ROWS];
+            int baseRead = rowsRead;
+            int baseSkipped = rowsSkipped;
+            int sinceCheckpoint = 0;
+            while (true) {
+                long started = System.nanoTime();
+                int read = 0;
+                int count = 0;
+                String line;
+                while (read < products.length && (line = lines.readLine()) != null) {
+                    read++;
+                    // The header is line 1.
+                    Product product = parser.parseRow(line, baseRead + parser.getRowsRead() + 2);
+                    if (product != null) {
+                        products[count++] = product;
+                    }
+                }
+                if (read == 0) {
+                    break;
+                }
+                long extracted = System.nanoTime();
+                metrics.extract().recordBatch(count, extracted - started);
+
+                for (int i = 0; i < count; i++) {
+                    products[i] = transformer.transform(products[i]);
+                }
+                long transformed = System.nanoTime();
+                metrics.transform().recordBatch(count, transformed - extracted);
+
+                for (int i = 0; i < count; i++) {
+                    out.write((products[i].toString() + CsvFormat.LINE_SEPARATOR).getBytes(CsvFormat.CHARSET));
+                    products[i] = null;
+                }
+                metrics.load().recordBatch(count, System.nanoTime() - transformed);
+
+                rowsRead = baseRead + parser.getRowsRead();
+                rowsSkipped = baseSkipped + parser.getRowsSkipped();
+                rowsTransformed += count;
+                sinceCheckpoint += read;
+                if (sinceCheckpoint >= checkpointRows) {
+                    out.flush();
+                    output.force(false);
+                    saveCheckpoint(checkpointPath, new Checkpoint(inputSize, inputModified, rulesFingerprint, lines.position(),
+                            output.position(), rowsRead, rowsSkipped, rowsTransformed));
+                    sinceCheckpoint = 0;
+                }
+            }
+            out.flush();
+            output.force(false);
+            metrics.extract().addBytes(inputSize - (checkpoint == null ? 0 : checkpoint.getInputOffset()));
+            metrics.load().addBytes(output.position() - (checkpoint == null ? 0 : checkpoint.getOutputPosition()));
+        }
+
+        move(Paths.get(partialPath), Paths.get(outputPath));
+        Files.deleteIfExists(Paths.get(checkpointPath));
+    }
+
+    /**
+     * Gets the number of data rows read, including those read before a resumed checkpoint.
+     * @return The total number of rows (excluding header) read.
+     */
+    public int getRowsRead() {
+        return rowsRead;
+    }
+
+    /**
+     * Gets the number of malformed or empty rows skipped, including those
+     * skipped before a resumed checkpoint.
+     * @return The total number of rows skipped.
+     */
+    public int getRowsSkipped() {
+        return rowsSkipped;
+    }
+
+    /**
+     * Gets the number of rows transformed and written, including those written
+     * before a resumed checkpoint.
+     * @return The total number of rows transformed.
+     */
+    public int getRowsTransformed() {
+        return rowsTransformed;
+    }
+
+    /**
+     * Gets the number of data rows that were already processed by the run that was resumed.
+     * @return The number of rows read before the checkpoint, or 0 if the run started from the first row.
+     */
+    public int getRowsResumed() {
+        return rowsResumed;
+    }
+
+    /**
+     * Loads the checkpoint of an earlier run if it can be resumed from.
+     * @return The checkpoint, or null if the run has to start from the first row.
+     */
+    private Checkpoint loadCheckpoint(String checkpointPath, long inputSize, long inputModified,
+            RandomAccessFile partial) throws IOException {
+        if (!new File(checkpointPath).isFile()) {
+            System.err.println("Warning: No checkpoint to resume from; starting from the first row.");
+            return null;
+        }
+        Checkpoint checkpoint;
+        try {
+            checkpoint = Checkpoint.load(checkpointPath);
+        } catch (IOException e) {
+            System.err.println("Warning: Ignoring unreadable checkpoint '" + checkpointPath + "': " + e.getMessage());
+            return null;
+        }
+        if (checkpoint == null || !checkpoint.matches(inputSize, inputModified, rules)
+                || checkpoint.getInputOffset() > inputSize
+                || checkpoint.getOutputPosition() > partial.length()) {
+            System.err.println("Warning: The checkpoint does not match the input file, rules or partial output file;"
+                    + " starting from the first row.");
+            return null;
+        }
+        return checkpoint;
+    }
+
+    /**
+     * Saves a checkpoint to a temporary file and renames it over the previous
+     * one, so a crash while saving leaves the previous checkpoint intact.
+     */
+    private static void saveCheckpoint(String checkpointPath, Checkpoint checkpoint) throws IOException {
+        Path temp = Paths.get(checkpointPath + ".tmp");
+        checkpoint.save(temp.toString());
+        move(temp, Paths.get(checkpointPath));
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Splits the input into lines the way {@code BufferedReader.readLine()}
+     * does, while keeping track of the byte offset of the next line so that it
+     * can be checkpointed. Line terminators are "\n", "\r" or "\r\n", which in
+     * an ASCII-compatible character set never occur inside a multi-byte character.
+     */
+    private static final class LineScanner {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(1 << 16);
+        // The file offset of the first byte in the buffer.
+        private long bufferStart = 0;
+        private boolean skipLineFeed = false;
+        private boolean endOfFile = false;
+        private byte[] line = new byte[256];
+
+        LineScanner(FileChannel channel) {
+            this.channel = channel;
+            buffer.limit(0);
+        }
+
+        /**
+         * Positions the scanner at the start of a line.
+         */
+        void seek(long offset) {
+            bufferStart = offset;
+            buffer.clear().limit(0);
+            skipLineFeed = false;
+            endOfFile = false;
+        }
+
+        /**
+         * Gets the offset of the next line, resolving a "\r" that may be followed by "\n".
+         */
+        long position() throws IOException {
+            if (skipLineFeed && (buffer.hasRemaining() || fill())) {
+                if (buffer.get(buffer.position()) == '\n') {
+                    buffer.get();
+                }
+                skipLineFeed = false;
+            }
+            return bufferStart + buffer.position();
+        }
+
+        /**
+         * Reads the next line without its terminator.
+         * @return The line, or null at the end of the file.
+         */
+        String readLine() throws IOException {
+            int length = 0;
+            while (true) {
+                if (!buffer.hasRemaining() && !fill()) {
+                    return length == 0 && endOfFile ? null : new String(line, 0, length, CsvFormat.CHARSET);
+                }
+                byte b = buffer.get();
+                if (skipLineFeed) {
+                    skipLineFeed = false;
+                    if (b == '\n') {
+                        continue;
+                    }
+                }
+                if (b == '\n' || b == '\r') {
+                    skipLineFeed = b == '\r';
+                    return new String(line, 0, length, CsvFormat.CHARSET);
+                }
+                if (length == line.length) {
+                    line = Arrays.copyOf(line, length * 2);
+                }
+                line[length++] = b;
+            }
+        }
+
+        /**
+         * Reads the next part of the file into the buffer.
+         * @return false if the end of the file has been reached.
+         */
+        private boolean fill() throws IOException {
+            if (endOfFile) {
+                return false;
+            }
+            bufferStart += buffer.position();
+            buffer.clear();
+            int read;
+            do {
+                read = channel.read(buffer, bufferStart);
+            } while (read == 0);
+            buffer.flip();
+            if (read < 0) {
+                endOfFile = true;
+                return false;
+            }
+            return true;
+        }
+    }
+}
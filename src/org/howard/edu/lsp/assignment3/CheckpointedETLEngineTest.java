@@ -0,0 +1,152 @@
+package org.howard.edu.lsp.assignment3;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * JUnit 5 test class for {@link CheckpointedETLEngine}. Every output is
+ * checked against a full batch run over the same input.
+ */
+public class CheckpointedETLEngineTest {
+
+    @TempDir
+    Path directory;
+
+    private Path input;
+    private Path output;
+    private Path expected;
+    private RunSummary full;
+
+    /**
+     * Generates a small input file with Windows line endings and some
+     * malformed and empty rows, and runs the default batch mode over it.
+     */
+    @BeforeEach
+    void setUp() throws IOException {
+        input = directory.resolve("products.csv");
+        output = directory.resolve("transformed_products.csv");
+        expected = directory.resolve("expected.csv");
+        ProductFileTestSupport.generate(input, 5_000, 13, 0.01, 0.01);
+        String text = new String(Files.readAllBytes(input), CsvFormat.CHARSET);
+        Files.write(input, text.replace("\n", "\r\n").getBytes(CsvFormat.CHARSET));
+
+        full = ProductFileTestSupport.runBatch(input, expected);
+    }
+
+    private void assertSameAsFullRun(CheckpointedETLEngine engine) throws IOException {
+        assertArrayEquals(Files.readAllBytes(expected), Files.readAllBytes(output));
+        assertEquals(full.getRowsRead(), engine.getRowsRead());
+        assertEquals(full.getRowsTransformed(), engine.getRowsTransformed());
+        assertEquals(full.getRowsSkipped(), engine.getRowsSkipped());
+        assertFalse(Files.exists(directory.resolve("transformed_products.csv.partial")));
+        assertFalse(Files.exists(directory.resolve("transformed_products.csv.checkpoint")));
+    }
+
+    /**
+     * Finds the offset just past the given number of lines.
+     */
+    private static int offsetOfLine(byte[] bytes, int lines) {
+        int offset = 0;
+        for (int i = 0; i < lines; i++) {
+            while (bytes[offset] != '\n') {
+                offset++;
+            }
+            offset++;
+        }
+        return offset;
+    }
+
+    /**
+     * Tests that a run that takes checkpoints gives the same output as a full
+     * run and cleans up after itself.
+     */
+    @Test
+    @DisplayName("Test checkpointed run matches a full run")
+    void testComplete() throws IOException {
+        CheckpointedETLEngine engine = new CheckpointedETLEngine(input.toString(), output.toString(), 1_000);
+        engine.run();
+        assertEquals(0, engine.getRowsResumed());
+        assertSameAsFullRun(engine);
+    }
+
+    /**
+     * Tests that a run resumed from a checkpoint drops the rows written after
+     * the checkpoint and gives the same output as a full run.
+     */
+    @Test
+    @DisplayName("Test resumed run matches a full run")
+    void testResume() throws IOException {
+        // Fake a run that died after 3000 data rows, a little after its last checkpoint.
+        byte[] inputBytes = Files.readAllBytes(input);
+        byte[] outputBytes = Files.readAllBytes(expected);
+        String[] lines = new String(inputBytes, CsvFormat.CHARSET).split("\r\n");
+        CSVReader reader = new CSVReader(input.toString());
+        for (int i = 1; i <= 3_000; i++) {
+            reader.parseRow(lines[i]);
+        }
+        int read = reader.getRowsRead();
+        int skipped = reader.getRowsSkipped();
+        int transformed = read - skipped;
+        int outputPosition = offsetOfLine(outputBytes, 1 + transformed);
+        byte[] partial = Arrays.copyOf(outputBytes, outputPosition + 100);
+        Arrays.fill(partial, outputPosition, partial.length, (byte) 'x');
+        Files.write(directory.resolve("transformed_products.csv.partial"), partial);
+        new Checkpoint(inputBytes.length, input.toFile().lastModified(),
+                TransformRules.defaults().fingerprint(), offsetOfLine(inputBytes, 1 + read),
+                outputPosition, read, skipped, transformed)
+                .save(directory.resolve("transformed_products.csv.checkpoint").toString());
+
+        CheckpointedETLEngine engine = new CheckpointedETLEngine(input.toString(), output.toString(), 1_000);
+        engine.setResume(true);
+        engine.run();
+        assertEquals(read, engine.getRowsResumed());
+        assertSameAsFullRun(engine);
+    }
+
+    /**
+     * Tests that a checkpoint taken over a different input is not resumed from.
+     */
+    @Test
+    @DisplayName("Test checkpoint of a changed input is ignored")
+    void testChangedInput() throws IOException {
+        Files.write(directory.resolve("transformed_products.csv.partial"), new byte[] {'x'});
+        new Checkpoint(1, 1, 1, 1, 1, 1, 0, 1).save(directory.resolve("transformed_products.csv.checkpoint").toString());
+
+        CheckpointedETLEngine engine = new CheckpointedETLEngine(input.toString(), output.toString(), 1_000);
+        engine.setResume(true);
+        engine.run();
+        assertEquals(0, engine.getRowsResumed());
+        assertSameAsFullRun(engine);
+    }
+
+    /**
+     * Tests that the checkpointed mode cannot be overridden by another mode
+     * flag, which would silently drop the checkpoints or the resume.
+     */
+    @Test
+    @DisplayName("Test checkpoint flags conflict with other modes")
+    void testModeConflicts() {
+        PipelineOptions options = PipelineOptions.parse(new String[] {"--checkpoint-every", "10", "--resume"});
+        assertEquals(PipelineOptions.Mode.CHECKPOINTED, options.getMode());
+        assertTrue(options.isResume());
+
+        for (String[] args : new String[][] {
+                {"--resume", "--stream"},
+                {"--pipelined", "--resume"},
+                {"--checkpoint-every", "10", "--pipelined"},
+                {"--stream", "--parallel"}}) {
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                    () -> PipelineOptions.parse(args));
+            assertTrue(e.getMessage().contains(args[args.length - 1]), e.getMessage());
+        }
+        assertEquals(PipelineOptions.Mode.STREAM, PipelineOptions.parse(new String[] {"--stream", "--stream"}).getMode());
+    }
+}
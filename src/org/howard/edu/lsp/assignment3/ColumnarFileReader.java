@@ -0,0 +1,280 @@
+package org.howard.edu.lsp.assignment3;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads a binary columnar file written by {@link ColumnarFileWriter}.
+ * The footer is read when the reader is constructed, and every column is
+ * memory-mapped, so a job that only needs ids and prices reads those two
+ * columns straight from the page cache, without parsing any text. Names and
+ * dictionary strings are only decoded when a row's name or category is asked for.
+ * <p>
+ * The mappings stay valid after the file is closed and are released when the
+ * reader is garbage collected. A reader may be shared by several threads.
+ */
+public class ColumnarFileReader {
+
+    private final int rows;
+    private final IntBuffer ids;
+    private final LongBuffer prices;
+    private final IntBuffer categoryCodes;
+    private final ByteBuffer priceRanges;
+    private final IntBuffer nameOffsets;
+    private final ByteBuffer nameHeap;
+    private final String[] categories;
+    private final String[] priceRangeLabels;
+    private final Map<Integer, BigDecimal> bigPrices = new HashMap<>();
+
+    /**
+     * Opens a columnar file and maps its columns.
+     * @param filePath The path to the columnar file.
+     * @throws FileNotFoundException if the file does not exist.
+     * @throws IOException if the file cannot be read or is not a valid columnar file.
+     */
+    public ColumnarFileReader(String filePath) throws FileNotFoundException, IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filePath), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < 20) {
+                throw new IOException("Not a columnar file: " + filePath);
+            }
+            ByteBuffer header = read(channel, 0, 8);
+            ByteBuffer trailer = read(channel, size - 12, 12);
+            long footer = trailer.getLong();
+            if (header.getInt() != ColumnarFileWriter.MAGIC || trailer.getInt() != ColumnarFileWriter.MAGIC) {
+                throw new IOException("Not a columnar file: " + filePath);
+            }
+            int version = header.getInt();
+            if (version != ColumnarFileWriter.VERSION) {
+                throw new IOException("Unsupported columnar file version " + version + ": " + filePath);
+            }
+            if (footer < 8 || footer > size - 12) {
+                throw new IOException("Corrupt columnar file footer: " + filePath);
+            }
+
+            ByteBuffer index = read(channel, footer, size - 12 - footer);
+            rows = index.getInt();
+            int sectionCount = index.getInt();
+            long[] offsets = new long[ColumnarFileWriter.SECTION_COUNT + 1];
+            long[] lengths = new long[ColumnarFileWriter.SECTION_COUNT + 1];
+            for (int i = 0; i < sectionCount; i++) {
+                int id = index.getInt();
+                long offset = index.getLong();
+                long length = index.getLong();
+                // Sections added by later versions of the layout are skipped.
+                if (id >= 1 && id <= ColumnarFileWriter.SECTION_COUNT) {
+                    if (offset < 8 || length < 0 || offset + length > footer) {
+                        throw new IOException("Corrupt columnar file section " + id + ": " + filePath);
+                    }
+                    offsets[id] = offset;
+                    lengths[id] = length;
+                }
+            }
+
+            ids = map(channel, offsets, lengths, ColumnarFileWriter.IDS, (long) rows * Integer.BYTES).asIntBuffer();
+            prices = map(channel, offsets, lengths, ColumnarFileWriter.PRICES, (long) rows * Long.BYTES).asLongBuffer();
+            categoryCodes = map(channel, offsets, lengths, ColumnarFileWriter.CATEGORY_CODES,
+                    (long) rows * Integer.BYTES).asIntBuffer();
+            priceRanges = map(channel, offsets, lengths, ColumnarFileWriter.PRICE_RANGES, rows);
+            nameOffsets = map(channel, offsets, lengths, ColumnarFileWriter.NAME_OFFSETS,
+                    (rows + 1L) * Integer.BYTES).asIntBuffer();
+            nameHeap = map(channel, offsets, lengths, ColumnarFileWriter.NAME_HEAP, -1);
+            categories = readDictionary(map(channel, offsets, lengths, ColumnarFileWriter.CATEGORY_DICTIONARY, -1));
+            priceRangeLabels = readDictionary(
+                    map(channel, offsets, lengths, ColumnarFileWriter.PRICE_RANGE_DICTIONARY, -1));
+
+            ByteBuffer big = map(channel, offsets, lengths, ColumnarFileWriter.BIG_PRICES, -1);
+            for (int i = big.getInt(); i > 0; i--) {
+                int row = big.getInt();
+                bigPrices.put(row, new BigDecimal(readString(big)));
+            }
+        } catch (NoSuchFileException e) {
+            throw new FileNotFoundException(filePath);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new IOException("Corrupt columnar file: " + filePath, e);
+        }
+    }
+
+    /**
+     * Gets the number of rows in the file.
+     * @return The number of rows.
+     */
+    public int size() {
+        return rows;
+    }
+
+    /**
+     * Gets the ProductID of a row.
+     * @param row The row index.
+     * @return The ProductID.
+     */
+    public int getId(int row) {
+        return ids.get(row);
+    }
+
+    /**
+     * Gets the price of a row in cents.
+     * @param row The row index.
+     * @return The price in cents, or {@link ColumnarFileWriter#BIG_PRICE} if the
+     *         price only fits a BigDecimal; see {@link #getPrice(int)}.
+     */
+    public long getPriceCents(int row) {
+        return prices.get(row);
+    }
+
+    /**
+     * Gets the price of a row.
+     * @param row The row index.
+     * @return The price, with two digits after the decimal point unless it was
+     *         written with another scale.
+     */
+    public BigDecimal getPrice(int row) {
+        long cents = prices.get(row);
+        if (cents == ColumnarFileWriter.BIG_PRICE) {
+            return bigPrices.get(row);
+        }
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    /**
+     * Gets the category code of a row.
+     * @param row The row index.
+     * @return The index of the row's category in {@link #getCategories()}.
+     */
+    public int getCategoryCode(int row) {
+        return categoryCodes.get(row);
+    }
+
+    /**
+     * Gets the category of a row.
+     * @param row The row index.
+     * @return The category.
+     */
+    public String getCategory(int row) {
+        return categories[categoryCodes.get(row)];
+    }
+
+    /**
+     * Gets the category dictionary of the file.
+     * @return The categories, indexed by category code.
+     */
+    public String[] getCategories() {
+        return categories.clone();
+    }
+
+    /**
+     * Gets the price range of a row.
+     * @param row The row index.
+     * @return The price range label, or null if the row has none.
+     */
+    public String getPriceRange(int row) {
+        int code = priceRanges.get(row);
+        return code < 0 ? null : priceRangeLabels[code];
+    }
+
+    /**
+     * Gets the name of a row.
+     * @param row The row index.
+     * @return The name, decoded from the name heap.
+     */
+    public String getName(int row) {
+        int start = nameOffsets.get(row);
+        byte[] name = new byte[nameOffsets.get(row + 1) - start];
+        nameHeap.get(start, name);
+        return new String(name, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Creates a Product from a row.
+     * @param row The row index.
+     * @return A new Product holding the row's values.
+     */
+    public Product toProduct(int row) {
+        Product product = new Product(getId(row), getName(row), getPrice(row), getCategory(row));
+        product.setPriceRange(getPriceRange(row));
+        return product;
+    }
+
+    /**
+     * Reads every row into a columnar batch, copying names straight from the
+     * name heap. The batch can be written with any {@link ProductWriter}.
+     * @return A new batch holding every row.
+     */
+    public ProductBatch readBatch() {
+        CategoryDictionary dictionary = new CategoryDictionary();
+        int[] codes = new int[categories.length];
+        for (int code = 0; code < codes.length; code++) {
+            codes[code] = dictionary.encode(categories[code]);
+        }
+        ProductBatch batch = new ProductBatch(rows, dictionary);
+        for (int i = 0; i < rows; i++) {
+            long cents = prices.get(i);
+            int row = batch.add(ids.get(i), nameHeap, nameOffsets.get(i), nameOffsets.get(i + 1),
+                    cents == ColumnarFileWriter.BIG_PRICE ? 0 : cents, 2, codes[categoryCodes.get(i)]);
+            if (cents == ColumnarFileWriter.BIG_PRICE) {
+                batch.setPrice(row, bigPrices.get(i));
+            }
+            batch.priceRanges[row] = priceRanges.get(i);
+        }
+        return batch;
+    }
+
+    private static ByteBuffer read(FileChannel channel, long position, long length) throws IOException {
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("Columnar file footer is too large");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of columnar file");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Maps a section of the file.
+     * @param expectedLength The length the section must have, or -1 to accept any length.
+     */
+    private static ByteBuffer map(FileChannel channel, long[] offsets, long[] lengths, int id, long expectedLength)
+            throws IOException {
+        if (offsets[id] == 0) {
+            throw new IOException("Columnar file has no section " + id);
+        }
+        if (expectedLength >= 0 && lengths[id] != expectedLength) {
+            throw new IOException("Columnar file section " + id + " has the wrong length");
+        }
+        if (lengths[id] > Integer.MAX_VALUE) {
+            throw new IOException("Columnar file section " + id + " is too large to map");
+        }
+        return channel.map(FileChannel.MapMode.READ_ONLY, offsets[id], lengths[id]).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static String[] readDictionary(ByteBuffer section) {
+        String[] entries = new String[section.getInt()];
+        for (int i = 0; i < entries.length; i++) {
+            entries[i] = readString(section);
+        }
+        return entries;
+    }
+
+    private static String readString(ByteBuffer section) {
+        byte[] bytes = new byte[section.getInt()];
+        section.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
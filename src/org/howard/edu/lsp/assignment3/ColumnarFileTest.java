@@ -0,0 +1,116 @@
+package org.howard.edu.lsp.assignment3;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * JUnit 5 test class for {@link ColumnarFileWriter} and {@link ColumnarFileReader}.
+ */
+public class ColumnarFileTest {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Tests that every column of every row reads back as written, including
+     * prices that do not fit in a long, names outside ASCII and a row
+     * without a price range.
+     */
+    @Test
+    @DisplayName("Test products round trip")
+    void testRoundTrip() throws IOException {
+        List<Product> products = new ArrayList<>();
+        products.add(product(1, "TV", "450.00", "Electronics", "Premium"));
+        products.add(product(2, "Caf\u00e9 Cr\u00e8me", "3.50", "Grocery", "Low"));
+        products.add(product(3, "Yacht", "123456789012345678901.25", "Boats", "Premium"));
+        products.add(product(4, "Odd", "1.5", "Grocery", null));
+        products.add(product(-5, "", "0.00", "\u00c9lectronique", "Low"));
+        Path file = directory.resolve("products.bin");
+        new ColumnarFileWriter(file.toString()).writeProducts(products);
+
+        ColumnarFileReader reader = new ColumnarFileReader(file.toString());
+        assertEquals(products.size(), reader.size());
+        for (int i = 0; i < products.size(); i++) {
+            assertEquals(products.get(i).toString(), reader.toProduct(i).toString());
+            assertEquals(products.get(i).getPrice(), reader.getPrice(i));
+        }
+        assertEquals(45000, reader.getPriceCents(0));
+        assertEquals(ColumnarFileWriter.BIG_PRICE, reader.getPriceCents(2));
+        assertNull(reader.getPriceRange(3));
+        assertEquals(reader.getCategoryCode(1), reader.getCategoryCode(3));
+        assertEquals("Grocery", reader.getCategories()[reader.getCategoryCode(1)]);
+
+        // An empty file has every section.
+        Path empty = directory.resolve("empty.bin");
+        new ColumnarFileWriter(empty.toString()).writeProducts(new ArrayList<>());
+        assertEquals(0, new ColumnarFileReader(empty.toString()).size());
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(2, files.count(), "temporary column files are deleted");
+        }
+    }
+
+    /**
+     * Tests that the columnar file written alongside the CSV output in each
+     * mode holds the same rows as the CSV file.
+     */
+    @Test
+    @DisplayName("Test --binary output matches the CSV output")
+    void testPipeline() throws IOException {
+        Path input = directory.resolve("products.csv");
+        ProductFileTestSupport.generate(input, 30_000, 4, 0.01, 0);
+
+        Path output = directory.resolve("transformed.csv");
+        Path binary = directory.resolve("transformed.bin");
+        Path rewritten = directory.resolve("rewritten.csv");
+        for (String mode : new String[] {"--stream", "--columnar"}) {
+            RunSummary summary = ETLPipeline.run(input.toString(), output.toString(),
+                    PipelineOptions.parse(new String[] {mode, "--binary", binary.toString()}));
+            ColumnarFileReader reader = new ColumnarFileReader(binary.toString());
+            assertEquals(summary.getRowsTransformed(), reader.size(), mode);
+            new CSVWriter(rewritten.toString()).writeProducts(reader.readBatch());
+            assertArrayEquals(Files.readAllBytes(output), Files.readAllBytes(rewritten), mode);
+        }
+
+        assertThrows(IllegalArgumentException.class,
+                () -> PipelineOptions.parse(new String[] {"--parallel", "--binary", binary.toString()}));
+    }
+
+    /**
+     * Tests that missing, truncated and foreign files are rejected.
+     */
+    @Test
+    @DisplayName("Test invalid files")
+    void testInvalidFiles() throws IOException {
+        Path file = directory.resolve("products.bin");
+        new ColumnarFileWriter(file.toString()).writeProducts(
+                Arrays.asList(product(1, "TV", "450.00", "Electronics", "Premium")));
+        byte[] bytes = Files.readAllBytes(file);
+
+        assertThrows(FileNotFoundException.class,
+                () -> new ColumnarFileReader(directory.resolve("missing.bin").toString()));
+        Path truncated = directory.resolve("truncated.bin");
+        Files.write(truncated, Arrays.copyOf(bytes, bytes.length - 1));
+        assertThrows(IOException.class, () -> new ColumnarFileReader(truncated.toString()));
+        Path csv = directory.resolve("products.csv");
+        Files.write(csv, "ProductID,Name,Price,Category\n1,TV,450.00,Electronics\n".getBytes(CsvFormat.CHARSET));
+        assertThrows(IOException.class, () -> new ColumnarFileReader(csv.toString()));
+    }
+
+    private static Product product(int id, String name, String price, String category, String priceRange) {
+        Product product = new Product(id, name, new BigDecimal(price), category);
+        product.setPriceRange(priceRange);
+        return product;
+    }
+}
@@ -0,0 +1,467 @@
+package org.howard.edu.lsp.assignment3;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Writes transformed products to a binary columnar file that
+ * {@link ColumnarFileReader} can memory-map, so the next job reads ids and
+ * prices without parsing any text.
+ * <p>
+ * The file holds one section per column, each starting on an 8-byte boundary,
+ * in little-endian byte order:
+ * <ul>
+ * <li>{@code IDS}: the ProductID of each row as an int.</li>
+ * <li>{@code PRICES}: the price of each row in cents as a long. A price that
+ *     is not a whole number of cents in a long is {@link #BIG_PRICE} here and
+ *     is stored in {@code BIG_PRICES}.</li>
+ * <li>{@code CATEGORY_CODES}: the category of each row as an int code into
+ *     {@code CATEGORY_DICTIONARY}.</li>
+ * <li>{@code PRICE_RANGES}: the price range of each row as a byte code into
+ *     {@code PRICE_RANGE_DICTIONARY}, or -1 if the row has none.</li>
+ * <li>{@code NAME_OFFSETS}: rows + 1 int offsets into {@code NAME_HEAP}; the
+ *     name of row i runs from offset i to offset i + 1.</li>
+ * <li>{@code NAME_HEAP}: the UTF-8 bytes of every name, back to back.</li>
+ * <li>{@code CATEGORY_DICTIONARY} and {@code PRICE_RANGE_DICTIONARY}: an int
+ *     count, then each entry as an int length and its UTF-8 bytes.</li>
+ * <li>{@code BIG_PRICES}: an int count, then each entry as an int row, an int
+ *     length and the plain string of the price.</li>
+ * </ul>
+ * The file starts with {@link #MAGIC} and {@link #VERSION}. It ends with a
+ * footer holding the row count and the id, offset and length of every
+ * section, followed by the footer offset as a long and {@link #MAGIC} again,
+ * so a reader can find any column from the last 12 bytes.
+ * <p>
+ * Rows are streamed: while the writer is open each column is appended to a
+ * temporary file next to the output, and {@link #close()} joins them into the
+ * output file, which is renamed into place in one step.
+ */
+public class ColumnarFileWriter implements ProductWriter {
+
+    /** The first and last four bytes of a columnar file: "PCOL". */
+    static final int MAGIC = 0x4c4f4350;
+
+    /** The version of the file layout. */
+    static final int VERSION = 1;
+
+    /** The price column value of a row whose price is in the big prices section. */
+    static final long BIG_PRICE = Long.MIN_VALUE;
+
+    // Section ids, in the order the sections are written.
+    static final int IDS = 1;
+    static final int PRICES = 2;
+    static final int CATEGORY_CODES = 3;
+    static final int PRICE_RANGES = 4;
+    static final int NAME_OFFSETS = 5;
+    static final int NAME_HEAP = 6;
+    static final int CATEGORY_DICTIONARY = 7;
+    static final int PRICE_RANGE_DICTIONARY = 8;
+    static final int BIG_PRICES = 9;
+    static final int SECTION_COUNT = 9;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final String filePath;
+    private Column[] columns;
+    private int rows = 0;
+    private long nameHeapSize = 0;
+    private int bigPriceCount = 0;
+    private CategoryDictionary categories;
+    // Maps the category codes of the last batch's dictionary to this writer's codes.
+    private CategoryDictionary batchCategories = null;
+    private int[] batchCodes = new int[0];
+
+    /**
+     * Constructs a ColumnarFileWriter object with the specified file path.
+     * @param filePath The path to the output columnar file.
+     */
+    public ColumnarFileWriter(String filePath) {
+        this.filePath = filePath;
+    }
+
+    /**
+     * Writes a list of Product objects to a columnar file.
+     * @param products The list of Product objects to write.
+     * @throws IOException if an I/O error occurs while writing to the file.
+     */
+    @Override
+    public void writeProducts(List<Product> products) throws IOException {
+        open();
+        try {
+            for (Product product : products) {
+                writeProduct(product);
+            }
+        } finally {
+            close();
+        }
+    }
+
+    /**
+     * Writes a columnar batch of products to a columnar file.
+     * @param batch The transformed batch to write.
+     * @throws IOException if an I/O error occurs while writing to the file.
+     */
+    @Override
+    public void writeProducts(ProductBatch batch) throws IOException {
+        open();
+        try {
+            writeBatch(batch);
+        } finally {
+            close();
+        }
+    }
+
+    /**
+     * Creates the temporary column files.
+     * @throws IOException if an I/O error occurs while creating the files.
+     */
+    @Override
+    public void open() throws IOException {
+        columns = new Column[SECTION_COUNT + 1];
+        try {
+            for (int id = IDS; id <= NAME_HEAP; id++) {
+                columns[id] = new Column(Paths.get(filePath + ".col" + id + TEMP_SUFFIX));
+            }
+            columns[BIG_PRICES] = new Column(Paths.get(filePath + ".col" + BIG_PRICES + TEMP_SUFFIX));
+        } catch (IOException e) {
+            discard();
+            throw e;
+        }
+        rows = 0;
+        nameHeapSize = 0;
+        bigPriceCount = 0;
+        categories = new CategoryDictionary();
+        batchCategories = null;
+        columns[NAME_OFFSETS].putInt(0);
+    }
+
+    /**
+     * Writes a single Product as the next row.
+     * @param product The Product object to write.
+     * @throws IOException if an I/O error occurs while writing to the file.
+     * @throws IllegalStateException if the writer has not been opened.
+     */
+    @Override
+    public void writeProduct(Product product) throws IOException {
+        checkOpen();
+        BigDecimal price = product.getPrice();
+        long cents = BIG_PRICE;
+        if (price.scale() == 2 && price.unscaledValue().bitLength() < Long.SIZE) {
+            cents = price.unscaledValue().longValue();
+        }
+        PriceRange range = PriceRange.fromLabel(product.getPriceRange());
+        byte[] name = product.getName().getBytes(StandardCharsets.UTF_8);
+        writeRow(product.getProductId(), cents, price, categories.encode(product.getCategory()),
+                range == null ? -1 : range.ordinal(), name, 0, name.length);
+    }
+
+    /**
+     * Writes every row of a columnar batch, straight from the batch's columns.
+     * @param batch The transformed batch to write.
+     * @throws IOException if an I/O error occurs while writing to the file.
+     * @throws IllegalStateException if the writer has not been opened.
+     */
+    @Override
+    public void writeBatch(ProductBatch batch) throws IOException {
+        checkOpen();
+        if (batch.categories() != batchCategories) {
+            batchCategories = batch.categories();
+            batchCodes = new int[0];
+        }
+        for (int i = 0; i < batch.size; i++) {
+            long cents = BIG_PRICE;
+            BigDecimal price = null;
+            if (batch.priceScales[i] == 2) {
+                cents = batch.prices[i];
+            } else {
+                price = batch.getPrice(i);
+                if (price.scale() == 2 && price.unscaledValue().bitLength() < Long.SIZE) {
+                    cents = price.unscaledValue().longValue();
+                }
+            }
+            writeRow(batch.ids[i], cents, price, code(batch.categoryCodes[i]), batch.priceRanges[i],
+                    batch.nameArena, batch.nameOffsets[i], batch.nameLengths[i]);
+        }
+    }
+
+    /**
+     * Checks whether the writer is currently open.
+     * @return true if {@link #open()} has been called and the writer is not yet closed.
+     */
+    @Override
+    public boolean isOpen() {
+        return columns != null;
+    }
+
+    /**
+     * Joins the temporary column files and the footer into the output file.
+     * Does nothing if the writer is not open.
+     * @throws IOException if an I/O error occurs while writing the file.
+     */
+    @Override
+    public void close() throws IOException {
+        if (columns == null) {
+            return;
+        }
+        try {
+            for (int id = IDS; id <= NAME_HEAP; id++) {
+                columns[id].flush();
+            }
+            columns[BIG_PRICES].flush();
+            assemble();
+        } finally {
+            discard();
+        }
+    }
+
+    private void checkOpen() {
+        if (columns == null) {
+            throw new IllegalStateException("ColumnarFileWriter is not open");
+        }
+    }
+
+    private void writeRow(int id, long cents, BigDecimal price, int categoryCode, int priceRange,
+            byte[] name, int nameOffset, int nameLength) throws IOException {
+        if (cents == BIG_PRICE) {
+            byte[] text = price.toPlainString().getBytes(StandardCharsets.UTF_8);
+            Column big = columns[BIG_PRICES];
+            big.putInt(rows);
+            big.putInt(text.length);
+            big.put(text, 0, text.length);
+            bigPriceCount++;
+        }
+        nameHeapSize += nameLength;
+        if (nameHeapSize > Integer.MAX_VALUE) {
+            throw new IOException("The names of a columnar file cannot exceed 2 GB");
+        }
+        columns[IDS].putInt(id);
+        columns[PRICES].putLong(cents);
+        columns[CATEGORY_CODES].putInt(categoryCode);
+        columns[PRICE_RANGES].put((byte) priceRange);
+        columns[NAME_HEAP].put(name, nameOffset, nameLength);
+        columns[NAME_OFFSETS].putInt((int) nameHeapSize);
+        rows++;
+    }
+
+    private int code(int batchCode) {
+        if (batchCode >= batchCodes.length) {
+            int oldLength = batchCodes.length;
+            batchCodes = Arrays.copyOf(batchCodes, Math.max(batchCode + 1, oldLength * 2));
+            Arrays.fill(batchCodes, oldLength, batchCodes.length, -1);
+        }
+        int code = batchCodes[batchCode];
+        if (code < 0) {
+            code = categories.encode(batchCategories.name(batchCode));
+            batchCodes[batchCode] = code;
+        }
+        return code;
+    }
+
+    /**
+     * Writes the header, the sections and the footer to a temporary file and
+     * renames it onto the output file.
+     */
+    private void assemble() throws IOException {
+        Path temp = Paths.get(filePath + TEMP_SUFFIX);
+        long[] offsets = new long[SECTION_COUNT + 1];
+        long[] lengths = new long[SECTION_COUNT + 1];
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC).putInt(VERSION);
+            long position = drain(buffer, out, 0);
+
+            for (int id = IDS; id <= SECTION_COUNT; id++) {
+                position = pad(out, position);
+                offsets[id] = position;
+                if (id <= NAME_HEAP) {
+                    position += columns[id].copyTo(out, position);
+                } else if (id == CATEGORY_DICTIONARY) {
+                    String[] names = new String[categories.size()];
+                    for (int code = 0; code < names.length; code++) {
+                        names[code] = categories.name(code);
+                    }
+                    position = putDictionary(names, buffer, out, position);
+                } else if (id == PRICE_RANGE_DICTIONARY) {
+                    String[] labels = new String[PriceRange.values().length];
+                    for (PriceRange range : PriceRange.values()) {
+                        labels[range.ordinal()] = range.getLabel();
+                    }
+                    position = putDictionary(labels, buffer, out, position);
+                } else {
+                    buffer.putInt(bigPriceCount);
+                    position = drain(buffer, out, position);
+                    position += columns[BIG_PRICES].copyTo(out, position);
+                }
+                lengths[id] = position - offsets[id];
+            }
+
+            position = pad(out, position);
+            long footer = position;
+            buffer.putInt(rows).putInt(SECTION_COUNT);
+            for (int id = IDS; id <= SECTION_COUNT; id++) {
+                buffer.putInt(id).putLong(offsets[id]).putLong(lengths[id]);
+            }
+            buffer.putLong(footer).putInt(MAGIC);
+            drain(buffer, out, position);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        try {
+            Files.move(temp, Paths.get(filePath), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, Paths.get(filePath), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static long putDictionary(String[] entries, ByteBuffer buffer, FileChannel out, long position)
+            throws IOException {
+        buffer.putInt(entries.length);
+        for (String entry : entries) {
+            byte[] bytes = entry.getBytes(StandardCharsets.UTF_8);
+            if (buffer.remaining() < Integer.BYTES + bytes.length) {
+                position = drain(buffer, out, position);
+            }
+            if (buffer.remaining() < Integer.BYTES + bytes.length) {
+                ByteBuffer large = ByteBuffer.allocate(Integer.BYTES + bytes.length).order(ByteOrder.LITTLE_ENDIAN);
+                large.putInt(bytes.length).put(bytes);
+                position = drain(large, out, position);
+            } else {
+                buffer.putInt(bytes.length).put(bytes);
+            }
+        }
+        return drain(buffer, out, position);
+    }
+
+    /** Writes the buffer at the position and clears it. */
+    private static long drain(ByteBuffer buffer, FileChannel out, long position) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            position += out.write(buffer, position);
+        }
+        buffer.clear();
+        return position;
+    }
+
+    /** Writes zeros up to the next 8-byte boundary. */
+    private static long pad(FileChannel out, long position) throws IOException {
+        int padding = (int) (-position & 7);
+        if (padding > 0) {
+            position = drain(ByteBuffer.allocate(padding).position(padding), out, position);
+        }
+        return position;
+    }
+
+    /** Closes and deletes the temporary column files. */
+    private void discard() throws IOException {
+        IOException error = null;
+        for (Column column : columns) {
+            if (column != null) {
+                try {
+                    column.delete();
+                } catch (IOException e) {
+                    error = e;
+                }
+            }
+        }
+        columns = null;
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    /**
+     * A column appended to its own temporary file through a reusable buffer.
+     */
+    private static final class Column {
+        private final Path path;
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        private long size = 0;
+
+        Column(Path path) throws IOException {
+            this.path = path;
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+
+        void putInt(int value) throws IOException {
+            if (buffer.remaining() < Integer.BYTES) {
+                flush();
+            }
+            buffer.putInt(value);
+            size += Integer.BYTES;
+        }
+
+        void putLong(long value) throws IOException {
+            if (buffer.remaining() < Long.BYTES) {
+                flush();
+            }
+            buffer.putLong(value);
+            size += Long.BYTES;
+        }
+
+        void put(byte value) throws IOException {
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+            buffer.put(value);
+            size++;
+        }
+
+        void put(byte[] bytes, int offset, int length) throws IOException {
+            while (length > 0) {
+                if (!buffer.hasRemaining()) {
+                    flush();
+                }
+                int count = Math.min(length, buffer.remaining());
+                buffer.put(bytes, offset, count);
+                offset += count;
+                length -= count;
+                size += count;
+            }
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        /**
+         * Copies the flushed column into the output at the position.
+         * @return The number of bytes copied.
+         */
+        long copyTo(FileChannel out, long position) throws IOException {
+            long copied = 0;
+            while (copied < size) {
+                copied += channel.transferTo(copied, size - copied, out.position(position + copied));
+            }
+            return size;
+        }
+
+        void delete() throws IOException {
+            try {
+                channel.close();
+            } finally {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,411 @@
+package org.howard.edu.lsp.assignment3;
+
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The compression of an input or output file, chosen from its extension.
+ * Compressed files are decompressed or compressed as they are streamed, never
+ * through an uncompressed copy on disk. Decompression runs on a read-ahead
+ * thread and compression on a write-behind thread, so the codec works while
+ * the pipeline parses, transforms and formats rows.
+ */
+public enum CompressionCodec {
+
+    /** A plain file. */
+    NONE(""),
+    /** A gzip file, named {@code *.gz}. */
+    GZIP(".gz");
+
+    /** The size of the chunks handed between the pipeline and the codec thread. */
+    static final int CHUNK_SIZE = 64 * 1024;
+
+    // Chunks in flight per stream: enough to keep both threads busy, and bounded.
+    private static final int QUEUED_CHUNKS = 4;
+
+    private final String extension;
+
+    CompressionCodec(String extension) {
+        this.extension = extension;
+    }
+
+    /**
+     * Chooses the codec of a file from its extension.
+     * @param filePath The path of the file.
+     * @return The codec of the file; {@link #NONE} unless the extension names a codec.
+     * @throws IllegalArgumentException if the extension names a codec that is not supported.
+     */
+    public static CompressionCodec forPath(String filePath) {
+        String name = filePath.toLowerCase();
+        if (name.endsWith(GZIP.extension)) {
+            return GZIP;
+        }
+        if (name.endsWith(".zst") || name.endsWith(".zstd")) {
+            throw new IllegalArgumentException("zstd files are not supported; use gzip (.gz): " + filePath);
+        }
+        return NONE;
+    }
+
+    /**
+     * Checks whether a file is compressed.
+     * @param filePath The path of the file.
+     * @return true if the extension of the file names a codec.
+     */
+    public static boolean isCompressed(String filePath) {
+        return forPath(filePath) != NONE;
+    }
+
+    /**
+     * Gets the extension of the codec.
+     * @return The extension, including the dot; empty for {@link #NONE}.
+     */
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Opens a file for reading its decompressed bytes.
+     * @param filePath The path of the file.
+     * @return The decompressed stream, which the caller must close.
+     * @throws FileNotFoundException if the file does not exist.
+     * @throws IOException if the file is not in the codec's format.
+     */
+    public InputStream openInput(String filePath) throws FileNotFoundException, IOException {
+        FileInputStream in = new FileInputStream(filePath);
+        if (this == NONE) {
+            return in;
+        }
+        try {
+            return new ReadAheadInputStream(new GZIPInputStream(in, CHUNK_SIZE));
+        } catch (IOException | RuntimeException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens a file for writing bytes that are compressed into it.
+     * The file is complete once the stream is closed.
+     * @param filePath The path of the file.
+     * @return The compressing stream, which the caller must close.
+     * @throws FileNotFoundException if the file cannot be created.
+     * @throws IOException if the file cannot be written.
+     */
+    public OutputStream openOutput(String filePath) throws FileNotFoundException, IOException {
+        FileOutputStream out = new FileOutputStream(filePath);
+        if (this == NONE) {
+            return out;
+        }
+        try {
+            return new WriteBehindOutputStream(new GZIPOutputStream(out, CHUNK_SIZE));
+        } catch (IOException | RuntimeException e) {
+            out.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens a file for writing on a write-behind thread, compressing it unless
+     * the codec is {@link #NONE}. A write only copies bytes into a chunk, so the
+     * writer never waits for the disk unless the thread falls
+     * {@link #QUEUED_CHUNKS} chunks behind. The file is complete once the stream is closed.
+     * @param filePath The path of the file.
+     * @return The write-behind stream, which the caller must close.
+     * @throws FileNotFoundException if the file cannot be created.
+     * @throws IOException if the file cannot be written.
+     */
+    OutputStream openWriteBehind(String filePath) throws FileNotFoundException, IOException {
+        FileOutputStream out = new FileOutputStream(filePath);
+        try {
+            return new WriteBehindOutputStream(this == NONE ? out : new GZIPOutputStream(out, CHUNK_SIZE));
+        } catch (IOException | RuntimeException e) {
+            out.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Gets the exception to throw for an error of a background thread. An
+     * IOException is thrown as it is; anything else is wrapped in one.
+     */
+    private static IOException asIOException(Throwable error) {
+        if (error instanceof IOException) {
+            return (IOException) error;
+        }
+        return new IOException("Background compression thread failed", error);
+    }
+
+    /**
+     * Reads chunks from a source stream on a background thread, up to
+     * {@link #QUEUED_CHUNKS} ahead of the reader. An error of the source is
+     * thrown to the reader once the chunks before it have been read.
+     */
+    static final class ReadAheadInputStream extends InputStream {
+        private static final byte[] END = new byte[0];
+
+        private final InputStream source;
+        private final BlockingQueue<byte[]> chunks = new ArrayBlockingQueue<>(QUEUED_CHUNKS);
+        private final Thread thread;
+        private volatile Throwable error;
+        private byte[] chunk = new byte[0];
+        private int position = 0;
+        private boolean ended = false;
+
+        ReadAheadInputStream(InputStream source) {
+            this.source = source;
+            thread = new Thread(this::readAhead, "codec-read-ahead");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        private void readAhead() {
+            try {
+                while (true) {
+                    byte[] next = new byte[CHUNK_SIZE];
+                    int length = source.readNBytes(next, 0, next.length);
+                    if (length == 0) {
+                        break;
+                    }
+                    chunks.put(length == next.length ? next : Arrays.copyOf(next, length));
+                }
+            } catch (InterruptedException e) {
+                // Closed by the reader; keep the interrupt so that END is not waited for.
+                Thread.currentThread().interrupt();
+            } catch (Throwable t) {
+                error = t;
+            } finally {
+                // The reader waits for END whatever stopped this thread.
+                try {
+                    chunks.put(END);
+                } catch (InterruptedException e) {
+                    // Closed by the reader.
+                }
+            }
+        }
+
+        /**
+         * Moves to the next chunk if the current one is used up.
+         * @return false at the end of the stream.
+         */
+        private boolean fill() throws IOException {
+            while (position == chunk.length) {
+                if (ended) {
+                    return false;
+                }
+                try {
+                    chunk = chunks.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for decompressed data");
+                }
+                position = 0;
+                if (chunk == END) {
+                    ended = true;
+                    if (error != null) {
+                        throw asIOException(error);
+                    }
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return fill() ? chunk[position++] & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            if (!fill()) {
+                return -1;
+            }
+            int count = Math.min(length, chunk.length - position);
+            System.arraycopy(chunk, position, bytes, offset, count);
+            position += count;
+            return count;
+        }
+
+        @Override
+        public void close() throws IOException {
+            thread.interrupt();
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            source.close();
+        }
+    }
+
+    /**
+     * Collects written bytes into chunks and writes them to a target stream
+     * on a background thread, up to {@link #QUEUED_CHUNKS} behind the writer.
+     * An error of the target is thrown to the writer on its next write, flush
+     * or close.
+     */
+    static final class WriteBehindOutputStream extends OutputStream {
+        private static final byte[] END = new byte[0];
+
+        private final OutputStream target;
+        private final BlockingQueue<byte[]> full = new ArrayBlockingQueue<>(QUEUED_CHUNKS);
+        private final BlockingQueue<byte[]> free = new ArrayBlockingQueue<>(QUEUED_CHUNKS + 1);
+        private final Thread thread;
+        private volatile Throwable error;
+        private byte[] chunk = new byte[CHUNK_SIZE];
+        private int position = 0;
+        private boolean closed = false;
+
+        WriteBehindOutputStream(OutputStream target) {
+            this.target = target;
+            thread = new Thread(this::writeBehind, "codec-write-behind");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        private void writeBehind() {
+            boolean ended = false;
+            try {
+                byte[] next;
+                while ((next = full.take()) != END) {
+                    target.write(next);
+                    if (next.length == CHUNK_SIZE) {
+                        free.offer(next);
+                    }
+                }
+                ended = true;
+            } catch (InterruptedException e) {
+                // Abandoned by the writer.
+                ended = true;
+            } catch (Throwable t) {
+                error = t;
+            } finally {
+                if (!ended) {
+                    drain();
+                }
+            }
+        }
+
+        /**
+         * Discards chunks until the writer closes the stream, so that it never
+         * blocks on a full queue after this thread has failed.
+         */
+        private void drain() {
+            try {
+                while (full.take() != END) {
+                    // The error is thrown to the writer instead.
+                }
+            } catch (InterruptedException e) {
+                // Abandoned by the writer.
+            }
+        }
+
+        private void checkOpen() throws IOException {
+            if (closed) {
+                throw new IOException("Stream closed");
+            }
+            if (error != null) {
+                throw asIOException(error);
+            }
+        }
+
+        /**
+         * Hands the bytes collected so far to the background thread.
+         */
+        private void handOff() throws IOException {
+            if (position == 0) {
+                return;
+            }
+            byte[] next = position == CHUNK_SIZE ? chunk : Arrays.copyOf(chunk, position);
+            put(next);
+            byte[] recycled = next == chunk ? free.poll() : chunk;
+            chunk = recycled != null ? recycled : new byte[CHUNK_SIZE];
+            position = 0;
+        }
+
+        private void put(byte[] next) throws IOException {
+            try {
+                full.put(next);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for the compressor");
+            }
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            checkOpen();
+            if (position == CHUNK_SIZE) {
+                handOff();
+            }
+            chunk[position++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            checkOpen();
+            while (length > 0) {
+                if (position == CHUNK_SIZE) {
+                    handOff();
+                }
+                int count = Math.min(length, CHUNK_SIZE - position);
+                System.arraycopy(bytes, offset, chunk, position, count);
+                position += count;
+                offset += count;
+                length -= count;
+            }
+        }
+
+        /**
+         * Hands the bytes written so far to the background thread. The bytes
+         * are not forced through the compressor, which would make the output
+         * larger, so a flush does not wait for them.
+         */
+        @Override
+        public void flush() throws IOException {
+            checkOpen();
+            handOff();
+        }
+
+        /**
+         * Writes the remaining bytes, waits for the background thread and
+         * closes the target stream, which finishes the compressed file.
+         */
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                try {
+                    handOff();
+                    put(END);
+                    thread.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for the compressor");
+                } finally {
+                    thread.interrupt();
+                }
+                if (error != null) {
+                    throw asIOException(error);
+                }
+            } finally {
+                target.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package org.howard.edu.lsp.assignment3;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * JUnit 5 test class for {@link CompressionCodec} and the readers and writers
+ * that stream through it.
+ */
+public class CompressionCodecTest {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Tests that the codec is chosen from the extension.
+     */
+    @Test
+    @DisplayName("Test codec detection")
+    void testForPath() {
+        assertEquals(CompressionCodec.NONE, CompressionCodec.forPath("data/products.csv"));
+        assertEquals(CompressionCodec.GZIP, CompressionCodec.forPath("data/products.csv.gz"));
+        assertEquals(CompressionCodec.GZIP, CompressionCodec.forPath("FEED.CSV.GZ"));
+        assertThrows(IllegalArgumentException.class, () -> CompressionCodec.forPath("data/products.csv.zst"));
+    }
+
+    /**
+     * Tests that a source or target that throws an unchecked exception on the
+     * background thread fails the reader or writer with it instead of leaving
+     * them waiting forever.
+     */
+    @Test
+    @DisplayName("Test unchecked errors of the background threads")
+    void testBackgroundThreadFailures() {
+        RuntimeException failure = new IllegalStateException("broken");
+        InputStream source = new InputStream() {
+            private int remaining = 3 * CompressionCodec.CHUNK_SIZE;
+
+            @Override
+            public int read() {
+                if (remaining-- == 0) {
+                    throw failure;
+                }
+                return 'x';
+            }
+        };
+        assertTimeoutPreemptively(Duration.ofSeconds(20), () -> {
+            try (InputStream in = new CompressionCodec.ReadAheadInputStream(source)) {
+                byte[] chunk = new byte[CompressionCodec.CHUNK_SIZE];
+                // The chunks read before the failure still arrive.
+                assertEquals(chunk.length, in.readNBytes(chunk, 0, chunk.length));
+                assertEquals('x', chunk[chunk.length - 1]);
+                IOException e = assertThrows(IOException.class, in::readAllBytes);
+                assertSame(failure, e.getCause());
+            }
+        });
+
+        OutputStream target = new OutputStream() {
+            @Override
+            public void write(int b) {
+                throw failure;
+            }
+        };
+        assertTimeoutPreemptively(Duration.ofSeconds(20), () -> {
+            OutputStream out = new CompressionCodec.WriteBehindOutputStream(target);
+            byte[] chunk = new byte[CompressionCodec.CHUNK_SIZE];
+            IOException e = assertThrows(IOException.class, () -> {
+                // Far more chunks than the queue holds.
+                for (int i = 0; i < 100; i++) {
+                    out.write(chunk);
+                }
+            });
+            assertSame(failure, e.getCause());
+            e = assertThrows(IOException.class, out::close);
+            assertSame(failure, e.getCause());
+        });
+    }
+
+    /**
+     * Tests that bytes written in writes of every size, several chunks long,
+     * read back the same, and that the file is a standard gzip file.
+     */
+    @Test
+    @DisplayName("Test gzip round trip")
+    void testRoundTrip() throws IOException {
+        Random random = new Random(5);
+        byte[] data = new byte[5 * CompressionCodec.CHUNK_SIZE + 123];
+        for (int i = 0; i < data.length; i++) {
+            // Compressible, like CSV text.
+            data[i] = (byte) ('0' + random.nextInt(10));
+        }
+        Path file = directory.resolve("data.gz");
+        try (OutputStream out = CompressionCodec.GZIP.openOutput(file.toString())) {
+            int position = 0;
+            while (position < data.length) {
+                int length = Math.min(random.nextInt(3 * CompressionCodec.CHUNK_SIZE / 2), data.length - position);
+                if (length == 0) {
+                    out.write(data[position++]);
+                } else {
+                    out.write(data, position, length);
+                    position += length;
+                }
+                out.flush();
+            }
+        }
+        try (InputStream in = CompressionCodec.GZIP.openInput(file.toString())) {
+            assertArrayEquals(data, in.readAllBytes());
+            assertEquals(-1, in.read());
+        }
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            assertArrayEquals(data, in.readAllBytes());
+        }
+
+        // A truncated file fails once the bytes before the damage are read.
+        byte[] compressed = Files.readAllBytes(file);
+        Path truncated = directory.resolve("truncated.gz");
+        Files.write(truncated, Arrays.copyOf(compressed, compressed.length / 2));
+        try (InputStream in = CompressionCodec.GZIP.openInput(truncated.toString())) {
+            assertThrows(IOException.class, in::readAllBytes);
+        }
+    }
+
+    /**
+     * Tests that a compressed input and output give the same rows and
+     * counters as plain files.
+     */
+    @Test
+    @DisplayName("Test pipeline with compressed files")
+    void testPipeline() throws IOException {
+        Path input = directory.resolve("products.csv");
+        ProductFileTestSupport.generate(input, 20_000, 9, 0.01, 0);
+        Path compressedInput = directory.resolve("products.csv.gz");
+        try (OutputStream out = CompressionCodec.GZIP.openOutput(compressedInput.toString())) {
+            Files.copy(input, out);
+        }
+
+        Path expected = directory.resolve("expected.csv");
+        RunSummary plain = ProductFileTestSupport.runBatch(input, expected);
+        for (String[] args : new String[][] {{}, {"--stream", "--byte-writer"}}) {
+            Path output = directory.resolve("transformed.csv.gz");
+            RunSummary compressed = ETLPipeline.run(compressedInput.toString(), output.toString(),
+                    PipelineOptions.parse(args));
+            assertEquals(plain.getRowsRead(), compressed.getRowsRead());
+            assertEquals(plain.getRowsSkipped(), compressed.getRowsSkipped());
+            try (InputStream in = CompressionCodec.GZIP.openInput(output.toString())) {
+                assertArrayEquals(Files.readAllBytes(expected), in.readAllBytes());
+            }
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> ETLPipeline.run(compressedInput.toString(),
+                directory.resolve("parallel.csv").toString(), PipelineOptions.parse(new String[] {"--parallel"})));
+    }
+}
@@ -0,0 +1,43 @@
+package org.howard.edu.lsp.assignment3;
+
+import java.nio.charset.Charset;
+
+/**
+ * Constants that describe the on-disk layout of the input and output CSV files.
+ * Every reader and writer in the pipeline uses these so that all run modes
+ * produce byte-identical output.
+ */
+final class CsvFormat {
+
+    /** The character set used by {@code FileReader} and {@code FileWriter}. */
+    static final Charset CHARSET = Charset.defaultCharset();
+
+    /** The header row written at the top of the output file. */
+    static final String OUTPUT_HEADER = "ProductID,Name,Price,Category,PriceRange";
+
+    /** The line terminator written by {@code BufferedWriter.newLine()}. */
+    static final String LINE_SEPARATOR = System.lineSeparator();
+
+    /** Whether every ASCII character is encoded as the single byte of the same value. */
+    static final boolean ASCII_COMPATIBLE = isAsciiCompatible();
+
+    private CsvFormat() {
+    }
+
+    private static boolean isAsciiCompatible() {
+        char[] ascii = new char[128];
+        for (int i = 0; i < ascii.length; i++) {
+            ascii[i] = (char) i;
+        }
+        byte[] encoded = new String(ascii).getBytes(CHARSET);
+        if (encoded.length != ascii.length) {
+            return false;
+        }
+        for (int i = 0; i < encoded.length; i++) {
+            if (encoded[i] != i) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,300 @@
+package org.howard.edu.lsp.assignment3;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Finds the rows of a file that are superseded by a later row with the same
+ * ProductID, so that only the last occurrence of each ProductID is
+ * transformed and written.
+ * <p>
+ * Rows are added in order with their ProductID. The last row of each
+ * ProductID is kept in a primitive open-addressing table, and a row that is
+ * replaced by a later one is marked in a bitset with one bit per row. When the
+ * table reaches its key budget, the index spills: the table and every later
+ * (ProductID, row) pair are written to partition files by a hash of the
+ * ProductID, and {@link #finish()} resolves one partition at a time, so only
+ * a partition's keys are ever in memory at once.
+ * <p>
+ * An index is not thread-safe.
+ */
+public class DedupIndex {
+
+    /** The number of partition files the pairs are spread over once the index spills. */
+    static final int PARTITIONS = 64;
+
+    private static final int EMPTY = 0;
+    private static final int PAIR_BUFFER_SIZE = 64 * 1024;
+
+    private final int maxKeys;
+    private final Path spillDirectory;
+
+    // Open-addressing table: keys[slot] holds the ProductID and rows[slot]
+    // holds the last row + 1, or EMPTY for a free slot.
+    private int[] keys = new int[1024];
+    private int[] rows = new int[1024];
+    private int size = 0;
+
+    private long[] superseded = new long[16];
+    private int rowCount = 0;
+    private int duplicates = 0;
+    private boolean finished = false;
+
+    private Path partitionDirectory = null;
+    private DataOutputStream[] partitions = null;
+
+    /**
+     * Constructs a DedupIndex that keeps every key in memory.
+     */
+    public DedupIndex() {
+        this(Integer.MAX_VALUE, null);
+    }
+
+    /**
+     * Constructs a DedupIndex that spills to disk once it holds more than
+     * the given number of distinct ProductIDs.
+     * @param maxKeys The number of distinct ProductIDs to hold in memory.
+     * @param spillDirectory The directory for the partition files.
+     */
+    public DedupIndex(int maxKeys, Path spillDirectory) {
+        if (maxKeys < 1) {
+            throw new IllegalArgumentException("maxKeys must be positive");
+        }
+        this.maxKeys = maxKeys;
+        this.spillDirectory = spillDirectory;
+    }
+
+    /**
+     * Gets the default key budget: enough distinct ProductIDs to fill about a
+     * quarter of the maximum heap, at 24 bytes per key.
+     * @return The number of keys to hold in memory.
+     */
+    public static int defaultMaxKeys() {
+        return (int) Math.min(Integer.MAX_VALUE / 2, Runtime.getRuntime().maxMemory() / 4 / 24);
+    }
+
+    /**
+     * Adds the next row.
+     * @param productId The ProductID of the row.
+     * @return The index of the row.
+     * @throws IOException if a partition file cannot be written.
+     * @throws IllegalStateException if the index is already finished.
+     */
+    public int add(int productId) throws IOException {
+        if (finished) {
+            throw new IllegalStateException("DedupIndex is finished");
+        }
+        int row = rowCount++;
+        if (row >> 6 == superseded.length) {
+            superseded = Arrays.copyOf(superseded, superseded.length * 2);
+        }
+        if (partitions != null) {
+            writePair(productId, row);
+        } else {
+            put(productId, row);
+            if (size > maxKeys && spillDirectory != null) {
+                spill();
+            }
+        }
+        return row;
+    }
+
+    /**
+     * Resolves the spilled partitions, if any. Must be called after the last
+     * row is added and before {@link #isLatest(int)}.
+     * @throws IOException if a partition file cannot be read.
+     */
+    public void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        if (partitions == null) {
+            releaseTable();
+            return;
+        }
+        try {
+            for (DataOutputStream partition : partitions) {
+                partition.close();
+            }
+            for (int i = 0; i < PARTITIONS; i++) {
+                releaseTable();
+                keys = new int[1024];
+                rows = new int[1024];
+                readPartition(partitionDirectory.resolve(partitionName(i)));
+            }
+            releaseTable();
+        } finally {
+            deletePartitions();
+        }
+    }
+
+    /**
+     * Checks whether a row is the last occurrence of its ProductID.
+     * @param row The index of the row.
+     * @return true if no later row has the same ProductID.
+     * @throws IllegalStateException if the index is not finished.
+     */
+    public boolean isLatest(int row) {
+        if (!finished) {
+            throw new IllegalStateException("DedupIndex is not finished");
+        }
+        return (superseded[row >> 6] & (1L << row)) == 0;
+    }
+
+    /**
+     * Gets the number of rows added.
+     * @return The number of rows.
+     */
+    public int getRows() {
+        return rowCount;
+    }
+
+    /**
+     * Gets the number of rows superseded by a later row with the same ProductID.
+     * @return The number of duplicate rows; complete once the index is finished.
+     */
+    public int getDuplicates() {
+        return duplicates;
+    }
+
+    /**
+     * Checks whether the index has spilled to disk.
+     * @return true if the keys did not fit in the key budget.
+     */
+    public boolean isSpilled() {
+        return partitionDirectory != null;
+    }
+
+    /**
+     * Deletes the partition files of an index that will not be finished.
+     * @throws IOException if a partition file cannot be deleted.
+     */
+    public void discard() throws IOException {
+        if (partitions != null && !finished) {
+            finished = true;
+            for (DataOutputStream partition : partitions) {
+                try {
+                    partition.close();
+                } catch (IOException e) {
+                    // The file is deleted below.
+                }
+            }
+            deletePartitions();
+        }
+    }
+
+    private void put(int productId, int row) {
+        int mask = keys.length - 1;
+        int slot = mix(productId) & mask;
+        while (rows[slot] != EMPTY) {
+            if (keys[slot] == productId) {
+                int previous = rows[slot] - 1;
+                superseded[previous >> 6] |= 1L << previous;
+                duplicates++;
+                rows[slot] = row + 1;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = productId;
+        rows[slot] = row + 1;
+        if (++size * 2 > keys.length) {
+            rehash();
+        }
+    }
+
+    private void rehash() {
+        int[] oldKeys = keys;
+        int[] oldRows = rows;
+        keys = new int[oldKeys.length * 2];
+        rows = new int[oldRows.length * 2];
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldRows[i] != EMPTY) {
+                int slot = mix(oldKeys[i]) & mask;
+                while (rows[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                rows[slot] = oldRows[i];
+            }
+        }
+    }
+
+    private void releaseTable() {
+        keys = null;
+        rows = null;
+        size = 0;
+    }
+
+    /**
+     * Moves the table to the partition files; later rows are appended to them.
+     */
+    private void spill() throws IOException {
+        partitionDirectory = Files.createTempDirectory(spillDirectory, "dedup");
+        partitions = new DataOutputStream[PARTITIONS];
+        for (int i = 0; i < PARTITIONS; i++) {
+            partitions[i] = new DataOutputStream(new BufferedOutputStream(
+                    Files.newOutputStream(partitionDirectory.resolve(partitionName(i))), PAIR_BUFFER_SIZE));
+        }
+        // Every row in the table comes before every row added from now on,
+        // so each partition still lists the rows of a ProductID in order.
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (rows[slot] != EMPTY) {
+                writePair(keys[slot], rows[slot] - 1);
+            }
+        }
+        releaseTable();
+    }
+
+    private void writePair(int productId, int row) throws IOException {
+        DataOutputStream partition = partitions[(mix(productId) >>> 26) & (PARTITIONS - 1)];
+        partition.writeInt(productId);
+        partition.writeInt(row);
+    }
+
+    private void readPartition(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(file), PAIR_BUFFER_SIZE))) {
+            while (true) {
+                int productId;
+                try {
+                    productId = in.readInt();
+                } catch (EOFException e) {
+                    return;
+                }
+                put(productId, in.readInt());
+            }
+        }
+    }
+
+    private void deletePartitions() throws IOException {
+        for (int i = 0; i < PARTITIONS; i++) {
+            Files.deleteIfExists(partitionDirectory.resolve(partitionName(i)));
+        }
+        Files.deleteIfExists(partitionDirectory);
+    }
+
+    private static String partitionName(int partition) {
+        return "partition-" + partition;
+    }
+
+    private static int mix(int id) {
+        // The finalizer of MurmurHash3, so sequential ids spread over the table.
+        int h = id;
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
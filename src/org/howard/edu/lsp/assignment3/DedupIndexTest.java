@@ -0,0 +1,108 @@
+package org.howard.edu.lsp.assignment3;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * JUnit 5 test class for {@link DedupIndex}.
+ */
+public class DedupIndexTest {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Tests that only the last row of each ProductID is kept.
+     */
+    @Test
+    @DisplayName("Test last occurrence wins")
+    void testLastOccurrence() throws IOException {
+        DedupIndex index = new DedupIndex();
+        for (int id : new int[] {7, 3, 7, -1, 3, 7}) {
+            index.add(id);
+        }
+        assertThrows(IllegalStateException.class, () -> index.isLatest(0));
+        index.finish();
+        boolean[] expected = {false, false, false, true, true, true};
+        for (int row = 0; row < expected.length; row++) {
+            assertEquals(expected[row], index.isLatest(row), "row " + row);
+        }
+        assertEquals(6, index.getRows());
+        assertEquals(3, index.getDuplicates());
+        assertFalse(index.isSpilled());
+        assertThrows(IllegalStateException.class, () -> index.add(1));
+    }
+
+    /**
+     * Tests that an index that spills to disk gives the same answers as one
+     * that keeps every key in memory, and deletes its partition files.
+     */
+    @Test
+    @DisplayName("Test spilled index matches in-memory index")
+    void testSpill() throws IOException {
+        DedupIndex memory = new DedupIndex();
+        DedupIndex spilled = new DedupIndex(100, directory);
+        Random random = new Random(17);
+        int rows = 50_000;
+        for (int i = 0; i < rows; i++) {
+            int id = random.nextInt(20_000) - 1_000;
+            memory.add(id);
+            spilled.add(id);
+        }
+        assertTrue(spilled.isSpilled());
+        memory.finish();
+        spilled.finish();
+
+        assertEquals(memory.getDuplicates(), spilled.getDuplicates());
+        for (int row = 0; row < rows; row++) {
+            assertEquals(memory.isLatest(row), spilled.isLatest(row), "row " + row);
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(0, files.count(), "partition files are deleted");
+        }
+    }
+
+    /**
+     * Tests that a pipeline run with --dedup writes one row per ProductID and
+     * reports the rows it dropped, with or without spilling.
+     */
+    @Test
+    @DisplayName("Test --dedup pipeline run")
+    void testPipeline() throws IOException {
+        Path input = directory.resolve("products.csv");
+        Files.write(input, ("ProductID,Name,Price,Category\n"
+                + "1,TV,450.00,Electronics\n"
+                + "2,Apple,1.00,Grocery\n"
+                + "1,TV,400.00,Electronics\n"
+                + "bad row\n"
+                + "3,Pen,2.00,Office\n"
+                + "2,Apple,1.25,Grocery\n").getBytes(CsvFormat.CHARSET));
+        Path output = directory.resolve("transformed.csv");
+
+        for (String[] args : new String[][] {
+                {"--dedup"}, {"--stream", "--dedup"}, {"--columnar", "--dedup-memory", "1"}}) {
+            RunSummary summary = ETLPipeline.run(input.toString(), output.toString(), PipelineOptions.parse(args));
+            String mode = String.join(" ", args);
+            assertEquals(2, summary.getDuplicatesRemoved(), mode);
+            assertEquals(3, summary.getRowsTransformed(), mode);
+            assertEquals(1, summary.getRowsSkipped(), mode);
+            String[] lines = new String(Files.readAllBytes(output), CsvFormat.CHARSET).split("\n");
+            assertEquals(4, lines.length, mode);
+            assertTrue(lines[1].startsWith("1,TV,"), mode);
+            assertTrue(lines[2].startsWith("3,PEN,"), mode);
+            assertTrue(lines[3].startsWith("2,APPLE,"), mode);
+        }
+
+        assertEquals(-1, ProductFileTestSupport.runBatch(input, output).getDuplicatesRemoved());
+        assertThrows(IllegalArgumentException.class,
+                () -> PipelineOptions.parse(new String[] {"--parallel", "--dedup"}));
+    }
+}
@@ -1,9 +1,12 @@
 package org.howard.edu.lsp.assignment3;
 
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
+import javax.management.JMException;
 
 /**
  * The main class that orchestrates the entire ETL (Extract, Transform, Load) process.
@@ -13,35 +16,50 @@ import java.util.List;
 public class ETLPipeline {
 
     /**
-     * Main method to execute the ETL process.
-     * @param args Command line arguments (not used).
+     * Main method to execute the ETL process, by default extracting the whole file,
+     * then transforming it, then loading it. Each flag is described on its case in
+     * {@link PipelineOptions#parse} and in the README.
+     * @param args Command line arguments; see {@link PipelineOptions}.
      */
     public static void main(String[] args) {
-        final String INPUT_FILE = "data/products.csv";
-        final String OUTPUT_FILE = "data/transformed_products.csv";
-
-        // Initialize components
-        CSVReader reader = new CSVReader(INPUT_FILE);
-        ProductTransformer transformer = new ProductTransformer();
-        CSVWriter writer = new CSVWriter(OUTPUT_FILE);
+        PipelineOptions options;
+        try {
+            options = PipelineOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+            return;
+        }
 
-        List<Product> extractedProducts = new ArrayList<>();
-        List<Product> transformedProducts = new ArrayList<>();
+        PipelineMetrics metrics = new PipelineMetrics();
+        try {
+            metrics.register();
+        } catch (JMException e) {
+            System.err.println("Warning: Could not register the pipeline metrics with JMX: " + e.getMessage());
+        }
 
+        RunSummary summary;
+        String inputFile = options.getInput();
         try {
-            // 1. Extract
-            extractedProducts = reader.readProducts();
-            
-            // 2. Transform
-            for (Product product : extractedProducts) {
-                transformedProducts.add(transformer.transform(product));
+            if (options.isMultiFile()) {
+                MultiFileETLEngine engine = runMultiFile(options, metrics);
+                engine.print();
+                summary = engine.getSummary();
+            } else {
+                String outputFile = options.getOutput() != null ? options.getOutput()
+                        : MultiFileETLEngine.defaultOutput(Paths.get(inputFile)).toString();
+                summary = run(inputFile, outputFile, options, metrics);
+                // Print the run summary
+                summary.print(outputFile);
             }
-            
-            // 3. Load
-            writer.writeProducts(transformedProducts);
-
         } catch (FileNotFoundException e) {
-            System.err.println("Error: Input file '" + INPUT_FILE + "' not found. Please ensure the file exists in the 'data' directory.");
+            if (options.isMultiFile()) {
+                System.err.println("Error: " + e.getMessage());
+                return;
+            }
+            System.err.println("Error: Input file '" + inputFile + "' not found. Please ensure the file exists in the 'data' directory.");
+            return;
+        } catch (IllegalArgumentException | ErrorRateExceededException e) {
+            System.err.println("Error: " + e.getMessage());
             return;
         } catch (IOException e) {
             System.err.println("An I/O error occurred: " + e.getMessage());
@@ -49,13 +67,648 @@ public class ETLPipeline {
             return;
         }
 
-        // Print the run summary
-        System.out.println("ETL Process Complete.");
-        System.out.println("----------------------");
-        System.out.println("Summary:");
-        System.out.println("Rows Read: " + reader.getRowsRead());
-        System.out.println("Rows Transformed: " + transformedProducts.size());
-        System.out.println("Rows Skipped: " + reader.getRowsSkipped());
-        System.out.println("Output File: " + OUTPUT_FILE);
+        if (options.getMetricsFile() != null) {
+            try {
+                metrics.writeSummary(options.getMetricsFile(), options.getMode(), summary);
+            } catch (IOException e) {
+                System.err.println("Error: Could not write the metrics file: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Runs the ETL process over the given files in the mode selected by the options.
+     * @param inputFile The path to the input CSV file.
+     * @param outputFile The path to the output CSV file.
+     * @param options The parsed command line options.
+     * @return The counters of the run.
+     * @throws FileNotFoundException if the input file does not exist.
+     * @throws IOException if an I/O error occurs while reading or writing.
+     */
+    public static RunSummary run(String inputFile, String outputFile, PipelineOptions options)
+            throws FileNotFoundException, IOException {
+        return run(inputFile, outputFile, options, new PipelineMetrics());
+    }
+
+    /**
+     * Runs the ETL process over the given files in the mode selected by the options,
+     * recording the time, rows and bytes of each stage.
+     * @param inputFile The path to the input CSV file.
+     * @param outputFile The path to the output CSV file.
+     * @param options The parsed command line options.
+     * @param metrics The metrics to record the stages into.
+     * @return The counters of the run.
+     * @throws FileNotFoundException if the input file does not exist.
+     * @throws IOException if an I/O error occurs while reading or writing.
+     */
+    public static RunSummary run(String inputFile, String outputFile, PipelineOptions options,
+            PipelineMetrics metrics) throws FileNotFoundException, IOException {
+        TransformRules rules = loadRules(options.getRulesFile());
+        ProductAggregator aggregator = options.getAggregateFile() != null ? new ProductAggregator() : null;
+        RunSummary summary;
+        try (Quarantine quarantine = new Quarantine(options.getQuarantineFile(), options.getMaxErrorRate())) {
+            metrics.start();
+            try {
+                summary = runMode(inputFile, outputFile, options, rules, aggregator, quarantine, metrics);
+            } finally {
+                metrics.finish();
+            }
+        }
+        if (aggregator != null) {
+            aggregator.write(options.getAggregateFile());
+        }
+        return summary;
+    }
+
+    /**
+     * Runs the ETL process over one file in the mode selected by the options,
+     * without starting or finishing the metrics, so that several files can be
+     * run into the same metrics at once.
+     * @param inputFile The path to the input CSV file.
+     * @param outputFile The path to the output CSV file.
+     * @param options The parsed command line options.
+     * @param rules The transformation rules.
+     * @param aggregator The aggregator the written rows are added to, or null to gather no stats.
+     * @param quarantine The quarantine the malformed rows are recorded in.
+     * @param metrics The metrics to record the stages into.
+     * @return The counters of the run.
+     * @throws FileNotFoundException if the input file does not exist.
+     * @throws ErrorRateExceededException if too many rows are malformed.
+     * @throws IOException if an I/O error occurs while reading or writing.
+     * @throws IllegalArgumentException if the mode cannot read or write a compressed file.
+     */
+    static RunSummary runMode(String inputFile, String outputFile, PipelineOptions options,
+            TransformRules rules, ProductAggregator aggregator, Quarantine quarantine, PipelineMetrics metrics)
+            throws FileNotFoundException, IOException {
+        checkCompression(inputFile, outputFile, options);
+        RejectedRowHandler rejectedRows = quarantine.forInput(inputFile);
+        ProductReader reader = newReader(inputFile, options, rejectedRows);
+        ProductWriter writer = options.isByteWriter()
+                ? new ByteCSVWriter(outputFile)
+                : new CSVWriter(outputFile);
+        if (options.getBinaryFile() != null) {
+            writer = new TeeWriter(writer, new ColumnarFileWriter(options.getBinaryFile()));
+        }
+        if (aggregator != null) {
+            writer = new AggregatingWriter(writer, aggregator);
+        }
+
+        DedupIndex dedup = options.isDedup()
+                ? new DedupIndex(options.getDedupMaxKeys(), Paths.get(outputFile).toAbsolutePath().getParent())
+                : null;
+        try {
+            switch (options.getMode()) {
+                case STREAM:
+                    if (dedup != null) {
+                        // The streaming pass reports the malformed rows.
+                        findDuplicates(newReader(inputFile, options, RejectedRowHandler.IGNORE), dedup, metrics);
+                    }
+                    return recordFileSizes(runStreaming(reader, writer, rules, dedup, metrics),
+                            inputFile, outputFile, metrics);
+                case PIPELINED:
+                    if (dedup != null) {
+                        // The pipelined pass reports the malformed rows.
+                        findDuplicates(newReader(inputFile, options, RejectedRowHandler.IGNORE), dedup, metrics);
+                    }
+                    return recordFileSizes(runPipelined(reader, writer, options.getQueueBatches(), rules, dedup,
+                            metrics), inputFile, outputFile, metrics);
+                case COLUMNAR:
+                    return recordFileSizes(runColumnar(inputFile, writer, rules, dedup, rejectedRows, metrics),
+                            inputFile, outputFile, metrics);
+                case PARALLEL:
+                    // The engine counts the bytes of each chunk itself.
+                    return runParallel(inputFile, outputFile, options.getThreads(), rules, aggregator,
+                            rejectedRows, metrics);
+                case INCREMENTAL:
+                    return runIncremental(inputFile, outputFile, options.getIndexFile(outputFile), rules,
+                            rejectedRows, metrics);
+                case CHECKPOINTED:
+                    return runCheckpointed(inputFile, outputFile, options.getCheckpointRows(), options.isResume(),
+                            rules, rejectedRows, metrics);
+                default:
+                    return recordFileSizes(runBatch(reader, writer, rules, dedup, metrics),
+                            inputFile, outputFile, metrics);
+            }
+        } finally {
+            if (dedup != null) {
+                dedup.discard();
+            }
+        }
+    }
+
+    private static ProductReader newReader(String inputFile, PipelineOptions options,
+            RejectedRowHandler rejectedRows) {
+        if (options.isMemoryMapped()) {
+            MappedCSVReader reader = new MappedCSVReader(inputFile);
+            reader.setRejectedRowHandler(rejectedRows);
+            return reader;
+        }
+        CSVReader reader = new CSVReader(inputFile);
+        reader.setRejectedRowHandler(rejectedRows);
+        return reader;
+    }
+
+    /**
+     * Checks that the selected mode can stream the input and output files
+     * through their {@link CompressionCodec}. The memory-mapped readers and
+     * the modes that seek by byte offset need plain files.
+     * @throws IllegalArgumentException if a compressed file cannot be used in the mode.
+     */
+    private static void checkCompression(String inputFile, String outputFile, PipelineOptions options) {
+        boolean compressedInput = CompressionCodec.isCompressed(inputFile);
+        boolean compressedOutput = CompressionCodec.isCompressed(outputFile);
+        switch (options.getMode()) {
+            case BATCH:
+            case STREAM:
+            case PIPELINED:
+                if (compressedInput && options.isMemoryMapped()) {
+                    throw new IllegalArgumentException("--mmap cannot read a compressed input file: " + inputFile);
+                }
+                break;
+            case COLUMNAR:
+                if (compressedInput) {
+                    throw new IllegalArgumentException("--columnar cannot read a compressed input file: " + inputFile);
+                }
+                break;
+            case INCREMENTAL:
+                if (compressedOutput) {
+                    throw new IllegalArgumentException(
+                            "--incremental cannot write a compressed output file: " + outputFile);
+                }
+                break;
+            default:
+                if (compressedInput || compressedOutput) {
+                    throw new IllegalArgumentException(
+                            "The parallel and checkpointed modes cannot read or write compressed files");
+                }
+                break;
+        }
+    }
+
+    /**
+     * Runs the ETL process over every file named by the input option on a
+     * {@link MultiFileETLEngine}.
+     * @param options The parsed command line options.
+     * @param metrics The metrics to record the stages into.
+     * @return The engine, holding the per-file results.
+     * @throws IOException if the inputs cannot be listed or the merged output cannot be written.
+     */
+    private static MultiFileETLEngine runMultiFile(PipelineOptions options, PipelineMetrics metrics)
+            throws IOException {
+        if (options.getBinaryFile() != null) {
+            throw new IllegalArgumentException("--binary can only be used with a single input file");
+        }
+        TransformRules rules = loadRules(options.getRulesFile());
+        MultiFileETLEngine engine = new MultiFileETLEngine(
+                MultiFileETLEngine.findInputs(options.getInput()), options.getThreads());
+        if (options.getMergeFile() != null) {
+            engine.setMergedOutput(Paths.get(options.getMergeFile()));
+        } else if (options.getOutput() != null) {
+            engine.setOutputDirectory(Paths.get(options.getOutput()));
+        }
+        engine.setOptions(options);
+        engine.setRules(rules);
+        engine.setMetrics(metrics);
+        try (Quarantine quarantine = new Quarantine(options.getQuarantineFile(), options.getMaxErrorRate())) {
+            engine.setQuarantine(quarantine);
+            metrics.start();
+            try {
+                engine.run();
+            } finally {
+                metrics.finish();
+            }
+        }
+        if (options.getAggregateFile() != null) {
+            engine.getAggregator().write(options.getAggregateFile());
+        }
+        return engine;
+    }
+
+    /**
+     * Loads the transformation rules.
+     * @param rulesFile The path of the rules file, or null for the default rules.
+     * @return The rules.
+     * @throws IOException if the rules file is missing, unreadable or invalid.
+     */
+    private static TransformRules loadRules(String rulesFile) throws IOException {
+        if (rulesFile == null) {
+            return TransformRules.defaults();
+        }
+        try {
+            return TransformRules.load(rulesFile);
+        } catch (FileNotFoundException e) {
+            // Not reported as a missing input file.
+            throw new IOException("Rules file '" + rulesFile + "' not found", e);
+        }
+    }
+
+    /**
+     * Runs the three stages one after another, holding the whole file in memory.
+     * @return The counters of the run.
+     */
+    private static RunSummary runBatch(ProductReader reader, ProductWriter writer, TransformRules rules,
+            DedupIndex dedup, PipelineMetrics metrics) throws IOException {
+        // Initialize components
+        ProductTransformer transformer = new ProductTransformer(reader.getCategories(), rules);
+
+        List<Product> extractedProducts = new ArrayList<>();
+        List<Product> transformedProducts = new ArrayList<>();
+
+        // 1. Extract
+        StageMetrics.Recorder extract = metrics.extract().recorder();
+        reader.streamProducts(product -> {
+            extractedProducts.add(product);
+            extract.tick();
+        });
+        extract.flush();
+        if (dedup != null) {
+            removeDuplicates(extractedProducts, dedup, metrics);
+        }
+
+        // 2. Transform
+        StageMetrics.Recorder transform = metrics.transform().recorder();
+        for (Product product : extractedProducts) {
+            transformedProducts.add(transformer.transform(product));
+            transform.tick();
+        }
+        transform.flush();
+
+        // 3. Load
+        StageMetrics.Recorder load = metrics.load().recorder();
+        try {
+            writer.open();
+            for (Product product : transformedProducts) {
+                writer.writeProduct(product);
+                load.tick();
+            }
+        } finally {
+            writer.close();
+        }
+        load.flush();
+
+        return summary(reader.getRowsRead(), transformedProducts.size(), reader.getRowsSkipped(), dedup);
+    }
+
+    /**
+     * Extracts, transforms and loads the file in small batches of
+     * {@link StageMetrics#BATCH_ROWS} rows, so memory use stays flat no matter
+     * how large the file is.
+     * @return The counters of the run.
+     */
+    private static RunSummary runStreaming(ProductReader reader, ProductWriter writer, TransformRules rules,
+            DedupIndex dedup, PipelineMetrics metrics) throws IOException {
+        ProductTransformer transformer = new ProductTransformer(reader.getCategories(), rules);
+        StreamingBatch batch = new StreamingBatch(transformer, writer, dedup, metrics);
+        try {
+            reader.streamProducts(batch);
+            batch.flush();
+            // The output file is opened with the first batch so that a missing
+            // input file does not leave an empty output file behind.
+            if (!writer.isOpen()) {
+                writer.open();
+            }
+        } finally {
+            writer.close();
+        }
+        return summary(reader.getRowsRead(), batch.rowsTransformed, reader.getRowsSkipped(), dedup);
+    }
+
+    /**
+     * Runs the three stages at the same time on their own threads, handing
+     * batches between them through bounded queues.
+     * @return The counters of the run.
+     */
+    private static RunSummary runPipelined(ProductReader reader, ProductWriter writer, int queueBatches,
+            TransformRules rules, DedupIndex dedup, PipelineMetrics metrics) throws IOException {
+        PipelinedETLEngine engine = new PipelinedETLEngine(reader, writer);
+        engine.setQueueBatches(queueBatches);
+        engine.setRules(rules);
+        engine.setDedup(dedup);
+        engine.setMetrics(metrics);
+        engine.run();
+        return summary(engine.getRowsRead(), engine.getRowsTransformed(), engine.getRowsSkipped(), dedup);
+    }
+
+    /**
+     * Reads the whole file into a columnar batch, transforms the batch in place
+     * and writes it straight from its columns, without a Product object per row.
+     * Each stage is timed as a single batch.
+     * @return The counters of the run.
+     */
+    private static RunSummary runColumnar(String inputFile, ProductWriter writer, TransformRules rules,
+            DedupIndex dedup, RejectedRowHandler rejectedRows, PipelineMetrics metrics) throws IOException {
+        MappedCSVReader reader = new MappedCSVReader(inputFile);
+        reader.setRejectedRowHandler(rejectedRows);
+        ProductTransformer transformer = new ProductTransformer(reader.getCategories(), rules);
+
+        long started = System.nanoTime();
+        ProductBatch batch = reader.readBatch();
+        long extracted = System.nanoTime();
+        metrics.extract().recordBatch(batch.size(), extracted - started);
+        if (dedup != null) {
+            for (int i = 0; i < batch.size(); i++) {
+                dedup.add(batch.getId(i));
+            }
+            dedup.finish();
+            batch.retainRows(dedup::isLatest);
+            long deduplicated = System.nanoTime();
+            // Timed as extraction, without counting the rows again.
+            metrics.extract().recordBatch(0, deduplicated - extracted);
+            extracted = deduplicated;
+        }
+
+        transformer.transformBatch(batch);
+        long transformed = System.nanoTime();
+        metrics.transform().recordBatch(batch.size(), transformed - extracted);
+
+        writer.writeProducts(batch);
+        metrics.load().recordBatch(batch.size(), System.nanoTime() - transformed);
+
+        return summary(reader.getRowsRead(), batch.size(), reader.getRowsSkipped(), dedup);
+    }
+
+    /**
+     * Finds the duplicate ProductIDs of a file in a first pass, so that the
+     * streaming pass can drop every row but the last of each ProductID.
+     */
+    private static void findDuplicates(ProductReader reader, DedupIndex dedup, PipelineMetrics metrics)
+            throws IOException {
+        long started = System.nanoTime();
+        reader.streamProducts(product -> dedup.add(product.getProductId()));
+        dedup.finish();
+        // Timed as extraction, without counting the rows twice.
+        metrics.extract().recordBatch(0, System.nanoTime() - started);
+    }
+
+    /**
+     * Drops every product but the last of each ProductID, keeping the rest in order.
+     */
+    private static void removeDuplicates(List<Product> products, DedupIndex dedup, PipelineMetrics metrics)
+            throws IOException {
+        long started = System.nanoTime();
+        for (Product product : products) {
+            dedup.add(product.getProductId());
+        }
+        dedup.finish();
+        int kept = 0;
+        for (int row = 0; row < products.size(); row++) {
+            if (dedup.isLatest(row)) {
+                products.set(kept++, products.get(row));
+            }
+        }
+        products.subList(kept, products.size()).clear();
+        // Timed as extraction, without counting the rows again.
+        metrics.extract().recordBatch(0, System.nanoTime() - started);
+    }
+
+    private static RunSummary summary(int rowsRead, int rowsTransformed, int rowsSkipped, DedupIndex dedup) {
+        if (dedup == null) {
+            return new RunSummary(rowsRead, rowsTransformed, rowsSkipped);
+        }
+        return new RunSummary(rowsRead, rowsTransformed, rowsSkipped, -1, dedup.getDuplicates());
+    }
+
+    /**
+     * Records the size of the input file as the bytes extracted and the size of
+     * the output file as the bytes loaded.
+     * @return The given summary.
+     */
+    private static RunSummary recordFileSizes(RunSummary summary, String inputFile, String outputFile,
+            PipelineMetrics metrics) {
+        metrics.extract().addBytes(new File(inputFile).length());
+        metrics.load().addBytes(new File(outputFile).length());
+        return summary;
+    }
+
+    /**
+     * Splits the input into chunks that are parsed and transformed on a worker
+     * pool and written back in input order.
+     * @return The counters of the run, summed across all chunks.
+     */
+    private static RunSummary runParallel(String inputFile, String outputFile, int threads,
+            TransformRules rules, ProductAggregator aggregator, RejectedRowHandler rejectedRows,
+            PipelineMetrics metrics) throws IOException {
+        ParallelETLEngine engine = new ParallelETLEngine(inputFile, outputFile, threads);
+        engine.setRules(rules);
+        engine.setAggregator(aggregator);
+        engine.setRejectedRowHandler(rejectedRows);
+        engine.setMetrics(metrics);
+        engine.run();
+        return new RunSummary(engine.getRowsRead(), engine.getRowsTransformed(), engine.getRowsSkipped());
+    }
+
+    /**
+     * Reuses the unchanged rows of the previous output and transforms the rest.
+     * @return The counters of the run.
+     */
+    private static RunSummary runIncremental(String inputFile, String outputFile, String indexFile,
+            TransformRules rules, RejectedRowHandler rejectedRows, PipelineMetrics metrics) throws IOException {
+        IncrementalETLEngine engine = new IncrementalETLEngine(inputFile, outputFile, indexFile);
+        engine.setRules(rules);
+        engine.setRejectedRowHandler(rejectedRows);
+        engine.setMetrics(metrics);
+        engine.run();
+        return new RunSummary(engine.getRowsRead(), engine.getRowsTransformed(), engine.getRowsSkipped(),
+                engine.getRowsReused());
+    }
+
+    /**
+     * Streams the file in batches, taking checkpoints, and renames the finished
+     * output into place.
+     * @return The counters of the run, including the rows processed before a resumed checkpoint.
+     */
+    private static RunSummary runCheckpointed(String inputFile, String outputFile, int checkpointRows,
+            boolean resume, TransformRules rules, RejectedRowHandler rejectedRows, PipelineMetrics metrics)
+            throws IOException {
+        CheckpointedETLEngine engine = new CheckpointedETLEngine(inputFile, outputFile, checkpointRows);
+        engine.setResume(resume);
+        engine.setRules(rules);
+        engine.setRejectedRowHandler(rejectedRows);
+        engine.setMetrics(metrics);
+        engine.run();
+        if (engine.getRowsResumed() > 0) {
+            System.out.println("Resumed after " + engine.getRowsResumed() + " rows.");
+        }
+        return new RunSummary(engine.getRowsRead(), engine.getRowsTransformed(), engine.getRowsSkipped());
+    }
+
+    /**
+     * Writes every row to two writers: the CSV writer and the columnar file writer.
+     */
+    private static final class TeeWriter implements ProductWriter {
+        private final ProductWriter first;
+        private final ProductWriter second;
+
+        TeeWriter(ProductWriter first, ProductWriter second) {
+            this.first = first;
+            this.second = second;
+        }
+
+        @Override
+        public void writeProducts(List<Product> products) throws IOException {
+            first.writeProducts(products);
+            second.writeProducts(products);
+        }
+
+        @Override
+        public void writeProducts(ProductBatch batch) throws IOException {
+            first.writeProducts(batch);
+            second.writeProducts(batch);
+        }
+
+        @Override
+        public void open() throws IOException {
+            first.open();
+            try {
+                second.open();
+            } catch (IOException | RuntimeException e) {
+                first.close();
+                throw e;
+            }
+        }
+
+        @Override
+        public void writeProduct(Product product) throws IOException {
+            first.writeProduct(product);
+            second.writeProduct(product);
+        }
+
+        @Override
+        public void writeBatch(ProductBatch batch) throws IOException {
+            first.writeBatch(batch);
+            second.writeBatch(batch);
+        }
+
+        @Override
+        public boolean isOpen() {
+            return first.isOpen();
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                first.close();
+            } finally {
+                second.close();
+            }
+        }
+    }
+
+    /**
+     * Adds every written row to a {@link ProductAggregator} before passing it on,
+     * so the stats are gathered on the load thread in the same pass.
+     */
+    private static final class AggregatingWriter implements ProductWriter {
+        private final ProductWriter writer;
+        private final ProductAggregator aggregator;
+
+        AggregatingWriter(ProductWriter writer, ProductAggregator aggregator) {
+            this.writer = writer;
+            this.aggregator = aggregator;
+        }
+
+        @Override
+        public void writeProducts(List<Product> products) throws IOException {
+            for (Product product : products) {
+                aggregator.add(product);
+            }
+            writer.writeProducts(products);
+        }
+
+        @Override
+        public void writeProducts(ProductBatch batch) throws IOException {
+            aggregator.add(batch);
+            writer.writeProducts(batch);
+        }
+
+        @Override
+        public void open() throws IOException {
+            writer.open();
+        }
+
+        @Override
+        public void writeProduct(Product product) throws IOException {
+            aggregator.add(product);
+            writer.writeProduct(product);
+        }
+
+        @Override
+        public void writeBatch(ProductBatch batch) throws IOException {
+            aggregator.add(batch);
+            writer.writeBatch(batch);
+        }
+
+        @Override
+        public boolean isOpen() {
+            return writer.isOpen();
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.close();
+        }
+    }
+
+    /**
+     * Collects streamed rows into a batch, then transforms and writes the
+     * whole batch, timing each stage once per batch.
+     */
+    private static final class StreamingBatch implements ProductHandler {
+        private final ProductTransformer transformer;
+        private final ProductWriter writer;
+        private final DedupIndex dedup;
+        private final PipelineMetrics metrics;
+        private final List<Product> products = new ArrayList<>(StageMetrics.BATCH_ROWS);
+        private long batchStart = System.nanoTime();
+        private int rowsTransformed = 0;
+        private int row = 0;
+
+        StreamingBatch(ProductTransformer transformer, ProductWriter writer, DedupIndex dedup,
+                PipelineMetrics metrics) {
+            this.transformer = transformer;
+            this.writer = writer;
+            this.dedup = dedup;
+            this.metrics = metrics;
+        }
+
+        @Override
+        public void handle(Product product) throws IOException {
+            if (dedup != null && !dedup.isLatest(row++)) {
+                return;
+            }
+            products.add(product);
+            if (products.size() == StageMetrics.BATCH_ROWS) {
+                flush();
+            }
+        }
+
+        /**
+         * Transforms and writes the rows collected so far.
+         */
+        void flush() throws IOException {
+            if (products.isEmpty()) {
+                return;
+            }
+            long extracted = System.nanoTime();
+            metrics.extract().recordBatch(products.size(), extracted - batchStart);
+
+            for (int i = 0; i < products.size(); i++) {
+                products.set(i, transformer.transform(products.get(i)));
+            }
+            long transformed = System.nanoTime();
+            metrics.transform().recordBatch(products.size(), transformed - extracted);
+
+            if (!writer.isOpen()) {
+                writer.open();
+            }
+            for (Product product : products) {
+                writer.writeProduct(product);
+            }
+            batchStart = System.nanoTime();
+            metrics.load().recordBatch(products.size(), batchStart - transformed);
+
+            rowsTransformed += products.size();
+            products.clear();
+        }
     }
 }
@@ -0,0 +1,71 @@
+package org.howard.edu.lsp.assignment3;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * JUnit 5 test class for the stream mode of {@link ETLPipeline}. Every
+ * output is checked against a batch run over the same input.
+ */
+public class ETLPipelineTest {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Tests that the stream mode writes the same file and counters as the
+     * batch mode on an input of several batches plus a partial one, with
+     * malformed and empty rows, and times each batch of rows once.
+     */
+    @Test
+    @DisplayName("Test stream mode matches batch mode")
+    void testStreamMatchesBatch() throws IOException {
+        Path input = ProductFileTestSupport.generate(directory.resolve("products.csv"),
+                5 * StageMetrics.BATCH_ROWS + 17, 1, 0.01, 0.01);
+        Path expected = directory.resolve("batch.csv");
+        RunSummary batch = ProductFileTestSupport.runBatch(input, expected);
+
+        for (String[] args : new String[][] {{"--stream"}, {"--stream", "--mmap"}}) {
+            Path output = directory.resolve("streamed.csv");
+            PipelineMetrics metrics = new PipelineMetrics();
+            RunSummary stream = ETLPipeline.run(input.toString(), output.toString(),
+                    PipelineOptions.parse(args), metrics);
+            String message = String.join(" ", args);
+            assertArrayEquals(Files.readAllBytes(expected), Files.readAllBytes(output), message);
+            assertEquals(batch.getRowsRead(), stream.getRowsRead(), message);
+            assertEquals(batch.getRowsTransformed(), stream.getRowsTransformed(), message);
+            assertEquals(batch.getRowsSkipped(), stream.getRowsSkipped(), message);
+
+            int rows = stream.getRowsTransformed();
+            assertEquals(rows, metrics.transform().getRows(), message);
+            assertEquals((rows + StageMetrics.BATCH_ROWS - 1) / StageMetrics.BATCH_ROWS,
+                    metrics.transform().getBatches(), message);
+        }
+    }
+
+    /**
+     * Tests inputs that end exactly on a batch boundary, so the last flush
+     * has nothing to write, and a header with no data rows at all.
+     */
+    @Test
+    @DisplayName("Test stream mode on batch boundaries")
+    void testStreamBatchBoundaries() throws IOException {
+        for (int rows : new int[] {0, StageMetrics.BATCH_ROWS, 2 * StageMetrics.BATCH_ROWS}) {
+            Path input = ProductFileTestSupport.generate(directory.resolve("products.csv"), rows, 1, 0, 0);
+            Path expected = directory.resolve("batch.csv");
+            Path output = directory.resolve("streamed.csv");
+            ProductFileTestSupport.runBatch(input, expected);
+            RunSummary stream = ETLPipeline.run(input.toString(), output.toString(),
+                    PipelineOptions.parse(new String[] {"--stream"}));
+            assertArrayEquals(Files.readAllBytes(expected), Files.readAllBytes(output), "rows " + rows);
+            assertEquals(rows, stream.getRowsRead());
+            assertEquals(rows, stream.getRowsTransformed());
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package org.howard.edu.lsp.assignment3;
+
+import java.io.IOException;
+
+/**
+ * Thrown when more of an input file's rows are malformed than the maximum
+ * error rate allows, so the run stops early instead of loading a broken feed.
+ */
+public class ErrorRateExceededException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Constructs an ErrorRateExceededException.
+     * @param message The description of the input file and its error rate.
+     */
+    public ErrorRateExceededException(String message) {
+        super(message);
+    }
+}
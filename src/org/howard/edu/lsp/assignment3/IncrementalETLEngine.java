@@ -0,0 +1,395 @@
+package org.howard.edu.lsp.assignment3;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Runs the ETL process incrementally, re-transforming only the rows that
+ * changed since the previous run.
+ * A {@link ProductIndex} kept next to the output file maps every ProductID to
+ * a hash of its input row and to its row in the previous output file. A row
+ * whose ProductID and hash are both unchanged is copied from the previous
+ * output instead of being parsed and transformed again. Every other row goes
+ * through {@link CSVReader} and {@link ProductTransformer} as in a full run,
+ * so the new output file is byte-identical to the output of a full run.
+ * <p>
+ * The new output and index are written to temporary files and renamed into
+ * place, so an interrupted run leaves the previous output untouched. If the
+ * index is missing, does not match the output file or was written under
+ * different {@link TransformRules}, the run falls back to
+ * transforming every row and writes a fresh index.
+ */
+public class IncrementalETLEngine {
+
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final String inputPath;
+    private final String outputPath;
+    private final String indexPath;
+    private TransformRules rules = TransformRules.defaults();
+    private PipelineMetrics metrics = new PipelineMetrics();
+    private RejectedRowHandler rejectedRows = RejectedRowHandler.PRINT;
+    private int rowsRead = 0;
+    private int rowsSkipped = 0;
+    private int rowsTransformed = 0;
+    private int rowsReused = 0;
+
+    /**
+     * Constructs an IncrementalETLEngine that keeps its index next to the output file.
+     * @param inputPath The path to the input CSV file.
+     * @param outputPath The path to the output CSV file.
+     */
+    public IncrementalETLEngine(String inputPath, String outputPath) {
+        this(inputPath, outputPath, outputPath + ".index");
+    }
+
+    /**
+     * Constructs an IncrementalETLEngine.
+     * @param inputPath The path to the input CSV file.
+     * @param outputPath The path to the output CSV file.
+     * @param indexPath The path to the change-detection index.
+     */
+    public IncrementalETLEngine(String inputPath, String outputPath, String indexPath) {
+        this.inputPath = inputPath;
+        this.outputPath = outputPath;
+        this.indexPath = indexPath;
+    }
+
+    /**
+     * Sets the rules the rows are transformed with. Rows of an output written
+     * under different rules are not reused.
+     * @param rules The transformation rules.
+     */
+    public void setRules(TransformRules rules) {
+        this.rules = rules;
+    }
+
+    /**
+     * Sets the metrics that the stages are recorded into. Each batch of
+     * {@link StageMetrics#BATCH_ROWS} input rows is timed as one batch:
+     * reading it as extract, parsing and transforming its changed rows as
+     * transform, and writing it as load.
+     * @param metrics The metrics to record into.
+     */
+    public void setMetrics(PipelineMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Sets the handler that receives each malformed row. By default each row
+     * is printed to standard error.
+     * @param rejectedRows The rejected row handler.
+     */
+    public void setRejectedRowHandler(RejectedRowHandler rejectedRows) {
+        this.rejectedRows = rejectedRows;
+    }
+
+    /**
+     * Extracts, transforms and loads the input file, reusing unchanged rows
+     * of the previous output.
+     * @throws FileNotFoundException if the input file does not exist.
+     * @throws IOException if an I/O error occurs while reading or writing.
+     */
+    public void run() throws FileNotFoundException, IOException {
+        ProductIndex previous = loadPreviousIndex();
+        File tempOutput = new File(outputPath + TEMP_SUFFIX);
+        ProductIndex next = new ProductIndex(previous == null ? 1024 : previous.size());
+
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(
+                CompressionCodec.forPath(inputPath).openInput(inputPath), CsvFormat.CHARSET));
+                PreviousOutput previousOutput = previous == null ? null : new PreviousOutput(outputPath);
+                OutputStream out = new BufferedOutputStream(new FileOutputStream(tempOutput), 1 << 16)) {
+            Batch batch = new Batch(previous, previousOutput, next, out);
+            batch.writeHeader();
+            // Read and discard the header row; an empty file has no data rows.
+            if (in.readLine() != null) {
+                batch.copyRows(in);
+            }
+        } catch (IOException | RuntimeException e) {
+            tempOutput.delete();
+            throw e;
+        }
+        metrics.extract().addBytes(new File(inputPath).length());
+        metrics.load().addBytes(tempOutput.length());
+
+        // Write the index first: if the output rename never happens, the index
+        // does not match the old output and the next run starts from scratch.
+        next.setOutputFile(tempOutput.length(), tempOutput.lastModified());
+        next.setRulesFingerprint(rules.fingerprint());
+        Path tempIndex = Paths.get(indexPath + TEMP_SUFFIX);
+        next.save(tempIndex.toString());
+        replace(tempOutput.toPath(), Paths.get(outputPath));
+        replace(tempIndex, Paths.get(indexPath));
+    }
+
+    /**
+     * Gets the number of data rows read.
+     * @return The total number of rows (excluding header) read.
+     */
+    public int getRowsRead() {
+        return rowsRead;
+    }
+
+    /**
+     * Gets the number of malformed or empty rows skipped.
+     * @return The total number of rows skipped.
+     */
+    public int getRowsSkipped() {
+        return rowsSkipped;
+    }
+
+    /**
+     * Gets the number of rows written, whether transformed or reused.
+     * @return The total number of rows written.
+     */
+    public int getRowsTransformed() {
+        return rowsTransformed;
+    }
+
+    /**
+     * Gets the number of rows copied unchanged from the previous output.
+     * @return The number of rows reused.
+     */
+    public int getRowsReused() {
+        return rowsReused;
+    }
+
+    /**
+     * Loads the index of the previous run if it still describes the output file.
+     * @return The index, or null if every row has to be transformed.
+     */
+    private ProductIndex loadPreviousIndex() {
+        File index = new File(indexPath);
+        File output = new File(outputPath);
+        if (!index.isFile() || !output.isFile()) {
+            return null;
+        }
+        try {
+            ProductIndex loaded = ProductIndex.load(indexPath);
+            if (loaded != null && loaded.matchesOutputFile(output.length(), output.lastModified())
+                    && loaded.getRulesFingerprint() == rules.fingerprint()) {
+                return loaded;
+            }
+        } catch (IOException e) {
+            System.err.println("Warning: Ignoring unreadable index '" + indexPath + "': " + e.getMessage());
+        }
+        return null;
+    }
+
+    private static void replace(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Hashes an input row with 64-bit FNV-1a over its characters, finished
+     * with the SplitMix64 mixer. Together with the ProductID, a hash match is
+     * taken to mean the row is unchanged.
+     */
+    static long hashRow(String line) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < line.length(); i++) {
+            hash = (hash ^ line.charAt(i)) * 0x100000001B3L;
+        }
+        hash = (hash ^ (hash >>> 30)) * 0xBF58476D1CE4E5B9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94D049BB133111EBL;
+        return hash ^ (hash >>> 31);
+    }
+
+    /**
+     * Reads the ProductID at the start of a row the way {@code Integer.parseInt}
+     * reads a trimmed first column, for ASCII digits only.
+     * @return The ProductID, or null if the row has to be parsed in full to tell.
+     */
+    static Integer leadingId(String line) {
+        int length = line.length();
+        int i = 0;
+        while (i < length && line.charAt(i) <= ' ') {
+            i++;
+        }
+        boolean negative = i < length && line.charAt(i) == '-';
+        if (i < length && (line.charAt(i) == '-' || line.charAt(i) == '+')) {
+            i++;
+        }
+        long value = 0;
+        int digits = 0;
+        while (i < length && line.charAt(i) >= '0' && line.charAt(i) <= '9') {
+            value = value * 10 + (line.charAt(i++) - '0');
+            if (++digits > 10) {
+                return null;
+            }
+        }
+        while (i < length && line.charAt(i) != ',' && line.charAt(i) <= ' ') {
+            i++;
+        }
+        if (digits == 0 || i >= length || line.charAt(i) != ',') {
+            return null;
+        }
+        value = negative ? -value : value;
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            return null;
+        }
+        return (int) value;
+    }
+
+    /**
+     * Moves the input through the stages in batches of rows.
+     */
+    private final class Batch {
+        private final ProductIndex previous;
+        private final PreviousOutput previousOutput;
+        private final ProductIndex next;
+        private final OutputStream out;
+        private final CSVReader parser = new CSVReader(inputPath);
+        private final ProductTransformer transformer = new ProductTransformer(parser.getCategories(), rules);
+        private final String[] lines = new String[StageMetrics.BATCH_ROWS];
+        private final byte[][] rows = new byte[StageMetrics.BATCH_ROWS][];
+        private final int[] ids = new int[StageMetrics.BATCH_ROWS];
+        private final long[] hashes = new long[StageMetrics.BATCH_ROWS];
+        private long position = 0;
+
+        Batch(ProductIndex previous, PreviousOutput previousOutput, ProductIndex next, OutputStream out) {
+            this.previous = previous;
+            this.previousOutput = previousOutput;
+            this.next = next;
+            this.out = out;
+            parser.setRejectedRowHandler(rejectedRows);
+        }
+
+        void writeHeader() throws IOException {
+            byte[] header = (CsvFormat.OUTPUT_HEADER + CsvFormat.LINE_SEPARATOR).getBytes(CsvFormat.CHARSET);
+            out.write(header);
+            position += header.length;
+        }
+
+        void copyRows(BufferedReader in) throws IOException {
+            while (true) {
+                long started = System.nanoTime();
+                int count = 0;
+                String line;
+                while (count < lines.length && (line = in.readLine()) != null) {
+                    lines[count++] = line;
+                }
+                if (count == 0) {
+                    return;
+                }
+                long extracted = System.nanoTime();
+                metrics.extract().recordBatch(count, extracted - started);
+
+                int written = transform(count);
+                long transformed = System.nanoTime();
+                metrics.transform().recordBatch(written, transformed - extracted);
+
+                write(written);
+                metrics.load().recordBatch(written, System.nanoTime() - transformed);
+            }
+        }
+
+        /**
+         * Turns a batch of input rows into output rows, reusing unchanged ones.
+         * @return The number of output rows.
+         */
+        private int transform(int count) throws IOException {
+            int written = 0;
+            for (int i = 0; i < count; i++) {
+                String line = lines[i];
+                lines[i] = null;
+                long hash = hashRow(line);
+                Integer id = leadingId(line);
+                int entry = previous == null || id == null ? -1 : previous.find(id);
+                if (entry >= 0 && previous.getRowHash(entry) == hash) {
+                    rowsRead++;
+                    rowsReused++;
+                    rows[written] = previousOutput.read(previous.getOffset(entry), previous.getLength(entry));
+                } else {
+                    // The header is line 1.
+                    Product product = parser.parseRow(line, rowsReused + parser.getRowsRead() + 2);
+                    if (product == null) {
+                        continue;
+                    }
+                    id = product.getProductId();
+                    rows[written] = (transformer.transform(product).toString() + CsvFormat.LINE_SEPARATOR)
+                            .getBytes(CsvFormat.CHARSET);
+                }
+                ids[written] = id;
+                hashes[written] = hash;
+                written++;
+            }
+            return written;
+        }
+
+        private void write(int written) throws IOException {
+            for (int i = 0; i < written; i++) {
+                byte[] row = rows[i];
+                rows[i] = null;
+                out.write(row);
+                next.put(ids[i], hashes[i], position, row.length);
+                position += row.length;
+                rowsTransformed++;
+            }
+            rowsRead = rowsReused + parser.getRowsRead();
+            rowsSkipped = parser.getRowsSkipped();
+        }
+    }
+
+    /**
+     * The output file of the previous run, memory-mapped in segments so that
+     * reused rows can be copied from anywhere in it.
+     */
+    private static final class PreviousOutput implements AutoCloseable {
+        private static final int SEGMENT_SIZE = 1 << 30;
+
+        private final RandomAccessFile file;
+        private final MappedByteBuffer[] segments;
+
+        PreviousOutput(String path) throws IOException {
+            file = new RandomAccessFile(path, "r");
+            FileChannel channel = file.getChannel();
+            long size = channel.size();
+            segments = new MappedByteBuffer[(int) ((size + SEGMENT_SIZE - 1) / SEGMENT_SIZE)];
+            for (int i = 0; i < segments.length; i++) {
+                long start = (long) i * SEGMENT_SIZE;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(SEGMENT_SIZE, size - start));
+            }
+        }
+
+        byte[] read(long offset, int length) throws IOException {
+            byte[] bytes = new byte[length];
+            int copied = 0;
+            while (copied < length) {
+                long position = offset + copied;
+                int segment = (int) (position / SEGMENT_SIZE);
+                if (segment >= segments.length) {
+                    throw new IOException("The previous output file is shorter than its index");
+                }
+                int start = (int) (position % SEGMENT_SIZE);
+                int chunk = Math.min(length - copied, segments[segment].limit() - start);
+                segments[segment].get(start, bytes, copied, chunk);
+                copied += chunk;
+            }
+            return bytes;
+        }
+
+        @Override
+        public void close() throws IOException {
+            file.close();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package org.howard.edu.lsp.assignment3;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * JUnit 5 test class for {@link IncrementalETLEngine}. Every incremental
+ * output is checked against a full batch run over the same input.
+ */
+public class IncrementalETLEngineTest {
+
+    @TempDir
+    Path directory;
+
+    private Path input;
+    private Path output;
+
+    /**
+     * Generates a small input file with some malformed and empty rows.
+     */
+    @BeforeEach
+    void setUp() throws IOException {
+        input = directory.resolve("products.csv");
+        output = directory.resolve("transformed_products.csv");
+        ProductFileTestSupport.generate(input, 5_000, 11, 0.01, 0.01);
+    }
+
+    private IncrementalETLEngine runIncremental() throws IOException {
+        IncrementalETLEngine engine = new IncrementalETLEngine(input.toString(), output.toString());
+        engine.run();
+        return engine;
+    }
+
+    /**
+     * Runs the default batch mode over the input and checks that the
+     * incremental output and counters match it.
+     */
+    private void assertSameAsFullRun(IncrementalETLEngine engine) throws IOException {
+        Path expected = directory.resolve("expected.csv");
+        RunSummary full = ProductFileTestSupport.runBatch(input, expected);
+        assertArrayEquals(Files.readAllBytes(expected), Files.readAllBytes(output));
+        assertEquals(full.getRowsRead(), engine.getRowsRead());
+        assertEquals(full.getRowsTransformed(), engine.getRowsTransformed());
+        assertEquals(full.getRowsSkipped(), engine.getRowsSkipped());
+    }
+
+    /**
+     * Tests that a first run transforms every row and a second run over the
+     * same input reuses every row.
+     */
+    @Test
+    @DisplayName("Test unchanged input reuses every row")
+    void testUnchanged() throws IOException {
+        IncrementalETLEngine first = runIncremental();
+        assertEquals(0, first.getRowsReused());
+        assertSameAsFullRun(first);
+
+        IncrementalETLEngine second = runIncremental();
+        assertEquals(second.getRowsTransformed(), second.getRowsReused());
+        assertSameAsFullRun(second);
+    }
+
+    /**
+     * Tests that changed, added, removed and reordered rows give the same
+     * output as a full run, and that only the changed and added rows are
+     * transformed again.
+     */
+    @Test
+    @DisplayName("Test changed rows match a full run")
+    void testChanged() throws IOException {
+        IncrementalETLEngine first = runIncremental();
+
+        List<String> lines = new ArrayList<>(Files.readAllLines(input));
+        int changed = 0;
+        for (int i = 1; i < lines.size(); i += 100) {
+            String[] columns = lines.get(i).split(",");
+            if (columns.length == 4 && columns[0].trim().matches("\\d+")) {
+                lines.set(i, columns[0] + "," + columns[1] + ",1234.56," + columns[3]);
+                changed++;
+            }
+        }
+        lines.remove(2);
+        lines.remove(3);
+        lines.add(1, lines.remove(lines.size() - 1));
+        lines.add("9999999,New Product,19.99,Electronics");
+        lines.add("not a number,Broken,1.00,Toys");
+        Files.write(input, lines);
+
+        IncrementalETLEngine second = runIncremental();
+        assertSameAsFullRun(second);
+        assertTrue(changed > 0);
+        assertTrue(second.getRowsReused() >= first.getRowsTransformed() - changed - 2);
+        assertTrue(second.getRowsReused() <= second.getRowsTransformed() - changed - 1);
+    }
+
+    /**
+     * Tests that an output file changed by something else is not trusted.
+     */
+    @Test
+    @DisplayName("Test modified output invalidates the index")
+    void testModifiedOutput() throws IOException {
+        runIncremental();
+        Files.write(output, new byte[] {'x'});
+
+        IncrementalETLEngine second = runIncremental();
+        assertEquals(0, second.getRowsReused());
+        assertSameAsFullRun(second);
+    }
+}
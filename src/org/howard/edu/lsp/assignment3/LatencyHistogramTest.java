@@ -0,0 +1,92 @@
+package org.howard.edu.lsp.assignment3;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit 5 test class for {@link LatencyHistogram}.
+ */
+public class LatencyHistogramTest {
+
+    private LatencyHistogram histogram;
+
+    /**
+     * Creates a new, empty {@link LatencyHistogram} before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        histogram = new LatencyHistogram();
+    }
+
+    /**
+     * Tests that an empty histogram reports zeros.
+     */
+    @Test
+    @DisplayName("Test empty histogram")
+    void testEmpty() {
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, histogram.getPercentile(0.99));
+    }
+
+    /**
+     * Tests that percentiles are never below the true value and at most about
+     * 6% above it, from nanoseconds up to minutes.
+     */
+    @Test
+    @DisplayName("Test percentile precision")
+    void testPrecision() {
+        for (long value = 1; value < 100_000_000_000L; value = value * 3 / 2 + 1) {
+            LatencyHistogram single = new LatencyHistogram();
+            single.record(value);
+            single.record(value * 2);
+            long p50 = single.getPercentile(0.5);
+            assertTrue(p50 >= value && p50 <= value + value / 16, "value " + value + " p50 " + p50);
+            assertEquals(value * 2, single.getPercentile(1.0));
+        }
+    }
+
+    /**
+     * Tests p50, p99 and p999 over a known spread of values.
+     */
+    @Test
+    @DisplayName("Test percentiles")
+    void testPercentiles() {
+        for (int i = 1; i <= 100_000; i++) {
+            histogram.record(i * 1_000L);
+        }
+        assertEquals(100_000, histogram.getCount());
+        assertEquals(100_000_000L, histogram.getMax());
+        assertEquals(50_000_000L, histogram.getPercentile(0.50), 50_000_000L / 16.0);
+        assertEquals(99_000_000L, histogram.getPercentile(0.99), 99_000_000L / 16.0);
+        assertEquals(99_900_000L, histogram.getPercentile(0.999), 99_900_000L / 16.0);
+    }
+
+    /**
+     * Tests that no recording is lost when several threads record at once.
+     */
+    @Test
+    @DisplayName("Test concurrent recording")
+    void testConcurrent() throws InterruptedException {
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 50_000; i++) {
+                    histogram.record(i % 1_000);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(200_000, histogram.getCount());
+        assertEquals(999, histogram.getMax());
+    }
+}
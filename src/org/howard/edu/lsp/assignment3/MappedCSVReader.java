@@ -0,0 +1,452 @@
+package org.howard.edu.lsp.assignment3;
+
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A drop-in alternative to {@link CSVReader} that memory-maps the input file.
+ * It scans the mapped bytes for commas and line terminators, parses the
+ * ProductID and Price straight from the bytes, and only creates Strings for
+ * the Name column and for each distinct Category. Empty and malformed rows are skipped and
+ * counted exactly as {@link CSVReader} does.
+ *
+ * The input must use an ASCII-compatible character set such as UTF-8, so that
+ * commas, line terminators and whitespace are single bytes.
+ */
+public class MappedCSVReader implements ProductReader {
+
+    /** The largest region of the file that is mapped at once. */
+    private static final int MAX_WINDOW_SIZE = 256 * 1024 * 1024;
+
+    /** The most digits that always fit in a long. */
+    private static final int MAX_LONG_DIGITS = 18;
+
+    /** Whether name bytes can be copied into a batch's UTF-8 name arena unchanged. */
+    private static final boolean UTF8_INPUT = CsvFormat.CHARSET.equals(ProductBatch.NAME_CHARSET);
+
+    private String filePath;
+    private int maxWindowSize;
+    private final CategoryDictionary categories = new CategoryDictionary();
+    private int rowsRead = 0;
+    private int rowsSkipped = 0;
+    private RejectedRowHandler rejectedRows = RejectedRowHandler.PRINT;
+
+    // Results of the last call to parseRow.
+    private int nameStart;
+    private int nameEnd;
+    private int categoryStart;
+    private int categoryEnd;
+    private int parsedId;
+    private long parsedUnscaledPrice;
+    private int parsedPriceScale;
+    private BigDecimal parsedPrice;
+
+    // Reused buffer for copying bytes out of the mapped file before decoding.
+    private byte[] scratch = new byte[256];
+
+    /**
+     * Constructs a MappedCSVReader object with the specified file path.
+     * @param filePath The path to the CSV file.
+     */
+    public MappedCSVReader(String filePath) {
+        this(filePath, MAX_WINDOW_SIZE);
+    }
+
+    /**
+     * Constructs a MappedCSVReader that maps at most {@code maxWindowSize} bytes at once.
+     * @param filePath The path to the CSV file.
+     * @param maxWindowSize The size of the largest region mapped at once.
+     */
+    MappedCSVReader(String filePath, int maxWindowSize) {
+        this.filePath = filePath;
+        this.maxWindowSize = maxWindowSize;
+    }
+
+    /**
+     * Reads and parses product data from the CSV file.
+     * @return A list of Product objects.
+     * @throws FileNotFoundException if the input file does not exist.
+     * @throws IOException if an I/O error occurs while reading the file.
+     */
+    @Override
+    public List<Product> readProducts() throws FileNotFoundException, IOException {
+        List<Product> products = new ArrayList<>();
+        streamProducts(products::add);
+        return products;
+    }
+
+    /**
+     * Reads and parses product data from the CSV file, passing each product
+     * to the handler as soon as its row is parsed.
+     * @param handler The handler that receives each parsed Product.
+     * @throws FileNotFoundException if the input file does not exist.
+     * @throws IOException if an I/O error occurs while reading the file or in the handler.
+     */
+    @Override
+    public void streamProducts(ProductHandler handler) throws FileNotFoundException, IOException {
+        scanRows((buffer, start, end) -> {
+            Product product = parseProduct(buffer, start, end);
+            if (product != null) {
+                handler.handle(product);
+            }
+        });
+    }
+
+    /**
+     * Reads the whole CSV file into a columnar batch instead of Product objects.
+     * Names are copied from the mapped file into the batch's name arena without
+     * being decoded, and ids and prices go straight into primitive arrays.
+     * @return A batch holding every valid row of the file.
+     * @throws FileNotFoundException if the input file does not exist.
+     * @throws IOException if an I/O error occurs while reading the file.
+     */
+    public ProductBatch readBatch() throws FileNotFoundException, IOException {
+        ProductBatch batch = new ProductBatch(1024, categories);
+        scanRows((buffer, start, end) -> parseIntoBatch(buffer, start, end, batch));
+        return batch;
+    }
+
+    /**
+     * Sets the handler that receives each malformed row. By default each row
+     * is printed to standard error.
+     * @param rejectedRows The rejected row handler.
+     */
+    void setRejectedRowHandler(RejectedRowHandler rejectedRows) {
+        this.rejectedRows = rejectedRows;
+    }
+
+    /**
+     * Gets the dictionary of the categories read so far. Each distinct category
+     * is decoded once, and every Product or batch row shares its String and code.
+     * @return The category dictionary.
+     */
+    @Override
+    public CategoryDictionary getCategories() {
+        return categories;
+    }
+
+    /**
+     * Gets the number of data rows read from the file.
+     * @return The total number of rows (excluding header) read.
+     */
+    @Override
+    public int getRowsRead() {
+        return rowsRead;
+    }
+
+    /**
+     * Gets the number of malformed or empty rows skipped during reading.
+     * @return The total number of rows skipped.
+     */
+    @Override
+    public int getRowsSkipped() {
+        return rowsSkipped;
+    }
+
+    /**
+     * Receives the byte range of one data row, excluding its line terminator.
+     */
+    private interface RowVisitor {
+        void visit(ByteBuffer buffer, int start, int end) throws IOException;
+    }
+
+    /**
+     * Maps the file window by window and passes every data row after the header
+     * to the visitor. Line terminators match {@code BufferedReader.readLine()}:
+     * "\n", "\r" or "\r\n". A window always ends on a line boundary; a line that
+     * does not fit is carried over into the next window.
+     */
+    private void scanRows(RowVisitor visitor) throws FileNotFoundException, IOException {
+        try (FileInputStream in = new FileInputStream(filePath)) {
+            FileChannel channel = in.getChannel();
+            long size = channel.size();
+            long position = 0;
+            int windowSize = (int) Math.max(1, Math.min(size, maxWindowSize));
+            boolean headerSkipped = false;
+
+            while (position < size) {
+                int limit = (int) Math.min(size - position, windowSize);
+                boolean lastWindow = position + limit == size;
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, limit);
+
+                int lineStart = 0;
+                while (lineStart < limit) {
+                    int lineEnd = lineStart;
+                    while (lineEnd < limit) {
+                        byte b = buffer.get(lineEnd);
+                        if (b == '\n' || b == '\r') {
+                            break;
+                        }
+                        lineEnd++;
+                    }
+
+                    int nextLine;
+                    if (lineEnd == limit) {
+                        if (!lastWindow) {
+                            break;
+                        }
+                        nextLine = limit;
+                    } else if (buffer.get(lineEnd) == '\r') {
+                        if (lineEnd + 1 < limit) {
+                            nextLine = buffer.get(lineEnd + 1) == '\n' ? lineEnd + 2 : lineEnd + 1;
+                        } else if (lastWindow) {
+                            nextLine = limit;
+                        } else {
+                            // Whether a '\n' follows is only known in the next window.
+                            break;
+                        }
+                    } else {
+                        nextLine = lineEnd + 1;
+                    }
+
+                    if (headerSkipped) {
+                        visitor.visit(buffer, lineStart, lineEnd);
+                    } else {
+                        // Read and discard the header row.
+                        headerSkipped = true;
+                    }
+                    lineStart = nextLine;
+                }
+
+                if (lineStart == 0 && !lastWindow) {
+                    // A single line is larger than the window; map a bigger one.
+                    if (windowSize == Integer.MAX_VALUE) {
+                        throw new IOException("Line too long at byte offset " + position);
+                    }
+                    windowSize = (int) Math.min((long) windowSize * 2, Integer.MAX_VALUE);
+                }
+                position += lineStart;
+            }
+        }
+    }
+
+    /**
+     * Parses one data row into a Product, or counts it as skipped.
+     * @return The parsed Product, or null if the row is empty or malformed.
+     */
+    private Product parseProduct(ByteBuffer buffer, int start, int end) throws IOException {
+        if (!parseRow(buffer, start, end)) {
+            return null;
+        }
+        String name = decode(buffer, nameStart, nameEnd);
+        String category = categories.name(categories.encode(buffer, categoryStart, categoryEnd));
+        BigDecimal price = parsedPrice != null
+                ? parsedPrice
+                : BigDecimal.valueOf(parsedUnscaledPrice, parsedPriceScale);
+        return new Product(parsedId, name, price, category);
+    }
+
+    /**
+     * Parses one data row and appends it to a batch, or counts it as skipped.
+     * The name bytes are copied straight from the mapped file into the batch.
+     */
+    private void parseIntoBatch(ByteBuffer buffer, int start, int end, ProductBatch batch)
+            throws IOException {
+        if (!parseRow(buffer, start, end)) {
+            return;
+        }
+        int categoryCode = categories.encode(buffer, categoryStart, categoryEnd);
+        int row = batch.add(parsedId, buffer, nameStart, nameEnd, parsedUnscaledPrice, parsedPriceScale, categoryCode);
+        if (parsedPrice != null) {
+            batch.setPrice(row, parsedPrice);
+        }
+        if (!UTF8_INPUT && !isAscii(buffer, nameStart, nameEnd)) {
+            // The arena holds UTF-8, so names in any other encoding are re-encoded.
+            batch.setName(row, decode(buffer, nameStart, nameEnd).getBytes(ProductBatch.NAME_CHARSET));
+        }
+    }
+
+    /**
+     * Splits and parses one data row, or counts it as skipped. On success the
+     * id and price are in the parsed fields and the trimmed Name and Category
+     * byte ranges are in {@code nameStart}, {@code nameEnd}, {@code categoryStart}
+     * and {@code categoryEnd}.
+     * @return true if the row was parsed, false if it is empty or malformed.
+     */
+    private boolean parseRow(ByteBuffer buffer, int start, int end) throws IOException {
+        rowsRead++;
+        // Skip empty lines to avoid parsing errors.
+        if (isBlank(buffer, start, end)) {
+            rowsSkipped++;
+            return false;
+        }
+
+        int firstComma = indexOf(buffer, ',', start, end);
+        int secondComma = firstComma < 0 ? -1 : indexOf(buffer, ',', firstComma + 1, end);
+        int thirdComma = secondComma < 0 ? -1 : indexOf(buffer, ',', secondComma + 1, end);
+        if (thirdComma < 0 || !hasCategoryColumn(buffer, thirdComma, end)) {
+            skipMalformed(buffer, start, end, RejectedRowHandler.MISSING_COLUMNS);
+            return false;
+        }
+        int fourthComma = indexOf(buffer, ',', thirdComma + 1, end);
+
+        try {
+            parseId(buffer, start, firstComma);
+        } catch (NumberFormatException e) {
+            skipMalformed(buffer, start, end, RejectedRowHandler.INVALID_PRODUCT_ID);
+            return false;
+        }
+        try {
+            parsePrice(buffer, secondComma + 1, thirdComma);
+        } catch (NumberFormatException e) {
+            skipMalformed(buffer, start, end, RejectedRowHandler.INVALID_PRICE);
+            return false;
+        }
+
+        nameStart = trimStart(buffer, firstComma + 1, secondComma);
+        nameEnd = trimEnd(buffer, nameStart, secondComma);
+        categoryStart = trimStart(buffer, thirdComma + 1, fourthComma < 0 ? end : fourthComma);
+        categoryEnd = trimEnd(buffer, categoryStart, fourthComma < 0 ? end : fourthComma);
+        return true;
+    }
+
+    private void skipMalformed(ByteBuffer buffer, int start, int end, String reason) throws IOException {
+        rowsSkipped++;
+        // The header is line 1.
+        rejectedRows.reject(rowsRead + 1, decode(buffer, start, end), reason);
+    }
+
+    /**
+     * Checks whether {@code String.split(",")} would produce a fourth column.
+     * Trailing empty columns are dropped by split, so the Category column only
+     * exists if it, or any column after it, is non-empty.
+     */
+    private static boolean hasCategoryColumn(ByteBuffer buffer, int thirdComma, int end) {
+        for (int i = thirdComma + 1; i < end; i++) {
+            if (buffer.get(i) != ',') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Parses the ProductID column into {@code parsedId}, with the same rules as
+     * {@code Integer.parseInt(column.trim())}.
+     */
+    private void parseId(ByteBuffer buffer, int start, int end) {
+        start = trimStart(buffer, start, end);
+        end = trimEnd(buffer, start, end);
+        int i = start;
+        boolean negative = false;
+        if (i < end && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+            negative = buffer.get(i) == '-';
+            i++;
+        }
+        if (i == end) {
+            throw new NumberFormatException("Empty ProductID");
+        }
+        long value = 0;
+        for (; i < end; i++) {
+            int digit = buffer.get(i) - '0';
+            if (digit < 0 || digit > 9 || value > Integer.MAX_VALUE) {
+                // Not a plain ASCII integer; let Integer.parseInt decide.
+                parsedId = Integer.parseInt(decode(buffer, start, end));
+                return;
+            }
+            value = value * 10 + digit;
+        }
+        value = negative ? -value : value;
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new NumberFormatException("ProductID out of range");
+        }
+        parsedId = (int) value;
+    }
+
+    /**
+     * Parses the Price column with the same rules as {@code new BigDecimal(column.trim())}.
+     * Plain decimals of up to 18 digits are parsed straight from the bytes into
+     * {@code parsedUnscaledPrice} and {@code parsedPriceScale}; anything else,
+     * such as exponents, is handed to BigDecimal and stored in {@code parsedPrice}.
+     */
+    private void parsePrice(ByteBuffer buffer, int start, int end) {
+        start = trimStart(buffer, start, end);
+        end = trimEnd(buffer, start, end);
+        parsedPrice = null;
+        int i = start;
+        boolean negative = false;
+        if (i < end && (buffer.get(i) == '-' || buffer.get(i) == '+')) {
+            negative = buffer.get(i) == '-';
+            i++;
+        }
+        long unscaled = 0;
+        int digits = 0;
+        int scale = 0;
+        boolean seenPoint = false;
+        for (; i < end; i++) {
+            byte b = buffer.get(i);
+            if (b >= '0' && b <= '9' && digits < MAX_LONG_DIGITS) {
+                unscaled = unscaled * 10 + (b - '0');
+                digits++;
+                if (seenPoint) {
+                    scale++;
+                }
+            } else if (b == '.' && !seenPoint) {
+                seenPoint = true;
+            } else {
+                break;
+            }
+        }
+        if (i < end || digits == 0) {
+            // Not a plain decimal; let BigDecimal decide.
+            parsedPrice = new BigDecimal(decode(buffer, start, end));
+            return;
+        }
+        parsedUnscaledPrice = negative ? -unscaled : unscaled;
+        parsedPriceScale = scale;
+    }
+
+    private static boolean isAscii(ByteBuffer buffer, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (buffer.get(i) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isBlank(ByteBuffer buffer, int start, int end) {
+        return trimStart(buffer, start, end) == end;
+    }
+
+    /** Skips leading bytes that {@code String.trim()} would remove. */
+    private static int trimStart(ByteBuffer buffer, int start, int end) {
+        while (start < end && (buffer.get(start) & 0xFF) <= ' ') {
+            start++;
+        }
+        return start;
+    }
+
+    /** Skips trailing bytes that {@code String.trim()} would remove. */
+    private static int trimEnd(ByteBuffer buffer, int start, int end) {
+        while (end > start && (buffer.get(end - 1) & 0xFF) <= ' ') {
+            end--;
+        }
+        return end;
+    }
+
+    private static int indexOf(ByteBuffer buffer, char c, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (buffer.get(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private String decode(ByteBuffer buffer, int start, int end) {
+        int length = end - start;
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        buffer.get(start, scratch, 0, length);
+        return new String(scratch, 0, length, CsvFormat.CHARSET);
+    }
+}
@@ -0,0 +1,165 @@
+package org.howard.edu.lsp.assignment3;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * JUnit 5 test class for {@link MappedCSVReader}. Every result is checked
+ * against a plain {@link CSVReader} over the same file.
+ */
+public class MappedCSVReaderTest {
+
+    /** Rows that the byte-level parsing has to treat exactly as String.split and trim do. */
+    private static final String[] ROWS = {
+        "1,Laptop,999.99,Electronics",
+        // Trailing empty columns are dropped by split.
+        "2,Monitor,199.50,Electronics,,,",
+        "3,Pen,1.50,,,",
+        "4,Mug,2.00,,Kitchen",
+        ",,,",
+        // Whitespace around every column, including tabs.
+        "  5 ,  Chair  , 49.90 ,  Furniture  ",
+        "\t6\t,Lamp\t,\t15\t,\tHome\t",
+        "",
+        "   ",
+        // Exponents and other prices BigDecimal accepts.
+        "7,Cable,1E+3,Electronics",
+        "8,Plug,2.5e-1,Electronics",
+        "9,Sticker,.5,Stationery",
+        "10,Eraser,5.,Stationery",
+        "11,Refund,-0.00,Misc",
+        "12,Gift,+3.25,Misc",
+        "13,Yacht,123456789012345678901234.5,Luxury",
+        "14,Ship,999999999999999999,Luxury",
+        // ProductIDs at and past the range of an int.
+        "2147483647,Max,1,Misc",
+        "2147483648,Over,1,Misc",
+        "-2147483648,Min,1,Misc",
+        "-2147483649,Under,1,Misc",
+        "99999999999999999999,Huge,1,Misc",
+        "+15,Plus,1,Misc",
+        // Malformed ProductIDs and Prices.
+        "abc,Pen,1,Stationery",
+        "-,Dash,1,Misc",
+        "16,Dots,1.2.3,Misc",
+        "17,Blank,,Misc",
+        "18,Sign,-,Misc",
+        "19,Chair",
+        // Non-ASCII names, categories, and digits that only the String parsers accept.
+        "20,Café crème,4.50,Épicerie",
+        "21,日本茶,8,飲み物",
+        "٢٢,Arabic id,1,Misc",
+        "23,Arabic price,١٢.٥,Misc",
+    };
+
+    @TempDir
+    Path directory;
+
+    private Path input;
+    private List<Product> expected;
+    private List<String> expectedRejected;
+    private CSVReader reader;
+
+    /**
+     * Writes the edge-case rows with "\r", "\r\n" and "\n" line endings,
+     * an empty line made of a lone "\r", and no newline after the last row,
+     * and reads them with a plain {@link CSVReader}.
+     */
+    @BeforeEach
+    void setUp() throws IOException {
+        input = directory.resolve("products.csv");
+        StringBuilder text = new StringBuilder("ProductID,Name,Price,Category\r\n");
+        String[] terminators = {"\r", "\r\n", "\n", "\r\r"};
+        for (int i = 0; i < ROWS.length; i++) {
+            text.append(ROWS[i]);
+            if (i < ROWS.length - 1) {
+                text.append(terminators[i % terminators.length]);
+            }
+        }
+        Files.write(input, text.toString().getBytes(CsvFormat.CHARSET));
+
+        reader = new CSVReader(input.toString());
+        expectedRejected = new ArrayList<>();
+        reader.setRejectedRowHandler(
+                (lineNumber, row, reason) -> expectedRejected.add(lineNumber + ":" + row + ":" + reason));
+        expected = reader.readProducts();
+    }
+
+    /**
+     * Tests every window size from 1 byte up to more than the longest row,
+     * and the default one, so that window boundaries fall inside every row
+     * and between the "\r" and "\n" of "\r\n".
+     */
+    @Test
+    @DisplayName("Test products and rejected rows match CSVReader for every window size")
+    void testMatchesCSVReader() throws IOException {
+        // The malformed rows and the overflowing ids, plus the non-ASCII digits
+        // if the file's charset turned them into '?'.
+        int unencodable = CsvFormat.CHARSET.newEncoder().canEncode("\u0662") ? 0 : 2;
+        assertEquals(11 + unencodable, expectedRejected.size());
+        for (int windowSize = 1; windowSize <= 80; windowSize++) {
+            MappedCSVReader mapped = new MappedCSVReader(input.toString(), windowSize);
+            assertMatches(mapped, "window size " + windowSize);
+        }
+        assertMatches(new MappedCSVReader(input.toString()), "default window");
+    }
+
+    /**
+     * Tests that a columnar batch holds the same rows as the Products of a
+     * plain {@link CSVReader}, including names copied without decoding.
+     * A batch may normalize the scale of a price, so only its value is compared.
+     */
+    @Test
+    @DisplayName("Test batches match CSVReader")
+    void testBatchMatchesCSVReader() throws IOException {
+        for (int windowSize : new int[] {1, 7, 64, 1 << 20}) {
+            MappedCSVReader mapped = new MappedCSVReader(input.toString(), windowSize);
+            mapped.setRejectedRowHandler(RejectedRowHandler.IGNORE);
+            ProductBatch batch = mapped.readBatch();
+            String message = "window size " + windowSize;
+            assertEquals(expected.size(), batch.size(), message);
+            for (int row = 0; row < batch.size(); row++) {
+                Product product = expected.get(row);
+                assertEquals(product.getProductId(), batch.getId(row), message);
+                assertEquals(product.getName(), batch.getName(row), message);
+                assertEquals(0, product.getPrice().compareTo(batch.getPrice(row)), message);
+                assertEquals(product.getCategory(), batch.getCategory(row), message);
+            }
+            assertEquals(reader.getRowsRead(), mapped.getRowsRead(), message);
+            assertEquals(reader.getRowsSkipped(), mapped.getRowsSkipped(), message);
+        }
+    }
+
+    private void assertMatches(MappedCSVReader mapped, String message) throws IOException {
+        List<String> rejected = new ArrayList<>();
+        mapped.setRejectedRowHandler(
+                (lineNumber, row, reason) -> rejected.add(lineNumber + ":" + row + ":" + reason));
+        List<Product> products = mapped.readProducts();
+
+        assertEquals(expected.size(), products.size(), message);
+        for (int i = 0; i < products.size(); i++) {
+            assertEquals(describe(expected.get(i)), describe(products.get(i)), message);
+        }
+        assertEquals(expectedRejected, rejected, message);
+        assertEquals(reader.getRowsRead(), mapped.getRowsRead(), message);
+        assertEquals(reader.getRowsSkipped(), mapped.getRowsSkipped(), message);
+    }
+
+    /**
+     * Describes every field of a Product, with the price's scale, so that
+     * 5 and 5.0 or 1E+3 and 1000 do not compare equal.
+     */
+    private static String describe(Product product) {
+        return product.getProductId() + "|" + product.getName() + "|" + product.getPrice()
+                + "|" + product.getPrice().scale() + "|" + product.getCategory();
+    }
+}
@@ -0,0 +1,436 @@
+package org.howard.edu.lsp.assignment3;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs the ETL process over many input files in one JVM.
+ * The inputs are named by a directory, which stands for every {@code *.csv}
+ * and {@code *.csv.gz} file in it, or by a glob such as {@code feeds/vendor-*.csv}. Each file is
+ * processed in the selected run mode on a bounded pool of worker threads, and
+ * written either to its own output file or, in input order, to one merged
+ * output file. A file that fails is reported and does not stop the others.
+ */
+public class MultiFileETLEngine {
+
+    /** The prefix of the output file written for each input file. */
+    public static final String OUTPUT_PREFIX = "transformed_";
+
+    private static final String GLOB_CHARACTERS = "*?[{";
+
+    private final List<Path> inputs;
+    private final int threads;
+    private Path outputDirectory = null;
+    private Path mergedOutput = null;
+    private PipelineOptions options = PipelineOptions.parse(new String[0]);
+    private TransformRules rules = TransformRules.defaults();
+    private PipelineMetrics metrics = new PipelineMetrics();
+    private Quarantine quarantine = new Quarantine();
+    private final List<FileResult> results = new ArrayList<>();
+
+    /**
+     * Constructs a MultiFileETLEngine.
+     * @param inputs The input files, processed and reported in this order.
+     * @param threads The number of files processed at once.
+     */
+    public MultiFileETLEngine(List<Path> inputs, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be positive");
+        }
+        this.inputs = new ArrayList<>(inputs);
+        this.threads = threads;
+    }
+
+    /**
+     * Checks whether an input path names several files rather than one.
+     * @param input The input path.
+     * @return true if the path is a directory or a glob.
+     */
+    public static boolean isMultiFile(String input) {
+        return containsGlob(input) || Files.isDirectory(Paths.get(input));
+    }
+
+    /**
+     * Finds the files an input path names, in name order.
+     * A directory names every {@code *.csv} and {@code *.csv.gz} file in it except the
+     * {@link #OUTPUT_PREFIX transformed_} outputs of earlier runs. A glob may
+     * only use wildcards in its last path element, such as {@code feeds/*.csv}.
+     * @param input A directory, a glob or a single file.
+     * @return The input files.
+     * @throws IOException if the directory cannot be listed or nothing matches.
+     */
+    public static List<Path> findInputs(String input) throws IOException {
+        Path directory;
+        String glob;
+        if (containsGlob(input)) {
+            Path path = Paths.get(input);
+            directory = path.getParent() == null ? Paths.get(".") : path.getParent();
+            glob = path.getFileName().toString();
+            if (containsGlob(directory.toString())) {
+                throw new IOException("Wildcards are only supported in the file name: " + input);
+            }
+        } else if (Files.isDirectory(Paths.get(input))) {
+            directory = Paths.get(input);
+            glob = "*.{csv,csv.gz}";
+        } else {
+            return Collections.singletonList(Paths.get(input));
+        }
+
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, glob)) {
+            for (Path file : stream) {
+                if (Files.isRegularFile(file) && !file.getFileName().toString().startsWith(OUTPUT_PREFIX)) {
+                    files.add(file);
+                }
+            }
+        }
+        if (files.isEmpty()) {
+            throw new FileNotFoundException("No input files match '" + input + "'");
+        }
+        Collections.sort(files);
+        return files;
+    }
+
+    /**
+     * Gets the default output file of an input file: the input's name with
+     * {@link #OUTPUT_PREFIX} in front, in the same directory.
+     * @param input The input file.
+     * @return The output file.
+     */
+    public static Path defaultOutput(Path input) {
+        return input.resolveSibling(OUTPUT_PREFIX + input.getFileName());
+    }
+
+    /**
+     * Writes each input's output to the given directory instead of next to the input.
+     * @param outputDirectory The directory for the output files.
+     */
+    public void setOutputDirectory(Path outputDirectory) {
+        this.outputDirectory = outputDirectory;
+    }
+
+    /**
+     * Writes the rows of every input to one output file, in input order.
+     * The file is only written if every input succeeds.
+     * @param mergedOutput The merged output file.
+     */
+    public void setMergedOutput(Path mergedOutput) {
+        this.mergedOutput = mergedOutput;
+    }
+
+    /**
+     * Sets the options each file is processed with.
+     * @param options The parsed command line options.
+     */
+    public void setOptions(PipelineOptions options) {
+        this.options = options;
+    }
+
+    /**
+     * Sets the rules the rows are transformed with.
+     * @param rules The transformation rules.
+     */
+    public void setRules(TransformRules rules) {
+        this.rules = rules;
+    }
+
+    /**
+     * Sets the metrics that every file records its stages into.
+     * @param metrics The metrics to record into.
+     */
+    public void setMetrics(PipelineMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Sets the quarantine that every file records its malformed rows in.
+     * The error rate of each file is checked on its own.
+     * @param quarantine The quarantine to record into.
+     */
+    public void setQuarantine(Quarantine quarantine) {
+        this.quarantine = quarantine;
+    }
+
+    /**
+     * Processes every input file.
+     * @throws IllegalArgumentException if the run mode cannot be used for several files.
+     * @throws IOException if the merged output cannot be written or a worker is interrupted.
+     */
+    public void run() throws IOException {
+        PipelineOptions.Mode mode = options.getMode();
+        if (mode == PipelineOptions.Mode.PARALLEL) {
+            throw new IllegalArgumentException("--parallel cannot be used with several input files;"
+                    + " the files themselves are processed in parallel");
+        }
+        if (mergedOutput != null && (mode == PipelineOptions.Mode.INCREMENTAL
+                || mode == PipelineOptions.Mode.CHECKPOINTED)) {
+            throw new IllegalArgumentException("A merged output only supports the batch, stream and columnar modes");
+        }
+        if (outputDirectory != null) {
+            Files.createDirectories(outputDirectory);
+        }
+
+        results.clear();
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, inputs.size())));
+        try {
+            List<Future<FileResult>> futures = new ArrayList<>();
+            for (int i = 0; i < inputs.size(); i++) {
+                Path input = inputs.get(i);
+                Path output = outputOf(i);
+                futures.add(pool.submit(() -> processFile(input, output)));
+            }
+            for (Future<FileResult> future : futures) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for an input file");
+        } catch (ExecutionException e) {
+            // processFile reports every failure in its result.
+            throw new IOException("Input file failed", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+
+        if (mergedOutput != null) {
+            merge();
+        }
+    }
+
+    /**
+     * Gets the result of each input file, in input order.
+     * @return The per-file results.
+     */
+    public List<FileResult> getResults() {
+        return Collections.unmodifiableList(results);
+    }
+
+    /**
+     * Gets the number of input files that could not be processed.
+     * @return The number of failed files.
+     */
+    public int getFilesFailed() {
+        int failed = 0;
+        for (FileResult result : results) {
+            if (!result.isSuccess()) {
+                failed++;
+            }
+        }
+        return failed;
+    }
+
+    /**
+     * Gets the counters of every successful file added together.
+     * @return The aggregate counters.
+     */
+    public RunSummary getSummary() {
+        int rowsRead = 0;
+        int rowsTransformed = 0;
+        int rowsSkipped = 0;
+        for (FileResult result : results) {
+            if (result.isSuccess()) {
+                rowsRead += result.summary.getRowsRead();
+                rowsTransformed += result.summary.getRowsTransformed();
+                rowsSkipped += result.summary.getRowsSkipped();
+            }
+        }
+        return new RunSummary(rowsRead, rowsTransformed, rowsSkipped);
+    }
+
+    /**
+     * Gets the price stats of every successful file merged together. Each file
+     * gathers its own stats on its worker thread when the options ask for
+     * {@code --aggregate}.
+     * @return The merged stats; empty if no stats were gathered.
+     */
+    public ProductAggregator getAggregator() {
+        ProductAggregator total = new ProductAggregator();
+        for (FileResult result : results) {
+            if (result.isSuccess() && result.aggregator != null) {
+                total.merge(result.aggregator);
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Prints one line per input file to standard output, followed by the
+     * aggregate run summary.
+     */
+    public void print() {
+        System.out.println("Files:");
+        for (FileResult result : results) {
+            System.out.println("  " + result);
+        }
+        System.out.println("Files Processed: " + (results.size() - getFilesFailed()) + " of " + results.size());
+        String output = mergedOutput != null ? mergedOutput.toString()
+                : outputDirectory != null ? outputDirectory.toString() : "one per input file";
+        getSummary().print(output);
+    }
+
+    private Path outputOf(int index) {
+        if (mergedOutput != null) {
+            return Paths.get(mergedOutput + ".part" + index);
+        }
+        Path output = defaultOutput(inputs.get(index));
+        return outputDirectory == null ? output : outputDirectory.resolve(output.getFileName());
+    }
+
+    /**
+     * Processes one input file. Runs on a worker thread.
+     */
+    private FileResult processFile(Path input, Path output) {
+        long started = System.nanoTime();
+        ProductAggregator aggregator = options.getAggregateFile() != null ? new ProductAggregator() : null;
+        try {
+            RunSummary summary = ETLPipeline.runMode(input.toString(), output.toString(), options, rules,
+                    aggregator, quarantine, metrics);
+            return new FileResult(input, output, summary, aggregator, null,
+                    (System.nanoTime() - started) / 1_000_000);
+        } catch (IOException | RuntimeException e) {
+            String message = e instanceof FileNotFoundException ? "not found" : e.toString();
+            return new FileResult(input, output, null, null, message, (System.nanoTime() - started) / 1_000_000);
+        }
+    }
+
+    /**
+     * Appends the rows of every part file to the merged output, dropping the
+     * header of every part but the first, and renames it into place.
+     */
+    private void merge() throws IOException {
+        Path temp = Paths.get(mergedOutput + ".tmp");
+        try {
+            if (getFilesFailed() > 0) {
+                throw new IOException(getFilesFailed() + " of " + results.size()
+                        + " input files failed; the merged output was not written");
+            }
+            long headerLength = (CsvFormat.OUTPUT_HEADER + CsvFormat.LINE_SEPARATOR).getBytes(CsvFormat.CHARSET).length;
+            // The parts are plain files; only the merged output is compressed.
+            CompressionCodec codec = CompressionCodec.forPath(mergedOutput.toString());
+            try (WritableByteChannel out = Channels.newChannel(codec.openOutput(temp.toString()))) {
+                for (int i = 0; i < results.size(); i++) {
+                    try (FileChannel in = FileChannel.open(results.get(i).output, StandardOpenOption.READ)) {
+                        long position = i == 0 ? 0 : Math.min(headerLength, in.size());
+                        while (position < in.size()) {
+                            position += in.transferTo(position, in.size() - position, out);
+                        }
+                    }
+                }
+            }
+            try {
+                Files.move(temp, mergedOutput, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, mergedOutput, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+            for (FileResult result : results) {
+                Files.deleteIfExists(result.output);
+            }
+        }
+    }
+
+    private static boolean containsGlob(String path) {
+        for (int i = 0; i < path.length(); i++) {
+            if (GLOB_CHARACTERS.indexOf(path.charAt(i)) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The outcome of processing one input file.
+     */
+    public static final class FileResult {
+        private final Path input;
+        private final Path output;
+        private final RunSummary summary;
+        private final ProductAggregator aggregator;
+        private final String error;
+        private final long millis;
+
+        FileResult(Path input, Path output, RunSummary summary, ProductAggregator aggregator, String error,
+                long millis) {
+            this.input = input;
+            this.output = output;
+            this.summary = summary;
+            this.aggregator = aggregator;
+            this.error = error;
+            this.millis = millis;
+        }
+
+        /**
+         * Gets the input file.
+         * @return The path of the input file.
+         */
+        public Path getInput() {
+            return input;
+        }
+
+        /**
+         * Checks whether the file was processed.
+         * @return true if the file was processed without an error.
+         */
+        public boolean isSuccess() {
+            return error == null;
+        }
+
+        /**
+         * Gets the counters of the file.
+         * @return The counters, or null if the file failed.
+         */
+        public RunSummary getSummary() {
+            return summary;
+        }
+
+        /**
+         * Gets the reason the file failed.
+         * @return The error message, or null if the file was processed.
+         */
+        public String getError() {
+            return error;
+        }
+
+        /**
+         * Gets the time it took to process the file.
+         * @return The time in milliseconds.
+         */
+        public long getMillis() {
+            return millis;
+        }
+
+        /**
+         * Describes the result on one line.
+         * @return The file, its counters and time, or its error.
+         */
+        @Override
+        public String toString() {
+            if (error != null) {
+                return input + ": FAILED (" + error + ")";
+            }
+            return input + ": Rows Read " + summary.getRowsRead()
+                    + ", Rows Transformed " + summary.getRowsTransformed()
+                    + ", Rows Skipped " + summary.getRowsSkipped()
+                    + ", " + millis + " ms";
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package org.howard.edu.lsp.assignment3;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * JUnit 5 test class for {@link MultiFileETLEngine}. Every output is checked
+ * against single-file batch runs over the same inputs.
+ */
+public class MultiFileETLEngineTest {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Generates three small input files with some malformed and empty rows,
+     * and a file that is not an input.
+     */
+    @BeforeEach
+    void setUp() throws IOException {
+        for (int i = 0; i < 3; i++) {
+            ProductFileTestSupport.generate(directory.resolve("feed-" + i + ".csv"), 2_000 + i * 500, i, 0.01, 0.01);
+        }
+        Files.write(directory.resolve("notes.txt"), "not a feed\n".getBytes(CsvFormat.CHARSET));
+    }
+
+    private RunSummary runSingle(Path input, Path output) throws IOException {
+        return ProductFileTestSupport.runBatch(input, output);
+    }
+
+    /**
+     * Tests that a directory and a glob find the same CSV files, in name
+     * order, without the outputs of an earlier run.
+     */
+    @Test
+    @DisplayName("Test directory and glob inputs")
+    void testFindInputs() throws IOException {
+        List<Path> expected = Arrays.asList(directory.resolve("feed-0.csv"),
+                directory.resolve("feed-1.csv"), directory.resolve("feed-2.csv"));
+        Files.write(directory.resolve("transformed_feed-0.csv"), new byte[0]);
+
+        assertTrue(MultiFileETLEngine.isMultiFile(directory.toString()));
+        assertEquals(expected, MultiFileETLEngine.findInputs(directory.toString()));
+        assertEquals(expected, MultiFileETLEngine.findInputs(directory.resolve("feed-*.csv").toString()));
+        assertEquals(expected.subList(1, 3),
+                MultiFileETLEngine.findInputs(directory.resolve("feed-[12].csv").toString()));
+        assertThrows(IOException.class,
+                () -> MultiFileETLEngine.findInputs(directory.resolve("missing-*.csv").toString()));
+    }
+
+    /**
+     * Tests that each input gets the same output as a single-file run and
+     * that the aggregate counters add up the per-file counters.
+     */
+    @Test
+    @DisplayName("Test one output per input")
+    void testOutputPerInput() throws IOException {
+        Path outputs = directory.resolve("out");
+        MultiFileETLEngine engine = new MultiFileETLEngine(
+                MultiFileETLEngine.findInputs(directory.toString()), 2);
+        engine.setOutputDirectory(outputs);
+        engine.setOptions(PipelineOptions.parse(new String[] {"--stream"}));
+        engine.run();
+
+        assertEquals(0, engine.getFilesFailed());
+        int rowsRead = 0;
+        int rowsTransformed = 0;
+        for (MultiFileETLEngine.FileResult result : engine.getResults()) {
+            Path expected = directory.resolve("expected.csv");
+            RunSummary single = runSingle(result.getInput(), expected);
+            Path output = outputs.resolve("transformed_" + result.getInput().getFileName());
+            assertArrayEquals(Files.readAllBytes(expected), Files.readAllBytes(output));
+            assertEquals(single.getRowsRead(), result.getSummary().getRowsRead());
+            assertEquals(single.getRowsSkipped(), result.getSummary().getRowsSkipped());
+            rowsRead += single.getRowsRead();
+            rowsTransformed += single.getRowsTransformed();
+        }
+        assertEquals(rowsRead, engine.getSummary().getRowsRead());
+        assertEquals(rowsTransformed, engine.getSummary().getRowsTransformed());
+    }
+
+    /**
+     * Tests that the merged output holds one header followed by the rows of
+     * each input in order, and that it is not written if an input fails.
+     */
+    @Test
+    @DisplayName("Test merged output")
+    void testMergedOutput() throws IOException {
+        List<Path> inputs = MultiFileETLEngine.findInputs(directory.toString());
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        for (int i = 0; i < inputs.size(); i++) {
+            Path single = directory.resolve("single-" + i + ".out");
+            runSingle(inputs.get(i), single);
+            byte[] bytes = Files.readAllBytes(single);
+            int header = i == 0 ? 0 : (CsvFormat.OUTPUT_HEADER + CsvFormat.LINE_SEPARATOR).length();
+            expected.write(bytes, header, bytes.length - header);
+        }
+
+        Path merged = directory.resolve("merged.out");
+        MultiFileETLEngine engine = new MultiFileETLEngine(inputs, 3);
+        engine.setMergedOutput(merged);
+        engine.setOptions(PipelineOptions.parse(new String[] {"--columnar"}));
+        engine.run();
+        assertArrayEquals(expected.toByteArray(), Files.readAllBytes(merged));
+
+        // A missing input fails on its own, and the merged output is left alone.
+        Path missing = directory.resolve("missing.csv");
+        MultiFileETLEngine failing = new MultiFileETLEngine(Arrays.asList(inputs.get(0), missing), 2);
+        failing.setMergedOutput(merged);
+        assertThrows(IOException.class, failing::run);
+        assertEquals(1, failing.getFilesFailed());
+        assertTrue(failing.getResults().get(0).isSuccess());
+        assertFalse(failing.getResults().get(1).isSuccess());
+        assertArrayEquals(expected.toByteArray(), Files.readAllBytes(merged));
+        try (Stream<Path> files = Files.list(directory)) {
+            assertTrue(files.noneMatch(file -> file.getFileName().toString().startsWith("merged.out.")));
+        }
+    }
+}
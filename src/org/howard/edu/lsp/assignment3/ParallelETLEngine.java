@@ -0,0 +1,322 @@
+package org.howard.edu.lsp.assignment3;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs the whole ETL process on a pool of worker threads.
+ * The input file is split at line boundaries into chunks. Each chunk is parsed
+ * and transformed by a worker, and the finished chunks are written back in
+ * input order, so the output is byte-identical to a single-threaded run.
+ */
+public class ParallelETLEngine {
+
+    /** The default number of input bytes in each chunk. */
+    public static final int DEFAULT_CHUNK_SIZE = 8 * 1024 * 1024;
+
+    private final String inputPath;
+    private final String outputPath;
+    private final int threads;
+    private final int chunkSize;
+    private int rowsRead = 0;
+    private int rowsSkipped = 0;
+    private int rowsTransformed = 0;
+    private TransformRules rules = TransformRules.defaults();
+    private PipelineMetrics metrics = new PipelineMetrics();
+    private ProductAggregator aggregator = null;
+    private RejectedRowHandler rejectedRows = RejectedRowHandler.PRINT;
+
+    /**
+     * Constructs a ParallelETLEngine using the default chunk size.
+     * @param inputPath The path to the input CSV file.
+     * @param outputPath The path to the output CSV file.
+     * @param threads The number of worker threads.
+     */
+    public ParallelETLEngine(String inputPath, String outputPath, int threads) {
+        this(inputPath, outputPath, threads, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Constructs a ParallelETLEngine.
+     * @param inputPath The path to the input CSV file.
+     * @param outputPath The path to the output CSV file.
+     * @param threads The number of worker threads.
+     * @param chunkSize The target number of input bytes in each chunk.
+     */
+    public ParallelETLEngine(String inputPath, String outputPath, int threads, int chunkSize) {
+        if (threads < 1 || chunkSize < 1) {
+            throw new IllegalArgumentException("threads and chunkSize must be positive");
+        }
+        this.inputPath = inputPath;
+        this.outputPath = outputPath;
+        this.threads = threads;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Extracts, transforms and loads the input file.
+     * At most two chunks per worker are in flight at once, so memory use is
+     * bounded by the chunk size rather than the size of the file.
+     * @throws FileNotFoundException if the input file does not exist.
+     * @throws IOException if an I/O error occurs while reading or writing.
+     */
+    public void run() throws FileNotFoundException, IOException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try (FileInputStream in = new FileInputStream(inputPath)) {
+            FileChannel channel = in.getChannel();
+            long size = channel.size();
+            try (OutputStream out = new BufferedOutputStream(new FileOutputStream(outputPath))) {
+                byte[] header = (CsvFormat.OUTPUT_HEADER + CsvFormat.LINE_SEPARATOR).getBytes(CsvFormat.CHARSET);
+                out.write(header);
+                metrics.load().addBytes(header.length);
+
+                // Skip the header row; an empty file has no data rows at all.
+                long start = size == 0 ? 0 : nextLineStart(channel, 0, size);
+                metrics.extract().addBytes(start);
+                Deque<Future<ChunkResult>> inFlight = new ArrayDeque<>();
+                while (start < size) {
+                    long end = Math.min(start + chunkSize, size);
+                    if (end < size) {
+                        end = nextLineStart(channel, end - 1, size);
+                    }
+                    if (inFlight.size() >= threads * 2) {
+                        writeChunk(inFlight.removeFirst(), out);
+                    }
+                    final long chunkStart = start;
+                    final long chunkEnd = end;
+                    inFlight.addLast(pool.submit(() -> processChunk(channel, chunkStart, chunkEnd)));
+                    start = end;
+                }
+                while (!inFlight.isEmpty()) {
+                    writeChunk(inFlight.removeFirst(), out);
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Sets the rules the rows are transformed with.
+     * @param rules The transformation rules.
+     */
+    public void setRules(TransformRules rules) {
+        this.rules = rules;
+    }
+
+    /**
+     * Sets the metrics that the stages of each chunk are recorded into.
+     * Every chunk is timed as one batch: reading and parsing it as extract,
+     * transforming its rows as transform, and writing it as load.
+     * @param metrics The metrics to record into.
+     */
+    public void setMetrics(PipelineMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Sets the aggregator that the price stats of the transformed rows are
+     * gathered into. Each chunk fills its own aggregator on its worker thread,
+     * and the chunks are merged into this one as they are written.
+     * @param aggregator The aggregator, or null to gather no stats.
+     */
+    public void setAggregator(ProductAggregator aggregator) {
+        this.aggregator = aggregator;
+    }
+
+    /**
+     * Sets the handler that receives each malformed row. Each chunk collects
+     * its malformed rows on its worker thread, and they are handed on in input
+     * order, with their line numbers in the whole file, as the chunk is written.
+     * @param rejectedRows The rejected row handler.
+     */
+    public void setRejectedRowHandler(RejectedRowHandler rejectedRows) {
+        this.rejectedRows = rejectedRows;
+    }
+
+    /**
+     * Gets the number of data rows read, summed across all chunks.
+     * @return The total number of rows (excluding header) read.
+     */
+    public int getRowsRead() {
+        return rowsRead;
+    }
+
+    /**
+     * Gets the number of malformed or empty rows skipped, summed across all chunks.
+     * @return The total number of rows skipped.
+     */
+    public int getRowsSkipped() {
+        return rowsSkipped;
+    }
+
+    /**
+     * Gets the number of rows transformed and written.
+     * @return The total number of rows transformed.
+     */
+    public int getRowsTransformed() {
+        return rowsTransformed;
+    }
+
+    /**
+     * Finds the start of the line after the one containing {@code from}.
+     * Line terminators match {@code BufferedReader.readLine()}: "\n", "\r" or "\r\n".
+     * @return The offset just past the next line terminator, or {@code size} if there is none.
+     */
+    private static long nextLineStart(FileChannel channel, long from, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        long position = from;
+        boolean afterCarriageReturn = false;
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                byte b = buffer.get(i);
+                if (afterCarriageReturn) {
+                    return b == '\n' ? position + i + 1 : position + i;
+                }
+                if (b == '\n') {
+                    return position + i + 1;
+                }
+                afterCarriageReturn = b == '\r';
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    /**
+     * Reads, parses and transforms one chunk. Runs on a worker thread.
+     */
+    private ChunkResult processChunk(FileChannel channel, long start, long end) throws IOException {
+        long started = System.nanoTime();
+        byte[] bytes = new byte[(int) (end - start)];
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, start + buffer.position()) < 0) {
+                throw new EOFException("Input file shrank while it was being read");
+            }
+        }
+
+        // The reader only counts and parses rows here; the chunk bytes are read above.
+        CSVReader reader = new CSVReader(inputPath);
+        List<RejectedRow> rejected = new ArrayList<>();
+        reader.setRejectedRowHandler(
+                (lineNumber, row, reason) -> rejected.add(new RejectedRow(lineNumber, row, reason)));
+        ProductTransformer transformer = new ProductTransformer(reader.getCategories(), rules);
+        StringBuilder output = new StringBuilder(bytes.length + bytes.length / 4);
+        List<Product> products = new ArrayList<>();
+        BufferedReader lines = new BufferedReader(
+                new InputStreamReader(new ByteArrayInputStream(bytes), CsvFormat.CHARSET));
+        reader.readRows(lines, products::add);
+        long extracted = System.nanoTime();
+        metrics.extract().recordBatch(products.size(), extracted - started);
+        metrics.extract().addBytes(bytes.length);
+
+        ProductAggregator chunkAggregator = aggregator != null ? new ProductAggregator() : null;
+        for (Product product : products) {
+            output.append(transformer.transform(product).toString()).append(CsvFormat.LINE_SEPARATOR);
+            if (chunkAggregator != null) {
+                chunkAggregator.add(product);
+            }
+        }
+        metrics.transform().recordBatch(products.size(), System.nanoTime() - extracted);
+        return new ChunkResult(output.toString().getBytes(CsvFormat.CHARSET),
+                reader.getRowsRead(), reader.getRowsSkipped(), products.size(), chunkAggregator, rejected);
+    }
+
+    /**
+     * Waits for a chunk to finish, writes its rows and adds its counters to the totals.
+     */
+    private void writeChunk(Future<ChunkResult> future, OutputStream out) throws IOException {
+        ChunkResult result;
+        try {
+            result = future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a chunk");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException("Chunk failed", cause);
+        }
+        // The chunk's line numbers start after the rows of the chunks before it.
+        for (RejectedRow row : result.rejected) {
+            rejectedRows.reject(rowsRead + row.lineNumber, row.row, row.reason);
+        }
+        long started = System.nanoTime();
+        out.write(result.output);
+        metrics.load().recordBatch(result.rowsTransformed, System.nanoTime() - started);
+        metrics.load().addBytes(result.output.length);
+        rowsRead += result.rowsRead;
+        rowsSkipped += result.rowsSkipped;
+        rowsTransformed += result.rowsTransformed;
+        if (result.aggregator != null) {
+            aggregator.merge(result.aggregator);
+        }
+    }
+
+    /**
+     * The encoded output rows, counters, price stats and malformed rows of one processed chunk.
+     */
+    private static final class ChunkResult {
+        private final byte[] output;
+        private final int rowsRead;
+        private final int rowsSkipped;
+        private final int rowsTransformed;
+        private final ProductAggregator aggregator;
+        private final List<RejectedRow> rejected;
+
+        ChunkResult(byte[] output, int rowsRead, int rowsSkipped, int rowsTransformed,
+                ProductAggregator aggregator, List<RejectedRow> rejected) {
+            this.output = output;
+            this.rowsRead = rowsRead;
+            this.rowsSkipped = rowsSkipped;
+            this.rowsTransformed = rowsTransformed;
+            this.aggregator = aggregator;
+            this.rejected = rejected;
+        }
+    }
+
+    /**
+     * A malformed row of a chunk, with its line number counted from the start of the chunk.
+     */
+    private static final class RejectedRow {
+        private final long lineNumber;
+        private final String row;
+        private final String reason;
+
+        RejectedRow(long lineNumber, String row, String reason) {
+            this.lineNumber = lineNumber;
+            this.row = row;
+            this.reason = reason;
+        }
+    }
+}
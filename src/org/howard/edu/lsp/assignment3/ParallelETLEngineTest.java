@@ -0,0 +1,130 @@
+package org.howard.edu.lsp.assignment3;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * JUnit 5 test class for {@link ParallelETLEngine}. Every output is checked
+ * against a batch run over the same input.
+ */
+public class ParallelETLEngineTest {
+
+    @TempDir
+    Path directory;
+
+    private Path input;
+    private Path expected;
+    private RunSummary batch;
+    private List<String> expectedRejected;
+
+    /**
+     * Writes an input that mixes "\r", "\r\n" and "\n" line endings, empty
+     * and malformed rows, and no newline after the last row, and runs the
+     * default batch mode and a plain {@link CSVReader} over it.
+     */
+    @BeforeEach
+    void setUp() throws IOException {
+        input = directory.resolve("products.csv");
+        expected = directory.resolve("expected.csv");
+        StringBuilder text = new StringBuilder("ProductID,Name,Price,Category\r\n");
+        String[] terminators = {"\r", "\r\n", "\n"};
+        for (int i = 0; i < 30; i++) {
+            String row;
+            switch (i % 6) {
+                case 0:
+                    row = i + ",Laptop " + i + ",999.99,Electronics";
+                    break;
+                case 1:
+                    row = "id" + i + ",Pen,1.50,Stationery";
+                    break;
+                case 2:
+                    row = i + ",Mug,abc,Kitchen";
+                    break;
+                case 3:
+                    row = "";
+                    break;
+                case 4:
+                    row = i + ",Chair";
+                    break;
+                default:
+                    row = i + ",TV,499.995,Electronics";
+                    break;
+            }
+            text.append(row).append(terminators[i % terminators.length]);
+        }
+        text.append("99,Desk,120,Furniture");
+        Files.write(input, text.toString().getBytes(CsvFormat.CHARSET));
+
+        batch = ProductFileTestSupport.runBatch(input, expected);
+        expectedRejected = new ArrayList<>();
+        CSVReader reader = new CSVReader(input.toString());
+        reader.setRejectedRowHandler(
+                (lineNumber, row, reason) -> expectedRejected.add(lineNumber + ":" + row + ":" + reason));
+        reader.readProducts();
+    }
+
+    /**
+     * Tests chunks of every size from 1 byte up to more than the longest
+     * row, so that chunk boundaries fall inside and between every kind of
+     * line terminator, including between the "\r" and "\n" of "\r\n".
+     */
+    @Test
+    @DisplayName("Test output matches batch mode for every chunk size")
+    void testMatchesBatch() throws IOException {
+        // Bad ProductIDs, bad Prices and missing columns.
+        assertEquals(15, expectedRejected.size());
+        Path output = directory.resolve("parallel.csv");
+        for (int chunkSize = 1; chunkSize <= 64; chunkSize++) {
+            ParallelETLEngine engine = new ParallelETLEngine(input.toString(), output.toString(), 3, chunkSize);
+            List<String> rejected = new ArrayList<>();
+            engine.setRejectedRowHandler(
+                    (lineNumber, row, reason) -> rejected.add(lineNumber + ":" + row + ":" + reason));
+            engine.run();
+
+            String message = "chunk size " + chunkSize;
+            assertArrayEquals(Files.readAllBytes(expected), Files.readAllBytes(output), message);
+            assertEquals(batch.getRowsRead(), engine.getRowsRead(), message);
+            assertEquals(batch.getRowsTransformed(), engine.getRowsTransformed(), message);
+            assertEquals(batch.getRowsSkipped(), engine.getRowsSkipped(), message);
+            assertEquals(expectedRejected, rejected, message);
+        }
+    }
+
+    /**
+     * Tests that the counters and the price stats add up across chunks on a
+     * generated input of many chunks.
+     */
+    @Test
+    @DisplayName("Test counters and stats add up across chunks")
+    void testCountersAcrossChunks() throws IOException {
+        ProductFileTestSupport.generate(input, 20_000, 2, 0.01, 0.01);
+        Path summary = directory.resolve("batch-stats.csv");
+        batch = ETLPipeline.run(input.toString(), expected.toString(),
+                PipelineOptions.parse(new String[] {"--aggregate", summary.toString()}));
+
+        Path output = directory.resolve("parallel.csv");
+        ParallelETLEngine engine = new ParallelETLEngine(input.toString(), output.toString(), 4, 4096);
+        ProductAggregator aggregator = new ProductAggregator();
+        engine.setAggregator(aggregator);
+        engine.setRejectedRowHandler(RejectedRowHandler.IGNORE);
+        engine.run();
+        Path parallelSummary = directory.resolve("parallel-stats.csv");
+        aggregator.write(parallelSummary.toString());
+
+        assertArrayEquals(Files.readAllBytes(expected), Files.readAllBytes(output));
+        assertArrayEquals(Files.readAllBytes(summary), Files.readAllBytes(parallelSummary));
+        assertEquals(batch.getRowsRead(), engine.getRowsRead());
+        assertEquals(batch.getRowsTransformed(), engine.getRowsTransformed());
+        assertEquals(batch.getRowsSkipped(), engine.getRowsSkipped());
+        assertEquals(engine.getRowsRead(), engine.getRowsTransformed() + engine.getRowsSkipped());
+    }
+}
@@ -0,0 +1,159 @@
+package org.howard.edu.lsp.assignment3;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * The extract, transform and load stage metrics of one ETL run.
+ * Each stage counts its rows, bytes and time, and keeps a histogram of batch
+ * latencies, so a slow run shows whether the time went into reading, into
+ * the transformation or into writing. The metrics can be watched live through
+ * JMX and written to a JSON summary file at the end of the run.
+ */
+public class PipelineMetrics {
+
+    private static final String DOMAIN = "org.howard.edu.lsp.assignment3";
+
+    private final StageMetrics extract = new StageMetrics("extract");
+    private final StageMetrics transform = new StageMetrics("transform");
+    private final StageMetrics load = new StageMetrics("load");
+    private long startNanos = 0;
+    private long endNanos = 0;
+
+    /**
+     * Gets the metrics of the extract stage.
+     * @return The extract stage metrics.
+     */
+    public StageMetrics extract() {
+        return extract;
+    }
+
+    /**
+     * Gets the metrics of the transform stage.
+     * @return The transform stage metrics.
+     */
+    public StageMetrics transform() {
+        return transform;
+    }
+
+    /**
+     * Gets the metrics of the load stage.
+     * @return The load stage metrics.
+     */
+    public StageMetrics load() {
+        return load;
+    }
+
+    /**
+     * Marks the start of the run.
+     */
+    public void start() {
+        startNanos = System.nanoTime();
+        endNanos = 0;
+    }
+
+    /**
+     * Marks the end of the run.
+     */
+    public void finish() {
+        endNanos = System.nanoTime();
+    }
+
+    /**
+     * Gets the wall-clock time of the run, or of the run so far if it has not finished.
+     * @return The time in milliseconds.
+     */
+    public long getWallTimeMillis() {
+        if (startNanos == 0) {
+            return 0;
+        }
+        return ((endNanos == 0 ? System.nanoTime() : endNanos) - startNanos) / 1_000_000;
+    }
+
+    /**
+     * Registers one MBean per stage with the platform MBean server.
+     * @throws JMException if the MBeans cannot be registered.
+     */
+    public void register() throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (StageMetrics stage : stages()) {
+            ObjectName name = objectName(stage);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(stage, name);
+        }
+    }
+
+    /**
+     * Removes the MBeans registered by {@link #register()}.
+     * @throws JMException if the MBeans cannot be removed.
+     */
+    public void unregister() throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (StageMetrics stage : stages()) {
+            ObjectName name = objectName(stage);
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+        }
+    }
+
+    /**
+     * Writes the run counters and the stage metrics to a JSON file.
+     * @param filePath The path of the summary file.
+     * @param mode The mode the pipeline ran in.
+     * @param summary The row counters of the run.
+     * @throws IOException if an I/O error occurs while writing the file.
+     */
+    public void writeSummary(String filePath, PipelineOptions.Mode mode, RunSummary summary) throws IOException {
+        StringBuilder json = new StringBuilder();
+        json.append("{\n");
+        json.append("  \"mode\": \"").append(mode.name().toLowerCase(Locale.ROOT)).append("\",\n");
+        json.append("  \"wallTimeMillis\": ").append(getWallTimeMillis()).append(",\n");
+        json.append("  \"rowsRead\": ").append(summary.getRowsRead()).append(",\n");
+        json.append("  \"rowsTransformed\": ").append(summary.getRowsTransformed()).append(",\n");
+        json.append("  \"rowsSkipped\": ").append(summary.getRowsSkipped()).append(",\n");
+        json.append("  \"stages\": {\n");
+        StageMetrics[] stages = stages();
+        for (int i = 0; i < stages.length; i++) {
+            StageMetrics stage = stages[i];
+            json.append("    \"").append(stage.getStage()).append("\": {\n");
+            json.append("      \"rows\": ").append(stage.getRows()).append(",\n");
+            json.append("      \"bytes\": ").append(stage.getBytes()).append(",\n");
+            json.append("      \"timeMillis\": ").append(stage.getTimeMillis()).append(",\n");
+            json.append("      \"rowsPerSecond\": ").append(format(stage.getRowsPerSecond())).append(",\n");
+            json.append("      \"bytesPerSecond\": ").append(format(stage.getBytesPerSecond())).append(",\n");
+            json.append("      \"batches\": ").append(stage.getBatches()).append(",\n");
+            json.append("      \"latencyMicros\": {");
+            json.append("\"p50\": ").append(format(stage.getLatencyP50Micros())).append(", ");
+            json.append("\"p99\": ").append(format(stage.getLatencyP99Micros())).append(", ");
+            json.append("\"p999\": ").append(format(stage.getLatencyP999Micros())).append("}\n");
+            json.append("    }").append(i < stages.length - 1 ? "," : "").append("\n");
+        }
+        json.append("  }\n");
+        json.append("}\n");
+
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath))) {
+            writer.write(json.toString());
+        }
+    }
+
+    private StageMetrics[] stages() {
+        return new StageMetrics[] {extract, transform, load};
+    }
+
+    private static ObjectName objectName(StageMetrics stage) throws JMException {
+        return new ObjectName(DOMAIN + ":type=ETLPipeline,stage=" + stage.getStage());
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.1f", value);
+    }
+}
@@ -0,0 +1,409 @@
+package org.howard.edu.lsp.assignment3;
+
+/**
+ * Parses and holds the command line options of {@link ETLPipeline}.
+ */
+public class PipelineOptions {
+
+    /**
+     * The ways the pipeline can run the extract, transform and load stages.
+     */
+    public enum Mode {
+        /** Extract the whole file, then transform it, then load it. */
+        BATCH,
+        /** Extract, transform and load the file in small batches of rows. */
+        STREAM,
+        /** Split the file into chunks and process them on a worker pool. */
+        PARALLEL,
+        /** Read the whole file into a columnar ProductBatch and transform it in place. */
+        COLUMNAR,
+        /** Re-transform only the rows that changed since the previous run. */
+        INCREMENTAL,
+        /** Stream the file in batches, taking checkpoints that a later run can resume from. */
+        CHECKPOINTED,
+        /** Extract, transform and load batches of rows at the same time, each stage on its own thread. */
+        PIPELINED
+    }
+
+    private Mode mode = Mode.BATCH;
+    private String modeFlag = null;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private boolean memoryMapped = false;
+    private boolean byteWriter = false;
+    private String metricsFile = null;
+    private String rulesFile = null;
+    private String indexFile = null;
+    private int checkpointRows = CheckpointedETLEngine.DEFAULT_CHECKPOINT_ROWS;
+    private boolean resume = false;
+    private String input = "data/products.csv";
+    private String output = null;
+    private String mergeFile = null;
+    private String binaryFile = null;
+    private String aggregateFile = null;
+    private int queueBatches = 0;
+    private String quarantineFile = null;
+    private double maxErrorRate = 1.0;
+    private boolean dedup = false;
+    private int dedupMaxKeys = DedupIndex.defaultMaxKeys();
+
+    /**
+     * Parses the command line arguments.
+     * @param args The command line arguments.
+     * @return The parsed options.
+     * @throws IllegalArgumentException if an argument is unknown or invalid.
+     */
+    public static PipelineOptions parse(String[] args) {
+        PipelineOptions options = new PipelineOptions();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            switch (arg) {
+                case "--stream":
+                    // Transform and write the rows in batches as they are read, so memory use stays flat.
+                    options.setMode(Mode.STREAM, arg);
+                    break;
+                case "--parallel":
+                    // Process chunks of the file on a pool of --threads workers through ParallelETLEngine.
+                    options.setMode(Mode.PARALLEL, arg);
+                    break;
+                case "--columnar":
+                    // Hold the rows in a columnar ProductBatch and transform it in place.
+                    options.setMode(Mode.COLUMNAR, arg);
+                    break;
+                case "--pipelined":
+                    // Run extract, transform and load at the same time through PipelinedETLEngine.
+                    options.setMode(Mode.PIPELINED, arg);
+                    break;
+                case "--queue-batches":
+                    // The number of batches each queue of the pipelined mode holds.
+                    options.queueBatches = parsePositiveInt(arg, valueOf(args, ++i, arg));
+                    break;
+                case "--mmap":
+                    // Read the input through the memory-mapped MappedCSVReader.
+                    options.memoryMapped = true;
+                    break;
+                case "--byte-writer":
+                    // Write the output through ByteCSVWriter.
+                    options.byteWriter = true;
+                    break;
+                case "--incremental":
+                    // Re-transform only the rows that changed since the previous run through IncrementalETLEngine.
+                    options.setMode(Mode.INCREMENTAL, arg);
+                    break;
+                case "--index":
+                    // The change-detection index of the incremental mode.
+                    options.indexFile = valueOf(args, ++i, arg);
+                    break;
+                case "--checkpoint-every":
+                    // Take a checkpoint every N rows through CheckpointedETLEngine.
+                    options.setMode(Mode.CHECKPOINTED, arg);
+                    options.checkpointRows = parsePositiveInt(arg, valueOf(args, ++i, arg));
+                    break;
+                case "--resume":
+                    // Continue a checkpointed run that died from its last checkpoint.
+                    options.setMode(Mode.CHECKPOINTED, arg);
+                    options.resume = true;
+                    break;
+                case "--input":
+                    // A file, a directory of CSV files or a glob; several files go through MultiFileETLEngine.
+                    options.input = valueOf(args, ++i, arg);
+                    break;
+                case "--output":
+                    // The output file, or the output directory of several input files.
+                    options.output = valueOf(args, ++i, arg);
+                    break;
+                case "--merge":
+                    // Write the rows of every input file to one merged output.
+                    options.mergeFile = valueOf(args, ++i, arg);
+                    break;
+                case "--dedup":
+                    // Keep only the last row of each ProductID, using a DedupIndex.
+                    options.dedup = true;
+                    break;
+                case "--dedup-memory":
+                    // Like --dedup, spilling to disk past N distinct ProductIDs.
+                    options.dedup = true;
+                    options.dedupMaxKeys = parsePositiveInt(arg, valueOf(args, ++i, arg));
+                    break;
+                case "--binary":
+                    // Also write the output as a binary columnar file through ColumnarFileWriter.
+                    options.binaryFile = valueOf(args, ++i, arg);
+                    break;
+                case "--aggregate":
+                    // Write the price stats of each category and price range, gathered by a ProductAggregator.
+                    options.aggregateFile = valueOf(args, ++i, arg);
+                    break;
+                case "--quarantine":
+                    // Keep the malformed rows, with their line numbers and reasons, in a Quarantine file.
+                    options.quarantineFile = valueOf(args, ++i, arg);
+                    break;
+                case "--max-error-rate":
+                    // Stop the run once more than this fraction of an input's rows are malformed.
+                    options.maxErrorRate = parseRate(arg, valueOf(args, ++i, arg));
+                    break;
+                case "--rules":
+                    // Load the transformation rules from a TransformRules file instead of the defaults.
+                    options.rulesFile = valueOf(args, ++i, arg);
+                    break;
+                case "--metrics":
+                    // Write the stage metrics of the run to a JSON file at the end.
+                    options.metricsFile = valueOf(args, ++i, arg);
+                    break;
+                case "--threads":
+                    // The number of worker threads of the parallel mode, or of input files run at once.
+                    options.threads = parsePositiveInt(arg, valueOf(args, ++i, arg));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+        boolean ownEngine = options.mode == Mode.PARALLEL || options.mode == Mode.INCREMENTAL
+                || options.mode == Mode.CHECKPOINTED;
+        if (options.memoryMapped && ownEngine) {
+            throw new IllegalArgumentException("--mmap is only supported by the batch, stream and pipelined modes");
+        }
+        if (options.byteWriter && ownEngine) {
+            throw new IllegalArgumentException(
+                    "--byte-writer is not supported by the parallel, incremental and checkpointed modes");
+        }
+        if (options.dedup && ownEngine) {
+            throw new IllegalArgumentException("--dedup is not supported by the parallel, incremental and checkpointed modes");
+        }
+        if (options.binaryFile != null && ownEngine) {
+            throw new IllegalArgumentException("--binary is not supported by the parallel, incremental and checkpointed modes");
+        }
+        if (options.aggregateFile != null
+                && (options.mode == Mode.INCREMENTAL || options.mode == Mode.CHECKPOINTED)) {
+            throw new IllegalArgumentException(
+                    "--aggregate is not supported by the incremental and checkpointed modes");
+        }
+        if (options.queueBatches > 0 && options.mode != Mode.PIPELINED) {
+            throw new IllegalArgumentException("--queue-batches is only supported by the pipelined mode");
+        }
+        if (options.indexFile != null && options.mode != Mode.INCREMENTAL) {
+            throw new IllegalArgumentException("--index is only supported by the incremental mode");
+        }
+        if (options.mergeFile != null && ownEngine) {
+            throw new IllegalArgumentException("--merge is not supported by the parallel, incremental and checkpointed modes");
+        }
+        if (options.quarantineFile != null && options.resume) {
+            // The quarantine file is created anew, so the rows rejected before the checkpoint would be lost.
+            throw new IllegalArgumentException("--quarantine and --resume cannot be used together");
+        }
+        if (options.mergeFile != null && options.output != null) {
+            throw new IllegalArgumentException("--merge and --output cannot be used together");
+        }
+        return options;
+    }
+
+    /**
+     * Selects the run mode, refusing a flag of another mode than the one
+     * already selected, so that no flag is silently overridden.
+     * @param mode The mode the flag selects.
+     * @param flag The flag, for the error message.
+     * @throws IllegalArgumentException if a flag of another mode was given.
+     */
+    private void setMode(Mode mode, String flag) {
+        if (modeFlag != null && this.mode != mode) {
+            throw new IllegalArgumentException(modeFlag + " and " + flag + " cannot be used together");
+        }
+        this.mode = mode;
+        modeFlag = flag;
+    }
+
+    /**
+     * Gets the run mode.
+     * @return The selected run mode.
+     */
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * Gets the number of worker threads used by the parallel mode.
+     * @return The number of worker threads; defaults to the number of processors.
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Gets the number of batches each queue between two stages of the pipelined mode holds.
+     * @return The value given with {@code --queue-batches}, or
+     *         {@link PipelinedETLEngine#DEFAULT_QUEUE_BATCHES}.
+     */
+    public int getQueueBatches() {
+        return queueBatches > 0 ? queueBatches : PipelinedETLEngine.DEFAULT_QUEUE_BATCHES;
+    }
+
+    /**
+     * Checks whether the memory-mapped reader should be used instead of CSVReader.
+     * @return true if {@code --mmap} was given.
+     */
+    public boolean isMemoryMapped() {
+        return memoryMapped;
+    }
+
+    /**
+     * Checks whether the byte-level ByteCSVWriter should be used instead of CSVWriter.
+     * @return true if {@code --byte-writer} was given.
+     */
+    public boolean isByteWriter() {
+        return byteWriter;
+    }
+
+    /**
+     * Gets the path of the JSON file the stage metrics are written to at the end of the run.
+     * @return The path given with {@code --metrics}, or null if no metrics file was requested.
+     */
+    public String getMetricsFile() {
+        return metricsFile;
+    }
+
+    /**
+     * Gets the path of the transformation rules file.
+     * @return The path given with {@code --rules}, or null to use the default rules.
+     */
+    public String getRulesFile() {
+        return rulesFile;
+    }
+
+    /**
+     * Gets the path of the change-detection index used by the incremental mode.
+     * @param outputFile The path of the output file.
+     * @return The path given with {@code --index}, or the output file path with ".index" appended.
+     */
+    public String getIndexFile(String outputFile) {
+        return indexFile != null ? indexFile : outputFile + ".index";
+    }
+
+    /**
+     * Gets the number of input rows between checkpoints in the checkpointed mode.
+     * @return The value given with {@code --checkpoint-every}, or
+     *         {@link CheckpointedETLEngine#DEFAULT_CHECKPOINT_ROWS}.
+     */
+    public int getCheckpointRows() {
+        return checkpointRows;
+    }
+
+    /**
+     * Checks whether a checkpointed run should continue from the last checkpoint.
+     * @return true if {@code --resume} was given.
+     */
+    public boolean isResume() {
+        return resume;
+    }
+
+    /**
+     * Gets the input path.
+     * @return The file, directory or glob given with {@code --input}, or "data/products.csv".
+     */
+    public String getInput() {
+        return input;
+    }
+
+    /**
+     * Gets the output path.
+     * @return The output file, or for several input files the output directory,
+     *         given with {@code --output}; null to write next to each input.
+     */
+    public String getOutput() {
+        return output;
+    }
+
+    /**
+     * Gets the path of the file the rows of every input file are merged into.
+     * @return The path given with {@code --merge}, or null for one output per input.
+     */
+    public String getMergeFile() {
+        return mergeFile;
+    }
+
+    /**
+     * Gets the path of the binary columnar file written alongside the CSV output.
+     * @return The path given with {@code --binary}, or null if no columnar file was requested.
+     */
+    public String getBinaryFile() {
+        return binaryFile;
+    }
+
+    /**
+     * Gets the path of the summary file the per-category and per-PriceRange price stats are written to.
+     * @return The path given with {@code --aggregate}, or null if no stats were requested.
+     */
+    public String getAggregateFile() {
+        return aggregateFile;
+    }
+
+    /**
+     * Gets the path of the file the malformed rows are quarantined in.
+     * @return The path given with {@code --quarantine}, or null to only report them on the console.
+     */
+    public String getQuarantineFile() {
+        return quarantineFile;
+    }
+
+    /**
+     * Gets the largest fraction of an input file's rows that may be malformed
+     * before the run is stopped.
+     * @return The value given with {@code --max-error-rate}, or 1 to never stop.
+     */
+    public double getMaxErrorRate() {
+        return maxErrorRate;
+    }
+
+    /**
+     * Checks whether only the last row of each ProductID is transformed and written.
+     * @return true if {@code --dedup} or {@code --dedup-memory} was given.
+     */
+    public boolean isDedup() {
+        return dedup;
+    }
+
+    /**
+     * Gets the number of distinct ProductIDs the dedup index holds in memory
+     * before it spills to disk.
+     * @return The value given with {@code --dedup-memory}, or {@link DedupIndex#defaultMaxKeys()}.
+     */
+    public int getDedupMaxKeys() {
+        return dedupMaxKeys;
+    }
+
+    /**
+     * Checks whether the run goes through {@link MultiFileETLEngine}.
+     * @return true if the input is a directory or a glob, or {@code --merge} was given.
+     */
+    public boolean isMultiFile() {
+        return mergeFile != null || MultiFileETLEngine.isMultiFile(input);
+    }
+
+    private static String valueOf(String[] args, int index, String option) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Missing value for option: " + option);
+        }
+        return args[index];
+    }
+
+    private static int parsePositiveInt(String option, String value) {
+        try {
+            int parsed = Integer.parseInt(value);
+            if (parsed > 0) {
+                return parsed;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below.
+        }
+        throw new IllegalArgumentException("Invalid value for option " + option + ": " + value);
+    }
+
+    private static double parseRate(String option, String value) {
+        try {
+            double parsed = Double.parseDouble(value);
+            if (parsed >= 0 && parsed <= 1) {
+                return parsed;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below.
+        }
+        throw new IllegalArgumentException("Invalid value for option " + option + " (expected 0 to 1): " + value);
+    }
+}
@@ -0,0 +1,316 @@
+package org.howard.edu.lsp.assignment3;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Runs the extract, transform and load stages at the same time, each on its
+ * own thread, so reading, transforming and writing overlap.
+ * <p>
+ * The extract thread parses rows into batches of {@link StageMetrics#BATCH_ROWS}
+ * rows and hands each batch to the transform thread through a bounded queue;
+ * the transform thread hands the transformed batches to the load stage, which
+ * runs on the calling thread, through a second bounded queue. When a stage
+ * falls behind, its queue fills up and the stage before it blocks until there
+ * is room again, so no more than a few batches are ever held in memory.
+ * <p>
+ * A stage that fails passes an end marker downstream and interrupts the
+ * stages upstream of it, so every thread stops and {@link #run()} rethrows
+ * the first failure. The output file is byte-identical to the stream mode.
+ */
+public class PipelinedETLEngine {
+
+    /** The default number of batches each queue holds. */
+    public static final int DEFAULT_QUEUE_BATCHES = 4;
+
+    // Marks the end of the rows, whether the stage before finished or failed.
+    private static final List<Product> END = new ArrayList<>(0);
+
+    private final ProductReader reader;
+    private final ProductWriter writer;
+    private int queueBatches = DEFAULT_QUEUE_BATCHES;
+    private TransformRules rules = TransformRules.defaults();
+    private PipelineMetrics metrics = new PipelineMetrics();
+    private DedupIndex dedup = null;
+    private int rowsTransformed = 0;
+
+    private volatile Throwable failure = null;
+
+    /**
+     * Constructs a PipelinedETLEngine.
+     * @param reader The reader of the input file.
+     * @param writer The writer of the output file; opened with the first batch.
+     */
+    public PipelinedETLEngine(ProductReader reader, ProductWriter writer) {
+        this.reader = reader;
+        this.writer = writer;
+    }
+
+    /**
+     * Sets the number of batches each queue between two stages holds before
+     * the stage in front of it blocks.
+     * @param queueBatches The queue capacity in batches.
+     */
+    public void setQueueBatches(int queueBatches) {
+        if (queueBatches < 1) {
+            throw new IllegalArgumentException("queueBatches must be positive");
+        }
+        this.queueBatches = queueBatches;
+    }
+
+    /**
+     * Sets the rules the rows are transformed with.
+     * @param rules The transformation rules.
+     */
+    public void setRules(TransformRules rules) {
+        this.rules = rules;
+    }
+
+    /**
+     * Sets the metrics each stage records its batches into. A stage's time
+     * covers the work it does on a batch, not the time it waits on a queue.
+     * @param metrics The metrics to record into.
+     */
+    public void setMetrics(PipelineMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Drops every row that the given finished index does not mark as the
+     * latest row of its ProductID.
+     * @param dedup The finished index of the input file, or null to keep every row.
+     */
+    public void setDedup(DedupIndex dedup) {
+        this.dedup = dedup;
+    }
+
+    /**
+     * Extracts, transforms and loads the input file.
+     * @throws FileNotFoundException if the input file does not exist.
+     * @throws IOException if an I/O error occurs while reading or writing, or
+     *         the calling thread is interrupted.
+     */
+    public void run() throws FileNotFoundException, IOException {
+        BlockingQueue<List<Product>> extracted = new ArrayBlockingQueue<>(queueBatches);
+        BlockingQueue<List<Product>> transformed = new ArrayBlockingQueue<>(queueBatches);
+        Thread extractThread = new Thread(() -> extract(extracted), "etl-extract");
+        // The transform thread has its own dictionary; the reader's is not thread-safe.
+        ProductTransformer transformer = new ProductTransformer(new CategoryDictionary(), rules);
+        Thread transformThread = new Thread(() -> transform(transformer, extracted, transformed), "etl-transform");
+        extractThread.setDaemon(true);
+        transformThread.setDaemon(true);
+        extractThread.start();
+        transformThread.start();
+
+        try {
+            load(transformed, extractThread, transformThread);
+        } finally {
+            join(extractThread, transformThread);
+        }
+        rethrowFailure();
+    }
+
+    /**
+     * Gets the number of data rows read.
+     * @return The total number of rows (excluding header) read.
+     */
+    public int getRowsRead() {
+        return reader.getRowsRead();
+    }
+
+    /**
+     * Gets the number of malformed or empty rows skipped.
+     * @return The total number of rows skipped.
+     */
+    public int getRowsSkipped() {
+        return reader.getRowsSkipped();
+    }
+
+    /**
+     * Gets the number of rows transformed and written.
+     * @return The total number of rows transformed.
+     */
+    public int getRowsTransformed() {
+        return rowsTransformed;
+    }
+
+    /**
+     * Parses the input into batches. Runs on the extract thread.
+     */
+    private void extract(BlockingQueue<List<Product>> out) {
+        try {
+            BatchCollector collector = new BatchCollector(out);
+            reader.streamProducts(collector);
+            collector.flush();
+        } catch (IOException | RuntimeException | Error e) {
+            fail(e);
+        } finally {
+            end(out);
+        }
+    }
+
+    /**
+     * Transforms each batch. Runs on the transform thread.
+     */
+    private void transform(ProductTransformer transformer, BlockingQueue<List<Product>> in,
+            BlockingQueue<List<Product>> out) {
+        try {
+            List<Product> batch;
+            while ((batch = in.take()) != END) {
+                long started = System.nanoTime();
+                for (int i = 0; i < batch.size(); i++) {
+                    batch.set(i, transformer.transform(batch.get(i)));
+                }
+                metrics.transform().recordBatch(batch.size(), System.nanoTime() - started);
+                out.put(batch);
+            }
+        } catch (InterruptedException e) {
+            // Interrupted by a failed load stage, which has recorded the failure.
+        } catch (RuntimeException | Error e) {
+            fail(e);
+        } finally {
+            end(out);
+        }
+    }
+
+    /**
+     * Writes each transformed batch. Runs on the calling thread and interrupts
+     * the other stages if it fails.
+     */
+    private void load(BlockingQueue<List<Product>> in, Thread extractThread, Thread transformThread)
+            throws IOException {
+        try {
+            List<Product> batch;
+            while ((batch = in.take()) != END) {
+                long started = System.nanoTime();
+                // The output file is opened with the first batch so that a missing
+                // input file does not leave an empty output file behind.
+                if (!writer.isOpen()) {
+                    writer.open();
+                }
+                for (Product product : batch) {
+                    writer.writeProduct(product);
+                }
+                metrics.load().recordBatch(batch.size(), System.nanoTime() - started);
+                rowsTransformed += batch.size();
+            }
+            if (failure == null && !writer.isOpen()) {
+                writer.open();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fail(new InterruptedIOException("Interrupted while waiting for a batch"));
+        } catch (IOException | RuntimeException | Error e) {
+            fail(e);
+        } finally {
+            if (failure != null) {
+                extractThread.interrupt();
+                transformThread.interrupt();
+            }
+            try {
+                writer.close();
+            } catch (IOException e) {
+                fail(e);
+            }
+        }
+    }
+
+    private void fail(Throwable e) {
+        synchronized (this) {
+            if (failure == null) {
+                failure = e;
+            }
+        }
+    }
+
+    /**
+     * Puts the end marker on a queue, waiting for room unless the run has failed.
+     */
+    private void end(BlockingQueue<List<Product>> out) {
+        try {
+            if (failure == null) {
+                out.put(END);
+            } else if (!out.offer(END)) {
+                // The stage downstream may have stopped taking batches; it only
+                // needs the marker if it is still waiting, and then there is room.
+                out.clear();
+                out.offer(END);
+            }
+        } catch (InterruptedException e) {
+            // Only a failed run interrupts a stage, and then nobody waits for the marker.
+        }
+    }
+
+    private static void join(Thread... threads) throws InterruptedIOException {
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for the " + thread.getName() + " stage");
+            }
+        }
+    }
+
+    private void rethrowFailure() throws IOException {
+        Throwable e = failure;
+        if (e == null) {
+            return;
+        }
+        if (e instanceof IOException) {
+            throw (IOException) e;
+        }
+        if (e instanceof RuntimeException) {
+            throw (RuntimeException) e;
+        }
+        throw (Error) e;
+    }
+
+    /**
+     * Collects parsed rows into batches and hands each full batch to the
+     * transform stage, blocking while its queue is full.
+     */
+    private final class BatchCollector implements ProductHandler {
+        private final BlockingQueue<List<Product>> out;
+        private List<Product> products = new ArrayList<>(StageMetrics.BATCH_ROWS);
+        private long batchStart = System.nanoTime();
+        private int row = 0;
+
+        BatchCollector(BlockingQueue<List<Product>> out) {
+            this.out = out;
+        }
+
+        @Override
+        public void handle(Product product) throws IOException {
+            if (dedup != null && !dedup.isLatest(row++)) {
+                return;
+            }
+            products.add(product);
+            if (products.size() == StageMetrics.BATCH_ROWS) {
+                flush();
+            }
+        }
+
+        /**
+         * Hands the rows collected so far to the transform stage.
+         */
+        void flush() throws IOException {
+            if (products.isEmpty()) {
+                return;
+            }
+            metrics.extract().recordBatch(products.size(), System.nanoTime() - batchStart);
+            try {
+                out.put(products);
+            } catch (InterruptedException e) {
+                throw new InterruptedIOException("Interrupted while handing a batch to the transform stage");
+            }
+            products = new ArrayList<>(StageMetrics.BATCH_ROWS);
+            batchStart = System.nanoTime();
+        }
+    }
+}
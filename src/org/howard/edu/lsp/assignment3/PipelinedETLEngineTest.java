@@ -0,0 +1,220 @@
+package org.howard.edu.lsp.assignment3;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * JUnit 5 test class for {@link PipelinedETLEngine}.
+ */
+public class PipelinedETLEngineTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Tests that the pipelined mode writes the same file and counters as the stream mode.
+     */
+    @Test
+    @DisplayName("Test output matches the stream mode")
+    void testMatchesStream() throws IOException {
+        Path input = directory.resolve("products.csv");
+        ProductFileTestSupport.generate(input, 50_000, 6, 0.01, 0);
+
+        Path streamed = directory.resolve("streamed.csv");
+        Path pipelined = directory.resolve("pipelined.csv");
+        RunSummary expected = ETLPipeline.run(input.toString(), streamed.toString(),
+                PipelineOptions.parse(new String[] {"--stream"}));
+        RunSummary actual = ETLPipeline.run(input.toString(), pipelined.toString(),
+                PipelineOptions.parse(new String[] {"--pipelined", "--queue-batches", "1"}));
+        assertArrayEquals(Files.readAllBytes(streamed), Files.readAllBytes(pipelined));
+        assertEquals(expected.getRowsRead(), actual.getRowsRead());
+        assertEquals(expected.getRowsTransformed(), actual.getRowsTransformed());
+        assertEquals(expected.getRowsSkipped(), actual.getRowsSkipped());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> PipelineOptions.parse(new String[] {"--stream", "--queue-batches", "2"}));
+    }
+
+    /**
+     * Tests that a slow load stage holds back the extract stage, so only the
+     * queued batches and the one each stage is working on are ever in flight.
+     */
+    @Test
+    @DisplayName("Test backpressure bounds the rows in flight")
+    void testBackpressure() {
+        ListReader reader = new ListReader(20 * StageMetrics.BATCH_ROWS, -1);
+        ListWriter writer = new ListWriter(-1) {
+            @Override
+            public void writeProduct(Product product) throws IOException {
+                super.writeProduct(product);
+                maxInFlight = Math.max(maxInFlight, reader.produced - products.size());
+                if (products.size() % StageMetrics.BATCH_ROWS == 0) {
+                    pause();
+                }
+            }
+        };
+        PipelinedETLEngine engine = new PipelinedETLEngine(reader, writer);
+        engine.setQueueBatches(1);
+        assertTimeoutPreemptively(TIMEOUT, engine::run);
+
+        assertEquals(20 * StageMetrics.BATCH_ROWS, writer.products.size());
+        assertEquals(writer.products.size(), engine.getRowsTransformed());
+        // One batch in each queue, plus one in the hands of each of the three stages.
+        assertTrue(writer.maxInFlight <= 5 * StageMetrics.BATCH_ROWS, "in flight: " + writer.maxInFlight);
+        assertFalse(writer.isOpen());
+    }
+
+    /**
+     * Tests that a failure in any stage stops every stage and is rethrown.
+     */
+    @Test
+    @DisplayName("Test a failing stage shuts the pipeline down")
+    void testFailures() {
+        int rows = 50 * StageMetrics.BATCH_ROWS;
+
+        // Extract fails.
+        PipelinedETLEngine failingRead = new PipelinedETLEngine(new ListReader(rows, 3000), new ListWriter(-1));
+        IOException readError = assertTimeoutPreemptively(TIMEOUT,
+                () -> assertThrows(IOException.class, failingRead::run));
+        assertEquals("read failed", readError.getMessage());
+
+        // Load fails while the other stages are blocked on full queues.
+        ListWriter failingWriter = new ListWriter(2000);
+        PipelinedETLEngine failingWrite = new PipelinedETLEngine(new ListReader(rows, -1), failingWriter);
+        failingWrite.setQueueBatches(1);
+        IOException writeError = assertTimeoutPreemptively(TIMEOUT,
+                () -> assertThrows(IOException.class, failingWrite::run));
+        assertEquals("write failed", writeError.getMessage());
+        assertFalse(failingWriter.isOpen());
+
+        // Transform fails on a row without a price.
+        ListReader nullPrice = new ListReader(rows, -1);
+        nullPrice.nullPriceRow = 5000;
+        PipelinedETLEngine failingTransform = new PipelinedETLEngine(nullPrice, new ListWriter(-1));
+        failingTransform.setQueueBatches(1);
+        assertTimeoutPreemptively(TIMEOUT, () -> assertThrows(NullPointerException.class, failingTransform::run));
+    }
+
+    private static void pause() {
+        try {
+            Thread.sleep(2);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Hands out generated products, optionally failing at a given row.
+     */
+    private static class ListReader implements ProductReader {
+        private final CategoryDictionary categories = new CategoryDictionary();
+        private final int rows;
+        private final int failAt;
+        volatile int produced = 0;
+        int nullPriceRow = -1;
+
+        ListReader(int rows, int failAt) {
+            this.rows = rows;
+            this.failAt = failAt;
+        }
+
+        @Override
+        public List<Product> readProducts() throws IOException {
+            List<Product> products = new ArrayList<>();
+            streamProducts(products::add);
+            return products;
+        }
+
+        @Override
+        public void streamProducts(ProductHandler handler) throws IOException {
+            String category = categories.name(categories.encode("Toys"));
+            for (int i = 0; i < rows; i++) {
+                if (i == failAt) {
+                    throw new IOException("read failed");
+                }
+                BigDecimal price = i == nullPriceRow ? null : BigDecimal.valueOf(i % 1000, 2);
+                produced = i + 1;
+                handler.handle(new Product(i, "item" + i, price, category));
+            }
+        }
+
+        @Override
+        public CategoryDictionary getCategories() {
+            return categories;
+        }
+
+        @Override
+        public int getRowsRead() {
+            return produced;
+        }
+
+        @Override
+        public int getRowsSkipped() {
+            return 0;
+        }
+    }
+
+    /**
+     * Keeps the written products in memory, optionally failing at a given row.
+     */
+    private static class ListWriter implements ProductWriter {
+        final List<Product> products = new ArrayList<>();
+        private final int failAt;
+        private boolean open = false;
+        int maxInFlight = 0;
+
+        ListWriter(int failAt) {
+            this.failAt = failAt;
+        }
+
+        @Override
+        public void writeProducts(List<Product> list) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void writeProducts(ProductBatch batch) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void open() {
+            open = true;
+        }
+
+        @Override
+        public void writeProduct(Product product) throws IOException {
+            if (products.size() == failAt) {
+                throw new IOException("write failed");
+            }
+            products.add(product);
+        }
+
+        @Override
+        public void writeBatch(ProductBatch batch) throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open;
+        }
+
+        @Override
+        public void close() {
+            open = false;
+        }
+    }
+}
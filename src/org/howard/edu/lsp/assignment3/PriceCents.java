@@ -0,0 +1,109 @@
+package org.howard.edu.lsp.assignment3;
+
+/**
+ * Fixed-point helpers for prices held as primitive longs.
+ * An input price is described by an unscaled value and a scale, exactly like
+ * a BigDecimal (12.999 is unscaled 12999 with scale 3). Transformed prices are
+ * whole cents (12.99 is 1299). All methods work on primitives only and never
+ * allocate, so they can run once per row without creating garbage.
+ */
+public final class PriceCents {
+
+    /** The largest scale accepted by the fixed-point helpers. */
+    public static final int MAX_SCALE = 18;
+
+    /**
+     * The largest unscaled magnitude accepted by the fixed-point helpers.
+     * Leaves room to multiply by 9 for the discount and by 100 to reach cents.
+     */
+    public static final long MAX_UNSCALED = Long.MAX_VALUE / 1000;
+
+    private static final long[] POWERS_OF_TEN = new long[MAX_SCALE + 1];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private PriceCents() {
+    }
+
+    /**
+     * Checks whether a price can be handled without BigDecimal.
+     * @param unscaled The unscaled value of the price.
+     * @param scale The number of digits after the decimal point.
+     * @return true if the fixed-point helpers can handle the price exactly.
+     */
+    public static boolean isRepresentable(long unscaled, int scale) {
+        return scale >= 0 && scale <= MAX_SCALE && unscaled >= -MAX_UNSCALED && unscaled <= MAX_UNSCALED;
+    }
+
+    /**
+     * Rounds a price to whole cents, like {@code setScale(2, RoundingMode.HALF_UP)}.
+     * @param unscaled The unscaled value of the price.
+     * @param scale The number of digits after the decimal point, between 0 and 19.
+     * @return The price in cents.
+     */
+    public static long round(long unscaled, int scale) {
+        if (scale <= 2) {
+            return unscaled * POWERS_OF_TEN[2 - scale];
+        }
+        long divisor = POWERS_OF_TEN[scale - 2];
+        long quotient = unscaled / divisor;
+        long remainder = unscaled % divisor;
+        // HALF_UP rounds ties away from zero.
+        if (Math.abs(remainder) * 2 >= divisor) {
+            quotient += unscaled < 0 ? -1 : 1;
+        }
+        return quotient;
+    }
+
+    /**
+     * Takes 10% off a price and rounds the result to whole cents, giving the same
+     * result as {@code price.subtract(price.multiply(0.10)).setScale(2, HALF_UP)}.
+     * @param unscaled The unscaled value of the price.
+     * @param scale The number of digits after the decimal point.
+     * @return The discounted price in cents.
+     */
+    public static long discountTenPercent(long unscaled, int scale) {
+        // price - price * 0.10 is exactly price * 9 / 10.
+        return round(unscaled * 9, scale + 1);
+    }
+
+    /**
+     * Multiplies a price by a factor and rounds the result to whole cents, giving
+     * the same result as {@code price.multiply(factor).setScale(2, HALF_UP)}.
+     * @param unscaled The unscaled value of the price.
+     * @param scale The number of digits after the decimal point.
+     * @param factorUnscaled The unscaled value of the factor, between 0 and 1000.
+     * @param factorScale The number of digits after the decimal point in the
+     *        factor; {@code scale + factorScale} is at most {@code MAX_SCALE + 1}.
+     * @return The product in cents.
+     */
+    public static long multiply(long unscaled, int scale, long factorUnscaled, int factorScale) {
+        return round(unscaled * factorUnscaled, scale + factorScale);
+    }
+
+    /**
+     * Appends a price in cents in the same form as {@code BigDecimal.toPlainString()}
+     * with a scale of 2, such as "12.99", "0.05" or "-1.00".
+     * @param out The builder to append to.
+     * @param cents The price in cents.
+     */
+    public static void appendTo(StringBuilder out, long cents) {
+        long whole = cents / 100;
+        int fraction = (int) Math.abs(cents % 100);
+        if (cents < 0) {
+            out.append('-').append(-whole);
+        } else {
+            out.append(whole);
+        }
+        out.append('.');
+        if (fraction < 10) {
+            out.append('0');
+        }
+        out.append(fraction);
+    }
+}
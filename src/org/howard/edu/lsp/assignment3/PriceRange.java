@@ -0,0 +1,62 @@
+package org.howard.edu.lsp.assignment3;
+
+/**
+ * The price ranges assigned by {@link ProductTransformer}, in ascending order.
+ * Columnar batches store a range as its ordinal instead of a String.
+ */
+public enum PriceRange {
+    LOW("Low"),
+    MEDIUM("Medium"),
+    HIGH("High"),
+    PREMIUM("Premium");
+
+    private static final PriceRange[] VALUES = values();
+
+    private final String label;
+    private final byte[] bytes;
+
+    PriceRange(String label) {
+        this.label = label;
+        this.bytes = label.getBytes(CsvFormat.CHARSET);
+    }
+
+    /**
+     * Gets the label written to the PriceRange column.
+     * @return The label, such as "Low".
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Gets the label encoded in the output character set.
+     * The returned array is shared and must not be modified.
+     * @return The encoded label.
+     */
+    public byte[] getBytes() {
+        return bytes;
+    }
+
+    /**
+     * Finds the price range with the given label.
+     * @param label The label, such as "Low".
+     * @return The price range, or null if no range has that label.
+     */
+    public static PriceRange fromLabel(String label) {
+        for (PriceRange range : VALUES) {
+            if (range.label.equals(label)) {
+                return range;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the price range with the given ordinal without copying {@code values()}.
+     * @param ordinal The ordinal of the price range.
+     * @return The price range.
+     */
+    public static PriceRange fromOrdinal(int ordinal) {
+        return VALUES[ordinal];
+    }
+}
@@ -0,0 +1,143 @@
+package org.howard.edu.lsp.assignment3;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * The count, sum, minimum, maximum and mean of the prices of a group of
+ * transformed products, such as one category or one price range.
+ * Prices in whole cents are summed as a primitive long, so adding a row never
+ * allocates; prices that do not fit in cents, and sums that overflow a long,
+ * are carried as a BigDecimal, so the totals are always exact.
+ * <p>
+ * PriceStats is not thread-safe. Each thread fills its own stats, and they
+ * are combined with {@link #merge(PriceStats)} at the end.
+ */
+public class PriceStats {
+
+    private long count = 0;
+    private long sumCents = 0;
+    private long minCents = Long.MAX_VALUE;
+    private long maxCents = Long.MIN_VALUE;
+    private BigDecimal bigSum = null;
+    private BigDecimal bigMin = null;
+    private BigDecimal bigMax = null;
+
+    /**
+     * Gets the number of prices.
+     * @return The number of prices added.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Gets the sum of the prices.
+     * @return The exact sum, with two digits after the decimal point.
+     */
+    public BigDecimal getSum() {
+        BigDecimal sum = BigDecimal.valueOf(sumCents, 2);
+        return bigSum == null ? sum : sum.add(bigSum);
+    }
+
+    /**
+     * Gets the lowest price.
+     * @return The lowest price, or null if no price was added.
+     */
+    public BigDecimal getMin() {
+        BigDecimal min = minCents <= maxCents ? BigDecimal.valueOf(minCents, 2) : null;
+        if (bigMin != null && (min == null || bigMin.compareTo(min) < 0)) {
+            return bigMin;
+        }
+        return min;
+    }
+
+    /**
+     * Gets the highest price.
+     * @return The highest price, or null if no price was added.
+     */
+    public BigDecimal getMax() {
+        BigDecimal max = minCents <= maxCents ? BigDecimal.valueOf(maxCents, 2) : null;
+        if (bigMax != null && (max == null || bigMax.compareTo(max) > 0)) {
+            return bigMax;
+        }
+        return max;
+    }
+
+    /**
+     * Gets the mean price, rounded to cents with HALF_UP rounding.
+     * @return The mean price, or null if no price was added.
+     */
+    public BigDecimal getMean() {
+        if (count == 0) {
+            return null;
+        }
+        return getSum().divide(BigDecimal.valueOf(count), 2, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Adds a price held in cents.
+     * @param cents The price in cents.
+     */
+    void add(long cents) {
+        count++;
+        addToSum(cents);
+        if (cents < minCents) {
+            minCents = cents;
+        }
+        if (cents > maxCents) {
+            maxCents = cents;
+        }
+    }
+
+    /**
+     * Adds a price, taking the primitive path when it is in whole cents.
+     * @param price The price.
+     */
+    void add(BigDecimal price) {
+        if (price.scale() == 2 && price.precision() <= 18) {
+            add(price.unscaledValue().longValue());
+            return;
+        }
+        count++;
+        bigSum = bigSum == null ? price : bigSum.add(price);
+        addBigExtremes(price, price);
+    }
+
+    /**
+     * Adds every price of another group to this one.
+     * @param other The stats to add; not changed.
+     */
+    void merge(PriceStats other) {
+        count += other.count;
+        addToSum(other.sumCents);
+        if (other.bigSum != null) {
+            bigSum = bigSum == null ? other.bigSum : bigSum.add(other.bigSum);
+        }
+        minCents = Math.min(minCents, other.minCents);
+        maxCents = Math.max(maxCents, other.maxCents);
+        if (other.bigMin != null) {
+            addBigExtremes(other.bigMin, other.bigMax);
+        }
+    }
+
+    private void addToSum(long cents) {
+        long sum = sumCents + cents;
+        // The sum overflowed if both operands have the sign the result lacks.
+        if (((sumCents ^ sum) & (cents ^ sum)) < 0) {
+            BigDecimal carried = BigDecimal.valueOf(sumCents, 2);
+            bigSum = bigSum == null ? carried : bigSum.add(carried);
+            sum = cents;
+        }
+        sumCents = sum;
+    }
+
+    private void addBigExtremes(BigDecimal min, BigDecimal max) {
+        if (bigMin == null || min.compareTo(bigMin) < 0) {
+            bigMin = min;
+        }
+        if (bigMax == null || max.compareTo(bigMax) > 0) {
+            bigMax = max;
+        }
+    }
+}
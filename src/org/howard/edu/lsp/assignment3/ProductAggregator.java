@@ -0,0 +1,188 @@
+package org.howard.edu.lsp.assignment3;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The "report" side of the ETL process: price statistics of the transformed
+ * products per Category and PriceRange, gathered in the same pass that writes
+ * them, so that no second pass over the output is needed.
+ * <p>
+ * A {@link PriceStats} is kept for every (Category, PriceRange) pair; the
+ * totals of a category, of a price range and of the whole run are merged from
+ * those pairs when they are asked for. An aggregator is not thread-safe: each
+ * worker fills its own, and they are combined with {@link #merge(ProductAggregator)}
+ * once the workers are done, so the rows never contend for a lock.
+ */
+public class ProductAggregator {
+
+    /** The header row of the summary file. */
+    static final String HEADER = "Level,Category,PriceRange,Count,Sum,Min,Max,Mean";
+
+    private static final int RANGES = PriceRange.values().length;
+
+    // The stats of each category, indexed by PriceRange ordinal.
+    private final Map<String, PriceStats[]> categories = new HashMap<>();
+
+    // The stats of the categories of the last batch, indexed by category code.
+    private CategoryDictionary batchDictionary = null;
+    private PriceStats[][] batchCategories = new PriceStats[0][];
+
+    /**
+     * Adds a transformed product.
+     * @param product The product, after its PriceRange has been set.
+     * @throws IllegalArgumentException if the product has no PriceRange.
+     */
+    public void add(Product product) {
+        PriceRange range = PriceRange.fromLabel(product.getPriceRange());
+        if (range == null) {
+            throw new IllegalArgumentException("Product " + product.getProductId() + " has no PriceRange");
+        }
+        statsOf(product.getCategory())[range.ordinal()].add(product.getPrice());
+    }
+
+    /**
+     * Adds every row of a transformed columnar batch, looking categories up
+     * by their codes and reading prices straight from the cents column.
+     * @param batch The batch, after {@link ProductTransformer#transformBatch(ProductBatch)}.
+     * @throws IllegalArgumentException if a row has no PriceRange.
+     */
+    public void add(ProductBatch batch) {
+        if (batch.categories() != batchDictionary) {
+            batchDictionary = batch.categories();
+            batchCategories = new PriceStats[0][];
+        }
+        int[] codes = batch.categoryCodes;
+        byte[] ranges = batch.priceRanges;
+        byte[] scales = batch.priceScales;
+        long[] prices = batch.prices;
+        for (int row = 0; row < batch.size; row++) {
+            int code = codes[row];
+            if (code >= batchCategories.length) {
+                batchCategories = Arrays.copyOf(batchCategories, Math.max(code + 1, batchCategories.length * 2));
+            }
+            PriceStats[] stats = batchCategories[code];
+            if (stats == null) {
+                stats = statsOf(batchDictionary.name(code));
+                batchCategories[code] = stats;
+            }
+            byte range = ranges[row];
+            if (range == ProductBatch.NO_PRICE_RANGE) {
+                throw new IllegalArgumentException("Product " + batch.ids[row] + " has no PriceRange");
+            }
+            if (scales[row] == ProductBatch.BIG_PRICE) {
+                stats[range].add(batch.bigPrices[row]);
+            } else {
+                stats[range].add(prices[row]);
+            }
+        }
+    }
+
+    /**
+     * Adds the stats of another aggregator to this one.
+     * @param other The aggregator to add; not changed.
+     */
+    public void merge(ProductAggregator other) {
+        for (Map.Entry<String, PriceStats[]> entry : other.categories.entrySet()) {
+            PriceStats[] stats = statsOf(entry.getKey());
+            for (int i = 0; i < RANGES; i++) {
+                stats[i].merge(entry.getValue()[i]);
+            }
+        }
+    }
+
+    /**
+     * Gets the categories seen so far.
+     * @return The categories, in sorted order.
+     */
+    public List<String> getCategories() {
+        List<String> names = new ArrayList<>(categories.keySet());
+        Collections.sort(names);
+        return names;
+    }
+
+    /**
+     * Gets the stats of a category and price range.
+     * @param category The category, or null for every category.
+     * @param priceRange The price range, or null for every price range.
+     * @return New stats holding the matching rows; empty if no row matches.
+     */
+    public PriceStats getStats(String category, PriceRange priceRange) {
+        PriceStats total = new PriceStats();
+        for (Map.Entry<String, PriceStats[]> entry : categories.entrySet()) {
+            if (category != null && !category.equals(entry.getKey())) {
+                continue;
+            }
+            for (int i = 0; i < RANGES; i++) {
+                if (priceRange == null || priceRange.ordinal() == i) {
+                    total.merge(entry.getValue()[i]);
+                }
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Writes the stats to a CSV summary file with the columns of {@link #HEADER}.
+     * The Level column tells the rows apart, since a category may itself be empty:
+     * each category has a "category-range" row per price range it has rows in,
+     * followed by its "category" total. Then come the "price-range" total of each
+     * price range and last the "total" of the run. Totals leave the columns they
+     * add up empty.
+     * @param filePath The path of the summary file.
+     * @throws IOException if an I/O error occurs while writing the file.
+     */
+    public void write(String filePath) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(Paths.get(filePath), CsvFormat.CHARSET)) {
+            writer.write(HEADER);
+            writer.newLine();
+            for (String category : getCategories()) {
+                PriceStats[] stats = categories.get(category);
+                for (PriceRange range : PriceRange.values()) {
+                    PriceStats rangeStats = stats[range.ordinal()];
+                    if (rangeStats.getCount() > 0) {
+                        writeRow(writer, "category-range", category, range.getLabel(), rangeStats);
+                    }
+                }
+                writeRow(writer, "category", category, "", getStats(category, null));
+            }
+            for (PriceRange range : PriceRange.values()) {
+                writeRow(writer, "price-range", "", range.getLabel(), getStats(null, range));
+            }
+            writeRow(writer, "total", "", "", getStats(null, null));
+        }
+    }
+
+    private PriceStats[] statsOf(String category) {
+        PriceStats[] stats = categories.get(category);
+        if (stats == null) {
+            stats = new PriceStats[RANGES];
+            for (int i = 0; i < RANGES; i++) {
+                stats[i] = new PriceStats();
+            }
+            categories.put(category, stats);
+        }
+        return stats;
+    }
+
+    private static void writeRow(BufferedWriter writer, String level, String category, String priceRange,
+            PriceStats stats) throws IOException {
+        writer.write(level + "," + category + "," + priceRange + "," + stats.getCount()
+                + "," + format(stats.getSum()) + "," + format(stats.getMin()) + "," + format(stats.getMax())
+                + "," + format(stats.getMean()));
+        writer.newLine();
+    }
+
+    private static String format(BigDecimal value) {
+        return value == null ? "" : value.toPlainString();
+    }
+}
@@ -0,0 +1,115 @@
+package org.howard.edu.lsp.assignment3;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * JUnit 5 test class for {@link ProductAggregator} and {@link PriceStats}.
+ */
+public class ProductAggregatorTest {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Tests the count, sum, min, max and mean of each group, including a
+     * price that does not fit in a long, and that merging two aggregators
+     * gives the same stats as adding every row to one.
+     */
+    @Test
+    @DisplayName("Test stats per category and price range")
+    void testStats() {
+        List<Product> products = Arrays.asList(
+                product("Toys", "1.00", "Low"),
+                product("Toys", "3.01", "Low"),
+                product("Toys", "150.00", "High"),
+                product("Boats", "123456789012345678901.25", "Premium"),
+                product("Boats", "600.00", "Premium"));
+        ProductAggregator all = new ProductAggregator();
+        ProductAggregator first = new ProductAggregator();
+        ProductAggregator second = new ProductAggregator();
+        for (int i = 0; i < products.size(); i++) {
+            all.add(products.get(i));
+            (i < 2 ? first : second).add(products.get(i));
+        }
+        first.merge(second);
+
+        for (ProductAggregator aggregator : new ProductAggregator[] {all, first}) {
+            assertEquals(Arrays.asList("Boats", "Toys"), aggregator.getCategories());
+            PriceStats toysLow = aggregator.getStats("Toys", PriceRange.LOW);
+            assertEquals(2, toysLow.getCount());
+            assertEquals(new BigDecimal("4.01"), toysLow.getSum());
+            assertEquals(new BigDecimal("1.00"), toysLow.getMin());
+            assertEquals(new BigDecimal("3.01"), toysLow.getMax());
+            assertEquals(new BigDecimal("2.01"), toysLow.getMean());
+
+            PriceStats boats = aggregator.getStats("Boats", null);
+            assertEquals(new BigDecimal("123456789012345679501.25"), boats.getSum());
+            assertEquals(new BigDecimal("600.00"), boats.getMin());
+            assertEquals(new BigDecimal("123456789012345678901.25"), boats.getMax());
+
+            assertEquals(5, aggregator.getStats(null, null).getCount());
+            PriceStats medium = aggregator.getStats(null, PriceRange.MEDIUM);
+            assertEquals(0, medium.getCount());
+            assertNull(medium.getMin());
+            assertNull(medium.getMean());
+        }
+
+        Product untransformed = new Product(1, "TV", new BigDecimal("1.00"), "Toys");
+        assertThrows(IllegalArgumentException.class, () -> all.add(untransformed));
+    }
+
+    /**
+     * Tests that every mode writes the same summary file, holding the stats of
+     * the rows in the output file, and that a second pass over the output is
+     * not needed to get them.
+     */
+    @Test
+    @DisplayName("Test --aggregate summary file")
+    void testPipeline() throws IOException {
+        Path input = directory.resolve("products.csv");
+        ProductFileTestSupport.generate(input, 20_000, 5, 0.01, 0);
+
+        Path output = directory.resolve("transformed.csv");
+        Path expected = directory.resolve("expected.csv");
+        ProductAggregator fromOutput = new ProductAggregator();
+        ProductFileTestSupport.runBatch(input, output);
+        List<String> lines = Files.readAllLines(output, CsvFormat.CHARSET);
+        for (String line : lines.subList(1, lines.size())) {
+            String[] columns = line.split(",", -1);
+            fromOutput.add(product(columns[3], columns[2], columns[4]));
+        }
+        fromOutput.write(expected.toString());
+
+        Path aggregates = directory.resolve("aggregates.csv");
+        for (String mode : new String[] {"--batch", "--stream", "--columnar", "--parallel"}) {
+            String[] args = mode.equals("--batch")
+                    ? new String[] {"--aggregate", aggregates.toString()}
+                    : new String[] {mode, "--threads", "3", "--aggregate", aggregates.toString()};
+            ETLPipeline.run(input.toString(), output.toString(), PipelineOptions.parse(args));
+            assertEquals(Files.readAllLines(expected, CsvFormat.CHARSET),
+                    Files.readAllLines(aggregates, CsvFormat.CHARSET), mode);
+        }
+        List<String> summary = Files.readAllLines(aggregates, CsvFormat.CHARSET);
+        assertEquals(ProductAggregator.HEADER, summary.get(0));
+        assertTrue(summary.get(summary.size() - 1).startsWith("total,,," + (lines.size() - 1) + ","));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> PipelineOptions.parse(new String[] {"--incremental", "--aggregate", aggregates.toString()}));
+    }
+
+    private static Product product(String category, String price, String priceRange) {
+        Product product = new Product(1, "Item", new BigDecimal(price), category);
+        product.setPriceRange(priceRange);
+        return product;
+    }
+}
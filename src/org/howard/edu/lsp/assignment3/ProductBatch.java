@@ -0,0 +1,331 @@
+package org.howard.edu.lsp.assignment3;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * A columnar batch of products.
+ * Instead of one Product object per row, each column is held in a primitive
+ * array: ids in an {@code int[]}, prices as fixed-point longs (see
+ * {@link PriceCents}), categories as codes into a {@link CategoryDictionary}, price
+ * ranges as {@link PriceRange} ordinals, and all names back to back in a
+ * single UTF-8 byte arena. This keeps millions of rows in a handful of arrays.
+ *
+ * Before {@link ProductTransformer#transformBatch(ProductBatch)} runs, a price is
+ * an unscaled value with its own scale; afterwards every price is in cents
+ * (scale 2). A price that does not fit in a long is kept as a BigDecimal.
+ */
+public class ProductBatch {
+
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    /** The encoding of the names in the name arena. */
+    static final Charset NAME_CHARSET = StandardCharsets.UTF_8;
+
+    /** Marks a row whose price is held in {@code bigPrices} instead of {@code prices}. */
+    static final byte BIG_PRICE = -1;
+
+    /** Marks a row that has not been given a price range yet. */
+    static final byte NO_PRICE_RANGE = -1;
+
+    // The columns are package-private so the transformer and writers can loop over them directly.
+    int size;
+    int[] ids;
+    long[] prices;
+    byte[] priceScales;
+    BigDecimal[] bigPrices;
+    int[] categoryCodes;
+    byte[] priceRanges;
+    int[] nameOffsets;
+    int[] nameLengths;
+    byte[] nameArena;
+    int nameArenaSize;
+
+    private final CategoryDictionary categories;
+
+    /**
+     * Constructs an empty ProductBatch.
+     */
+    public ProductBatch() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Constructs an empty ProductBatch with room for the given number of rows.
+     * @param initialCapacity The number of rows to allocate space for.
+     */
+    public ProductBatch(int initialCapacity) {
+        this(initialCapacity, new CategoryDictionary());
+    }
+
+    /**
+     * Constructs an empty ProductBatch whose category codes come from the given dictionary.
+     * @param initialCapacity The number of rows to allocate space for.
+     * @param categories The dictionary that assigns category codes.
+     */
+    public ProductBatch(int initialCapacity, CategoryDictionary categories) {
+        this.categories = categories;
+        int capacity = Math.max(1, initialCapacity);
+        ids = new int[capacity];
+        prices = new long[capacity];
+        priceScales = new byte[capacity];
+        categoryCodes = new int[capacity];
+        priceRanges = new byte[capacity];
+        nameOffsets = new int[capacity];
+        nameLengths = new int[capacity];
+        nameArena = new byte[capacity * 16];
+    }
+
+    /**
+     * Gets the number of rows in the batch.
+     * @return The number of rows.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes all rows so the batch can be refilled. The arrays and the
+     * category dictionary are kept.
+     */
+    public void clear() {
+        size = 0;
+        nameArenaSize = 0;
+        if (bigPrices != null) {
+            Arrays.fill(bigPrices, null);
+        }
+    }
+
+    /**
+     * Appends a Product as a new row.
+     * @param product The Product to append.
+     */
+    public void add(Product product) {
+        int row = addRow(product.getProductId(), categories.encode(product.getCategory()));
+        setPrice(row, product.getPrice());
+        setName(row, product.getName().getBytes(NAME_CHARSET));
+        PriceRange range = PriceRange.fromLabel(product.getPriceRange());
+        if (range != null) {
+            priceRanges[row] = (byte) range.ordinal();
+        }
+    }
+
+    /**
+     * Gets the ProductID of a row.
+     * @param row The row index.
+     * @return The ProductID.
+     */
+    public int getId(int row) {
+        return ids[row];
+    }
+
+    /**
+     * Gets the name of a row.
+     * @param row The row index.
+     * @return The name, decoded from the name arena.
+     */
+    public String getName(int row) {
+        return new String(nameArena, nameOffsets[row], nameLengths[row], NAME_CHARSET);
+    }
+
+    /**
+     * Gets the price of a row.
+     * @param row The row index.
+     * @return The price as a BigDecimal.
+     */
+    public BigDecimal getPrice(int row) {
+        if (priceScales[row] == BIG_PRICE) {
+            return bigPrices[row];
+        }
+        return BigDecimal.valueOf(prices[row], priceScales[row]);
+    }
+
+    /**
+     * Gets the category of a row.
+     * @param row The row index.
+     * @return The category.
+     */
+    public String getCategory(int row) {
+        return categories.name(categoryCodes[row]);
+    }
+
+    /**
+     * Gets the price range of a row.
+     * @param row The row index.
+     * @return The price range label, or an empty string if the batch has not been transformed.
+     */
+    public String getPriceRange(int row) {
+        byte range = priceRanges[row];
+        return range == NO_PRICE_RANGE ? "" : PriceRange.fromOrdinal(range).getLabel();
+    }
+
+    /**
+     * Creates a Product object holding the values of a row.
+     * @param row The row index.
+     * @return A new Product for the row.
+     */
+    public Product toProduct(int row) {
+        Product product = new Product(getId(row), getName(row), getPrice(row), getCategory(row));
+        product.setPriceRange(getPriceRange(row));
+        return product;
+    }
+
+    /**
+     * Gets the dictionary that holds the categories of this batch.
+     * @return The category dictionary.
+     */
+    public CategoryDictionary categories() {
+        return categories;
+    }
+
+    /**
+     * Appends a row whose UTF-8 name is copied straight from a buffer.
+     * @return The index of the new row.
+     */
+    int add(int id, ByteBuffer nameSource, int nameStart, int nameEnd,
+            long unscaledPrice, int scale, int categoryCode) {
+        int row = addRow(id, categoryCode);
+        setPrice(row, unscaledPrice, scale);
+        int length = nameEnd - nameStart;
+        int offset = reserveName(length);
+        nameSource.get(nameStart, nameArena, offset, length);
+        nameOffsets[row] = offset;
+        nameLengths[row] = length;
+        return row;
+    }
+
+    /**
+     * Appends a row with no name and no price yet.
+     * @return The index of the new row.
+     */
+    int addRow(int id, int categoryCode) {
+        if (size == ids.length) {
+            grow();
+        }
+        int row = size++;
+        ids[row] = id;
+        categoryCodes[row] = categoryCode;
+        priceRanges[row] = NO_PRICE_RANGE;
+        nameOffsets[row] = nameArenaSize;
+        nameLengths[row] = 0;
+        return row;
+    }
+
+    /**
+     * Sets the price of a row from a fixed-point value.
+     */
+    void setPrice(int row, long unscaledPrice, int scale) {
+        if (PriceCents.isRepresentable(unscaledPrice, scale)) {
+            prices[row] = unscaledPrice;
+            priceScales[row] = (byte) scale;
+        } else {
+            setPrice(row, BigDecimal.valueOf(unscaledPrice, scale));
+        }
+    }
+
+    /**
+     * Sets the price of a row, keeping it as a BigDecimal only if it cannot be
+     * held as a fixed-point long.
+     */
+    void setPrice(int row, BigDecimal price) {
+        // Only the numeric value matters to the transform, so the scale may be normalized.
+        BigDecimal normalized = price;
+        if (normalized.scale() > PriceCents.MAX_SCALE) {
+            normalized = normalized.stripTrailingZeros();
+        }
+        if (normalized.scale() < 0) {
+            normalized = normalized.setScale(0);
+        }
+        if (normalized.unscaledValue().bitLength() < Long.SIZE
+                && PriceCents.isRepresentable(normalized.unscaledValue().longValue(), normalized.scale())) {
+            prices[row] = normalized.unscaledValue().longValue();
+            priceScales[row] = (byte) normalized.scale();
+            if (bigPrices != null) {
+                bigPrices[row] = null;
+            }
+        } else {
+            if (bigPrices == null) {
+                bigPrices = new BigDecimal[ids.length];
+            }
+            bigPrices[row] = price;
+            priceScales[row] = BIG_PRICE;
+        }
+    }
+
+    /**
+     * Replaces the name of a row. The new bytes are written over the old name
+     * when they fit, and appended to the arena otherwise.
+     */
+    void setName(int row, byte[] name) {
+        int offset = nameOffsets[row];
+        if (name.length > nameLengths[row]) {
+            offset = reserveName(name.length);
+            nameOffsets[row] = offset;
+        }
+        System.arraycopy(name, 0, nameArena, offset, name.length);
+        nameLengths[row] = name.length;
+    }
+
+    /**
+     * Removes the rows the predicate rejects, keeping the rest in order.
+     * The names of the removed rows stay in the arena until the batch is cleared.
+     * @param keep Tells whether the row with the given index is kept.
+     */
+    void retainRows(IntPredicate keep) {
+        int kept = 0;
+        for (int row = 0; row < size; row++) {
+            if (!keep.test(row)) {
+                continue;
+            }
+            if (kept != row) {
+                ids[kept] = ids[row];
+                prices[kept] = prices[row];
+                priceScales[kept] = priceScales[row];
+                categoryCodes[kept] = categoryCodes[row];
+                priceRanges[kept] = priceRanges[row];
+                nameOffsets[kept] = nameOffsets[row];
+                nameLengths[kept] = nameLengths[row];
+                if (bigPrices != null) {
+                    bigPrices[kept] = bigPrices[row];
+                }
+            }
+            kept++;
+        }
+        if (bigPrices != null) {
+            Arrays.fill(bigPrices, kept, size, null);
+        }
+        size = kept;
+    }
+
+    private int reserveName(int length) {
+        if (nameArenaSize + length > nameArena.length) {
+            long needed = (long) nameArenaSize + length;
+            long capacity = Math.max(needed, (long) nameArena.length * 2);
+            if (needed > Integer.MAX_VALUE - 8) {
+                throw new IllegalStateException("Name arena is full");
+            }
+            nameArena = Arrays.copyOf(nameArena, (int) Math.min(capacity, Integer.MAX_VALUE - 8));
+        }
+        int offset = nameArenaSize;
+        nameArenaSize += length;
+        return offset;
+    }
+
+    private void grow() {
+        int capacity = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        prices = Arrays.copyOf(prices, capacity);
+        priceScales = Arrays.copyOf(priceScales, capacity);
+        categoryCodes = Arrays.copyOf(categoryCodes, capacity);
+        priceRanges = Arrays.copyOf(priceRanges, capacity);
+        nameOffsets = Arrays.copyOf(nameOffsets, capacity);
+        nameLengths = Arrays.copyOf(nameLengths, capacity);
+        if (bigPrices != null) {
+            bigPrices = Arrays.copyOf(bigPrices, capacity);
+        }
+    }
+}
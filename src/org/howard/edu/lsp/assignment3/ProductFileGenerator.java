@@ -0,0 +1,637 @@
+package org.howard.edu.lsp.assignment3;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Writes large synthetic input files in the {@code ProductID,Name,Price,Category}
+ * layout for benchmarks and soak tests of {@link ETLPipeline}.
+ * The rows are generated in chunks on a pool of worker threads and written in
+ * order. Every chunk draws from its own random generator, seeded from the seed
+ * and the chunk's index, so a given seed always produces the same file no
+ * matter how many threads are used.
+ */
+public class ProductFileGenerator {
+
+    /**
+     * The ways prices are spread between the minimum and maximum price.
+     */
+    public enum PriceDistribution {
+        /** Every price between the minimum and the maximum is equally likely. */
+        UNIFORM,
+        /**
+         * Prices cluster around the geometric mean of the minimum and the maximum,
+         * with a long tail towards the maximum, like real price lists.
+         */
+        LOG_NORMAL
+    }
+
+    /** The default number of rows generated by each worker task. */
+    public static final int DEFAULT_CHUNK_ROWS = 256 * 1024;
+
+    private static final byte[] HEADER = "ProductID,Name,Price,Category\n".getBytes(StandardCharsets.US_ASCII);
+    private static final String[] NAMES = {
+        "Book", "Laptop", "Notebook", "Headphones", "Pencil", "Smartphone", "Tablet",
+        "Monitor", "Backpack", "Desk Lamp", "Stapler", "Charger", "Camera", "Marker"
+    };
+    private static final byte[][] NAME_BYTES = new byte[NAMES.length][];
+
+    static {
+        for (int i = 0; i < NAMES.length; i++) {
+            NAME_BYTES[i] = NAMES[i].getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+
+    private final String outputPath;
+    private long rows = 0;
+    private long targetBytes = 0;
+    private long seed = 42;
+    private Map<String, Integer> categoryMix = defaultCategoryMix();
+    private PriceDistribution priceDistribution = PriceDistribution.UNIFORM;
+    private long minPriceCents = 50;
+    private long maxPriceCents = 200_000;
+    private double malformedFraction = 0.0;
+    private double emptyFraction = 0.0;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private int chunkRows = DEFAULT_CHUNK_ROWS;
+
+    private long rowsWritten = 0;
+    private long malformedRows = 0;
+    private long emptyRows = 0;
+    private long bytesWritten = 0;
+
+    /**
+     * Constructs a ProductFileGenerator that writes to the specified file.
+     * Either {@link #setRows(long)} or {@link #setTargetBytes(long)} must be
+     * called before {@link #generate()}.
+     * @param outputPath The path to the file to generate.
+     */
+    public ProductFileGenerator(String outputPath) {
+        this.outputPath = outputPath;
+    }
+
+    /**
+     * Command line entry point. Run without arguments for a list of options.
+     * @param args Command line arguments.
+     */
+    public static void main(String[] args) {
+        ProductFileGenerator generator;
+        try {
+            generator = parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.err.println("Usage: ProductFileGenerator --output FILE (--rows N | --size N[k|m|g])"
+                    + " [--seed N] [--categories NAME=WEIGHT,...] [--prices uniform|lognormal]"
+                    + " [--min-price P] [--max-price P] [--malformed F] [--empty F] [--threads N]");
+            return;
+        }
+
+        long started = System.nanoTime();
+        try {
+            generator.generate();
+        } catch (IOException e) {
+            System.err.println("An I/O error occurred: " + e.getMessage());
+            e.printStackTrace();
+            return;
+        }
+        long millis = (System.nanoTime() - started) / 1_000_000;
+
+        System.out.println("Generated " + generator.getRowsWritten() + " rows (" + generator.getBytesWritten()
+                + " bytes) in " + millis + " ms");
+        System.out.println("Malformed Rows: " + generator.getMalformedRows());
+        System.out.println("Empty Rows: " + generator.getEmptyRows());
+        System.out.println("Output File: " + generator.outputPath);
+    }
+
+    /**
+     * Parses the command line arguments into a configured generator.
+     * @param args The command line arguments.
+     * @return The configured generator.
+     * @throws IllegalArgumentException if an argument is unknown or invalid.
+     */
+    public static ProductFileGenerator parse(String[] args) {
+        Map<String, String> values = new LinkedHashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Missing value for option: " + arg);
+            }
+            values.put(arg, args[++i]);
+        }
+        String output = values.remove("--output");
+        if (output == null) {
+            throw new IllegalArgumentException("--output is required");
+        }
+
+        ProductFileGenerator generator = new ProductFileGenerator(output);
+        long minPrice = generator.minPriceCents;
+        long maxPrice = generator.maxPriceCents;
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            String option = entry.getKey();
+            String value = entry.getValue();
+            try {
+                switch (option) {
+                    case "--rows":
+                        generator.setRows(Long.parseLong(value));
+                        break;
+                    case "--size":
+                        generator.setTargetBytes(parseSize(value));
+                        break;
+                    case "--seed":
+                        generator.setSeed(Long.parseLong(value));
+                        break;
+                    case "--categories":
+                        generator.setCategoryMix(parseCategoryMix(value));
+                        break;
+                    case "--prices":
+                        generator.setPriceDistribution("lognormal".equalsIgnoreCase(value)
+                                ? PriceDistribution.LOG_NORMAL
+                                : PriceDistribution.valueOf(value.toUpperCase(Locale.ROOT)));
+                        break;
+                    case "--min-price":
+                        minPrice = parseCents(value);
+                        break;
+                    case "--max-price":
+                        maxPrice = parseCents(value);
+                        break;
+                    case "--malformed":
+                        generator.setMalformedFraction(Double.parseDouble(value));
+                        break;
+                    case "--empty":
+                        generator.setEmptyFraction(Double.parseDouble(value));
+                        break;
+                    case "--threads":
+                        generator.setThreads(Integer.parseInt(value));
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option: " + option);
+                }
+            } catch (NumberFormatException | ArithmeticException e) {
+                throw new IllegalArgumentException("Invalid value for option " + option + ": " + value);
+            }
+        }
+        generator.setPriceRange(minPrice, maxPrice);
+        return generator;
+    }
+
+    /**
+     * Sets the number of data rows to generate, not counting the header row.
+     * @param rows The number of data rows, at most {@code Integer.MAX_VALUE}.
+     */
+    public void setRows(long rows) {
+        if (rows < 0 || rows > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("rows must be between 0 and " + Integer.MAX_VALUE);
+        }
+        this.rows = rows;
+        this.targetBytes = 0;
+    }
+
+    /**
+     * Sets the size of the file to generate instead of a number of rows.
+     * Generation stops at the end of the row that reaches the target.
+     * @param targetBytes The target file size in bytes.
+     */
+    public void setTargetBytes(long targetBytes) {
+        if (targetBytes < 1) {
+            throw new IllegalArgumentException("targetBytes must be positive");
+        }
+        this.targetBytes = targetBytes;
+        this.rows = 0;
+    }
+
+    /**
+     * Sets the seed of the random generators. The same seed and settings always
+     * produce the same file.
+     * @param seed The seed.
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Sets the categories and how often each one appears, such as
+     * {@code Electronics=3, Stationery=1} for three Electronics rows per Stationery row.
+     * @param categoryMix The relative weight of each category, in a stable iteration order.
+     */
+    public void setCategoryMix(Map<String, Integer> categoryMix) {
+        if (categoryMix.isEmpty()) {
+            throw new IllegalArgumentException("At least one category is required");
+        }
+        for (Map.Entry<String, Integer> entry : categoryMix.entrySet()) {
+            if (entry.getValue() < 1 || entry.getKey().isEmpty() || entry.getKey().contains(",")) {
+                throw new IllegalArgumentException("Invalid category weight: " + entry);
+            }
+        }
+        this.categoryMix = new LinkedHashMap<>(categoryMix);
+    }
+
+    /**
+     * Sets how prices are spread between the minimum and maximum price.
+     * @param priceDistribution The price distribution.
+     */
+    public void setPriceDistribution(PriceDistribution priceDistribution) {
+        this.priceDistribution = priceDistribution;
+    }
+
+    /**
+     * Sets the lowest and highest price generated, in cents.
+     * @param minPriceCents The lowest price, such as 50 for 0.50.
+     * @param maxPriceCents The highest price, such as 200000 for 2000.00.
+     */
+    public void setPriceRange(long minPriceCents, long maxPriceCents) {
+        if (minPriceCents < 1 || maxPriceCents < minPriceCents) {
+            throw new IllegalArgumentException("Invalid price range: " + minPriceCents + " to " + maxPriceCents);
+        }
+        this.minPriceCents = minPriceCents;
+        this.maxPriceCents = maxPriceCents;
+    }
+
+    /**
+     * Sets the fraction of rows that ETLPipeline will skip as malformed.
+     * @param malformedFraction A fraction between 0 and 1.
+     */
+    public void setMalformedFraction(double malformedFraction) {
+        checkFraction(malformedFraction, emptyFraction);
+        this.malformedFraction = malformedFraction;
+    }
+
+    /**
+     * Sets the fraction of rows that are empty or contain only spaces.
+     * @param emptyFraction A fraction between 0 and 1.
+     */
+    public void setEmptyFraction(double emptyFraction) {
+        checkFraction(malformedFraction, emptyFraction);
+        this.emptyFraction = emptyFraction;
+    }
+
+    /**
+     * Sets the number of worker threads. The output does not depend on it.
+     * @param threads The number of worker threads.
+     */
+    public void setThreads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be positive");
+        }
+        this.threads = threads;
+    }
+
+    /**
+     * Sets the number of rows generated by each worker task. Changing it changes
+     * the generated rows, so keep the default for reproducible files.
+     * @param chunkRows The number of rows in each chunk.
+     */
+    void setChunkRows(int chunkRows) {
+        if (chunkRows < 1) {
+            throw new IllegalArgumentException("chunkRows must be positive");
+        }
+        this.chunkRows = chunkRows;
+    }
+
+    /**
+     * Generates the file.
+     * At most two chunks per worker are in flight at once, so memory use is
+     * bounded by the chunk size rather than the size of the file.
+     * @throws IOException if an I/O error occurs while writing the file.
+     */
+    public void generate() throws IOException {
+        if (rows == 0 && targetBytes == 0) {
+            throw new IllegalStateException("Set the number of rows or the target size first");
+        }
+        Sampler sampler = new Sampler();
+        rowsWritten = 0;
+        malformedRows = 0;
+        emptyRows = 0;
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try (FileChannel out = new FileOutputStream(outputPath).getChannel()) {
+            bytesWritten = write(out, HEADER, HEADER.length);
+
+            Deque<Future<Chunk>> inFlight = new ArrayDeque<>();
+            long nextChunk = 0;
+            boolean done = targetBytes > 0 && bytesWritten >= targetBytes;
+            while (!done) {
+                // Keep the pool busy; in size mode, chunks past the target are cancelled.
+                while (inFlight.size() < threads * 2 && nextChunk * chunkRows < maxRows()) {
+                    long chunk = nextChunk++;
+                    inFlight.addLast(pool.submit(() -> generateChunk(sampler, chunk)));
+                }
+                if (inFlight.isEmpty()) {
+                    break;
+                }
+                done = writeChunk(inFlight.removeFirst(), out);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Gets the number of data rows written, including malformed and empty rows.
+     * @return The number of data rows written.
+     */
+    public long getRowsWritten() {
+        return rowsWritten;
+    }
+
+    /**
+     * Gets the number of malformed rows written.
+     * @return The number of malformed rows written.
+     */
+    public long getMalformedRows() {
+        return malformedRows;
+    }
+
+    /**
+     * Gets the number of empty rows written.
+     * @return The number of empty rows written.
+     */
+    public long getEmptyRows() {
+        return emptyRows;
+    }
+
+    /**
+     * Gets the size of the generated file.
+     * @return The number of bytes written, including the header row.
+     */
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    private long maxRows() {
+        return targetBytes > 0 ? Integer.MAX_VALUE : rows;
+    }
+
+    /**
+     * Generates the rows of one chunk. Runs on a worker thread.
+     */
+    private Chunk generateChunk(Sampler sampler, long index) {
+        long firstRow = index * chunkRows;
+        int count = (int) Math.min(chunkRows, maxRows() - firstRow);
+        SplittableRandom random = new SplittableRandom(chunkSeed(seed, index));
+        Chunk chunk = new Chunk(count);
+        for (int i = 0; i < count; i++) {
+            sampler.appendRow(chunk, random, (int) (firstRow + i + 1));
+            chunk.rowEnds[i] = chunk.size;
+        }
+        return chunk;
+    }
+
+    /**
+     * Waits for a chunk to finish and writes its rows, stopping at the target size.
+     * @return true if the target size has been reached.
+     */
+    private boolean writeChunk(Future<Chunk> future, FileChannel out) throws IOException {
+        Chunk chunk;
+        try {
+            chunk = future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a chunk");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException("Chunk failed", cause);
+        }
+
+        int rowCount = chunk.rowEnds.length;
+        if (targetBytes > 0 && bytesWritten + chunk.size >= targetBytes) {
+            // Keep the rows up to and including the one that reaches the target.
+            int needed = (int) (targetBytes - bytesWritten);
+            int index = Arrays.binarySearch(chunk.rowEnds, needed);
+            rowCount = (index >= 0 ? index : -index - 1) + 1;
+        }
+        int length = rowCount == 0 ? 0 : chunk.rowEnds[rowCount - 1];
+        bytesWritten += write(out, chunk.bytes, length);
+        rowsWritten += rowCount;
+        for (int i = 0; i < rowCount; i++) {
+            if (chunk.kinds[i] == Chunk.MALFORMED) {
+                malformedRows++;
+            } else if (chunk.kinds[i] == Chunk.EMPTY) {
+                emptyRows++;
+            }
+        }
+        return targetBytes > 0 && bytesWritten >= targetBytes;
+    }
+
+    private static int write(FileChannel out, byte[] bytes, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, 0, length);
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        return length;
+    }
+
+    /**
+     * Derives the seed of one chunk with the SplitMix64 finalizer, so that
+     * neighbouring chunks get unrelated random sequences.
+     */
+    private static long chunkSeed(long seed, long chunk) {
+        long z = seed + (chunk + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static void checkFraction(double malformedFraction, double emptyFraction) {
+        if (!(malformedFraction >= 0 && emptyFraction >= 0 && malformedFraction + emptyFraction <= 1)) {
+            throw new IllegalArgumentException("The malformed and empty fractions must add up to at most 1");
+        }
+    }
+
+    private static Map<String, Integer> defaultCategoryMix() {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        mix.put("Electronics", 30);
+        mix.put("Education", 20);
+        mix.put("Stationery", 20);
+        mix.put("Clothing", 15);
+        mix.put("Home", 15);
+        return mix;
+    }
+
+    private static Map<String, Integer> parseCategoryMix(String value) {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (String part : value.split(",")) {
+            int equals = part.lastIndexOf('=');
+            if (equals < 0) {
+                mix.put(part.trim(), 1);
+            } else {
+                mix.put(part.substring(0, equals).trim(), Integer.parseInt(part.substring(equals + 1).trim()));
+            }
+        }
+        return mix;
+    }
+
+    private static long parseCents(String value) {
+        return new BigDecimal(value).movePointRight(2).longValueExact();
+    }
+
+    private static long parseSize(String value) {
+        String number = value.toLowerCase(Locale.ROOT);
+        long unit = 1;
+        if (number.endsWith("k")) {
+            unit = 1L << 10;
+        } else if (number.endsWith("m")) {
+            unit = 1L << 20;
+        } else if (number.endsWith("g")) {
+            unit = 1L << 30;
+        }
+        if (unit > 1) {
+            number = number.substring(0, number.length() - 1);
+        }
+        return Math.multiplyExact(Long.parseLong(number), unit);
+    }
+
+    /**
+     * Draws rows from the configured distributions. Immutable once built, so
+     * every worker shares one.
+     */
+    private final class Sampler {
+        private final byte[][] categories;
+        private final int[] cumulativeWeights;
+        private final int totalWeight;
+        private final double logMedian;
+        private final double logSigma;
+
+        Sampler() {
+            categories = new byte[categoryMix.size()][];
+            cumulativeWeights = new int[categoryMix.size()];
+            int total = 0;
+            int i = 0;
+            for (Map.Entry<String, Integer> entry : categoryMix.entrySet()) {
+                categories[i] = entry.getKey().getBytes(StandardCharsets.UTF_8);
+                total = Math.addExact(total, entry.getValue());
+                cumulativeWeights[i++] = total;
+            }
+            totalWeight = total;
+            // The minimum and maximum price sit three standard deviations from the median.
+            logMedian = (Math.log(minPriceCents) + Math.log(maxPriceCents)) / 2;
+            logSigma = (Math.log(maxPriceCents) - Math.log(minPriceCents)) / 6;
+        }
+
+        void appendRow(Chunk chunk, SplittableRandom random, int id) {
+            double kind = random.nextDouble();
+            if (kind < emptyFraction) {
+                chunk.kinds[chunk.rows++] = Chunk.EMPTY;
+                // Both a blank line and a line of spaces are skipped as empty.
+                if (random.nextBoolean()) {
+                    chunk.put((byte) ' ');
+                }
+                chunk.put((byte) '\n');
+                return;
+            }
+            boolean malformed = kind < emptyFraction + malformedFraction;
+            chunk.kinds[chunk.rows++] = malformed ? Chunk.MALFORMED : Chunk.VALID;
+            int flaw = malformed ? random.nextInt(3) : -1;
+
+            if (flaw == 0) {
+                // A ProductID that is not a number.
+                chunk.put((byte) 'x');
+            }
+            chunk.putLong(id);
+            chunk.put((byte) ',');
+            chunk.put(NAME_BYTES[random.nextInt(NAME_BYTES.length)]);
+            chunk.put((byte) ' ');
+            chunk.putLong(random.nextInt(1, 10_000));
+            chunk.put((byte) ',');
+            long cents = nextPriceCents(random);
+            chunk.putLong(cents / 100);
+            chunk.put((byte) '.');
+            if (flaw == 1) {
+                // A Price that is not a number.
+                chunk.put((byte) '.');
+            }
+            chunk.put((byte) ('0' + cents % 100 / 10));
+            chunk.put((byte) ('0' + cents % 10));
+            if (flaw != 2) {
+                // Otherwise the Category column is missing.
+                chunk.put((byte) ',');
+                chunk.put(categories[nextCategory(random)]);
+            }
+            chunk.put((byte) '\n');
+        }
+
+        private long nextPriceCents(SplittableRandom random) {
+            if (priceDistribution == PriceDistribution.UNIFORM) {
+                return random.nextLong(minPriceCents, maxPriceCents + 1);
+            }
+            double cents = Math.exp(logMedian + logSigma * random.nextGaussian());
+            return Math.max(minPriceCents, Math.min(maxPriceCents, Math.round(cents)));
+        }
+
+        private int nextCategory(SplittableRandom random) {
+            int pick = random.nextInt(totalWeight);
+            int index = Arrays.binarySearch(cumulativeWeights, pick + 1);
+            return index >= 0 ? index : -index - 1;
+        }
+    }
+
+    /**
+     * The encoded rows of one chunk and where each row ends.
+     */
+    private static final class Chunk {
+        static final byte VALID = 0;
+        static final byte MALFORMED = 1;
+        static final byte EMPTY = 2;
+
+        private final int[] rowEnds;
+        private final byte[] kinds;
+        private byte[] bytes;
+        private int size = 0;
+        private int rows = 0;
+        private final byte[] digits = new byte[20];
+
+        Chunk(int rowCount) {
+            rowEnds = new int[rowCount];
+            kinds = new byte[rowCount];
+            bytes = new byte[Math.max(64, rowCount * 48)];
+        }
+
+        void put(byte b) {
+            if (size == bytes.length) {
+                bytes = Arrays.copyOf(bytes, bytes.length * 2);
+            }
+            bytes[size++] = b;
+        }
+
+        void put(byte[] value) {
+            if (size + value.length > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + value.length));
+            }
+            System.arraycopy(value, 0, bytes, size, value.length);
+            size += value.length;
+        }
+
+        /** Appends the digits of a non-negative number. */
+        void putLong(long value) {
+            int position = digits.length;
+            do {
+                digits[--position] = (byte) ('0' + value % 10);
+                value /= 10;
+            } while (value != 0);
+            for (int i = position; i < digits.length; i++) {
+                put(digits[i]);
+            }
+        }
+    }
+}
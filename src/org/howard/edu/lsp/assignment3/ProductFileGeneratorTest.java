@@ -0,0 +1,123 @@
+package org.howard.edu.lsp.assignment3;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * JUnit 5 test class for {@link ProductFileGenerator}.
+ */
+public class ProductFileGeneratorTest {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Creates a generator for a small file that is split into many chunks.
+     */
+    private ProductFileGenerator newGenerator(String fileName, int threads) {
+        ProductFileGenerator generator = new ProductFileGenerator(directory.resolve(fileName).toString());
+        generator.setRows(10_000);
+        generator.setSeed(7);
+        generator.setMalformedFraction(0.05);
+        generator.setEmptyFraction(0.02);
+        generator.setChunkRows(997);
+        generator.setThreads(threads);
+        return generator;
+    }
+
+    /**
+     * Tests that the same seed gives the same file on one thread and on several,
+     * and that a different seed gives a different file.
+     */
+    @Test
+    @DisplayName("Test output does not depend on the thread count")
+    void testReproducible() throws IOException {
+        newGenerator("one.csv", 1).generate();
+        newGenerator("four.csv", 4).generate();
+        ProductFileGenerator otherSeed = newGenerator("other.csv", 4);
+        otherSeed.setSeed(8);
+        otherSeed.generate();
+
+        byte[] one = Files.readAllBytes(directory.resolve("one.csv"));
+        assertArrayEquals(one, Files.readAllBytes(directory.resolve("four.csv")));
+        assertFalse(Arrays.equals(one, Files.readAllBytes(directory.resolve("other.csv"))));
+    }
+
+    /**
+     * Tests that CSVReader reads every generated row and skips exactly the
+     * malformed and empty rows the generator reports.
+     */
+    @Test
+    @DisplayName("Test malformed and empty rows are skipped by CSVReader")
+    void testRowCounts() throws IOException {
+        ProductFileGenerator generator = newGenerator("products.csv", 3);
+        generator.generate();
+
+        CSVReader reader = new CSVReader(directory.resolve("products.csv").toString());
+        List<Product> products = reader.readProducts();
+        assertEquals(10_000, generator.getRowsWritten());
+        assertEquals(generator.getRowsWritten(), reader.getRowsRead());
+        assertEquals(generator.getMalformedRows() + generator.getEmptyRows(), reader.getRowsSkipped());
+        assertTrue(generator.getMalformedRows() > 0);
+        assertTrue(generator.getEmptyRows() > 0);
+        assertEquals(reader.getRowsRead() - reader.getRowsSkipped(), products.size());
+        assertEquals(Files.size(directory.resolve("products.csv")), generator.getBytesWritten());
+    }
+
+    /**
+     * Tests that only the configured categories and prices inside the configured
+     * range are generated.
+     */
+    @Test
+    @DisplayName("Test category mix and price range")
+    void testCategoriesAndPrices() throws IOException {
+        ProductFileGenerator generator = newGenerator("products.csv", 2);
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        mix.put("Electronics", 1);
+        mix.put("Toys", 3);
+        generator.setCategoryMix(mix);
+        generator.setPriceDistribution(ProductFileGenerator.PriceDistribution.LOG_NORMAL);
+        generator.setPriceRange(100, 5_000);
+        generator.generate();
+
+        int toys = 0;
+        for (Product product : new CSVReader(directory.resolve("products.csv").toString()).readProducts()) {
+            assertTrue(mix.containsKey(product.getCategory()), product.getCategory());
+            assertTrue(product.getPrice().movePointRight(2).longValueExact() >= 100);
+            assertTrue(product.getPrice().movePointRight(2).longValueExact() <= 5_000);
+            if (product.getCategory().equals("Toys")) {
+                toys++;
+            }
+        }
+        // Three Toys rows for every Electronics row, give or take.
+        assertTrue(toys > 6_000 && toys < 7_900, "Toys rows: " + toys);
+    }
+
+    /**
+     * Tests that a target size stops at the end of the row that reaches it.
+     */
+    @Test
+    @DisplayName("Test target size")
+    void testTargetBytes() throws IOException {
+        ProductFileGenerator generator = newGenerator("products.csv", 2);
+        generator.setTargetBytes(100_000);
+        generator.generate();
+
+        byte[] bytes = Files.readAllBytes(directory.resolve("products.csv"));
+        assertEquals(bytes.length, generator.getBytesWritten());
+        assertTrue(bytes.length >= 100_000 && bytes.length < 100_100, "size: " + bytes.length);
+        assertEquals('\n', bytes[bytes.length - 1]);
+        assertEquals(generator.getRowsWritten(), new CSVReader(directory.resolve("products.csv").toString())
+                .readProducts().size() + generator.getMalformedRows() + generator.getEmptyRows());
+    }
+}
@@ -0,0 +1,56 @@
+package org.howard.edu.lsp.assignment3;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Builds the input files the tests run the pipeline over, and the default
+ * batch run that the other modes are checked against. It is compiled with
+ * the tests only.
+ */
+final class ProductFileTestSupport {
+
+    private ProductFileTestSupport() {
+    }
+
+    /**
+     * Generates a products file on one thread, so the same seed always gives
+     * the same file. A file of no rows holds only the header row.
+     * @param file The path of the file to write.
+     * @param rows The number of data rows.
+     * @param seed The seed of the generator.
+     * @param malformedFraction The fraction of rows that are malformed.
+     * @param emptyFraction The fraction of rows that are empty.
+     * @return The path of the file.
+     * @throws IOException if the file cannot be written.
+     */
+    static Path generate(Path file, int rows, long seed, double malformedFraction, double emptyFraction)
+            throws IOException {
+        if (rows == 0) {
+            Files.write(file, "ProductID,Name,Price,Category\n".getBytes(CsvFormat.CHARSET));
+            return file;
+        }
+        ProductFileGenerator generator = new ProductFileGenerator(file.toString());
+        generator.setRows(rows);
+        generator.setSeed(seed);
+        generator.setMalformedFraction(malformedFraction);
+        generator.setEmptyFraction(emptyFraction);
+        generator.setThreads(1);
+        generator.generate();
+        return file;
+    }
+
+    /**
+     * Runs the default batch mode, which every other mode must match.
+     * @param input The input file.
+     * @param output The output file.
+     * @return The counters of the run.
+     * @throws FileNotFoundException if the input file does not exist.
+     * @throws IOException if an I/O error occurs while reading or writing.
+     */
+    static RunSummary runBatch(Path input, Path output) throws FileNotFoundException, IOException {
+        return ETLPipeline.run(input.toString(), output.toString(), PipelineOptions.parse(new String[0]));
+    }
+}
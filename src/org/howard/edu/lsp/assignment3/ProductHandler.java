@@ -0,0 +1,19 @@
+package org.howard.edu.lsp.assignment3;
+
+import java.io.IOException;
+
+/**
+ * A callback that receives Product objects one at a time as they are read.
+ * This allows the ETL process to handle each row as soon as it is parsed,
+ * instead of collecting the whole file into a list first.
+ */
+@FunctionalInterface
+public interface ProductHandler {
+
+    /**
+     * Handles a single product.
+     * @param product The Product object that was just read.
+     * @throws IOException if an I/O error occurs while handling the product.
+     */
+    void handle(Product product) throws IOException;
+}
@@ -0,0 +1,269 @@
+package org.howard.edu.lsp.assignment3;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * The change-detection index of an incremental ETL run.
+ * For every ProductID written to the output file it records a hash of the
+ * input row the output was produced from, and where that output row sits in
+ * the output file. The entries live in primitive arrays behind an
+ * open-addressing table, so millions of products cost a few dozen bytes each
+ * and no objects.
+ */
+public class ProductIndex {
+
+    private static final int MAGIC = 0x50494458; // "PIDX"
+
+    /**
+     * The version of the index file layout and of the transformation code.
+     * Bump it whenever {@link ProductTransformer} changes how it applies the
+     * rules, so that old indexes are discarded instead of reusing stale rows.
+     * Changes to the {@link TransformRules} themselves are caught by their fingerprint.
+     */
+    static final int VERSION = 2;
+
+    private static final int EMPTY = 0;
+
+    private int size = 0;
+    private int[] ids;
+    private long[] hashes;
+    private long[] offsets;
+    private int[] lengths;
+    // Holds entry index + 1 for each occupied slot, or EMPTY.
+    private int[] table;
+
+    private long outputSize = -1;
+    private long outputModified = -1;
+    private long rulesFingerprint = 0;
+
+    /**
+     * Constructs an empty ProductIndex.
+     */
+    public ProductIndex() {
+        this(1024);
+    }
+
+    /**
+     * Constructs an empty ProductIndex with room for the given number of entries.
+     * @param initialCapacity The number of entries to allocate room for.
+     */
+    public ProductIndex(int initialCapacity) {
+        int capacity = Math.max(16, initialCapacity);
+        ids = new int[capacity];
+        hashes = new long[capacity];
+        offsets = new long[capacity];
+        lengths = new int[capacity];
+        table = new int[tableSizeFor(capacity)];
+    }
+
+    /**
+     * Gets the number of entries.
+     * @return The number of ProductIDs in the index.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Adds an entry, replacing any earlier entry for the same ProductID.
+     * @param id The ProductID.
+     * @param rowHash The hash of the input row.
+     * @param offset The offset of the output row in the output file.
+     * @param length The length of the output row in bytes, including its line terminator.
+     */
+    public void put(int id, long rowHash, long offset, int length) {
+        int entry = find(id);
+        if (entry < 0) {
+            if (size == ids.length) {
+                grow();
+            }
+            entry = size++;
+            ids[entry] = id;
+            insert(entry);
+        }
+        hashes[entry] = rowHash;
+        offsets[entry] = offset;
+        lengths[entry] = length;
+    }
+
+    /**
+     * Finds the entry for a ProductID.
+     * @param id The ProductID.
+     * @return The entry number, or -1 if the ProductID is not in the index.
+     */
+    public int find(int id) {
+        int mask = table.length - 1;
+        for (int slot = mix(id) & mask; table[slot] != EMPTY; slot = (slot + 1) & mask) {
+            int entry = table[slot] - 1;
+            if (ids[entry] == id) {
+                return entry;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the input row hash of an entry.
+     * @param entry The entry number returned by {@link #find(int)}.
+     * @return The hash of the input row.
+     */
+    public long getRowHash(int entry) {
+        return hashes[entry];
+    }
+
+    /**
+     * Gets the output file offset of an entry.
+     * @param entry The entry number returned by {@link #find(int)}.
+     * @return The offset of the output row.
+     */
+    public long getOffset(int entry) {
+        return offsets[entry];
+    }
+
+    /**
+     * Gets the output row length of an entry.
+     * @param entry The entry number returned by {@link #find(int)}.
+     * @return The length of the output row in bytes.
+     */
+    public int getLength(int entry) {
+        return lengths[entry];
+    }
+
+    /**
+     * Records the size and modification time of the output file the offsets point into.
+     * @param size The size of the output file in bytes.
+     * @param modified The modification time of the output file in milliseconds.
+     */
+    public void setOutputFile(long size, long modified) {
+        this.outputSize = size;
+        this.outputModified = modified;
+    }
+
+    /**
+     * Checks whether the index describes the given output file.
+     * @param size The current size of the output file in bytes.
+     * @param modified The current modification time of the output file in milliseconds.
+     * @return true if the output file has not changed since the index was written.
+     */
+    public boolean matchesOutputFile(long size, long modified) {
+        return outputSize == size && outputModified == modified;
+    }
+
+    /**
+     * Records the fingerprint of the rules the output rows were transformed with.
+     * @param fingerprint The {@link TransformRules#fingerprint() fingerprint} of the rules.
+     */
+    public void setRulesFingerprint(long fingerprint) {
+        this.rulesFingerprint = fingerprint;
+    }
+
+    /**
+     * Gets the fingerprint of the rules the output rows were transformed with.
+     * @return The {@link TransformRules#fingerprint() fingerprint} of the rules.
+     */
+    public long getRulesFingerprint() {
+        return rulesFingerprint;
+    }
+
+    /**
+     * Writes the index to a file.
+     * @param filePath The path of the index file.
+     * @throws IOException if an I/O error occurs while writing the file.
+     */
+    public void save(String filePath) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(filePath), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(CsvFormat.CHARSET.name());
+            out.writeUTF(CsvFormat.LINE_SEPARATOR);
+            out.writeLong(outputSize);
+            out.writeLong(outputModified);
+            out.writeLong(rulesFingerprint);
+            out.writeInt(size);
+            for (int i = 0; i < size; i++) {
+                out.writeInt(ids[i]);
+                out.writeLong(hashes[i]);
+                out.writeLong(offsets[i]);
+                out.writeInt(lengths[i]);
+            }
+        }
+    }
+
+    /**
+     * Reads an index written by {@link #save(String)}.
+     * An index written by a different version, or for a different output
+     * character set or line separator, cannot be reused and is not loaded.
+     * @param filePath The path of the index file.
+     * @return The index, or null if it was written for a different format.
+     * @throws IOException if an I/O error occurs or the file is not an index.
+     */
+    public static ProductIndex load(String filePath) throws IOException {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(filePath), 1 << 16))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a product index: " + filePath);
+            }
+            if (in.readInt() != VERSION
+                    || !in.readUTF().equals(CsvFormat.CHARSET.name())
+                    || !in.readUTF().equals(CsvFormat.LINE_SEPARATOR)) {
+                return null;
+            }
+            long outputSize = in.readLong();
+            long outputModified = in.readLong();
+            long rulesFingerprint = in.readLong();
+            int count = in.readInt();
+            if (count < 0) {
+                throw new IOException("Corrupt product index: " + filePath);
+            }
+            ProductIndex index = new ProductIndex(count);
+            for (int i = 0; i < count; i++) {
+                index.put(in.readInt(), in.readLong(), in.readLong(), in.readInt());
+            }
+            index.setOutputFile(outputSize, outputModified);
+            index.setRulesFingerprint(rulesFingerprint);
+            return index;
+        } catch (EOFException e) {
+            throw new IOException("Truncated product index: " + filePath, e);
+        }
+    }
+
+    private void insert(int entry) {
+        int mask = table.length - 1;
+        int slot = mix(ids[entry]) & mask;
+        while (table[slot] != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = entry + 1;
+    }
+
+    private void grow() {
+        int capacity = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        hashes = Arrays.copyOf(hashes, capacity);
+        offsets = Arrays.copyOf(offsets, capacity);
+        lengths = Arrays.copyOf(lengths, capacity);
+        table = new int[tableSizeFor(capacity)];
+        for (int i = 0; i < size; i++) {
+            insert(i);
+        }
+    }
+
+    /** Keeps the table at most half full. */
+    private static int tableSizeFor(int capacity) {
+        return Integer.highestOneBit(capacity - 1) << 2;
+    }
+
+    private static int mix(int id) {
+        int h = id * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,49 @@
+package org.howard.edu.lsp.assignment3;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * The "Extract" side of the ETL process.
+ * Implementations read products from a CSV file whose first row is a header,
+ * skipping empty and malformed rows and counting them.
+ */
+public interface ProductReader {
+
+    /**
+     * Reads and parses product data from the CSV file.
+     * @return A list of Product objects.
+     * @throws FileNotFoundException if the input file does not exist.
+     * @throws IOException if an I/O error occurs while reading the file.
+     */
+    List<Product> readProducts() throws FileNotFoundException, IOException;
+
+    /**
+     * Reads and parses product data from the CSV file, passing each product
+     * to the handler as soon as its row is parsed.
+     * @param handler The handler that receives each parsed Product.
+     * @throws FileNotFoundException if the input file does not exist.
+     * @throws IOException if an I/O error occurs while reading the file or in the handler.
+     */
+    void streamProducts(ProductHandler handler) throws FileNotFoundException, IOException;
+
+    /**
+     * Gets the dictionary of the categories read so far. Every Product read
+     * shares the dictionary's String for its category.
+     * @return The category dictionary.
+     */
+    CategoryDictionary getCategories();
+
+    /**
+     * Gets the number of data rows read from the file.
+     * @return The total number of rows (excluding header) read.
+     */
+    int getRowsRead();
+
+    /**
+     * Gets the number of malformed or empty rows skipped during reading.
+     * @return The total number of rows skipped.
+     */
+    int getRowsSkipped();
+}
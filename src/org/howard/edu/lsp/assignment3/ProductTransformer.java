@@ -1,26 +1,62 @@
 package org.howard.edu.lsp.assignment3;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.util.Locale;
 
 /**
  * A service class responsible for transforming Product objects according to business rules.
- * This class applies all the "T" (Transform) logic of the ETL process.
+ * This class applies all the "T" (Transform) logic of the ETL process. The rules
+ * come from {@link TransformRules}, either the built-in defaults or a rules file,
+ * and are compiled into a {@link RuleTable} with one precomputed action per category.
  */
 public class ProductTransformer {
 
-    private static final BigDecimal ELECTRONICS_DISCOUNT_RATE = new BigDecimal("0.10");
-    private static final BigDecimal ELECTRONICS_PREMIUM_THRESHOLD = new BigDecimal("500.00");
-    private static final BigDecimal LOW_PRICE_THRESHOLD = new BigDecimal("10.00");
-    private static final BigDecimal MEDIUM_PRICE_THRESHOLD = new BigDecimal("100.00");
-    private static final BigDecimal HIGH_PRICE_THRESHOLD = new BigDecimal("500.00");
+    private final CategoryDictionary categories;
+    private final TransformRules rules;
+    private final RuleTable table;
+
+    /**
+     * Constructs a ProductTransformer with its own category dictionary and the default rules.
+     */
+    public ProductTransformer() {
+        this(new CategoryDictionary());
+    }
+
+    /**
+     * Constructs a ProductTransformer that looks categories up in the given dictionary.
+     * Sharing the reader's dictionary means every category String is already known.
+     * @param categories The dictionary used to look up category codes.
+     */
+    public ProductTransformer(CategoryDictionary categories) {
+        this(categories, TransformRules.defaults());
+    }
+
+    /**
+     * Constructs a ProductTransformer that applies the given rules.
+     * @param categories The dictionary used to look up category codes.
+     * @param rules The transformation rules.
+     */
+    public ProductTransformer(CategoryDictionary categories, TransformRules rules) {
+        this.categories = categories;
+        this.rules = rules;
+        this.table = rules.compile(categories);
+    }
+
+    /**
+     * Gets the rules this transformer applies.
+     * @return The transformation rules.
+     */
+    public TransformRules getRules() {
+        return rules;
+    }
 
     /**
      * Applies all required transformations to a given Product object.
      * The order of operations is:
      * 1. Uppercase name.
-     * 2. Apply a 10% discount to "Electronics" products.
-     * 3. Recategorize "Electronics" products to "Premium Electronics" if they exceed a certain price.
+     * 2. Apply the discount of the product's category, such as 10% for "Electronics".
+     * 3. Recategorize the product if its category has a promotion, such as
+     *    "Electronics" to "Premium Electronics", and its price exceeds the threshold.
      * 4. Set the PriceRange based on the final price.
      *
      * @param product The Product object to be transformed.
@@ -28,46 +64,170 @@ public class ProductTransformer {
      */
     public Product transform(Product product) {
         // (1) Convert name to uppercase.
-        product.setName(product.getName().toUpperCase());
-
-        // Store original category for recategorization check.
-        String originalCategory = product.getCategory();
-
-        // (2) Apply a 10% discount to "Electronics" category.
-        if ("Electronics".equalsIgnoreCase(originalCategory)) {
-            BigDecimal discount = product.getPrice().multiply(ELECTRONICS_DISCOUNT_RATE);
-            BigDecimal discountedPrice = product.getPrice().subtract(discount);
-            product.setPrice(discountedPrice.setScale(2, RoundingMode.HALF_UP));
-        } else {
-            // Round other prices as well to ensure consistent two decimal places.
-            product.setPrice(product.getPrice().setScale(2, RoundingMode.HALF_UP));
+        if (table.uppercaseNames()) {
+            product.setName(product.getName().toUpperCase());
         }
 
-        // (3) Recategorize if post-discount price is over $500.00 and original category was "Electronics".
-        if ("Electronics".equalsIgnoreCase(originalCategory) && product.getPrice().compareTo(ELECTRONICS_PREMIUM_THRESHOLD) > 0) {
-            product.setCategory("Premium Electronics");
+        // Look up the rules of the original category.
+        RuleTable.Action action = table.action(categories.encode(product.getCategory()));
+
+        // (2) Apply the category discount and round to two decimal places.
+        BigDecimal finalPrice = action.finalPrice(product.getPrice());
+        product.setPrice(finalPrice);
+
+        // (3) Recategorize if the post-discount price is over the category's promotion threshold.
+        if (action.promotes(finalPrice)) {
+            product.setCategory(categories.name(action.promoteCode));
         }
 
         // (4) Add new PriceRange field based on final price.
-        product.setPriceRange(determinePriceRange(product.getPrice()));
+        product.setPriceRange(table.priceRangeOf(finalPrice).getLabel());
 
         return product;
     }
 
     /**
-     * Determines the price range based on the product's final price.
-     * @param finalPrice The final price of the product after all discounts.
-     * @return The string representation of the price range.
+     * Applies all required transformations to every row of a columnar batch,
+     * in the same order and with the same results as {@link #transform(Product)}.
+     * The rules run as tight loops over the batch's primitive columns: names are
+     * uppercased in place in the name arena, the rules of each category are an
+     * array lookup on the category code, and prices use the fixed-point
+     * path. After this call every price in the batch is in cents.
+     *
+     * @param batch The batch to transform in place.
+     */
+    public void transformBatch(ProductBatch batch) {
+        // The batch may use its own dictionary, whose codes need their own table.
+        RuleTable batchTable = batch.categories() == categories ? table : rules.compile(batch.categories());
+
+        // (1) Convert names to uppercase.
+        if (batchTable.uppercaseNames()) {
+            uppercaseNames(batch);
+        }
+
+        int size = batch.size;
+        long[] prices = batch.prices;
+        byte[] scales = batch.priceScales;
+        int[] categoryCodes = batch.categoryCodes;
+        byte[] priceRanges = batch.priceRanges;
+        for (int row = 0; row < size; row++) {
+            RuleTable.Action action = batchTable.action(categoryCodes[row]);
+            boolean promoted;
+            PriceRange range;
+            if (scales[row] == ProductBatch.BIG_PRICE) {
+                // Rare prices that do not fit in a long stay on the BigDecimal path.
+                BigDecimal finalPrice = action.finalPrice(batch.bigPrices[row]);
+                batch.setPrice(row, finalPrice);
+                promoted = action.promotes(finalPrice);
+                range = batchTable.priceRangeOf(finalPrice);
+            } else {
+                // (2) Apply the category discount.
+                long cents = action.finalPriceCents(prices[row], scales[row]);
+                prices[row] = cents;
+                scales[row] = 2;
+                promoted = action.promotes(cents);
+                range = batchTable.priceRangeOf(cents);
+            }
+
+            // (3) Recategorize if the post-discount price is over the category's promotion threshold.
+            if (promoted) {
+                categoryCodes[row] = action.promoteCode;
+            }
+
+            // (4) Add new PriceRange field based on final price.
+            priceRanges[row] = (byte) range.ordinal();
+        }
+    }
+
+    /**
+     * Uppercases every name in the batch's name arena. Plain ASCII names are
+     * converted byte by byte in place; any other name goes through
+     * {@code String.toUpperCase()} so the result always matches {@link #transform(Product)}.
+     */
+    private static void uppercaseNames(ProductBatch batch) {
+        // Turkish and Azerbaijani map 'i' to a non-ASCII capital, so ASCII cannot be done byte by byte.
+        String language = Locale.getDefault().getLanguage();
+        boolean asciiSafe = !"tr".equals(language) && !"az".equals(language);
+        for (int row = 0; row < batch.size; row++) {
+            byte[] arena = batch.nameArena;
+            int start = batch.nameOffsets[row];
+            int end = start + batch.nameLengths[row];
+            if (asciiSafe && isAscii(arena, start, end)) {
+                for (int i = start; i < end; i++) {
+                    byte b = arena[i];
+                    if (b >= 'a' && b <= 'z') {
+                        arena[i] = (byte) (b - ('a' - 'A'));
+                    }
+                }
+            } else {
+                batch.setName(row, batch.getName(row).toUpperCase().getBytes(ProductBatch.NAME_CHARSET));
+            }
+        }
+    }
+
+    private static boolean isAscii(byte[] bytes, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (bytes[i] < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Applies the price rules of {@link #transform(Product)} to a fixed-point price
+     * without creating any objects. The price gets the discount of its category,
+     * if any, and is rounded to two decimal places with HALF_UP rounding.
+     *
+     * @param unscaledPrice The unscaled value of the original price.
+     * @param scale The number of digits after the decimal point in the original price.
+     * @param categoryCode The code of the original category in this transformer's dictionary.
+     * @return The final price in cents.
+     * @throws ArithmeticException if the price is not {@link PriceCents#isRepresentable representable}.
      */
-    private String determinePriceRange(BigDecimal finalPrice) {
-        if (finalPrice.compareTo(LOW_PRICE_THRESHOLD) <= 0) {
-            return "Low";
-        } else if (finalPrice.compareTo(MEDIUM_PRICE_THRESHOLD) <= 0) {
-            return "Medium";
-        } else if (finalPrice.compareTo(HIGH_PRICE_THRESHOLD) <= 0) {
-            return "High";
-        } else {
-            return "Premium";
+    public long transformPrice(long unscaledPrice, int scale, int categoryCode) {
+        if (!PriceCents.isRepresentable(unscaledPrice, scale)) {
+            throw new ArithmeticException("Price does not fit the fixed-point path");
         }
+        return table.action(categoryCode).finalPriceCents(unscaledPrice, scale);
+    }
+
+    /**
+     * Gets the category a product ends up in, which is its promotion, such as
+     * "Premium Electronics" for "Electronics", if its final price is over the
+     * promotion threshold, and its original category otherwise.
+     * @param categoryCode The code of the original category in this transformer's dictionary.
+     * @param finalPriceCents The final price in cents, after the discount.
+     * @return The code of the final category.
+     */
+    public int finalCategory(int categoryCode, long finalPriceCents) {
+        RuleTable.Action action = table.action(categoryCode);
+        return action.promotes(finalPriceCents) ? action.promoteCode : categoryCode;
+    }
+
+    /**
+     * Gets the dictionary that the category codes of this transformer refer to.
+     * @return The category dictionary.
+     */
+    public CategoryDictionary getCategories() {
+        return categories;
+    }
+
+    /**
+     * Determines the price range based on a final price held in cents.
+     * @param finalPriceCents The final price in cents, after all discounts.
+     * @return The string representation of the price range.
+     */
+    public String determinePriceRange(long finalPriceCents) {
+        return priceRangeOf(finalPriceCents).getLabel();
+    }
+
+    /**
+     * Determines the price range based on a final price held in cents.
+     * @param finalPriceCents The final price in cents, after all discounts.
+     * @return The price range.
+     */
+    public PriceRange priceRangeOf(long finalPriceCents) {
+        return table.priceRangeOf(finalPriceCents);
     }
 }
@@ -0,0 +1,175 @@
+package org.howard.edu.lsp.assignment3;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.math.BigDecimal;
+import java.util.Properties;
+import java.util.Random;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit 5 test class for the fixed-point price path and the columnar batch
+ * variant of {@link ProductTransformer}. Every case is checked against the BigDecimal path of
+ * {@link ProductTransformer#transform(Product)}, which is the reference.
+ */
+public class ProductTransformerTest {
+
+    private ProductTransformer transformer;
+
+    /**
+     * Creates a new {@link ProductTransformer} before each test.
+     */
+    @BeforeEach
+    void setUp() {
+        transformer = new ProductTransformer();
+    }
+
+    /**
+     * Runs one price through both paths and checks that the final price,
+     * category and price range all agree.
+     */
+    private void assertSameAsBigDecimal(long unscaled, int scale, String category) {
+        BigDecimal price = BigDecimal.valueOf(unscaled, scale);
+        Product expected = transformer.transform(new Product(1, "item", price, category));
+
+        CategoryDictionary categories = transformer.getCategories();
+        int code = categories.encode(category);
+        long cents = transformer.transformPrice(unscaled, scale, code);
+        String finalCategory = categories.name(transformer.finalCategory(code, cents));
+        String message = price.toPlainString() + " " + category;
+
+        assertEquals(expected.getPrice(), BigDecimal.valueOf(cents, 2), message);
+        assertEquals(expected.getCategory(), finalCategory, message);
+        assertEquals(expected.getPriceRange(), transformer.determinePriceRange(cents), message);
+    }
+
+    /**
+     * Tests HALF_UP rounding on exact ties, with and without the discount,
+     * including negative prices where ties round away from zero.
+     */
+    @Test
+    @DisplayName("Test HALF_UP rounding on ties")
+    void testHalfUpTies() {
+        assertSameAsBigDecimal(10005, 3, "Stationery");  // 10.005 -> 10.01
+        assertSameAsBigDecimal(10005, 3, "Electronics"); // 9.0045 -> 9.00
+        assertSameAsBigDecimal(-3335, 3, "Stationery");  // -3.335 -> -3.34
+        assertSameAsBigDecimal(-3335, 3, "Electronics");
+        assertSameAsBigDecimal(5, 1, "Electronics");     // 0.45 stays 0.45
+        assertSameAsBigDecimal(25, 4, "Electronics");    // 0.00225 -> 0.00
+        assertSameAsBigDecimal(1, 0, "Electronics");
+    }
+
+    /**
+     * Tests the premium recategorization and price range thresholds on both sides.
+     */
+    @Test
+    @DisplayName("Test premium and price range thresholds")
+    void testThresholds() {
+        long[] cents = {0, 999, 1000, 1001, 9999, 10000, 10001, 49999, 50000, 50001};
+        for (long value : cents) {
+            assertSameAsBigDecimal(value, 2, "Education");
+        }
+        assertSameAsBigDecimal(55556, 2, "Electronics");  // 500.004 -> 500.00, not premium
+        assertSameAsBigDecimal(55557, 2, "Electronics");  // 500.013 -> 500.01, premium
+        assertSameAsBigDecimal(55556, 2, "electronics");
+        assertSameAsBigDecimal(99999, 2, "Premium Electronics");
+    }
+
+    /**
+     * Tests the fixed-point path under rules that discount and promote other
+     * categories than Electronics, and leave Electronics alone.
+     */
+    @Test
+    @DisplayName("Test the fixed-point path follows the rules of every category")
+    void testOtherCategoryRules() {
+        Properties properties = new Properties();
+        properties.setProperty("category.Toys.discount", "0.25");
+        properties.setProperty("category.Toys.promoteAbove", "20.00");
+        properties.setProperty("category.Toys.promoteTo", "Premium Toys");
+        properties.setProperty("category.Books.discount", "0.05");
+        transformer = new ProductTransformer(new CategoryDictionary(), TransformRules.parse(properties));
+        long[] cents = {0, 999, 2666, 2667, 2668, 10001, 99999};
+        for (long value : cents) {
+            for (String category : new String[] {"Toys", "toys", "Books", "Electronics", "Education"}) {
+                assertSameAsBigDecimal(value, 2, category);
+            }
+        }
+        CategoryDictionary categories = transformer.getCategories();
+        int toys = categories.encode("Toys");
+        assertEquals(2001, transformer.transformPrice(2668, 2, toys));
+        assertEquals("Premium Toys", categories.name(transformer.finalCategory(toys, 2001)));
+        assertEquals(toys, transformer.finalCategory(toys, 2000));
+        assertEquals(CategoryDictionary.ELECTRONICS,
+                transformer.finalCategory(CategoryDictionary.ELECTRONICS, 99999));
+    }
+
+    /**
+     * Tests randomized prices, scales and categories against the BigDecimal path.
+     */
+    @Test
+    @DisplayName("Test randomized inputs match the BigDecimal path")
+    void testRandomizedInputs() {
+        Random random = new Random(20251017L);
+        String[] categories = {"Electronics", "electronics", "ELECTRONICS", "Stationery", "Education", ""};
+        for (int i = 0; i < 200_000; i++) {
+            int scale = random.nextInt(PriceCents.MAX_SCALE + 1);
+            long unscaled;
+            switch (random.nextInt(3)) {
+                case 0:
+                    unscaled = random.nextInt(200_000);
+                    break;
+                case 1:
+                    unscaled = random.nextLong() % PriceCents.MAX_UNSCALED;
+                    break;
+                default:
+                    // Values close to a rounding tie at the chosen scale.
+                    unscaled = random.nextInt(100_000) * 10L + 5;
+                    break;
+            }
+            assertSameAsBigDecimal(unscaled, scale, categories[random.nextInt(categories.length)]);
+        }
+    }
+
+    /**
+     * Tests that transforming a columnar batch gives the same rows as
+     * transforming each Product, including non-ASCII names and a price too
+     * large for the fixed-point path.
+     */
+    @Test
+    @DisplayName("Test transformBatch() matches transform()")
+    void testTransformBatch() {
+        Product[] products = {
+            new Product(1, "Laptop", new BigDecimal("999.99"), "Electronics"),
+            new Product(2, "Pencil", new BigDecimal("0.99"), "Stationery"),
+            new Product(3, "straße", new BigDecimal("10.005"), "electronics"),
+            new Product(4, "Book", new BigDecimal("123456789012345678901234.567"), "Education"),
+            new Product(5, "Headphones", new BigDecimal("1E+2"), "Electronics"),
+        };
+        ProductBatch batch = new ProductBatch(2);
+        for (Product product : products) {
+            batch.add(product);
+        }
+
+        transformer.transformBatch(batch);
+
+        assertEquals(products.length, batch.size());
+        for (int i = 0; i < products.length; i++) {
+            Product expected = transformer.transform(products[i]);
+            assertEquals(expected.toString(), batch.toProduct(i).toString());
+        }
+    }
+
+    /**
+     * Tests that prices outside the fixed-point range are rejected.
+     */
+    @Test
+    @DisplayName("Test prices outside the fixed-point range are rejected")
+    void testNotRepresentable() {
+        assertFalse(PriceCents.isRepresentable(1, -3));
+        assertFalse(PriceCents.isRepresentable(1, PriceCents.MAX_SCALE + 1));
+        assertFalse(PriceCents.isRepresentable(PriceCents.MAX_UNSCALED + 1, 2));
+        assertThrows(ArithmeticException.class, () -> transformer.transformPrice(Long.MAX_VALUE, 2, CategoryDictionary.ELECTRONICS));
+    }
+}
@@ -0,0 +1,58 @@
+package org.howard.edu.lsp.assignment3;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * The "Load" side of the ETL process.
+ * Implementations write transformed products to a CSV file with a header row,
+ * either all at once or one row at a time between {@link #open()} and
+ * {@link #close()}. Every implementation produces byte-identical files.
+ */
+public interface ProductWriter extends Closeable {
+
+    /**
+     * Writes a list of Product objects to a CSV file.
+     * The output file will include a header row and the transformed data.
+     * @param products The list of Product objects to write.
+     * @throws IOException if an I/O error occurs while writing to the file.
+     */
+    void writeProducts(List<Product> products) throws IOException;
+
+    /**
+     * Writes a columnar batch of products to a CSV file.
+     * The output file will include a header row and the transformed data.
+     * @param batch The transformed batch to write.
+     * @throws IOException if an I/O error occurs while writing to the file.
+     */
+    void writeProducts(ProductBatch batch) throws IOException;
+
+    /**
+     * Opens the output file and writes the header row.
+     * @throws IOException if an I/O error occurs while opening the file.
+     */
+    void open() throws IOException;
+
+    /**
+     * Writes a single Product as the next row of the open output file.
+     * @param product The Product object to write.
+     * @throws IOException if an I/O error occurs while writing to the file.
+     * @throws IllegalStateException if the writer has not been opened.
+     */
+    void writeProduct(Product product) throws IOException;
+
+    /**
+     * Writes every row of a columnar batch to the open output file.
+     * @param batch The transformed batch to write.
+     * @throws IOException if an I/O error occurs while writing to the file.
+     * @throws IllegalStateException if the writer has not been opened.
+     */
+    void writeBatch(ProductBatch batch) throws IOException;
+
+    /**
+     * Checks whether the output file is currently open for writing.
+     * @return true if {@link #open()} has been called and the writer is not yet closed.
+     */
+    boolean isOpen();
+}
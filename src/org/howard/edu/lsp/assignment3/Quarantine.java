@@ -0,0 +1,172 @@
+package org.howard.edu.lsp.assignment3;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+/**
+ * Collects the malformed rows of a run instead of printing each one.
+ * <p>
+ * Every rejected row is appended, with its input file, line number and the
+ * reason it was rejected, to an optional quarantine file with the columns
+ * {@link #HEADER}. The file is written through a buffered write-behind thread
+ * (see {@link CompressionCodec}), so recording a row only copies its bytes.
+ * The console gets the first {@link #CONSOLE_ROWS} rows in full, then at most
+ * one line per second with the number of rows rejected so far, and a total
+ * when the quarantine is closed.
+ * <p>
+ * If a maximum error rate is set, an input file whose rejected rows exceed
+ * that fraction of the rows read so far, once at least {@link #MIN_ROWS}
+ * rows have been read, stops with an {@link ErrorRateExceededException}.
+ * A quarantine may be shared by inputs processed on different threads.
+ */
+public class Quarantine implements Closeable {
+
+    /** The header row of the quarantine file. The row comes last, as it may contain commas. */
+    public static final String HEADER = "File,Line,Reason,Row";
+
+    /** The number of rejected rows printed to the console in full. */
+    public static final int CONSOLE_ROWS = 10;
+
+    /** The number of rows an input must have read before its error rate is checked. */
+    public static final int MIN_ROWS = 1000;
+
+    private static final long CONSOLE_INTERVAL_NANOS = 1_000_000_000L;
+
+    private final String filePath;
+    private final double maxErrorRate;
+    private final Writer writer;
+    private long rowsRejected = 0;
+    private long lastConsoleLine = System.nanoTime();
+    private boolean closed = false;
+
+    /**
+     * Constructs a Quarantine that only reports to the console and never stops a run.
+     */
+    public Quarantine() {
+        filePath = null;
+        maxErrorRate = 1.0;
+        writer = null;
+    }
+
+    /**
+     * Constructs a Quarantine, creating the quarantine file if one is given.
+     * A file named {@code *.gz} is compressed.
+     * @param filePath The path of the quarantine file, or null to keep no file.
+     * @param maxErrorRate The largest fraction of an input's rows that may be
+     *        rejected, between 0 and 1; 1 never stops a run.
+     * @throws IOException if the quarantine file cannot be created.
+     */
+    public Quarantine(String filePath, double maxErrorRate) throws IOException {
+        if (!(maxErrorRate >= 0 && maxErrorRate <= 1)) {
+            throw new IllegalArgumentException("maxErrorRate must be between 0 and 1");
+        }
+        this.filePath = filePath;
+        this.maxErrorRate = maxErrorRate;
+        if (filePath != null) {
+            writer = new BufferedWriter(new OutputStreamWriter(
+                    CompressionCodec.forPath(filePath).openWriteBehind(filePath), CsvFormat.CHARSET));
+            writer.write(HEADER);
+            writer.write(CsvFormat.LINE_SEPARATOR);
+        } else {
+            writer = null;
+        }
+    }
+
+    /**
+     * Creates the handler for the rejected rows of one input file. The handler
+     * checks the error rate of that file alone.
+     * @param inputFile The path of the input file, as written to the quarantine file.
+     * @return The handler to give the readers of the file.
+     */
+    public RejectedRowHandler forInput(String inputFile) {
+        return new InputHandler(inputFile);
+    }
+
+    /**
+     * Gets the number of rows rejected so far, across every input.
+     * @return The number of rejected rows.
+     */
+    public synchronized long getRowsRejected() {
+        return rowsRejected;
+    }
+
+    /**
+     * Writes the rest of the quarantine file and prints the total to the console
+     * if any row was rejected.
+     * @throws IOException if the quarantine file cannot be written.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (rowsRejected > 0) {
+            StringBuilder message = new StringBuilder("Skipped ").append(rowsRejected).append(" malformed rows");
+            if (filePath != null) {
+                message.append("; quarantined in ").append(filePath);
+            } else if (rowsRejected > CONSOLE_ROWS) {
+                message.append("; use --quarantine FILE to keep them");
+            }
+            System.err.println(message);
+        }
+        if (writer != null) {
+            writer.close();
+        }
+    }
+
+    private synchronized void record(String inputFile, long lineNumber, String row, String reason)
+            throws IOException {
+        if (closed) {
+            throw new IOException("Quarantine is closed");
+        }
+        rowsRejected++;
+        if (writer != null) {
+            writer.write(inputFile);
+            writer.write(',');
+            writer.write(Long.toString(lineNumber));
+            writer.write(',');
+            writer.write(reason);
+            writer.write(',');
+            writer.write(row);
+            writer.write(CsvFormat.LINE_SEPARATOR);
+        }
+        if (rowsRejected <= CONSOLE_ROWS) {
+            System.err.println("Skipping malformed row at " + inputFile + ":" + lineNumber
+                    + " (" + reason + "): " + row);
+        } else {
+            long now = System.nanoTime();
+            if (rowsRejected == CONSOLE_ROWS + 1 || now - lastConsoleLine >= CONSOLE_INTERVAL_NANOS) {
+                System.err.println("Skipped " + rowsRejected + " malformed rows so far...");
+                lastConsoleLine = now;
+            }
+        }
+    }
+
+    /**
+     * Records the rejected rows of one input file and checks its error rate.
+     */
+    private final class InputHandler implements RejectedRowHandler {
+        private final String inputFile;
+        private long rejected = 0;
+
+        InputHandler(String inputFile) {
+            this.inputFile = inputFile;
+        }
+
+        @Override
+        public void reject(long lineNumber, String row, String reason) throws IOException {
+            record(inputFile, lineNumber, row, reason);
+            rejected++;
+            // The header is line 1, so this row is the (lineNumber - 1)th row read.
+            long rowsRead = lineNumber - 1;
+            if (rowsRead >= MIN_ROWS && rejected > maxErrorRate * rowsRead) {
+                throw new ErrorRateExceededException(rejected + " of the first " + rowsRead + " rows of "
+                        + inputFile + " are malformed, more than the maximum error rate of " + maxErrorRate);
+            }
+        }
+    }
+}
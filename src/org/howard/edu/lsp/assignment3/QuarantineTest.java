@@ -0,0 +1,148 @@
+package org.howard.edu.lsp.assignment3;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * JUnit 5 test class for {@link Quarantine}.
+ */
+public class QuarantineTest {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Tests that every mode quarantines the same rows, with their line numbers and reasons.
+     */
+    @Test
+    @DisplayName("Test the quarantine file is the same in every mode")
+    void testQuarantineFile() throws IOException {
+        Path input = directory.resolve("products.csv");
+        Files.write(input, List.of(
+                "ProductID,Name,Price,Category",
+                "1,Pen,1.50,Office",
+                "2,Short",
+                "",
+                "x3,Bad Id,2.00,Toys",
+                "4,Bad Price,abc,Toys",
+                "5,Book,12.00,Books"));
+        String expected = String.join(CsvFormat.LINE_SEPARATOR,
+                Quarantine.HEADER,
+                input + ",3," + RejectedRowHandler.MISSING_COLUMNS + ",2,Short",
+                input + ",5," + RejectedRowHandler.INVALID_PRODUCT_ID + ",x3,Bad Id,2.00,Toys",
+                input + ",6," + RejectedRowHandler.INVALID_PRICE + ",4,Bad Price,abc,Toys") + CsvFormat.LINE_SEPARATOR;
+
+        String[][] modes = {{}, {"--stream"}, {"--mmap"}, {"--columnar"}, {"--pipelined"},
+                {"--parallel", "--threads", "2"}, {"--checkpoint-every", "2"}};
+        for (String[] mode : modes) {
+            Path quarantineFile = directory.resolve("quarantine.csv");
+            String[] args = new String[mode.length + 2];
+            System.arraycopy(mode, 0, args, 0, mode.length);
+            args[mode.length] = "--quarantine";
+            args[mode.length + 1] = quarantineFile.toString();
+            RunSummary summary = ETLPipeline.run(input.toString(), directory.resolve("out.csv").toString(),
+                    PipelineOptions.parse(args));
+            assertEquals(4, summary.getRowsSkipped(), String.join(" ", mode));
+            assertEquals(expected, Files.readString(quarantineFile, CsvFormat.CHARSET), String.join(" ", mode));
+        }
+    }
+
+    /**
+     * Tests that a run stops once the error rate is exceeded, and not before.
+     */
+    @Test
+    @DisplayName("Test the maximum error rate")
+    void testMaxErrorRate() throws IOException {
+        Path input = directory.resolve("products.csv");
+        ProductFileTestSupport.generate(input, 20_000, 3, 0.05, 0);
+        String output = directory.resolve("out.csv").toString();
+
+        PrintStream err = System.err;
+        try {
+            System.setErr(new PrintStream(new ByteArrayOutputStream()));
+            for (String mode : new String[] {"--stream", "--parallel"}) {
+                ErrorRateExceededException e = assertThrows(ErrorRateExceededException.class,
+                        () -> ETLPipeline.run(input.toString(), output,
+                                PipelineOptions.parse(new String[] {mode, "--max-error-rate", "0.01"})));
+                assertTrue(e.getMessage().contains(input.toString()), e.getMessage());
+            }
+            RunSummary summary = ETLPipeline.run(input.toString(), output,
+                    PipelineOptions.parse(new String[] {"--stream", "--max-error-rate", "0.2"}));
+            assertEquals(20_000, summary.getRowsRead());
+        } finally {
+            System.setErr(err);
+        }
+        assertThrows(IllegalArgumentException.class,
+                () -> PipelineOptions.parse(new String[] {"--max-error-rate", "5"}));
+    }
+
+    /**
+     * Tests that a resumed run cannot be given a quarantine file, as the
+     * rows rejected before its checkpoint would be lost, and that the file
+     * of the run being resumed is left as it is.
+     */
+    @Test
+    @DisplayName("Test quarantine is refused when resuming")
+    void testResumeRefused() throws IOException {
+        Path input = directory.resolve("products.csv");
+        ProductFileTestSupport.generate(input, 2_000, 4, 0.05, 0);
+        Path quarantineFile = directory.resolve("quarantine.csv");
+        String output = directory.resolve("out.csv").toString();
+
+        PrintStream err = System.err;
+        try {
+            System.setErr(new PrintStream(new ByteArrayOutputStream()));
+            ETLPipeline.run(input.toString(), output, PipelineOptions.parse(
+                    new String[] {"--checkpoint-every", "100", "--quarantine", quarantineFile.toString()}));
+        } finally {
+            System.setErr(err);
+        }
+        byte[] quarantined = Files.readAllBytes(quarantineFile);
+        assertTrue(Files.readAllLines(quarantineFile, CsvFormat.CHARSET).size() > 1);
+
+        for (String[] args : new String[][] {
+                {"--resume", "--quarantine", quarantineFile.toString()},
+                {"--quarantine", quarantineFile.toString(), "--checkpoint-every", "100", "--resume"}}) {
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                    () -> PipelineOptions.parse(args));
+            assertTrue(e.getMessage().contains("--resume"), e.getMessage());
+        }
+        assertArrayEquals(quarantined, Files.readAllBytes(quarantineFile));
+    }
+
+    /**
+     * Tests that the console only gets the first rows and a summary, however many rows are rejected.
+     */
+    @Test
+    @DisplayName("Test console output is bounded")
+    void testConsoleOutput() throws IOException {
+        ByteArrayOutputStream captured = new ByteArrayOutputStream();
+        PrintStream err = System.err;
+        Quarantine quarantine = new Quarantine();
+        try {
+            System.setErr(new PrintStream(captured, true));
+            RejectedRowHandler handler = quarantine.forInput("products.csv");
+            for (int line = 2; line < 10_002; line++) {
+                handler.reject(line, "bad", RejectedRowHandler.INVALID_PRICE);
+            }
+            quarantine.close();
+        } finally {
+            System.setErr(err);
+        }
+        assertEquals(10_000, quarantine.getRowsRejected());
+        String[] lines = captured.toString().split("\\R");
+        // The first rows, the first "so far" line, and the total; the loop takes well under a second.
+        assertTrue(lines.length <= Quarantine.CONSOLE_ROWS + 3, captured.toString());
+        assertEquals("Skipping malformed row at products.csv:2 (invalid Price): bad", lines[0]);
+        assertTrue(lines[lines.length - 1].startsWith("Skipped 10000 malformed rows"), lines[lines.length - 1]);
+    }
+}
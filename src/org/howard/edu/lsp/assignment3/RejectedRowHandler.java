@@ -0,0 +1,35 @@
+package org.howard.edu.lsp.assignment3;
+
+import java.io.IOException;
+
+/**
+ * Receives the rows that a reader rejects as malformed, as they are found.
+ * Empty rows are skipped without being rejected.
+ */
+@FunctionalInterface
+public interface RejectedRowHandler {
+
+    /** The reason given for a row with fewer than four columns. */
+    String MISSING_COLUMNS = "missing columns";
+
+    /** The reason given for a row whose ProductID is not an integer. */
+    String INVALID_PRODUCT_ID = "invalid ProductID";
+
+    /** The reason given for a row whose Price is not a decimal number. */
+    String INVALID_PRICE = "invalid Price";
+
+    /** Prints every rejected row to standard error; the default of a reader used on its own. */
+    RejectedRowHandler PRINT = (lineNumber, row, reason) -> System.err.println("Skipping malformed row: " + row);
+
+    /** Ignores every rejected row, for a pass over a file whose rows are reported by another pass. */
+    RejectedRowHandler IGNORE = (lineNumber, row, reason) -> { };
+
+    /**
+     * Handles one rejected row.
+     * @param lineNumber The line number of the row in the input file, where the header is line 1.
+     * @param row The row, without its line terminator.
+     * @param reason Why the row was rejected, such as {@link #INVALID_PRICE}.
+     * @throws IOException if the row cannot be recorded, or too many rows have been rejected.
+     */
+    void reject(long lineNumber, String row, String reason) throws IOException;
+}
@@ -0,0 +1,199 @@
+package org.howard.edu.lsp.assignment3;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Arrays;
+
+/**
+ * {@link TransformRules} compiled into a decision table for the codes of one
+ * {@link CategoryDictionary}. Each category code maps to a precomputed
+ * {@link Action} holding its discount factor, both as a BigDecimal and as a
+ * fixed-point value, and the code and threshold of its promotion, so the
+ * category rules are matched once per distinct category instead of once per
+ * row. Codes are compiled the first time they are looked up, because the
+ * dictionary grows as the input is read.
+ * <p>
+ * Like the dictionary it is built for, a table is not thread-safe.
+ */
+final class RuleTable {
+
+    /** The action of a category without rules: no discount and no promotion. */
+    static final Action NO_ACTION = new Action(null, -1, null);
+
+    private final TransformRules rules;
+    private final CategoryDictionary categories;
+    private Action[] actions = new Action[8];
+
+    // Copied out of the rules so the per-row checks read final fields only.
+    private final boolean uppercaseNames;
+    private final BigDecimal low;
+    private final BigDecimal medium;
+    private final BigDecimal high;
+    private final long lowCents;
+    private final long mediumCents;
+    private final long highCents;
+
+    RuleTable(TransformRules rules, CategoryDictionary categories) {
+        this.rules = rules;
+        this.categories = categories;
+        uppercaseNames = rules.isUppercaseNames();
+        low = rules.getLowThreshold();
+        medium = rules.getMediumThreshold();
+        high = rules.getHighThreshold();
+        lowCents = toCents(low);
+        mediumCents = toCents(medium);
+        highCents = toCents(high);
+    }
+
+    /**
+     * Gets the dictionary whose codes the table is indexed by.
+     * @return The category dictionary.
+     */
+    CategoryDictionary categories() {
+        return categories;
+    }
+
+    /**
+     * Checks whether names are uppercased.
+     * @return true if every name is converted to uppercase.
+     */
+    boolean uppercaseNames() {
+        return uppercaseNames;
+    }
+
+    /**
+     * Gets the action of a category.
+     * @param code The category code in this table's dictionary.
+     * @return The precomputed action of the category.
+     */
+    Action action(int code) {
+        if (code < actions.length) {
+            Action action = actions[code];
+            if (action != null) {
+                return action;
+            }
+        } else {
+            actions = Arrays.copyOf(actions, Math.max(actions.length * 2, code + 1));
+        }
+        Action action = compile(categories.name(code));
+        actions[code] = action;
+        return action;
+    }
+
+    /**
+     * Determines the price range of a final price.
+     * @param finalPrice The final price of the product after all discounts.
+     * @return The price range.
+     */
+    PriceRange priceRangeOf(BigDecimal finalPrice) {
+        if (finalPrice.compareTo(low) <= 0) {
+            return PriceRange.LOW;
+        } else if (finalPrice.compareTo(medium) <= 0) {
+            return PriceRange.MEDIUM;
+        } else if (finalPrice.compareTo(high) <= 0) {
+            return PriceRange.HIGH;
+        } else {
+            return PriceRange.PREMIUM;
+        }
+    }
+
+    /**
+     * Determines the price range of a final price held in cents.
+     * @param finalPriceCents The final price in cents, after all discounts.
+     * @return The price range.
+     */
+    PriceRange priceRangeOf(long finalPriceCents) {
+        if (finalPriceCents <= lowCents) {
+            return PriceRange.LOW;
+        } else if (finalPriceCents <= mediumCents) {
+            return PriceRange.MEDIUM;
+        } else if (finalPriceCents <= highCents) {
+            return PriceRange.HIGH;
+        } else {
+            return PriceRange.PREMIUM;
+        }
+    }
+
+    private Action compile(String category) {
+        TransformRules.CategoryRule rule = rules.findRule(category);
+        if (rule == null) {
+            return NO_ACTION;
+        }
+        // price - price * rate is exactly price * (1 - rate).
+        BigDecimal factor = rule.discount == null ? null : BigDecimal.ONE.subtract(rule.discount).stripTrailingZeros();
+        int promoteCode = rule.promoteTo == null ? -1 : categories.encode(rule.promoteTo);
+        return new Action(factor, promoteCode, rule.promoteAbove);
+    }
+
+    private static long toCents(BigDecimal price) {
+        return price.movePointRight(2).longValueExact();
+    }
+
+    /**
+     * The precomputed rules of one category.
+     */
+    static final class Action {
+        /** The factor the price is multiplied by, or null if the category has no discount. */
+        final BigDecimal factor;
+        final long factorUnscaled;
+        final int factorScale;
+        /** The category code a product is promoted to, or -1 if the category has no promotion. */
+        final int promoteCode;
+        final BigDecimal promoteAbove;
+        final long promoteAboveCents;
+
+        Action(BigDecimal factor, int promoteCode, BigDecimal promoteAbove) {
+            this.factor = factor;
+            this.factorUnscaled = factor == null ? 1 : factor.unscaledValue().longValueExact();
+            this.factorScale = factor == null ? 0 : factor.scale();
+            this.promoteCode = promoteCode;
+            this.promoteAbove = promoteAbove;
+            this.promoteAboveCents = promoteAbove == null ? Long.MAX_VALUE : toCents(promoteAbove);
+        }
+
+        /**
+         * Applies the discount of the category to a price and rounds it to two decimal places.
+         * @param price The original price.
+         * @return The final price.
+         */
+        BigDecimal finalPrice(BigDecimal price) {
+            BigDecimal discounted = factor == null ? price : price.multiply(factor);
+            return discounted.setScale(2, RoundingMode.HALF_UP);
+        }
+
+        /**
+         * Applies the discount of the category to a fixed-point price.
+         * @param unscaledPrice The unscaled value of the original price.
+         * @param scale The number of digits after the decimal point in the original price.
+         * @return The final price in cents.
+         */
+        long finalPriceCents(long unscaledPrice, int scale) {
+            if (factor == null) {
+                return PriceCents.round(unscaledPrice, scale);
+            }
+            if (scale + factorScale > PriceCents.MAX_SCALE + 1) {
+                // Too many digits after the decimal point for the fixed-point product.
+                return finalPrice(BigDecimal.valueOf(unscaledPrice, scale)).unscaledValue().longValueExact();
+            }
+            return PriceCents.multiply(unscaledPrice, scale, factorUnscaled, factorScale);
+        }
+
+        /**
+         * Checks whether a product of this category is promoted.
+         * @param finalPrice The final price of the product.
+         * @return true if the category has a promotion and the price is above its threshold.
+         */
+        boolean promotes(BigDecimal finalPrice) {
+            return promoteCode >= 0 && finalPrice.compareTo(promoteAbove) > 0;
+        }
+
+        /**
+         * Checks whether a product of this category is promoted.
+         * @param finalPriceCents The final price of the product in cents.
+         * @return true if the category has a promotion and the price is above its threshold.
+         */
+        boolean promotes(long finalPriceCents) {
+            return finalPriceCents > promoteAboveCents;
+        }
+    }
+}
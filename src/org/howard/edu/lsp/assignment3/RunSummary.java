@@ -0,0 +1,112 @@
+package org.howard.edu.lsp.assignment3;
+
+/**
+ * Holds the row counters of a single ETL run and prints the run summary.
+ */
+public class RunSummary {
+
+    private final int rowsRead;
+    private final int rowsTransformed;
+    private final int rowsSkipped;
+    // Only the incremental mode reuses rows; -1 leaves the line out of the summary.
+    private final int rowsReused;
+    // Only runs with --dedup remove duplicates; -1 leaves the line out of the summary.
+    private final int duplicatesRemoved;
+
+    /**
+     * Constructs a RunSummary with the given counters.
+     * @param rowsRead The number of data rows read (excluding header).
+     * @param rowsTransformed The number of rows transformed and written.
+     * @param rowsSkipped The number of empty or malformed rows skipped.
+     */
+    public RunSummary(int rowsRead, int rowsTransformed, int rowsSkipped) {
+        this(rowsRead, rowsTransformed, rowsSkipped, -1);
+    }
+
+    /**
+     * Constructs a RunSummary for an incremental run.
+     * @param rowsRead The number of data rows read (excluding header).
+     * @param rowsTransformed The number of rows written, whether transformed or reused.
+     * @param rowsSkipped The number of empty or malformed rows skipped.
+     * @param rowsReused The number of rows copied unchanged from the previous output.
+     */
+    public RunSummary(int rowsRead, int rowsTransformed, int rowsSkipped, int rowsReused) {
+        this(rowsRead, rowsTransformed, rowsSkipped, rowsReused, -1);
+    }
+
+    /**
+     * Constructs a RunSummary for a run that removed duplicate ProductIDs.
+     * @param rowsRead The number of data rows read (excluding header).
+     * @param rowsTransformed The number of rows transformed and written.
+     * @param rowsSkipped The number of empty or malformed rows skipped.
+     * @param rowsReused The number of rows copied unchanged from the previous output, or -1.
+     * @param duplicatesRemoved The number of rows dropped because a later row had the same ProductID.
+     */
+    public RunSummary(int rowsRead, int rowsTransformed, int rowsSkipped, int rowsReused, int duplicatesRemoved) {
+        this.duplicatesRemoved = duplicatesRemoved;
+        this.rowsRead = rowsRead;
+        this.rowsTransformed = rowsTransformed;
+        this.rowsSkipped = rowsSkipped;
+        this.rowsReused = rowsReused;
+    }
+
+    /**
+     * Gets the number of data rows read.
+     * @return The total number of rows (excluding header) read.
+     */
+    public int getRowsRead() {
+        return rowsRead;
+    }
+
+    /**
+     * Gets the number of rows transformed.
+     * @return The total number of rows transformed and written.
+     */
+    public int getRowsTransformed() {
+        return rowsTransformed;
+    }
+
+    /**
+     * Gets the number of rows skipped.
+     * @return The total number of empty or malformed rows skipped.
+     */
+    public int getRowsSkipped() {
+        return rowsSkipped;
+    }
+
+    /**
+     * Gets the number of rows reused from the previous output of an incremental run.
+     * @return The number of rows reused, or -1 if the run was not incremental.
+     */
+    public int getRowsReused() {
+        return rowsReused;
+    }
+
+    /**
+     * Gets the number of rows dropped because a later row had the same ProductID.
+     * @return The number of duplicates removed, or -1 if the run did not remove duplicates.
+     */
+    public int getDuplicatesRemoved() {
+        return duplicatesRemoved;
+    }
+
+    /**
+     * Prints the run summary to standard output.
+     * @param outputFile The path of the file that was written.
+     */
+    public void print(String outputFile) {
+        System.out.println("ETL Process Complete.");
+        System.out.println("----------------------");
+        System.out.println("Summary:");
+        System.out.println("Rows Read: " + rowsRead);
+        System.out.println("Rows Transformed: " + rowsTransformed);
+        System.out.println("Rows Skipped: " + rowsSkipped);
+        if (rowsReused >= 0) {
+            System.out.println("Rows Reused: " + rowsReused);
+        }
+        if (duplicatesRemoved >= 0) {
+            System.out.println("Duplicates Removed: " + duplicatesRemoved);
+        }
+        System.out.println("Output File: " + outputFile);
+    }
+}
@@ -0,0 +1,164 @@
+package org.howard.edu.lsp.assignment3;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and a batch latency histogram for one stage of the pipeline.
+ * Every counter is a LongAdder, so worker threads can record into the same
+ * stage without contention. Row-at-a-time callers should record through a
+ * {@link Recorder}, which groups rows into batches so that the clock is read
+ * and the shared counters are touched only once per batch.
+ */
+public class StageMetrics implements StageMetricsMXBean {
+
+    /** The number of rows a {@link Recorder} groups into one timed batch. */
+    public static final int BATCH_ROWS = 1024;
+
+    private final String stage;
+    private final LongAdder rows = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder nanos = new LongAdder();
+    private final LatencyHistogram latencies = new LatencyHistogram();
+
+    /**
+     * Constructs an empty StageMetrics.
+     * @param stage The name of the stage.
+     */
+    public StageMetrics(String stage) {
+        this.stage = stage;
+    }
+
+    /**
+     * Records one batch of rows and the time the stage spent on it.
+     * @param batchRows The number of rows in the batch.
+     * @param batchNanos The time spent on the batch in nanoseconds.
+     */
+    public void recordBatch(long batchRows, long batchNanos) {
+        rows.add(batchRows);
+        nanos.add(batchNanos);
+        latencies.record(batchNanos);
+    }
+
+    /**
+     * Adds to the number of bytes the stage read or wrote.
+     * @param count The number of bytes.
+     */
+    public void addBytes(long count) {
+        bytes.add(count);
+    }
+
+    /**
+     * Creates a recorder for one thread to time rows as they go through the stage.
+     * The clock starts when the recorder is created.
+     * @return A new recorder; it is not thread-safe.
+     */
+    public Recorder recorder() {
+        return new Recorder();
+    }
+
+    /**
+     * Gets the histogram of batch latencies.
+     * @return The histogram, in nanoseconds.
+     */
+    public LatencyHistogram getLatencies() {
+        return latencies;
+    }
+
+    @Override
+    public String getStage() {
+        return stage;
+    }
+
+    @Override
+    public long getRows() {
+        return rows.sum();
+    }
+
+    @Override
+    public long getBytes() {
+        return bytes.sum();
+    }
+
+    @Override
+    public long getTimeMillis() {
+        return nanos.sum() / 1_000_000;
+    }
+
+    @Override
+    public long getBatches() {
+        return latencies.getCount();
+    }
+
+    @Override
+    public double getRowsPerSecond() {
+        return perSecond(rows.sum());
+    }
+
+    @Override
+    public double getBytesPerSecond() {
+        return perSecond(bytes.sum());
+    }
+
+    @Override
+    public double getLatencyP50Micros() {
+        return latencies.getPercentile(0.50) / 1_000.0;
+    }
+
+    @Override
+    public double getLatencyP99Micros() {
+        return latencies.getPercentile(0.99) / 1_000.0;
+    }
+
+    @Override
+    public double getLatencyP999Micros() {
+        return latencies.getPercentile(0.999) / 1_000.0;
+    }
+
+    private double perSecond(long count) {
+        long total = nanos.sum();
+        return total == 0 ? 0 : count * 1e9 / total;
+    }
+
+    /**
+     * Times rows as they go through the stage on a single thread, reading the
+     * clock only once per batch of {@link #BATCH_ROWS} rows. Each batch is
+     * timed from the end of the previous one, or from when the recorder was
+     * created.
+     */
+    public final class Recorder {
+        private int batchRows = 0;
+        private long batchStart = System.nanoTime();
+
+        private Recorder() {
+        }
+
+        /**
+         * Restarts the clock of the current batch, so that time spent outside
+         * the stage is not counted.
+         */
+        public void restart() {
+            batchStart = System.nanoTime();
+        }
+
+        /**
+         * Counts one row that has gone through the stage.
+         */
+        public void tick() {
+            if (++batchRows == BATCH_ROWS) {
+                flush();
+            }
+        }
+
+        /**
+         * Records the rows counted since the last full batch as a final, smaller batch.
+         */
+        public void flush() {
+            long now = System.nanoTime();
+            if (batchRows > 0) {
+                recordBatch(batchRows, now - batchStart);
+                batchRows = 0;
+            }
+            batchStart = now;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package org.howard.edu.lsp.assignment3;
+
+/**
+ * The JMX view of the metrics of one pipeline stage.
+ * Registered by {@link PipelineMetrics#register()} under
+ * {@code org.howard.edu.lsp.assignment3:type=ETLPipeline,stage=<name>}.
+ */
+public interface StageMetricsMXBean {
+
+    /**
+     * Gets the name of the stage.
+     * @return "extract", "transform" or "load".
+     */
+    String getStage();
+
+    /**
+     * Gets the number of rows that went through the stage.
+     * @return The number of rows.
+     */
+    long getRows();
+
+    /**
+     * Gets the number of bytes the stage read or wrote.
+     * @return The number of bytes; 0 for the transform stage.
+     */
+    long getBytes();
+
+    /**
+     * Gets the time spent in the stage, summed across threads.
+     * @return The time in milliseconds.
+     */
+    long getTimeMillis();
+
+    /**
+     * Gets the number of batches timed.
+     * @return The number of batches.
+     */
+    long getBatches();
+
+    /**
+     * Gets the throughput of the stage.
+     * @return The rows per second of time spent in the stage.
+     */
+    double getRowsPerSecond();
+
+    /**
+     * Gets the data rate of the stage.
+     * @return The bytes per second of time spent in the stage.
+     */
+    double getBytesPerSecond();
+
+    /**
+     * Gets the median batch latency.
+     * @return The 50th percentile latency in microseconds.
+     */
+    double getLatencyP50Micros();
+
+    /**
+     * Gets the 99th percentile batch latency.
+     * @return The 99th percentile latency in microseconds.
+     */
+    double getLatencyP99Micros();
+
+    /**
+     * Gets the 99.9th percentile batch latency.
+     * @return The 99.9th percentile latency in microseconds.
+     */
+    double getLatencyP999Micros();
+}
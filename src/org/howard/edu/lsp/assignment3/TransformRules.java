@@ -0,0 +1,307 @@
+package org.howard.edu.lsp.assignment3;
+
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.TreeSet;
+
+/**
+ * The business rules applied by {@link ProductTransformer}, loaded from a
+ * properties file so that they can change without a code release.
+ * <p>
+ * The file has the following keys; the values shown are the built-in
+ * {@link #defaults() defaults}:
+ * <pre>
+ * name.uppercase=true
+ * category.Electronics.discount=0.10
+ * category.Electronics.promoteAbove=500.00
+ * category.Electronics.promoteTo=Premium Electronics
+ * priceRange.low=10.00
+ * priceRange.medium=100.00
+ * priceRange.high=500.00
+ * </pre>
+ * Category names are matched ignoring case, and spaces in them are escaped
+ * in keys as {@code \ }. A discount is a rate between 0 and 1 with at most
+ * three decimal places. A category whose discounted price is above its
+ * {@code promoteAbove} price is changed to its {@code promoteTo} category.
+ * A final price up to {@code priceRange.low} is "Low", up to
+ * {@code priceRange.medium} "Medium", up to {@code priceRange.high} "High",
+ * and anything above it "Premium". Prices in the rules have at most two
+ * decimal places.
+ * <p>
+ * The rules are compiled once per {@link CategoryDictionary} into a
+ * {@link RuleTable}, which holds the precomputed actions of each category
+ * code, so applying the rules to a row costs an array lookup and a few
+ * comparisons.
+ */
+public class TransformRules {
+
+    private static final String CATEGORY_PREFIX = "category.";
+    private static final int MAX_DISCOUNT_DECIMALS = 3;
+
+    /** The largest price whose cents fit in a long, as the compiled rules compare them. */
+    private static final BigDecimal MAX_PRICE = BigDecimal.valueOf(Long.MAX_VALUE, 2);
+
+    private boolean uppercaseNames = true;
+    private final List<CategoryRule> categoryRules = new ArrayList<>();
+    private BigDecimal lowThreshold = new BigDecimal("10.00");
+    private BigDecimal mediumThreshold = new BigDecimal("100.00");
+    private BigDecimal highThreshold = new BigDecimal("500.00");
+
+    private TransformRules() {
+    }
+
+    /**
+     * Gets the rules that ProductTransformer has always applied.
+     * @return The default rules.
+     */
+    public static TransformRules defaults() {
+        TransformRules rules = new TransformRules();
+        CategoryRule electronics = rules.categoryRule("Electronics");
+        electronics.discount = new BigDecimal("0.10");
+        electronics.promoteAbove = new BigDecimal("500.00");
+        electronics.promoteTo = "Premium Electronics";
+        return rules;
+    }
+
+    /**
+     * Reads rules from a properties file encoded in UTF-8.
+     * Keys that are not in the file keep their {@link #defaults() default},
+     * except that the file replaces every default category rule.
+     * @param filePath The path of the rules file.
+     * @return The rules.
+     * @throws FileNotFoundException if the rules file does not exist.
+     * @throws IOException if the file cannot be read or holds an invalid rule.
+     */
+    public static TransformRules load(String filePath) throws FileNotFoundException, IOException {
+        Properties properties = new Properties();
+        try (Reader reader = new InputStreamReader(new FileInputStream(filePath), StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        try {
+            return parse(properties);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid rules file '" + filePath + "': " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Builds rules from properties in the format of the rules file.
+     * @param properties The rule properties.
+     * @return The rules.
+     * @throws IllegalArgumentException if a key is unknown or a value is invalid.
+     */
+    public static TransformRules parse(Properties properties) {
+        TransformRules rules = new TransformRules();
+        // Sorted so that the rules, and their fingerprint, do not depend on hash order.
+        for (String key : new TreeSet<>(properties.stringPropertyNames())) {
+            String value = properties.getProperty(key).trim();
+            switch (key) {
+                case "name.uppercase":
+                    rules.uppercaseNames = parseBoolean(key, value);
+                    break;
+                case "priceRange.low":
+                    rules.lowThreshold = parsePrice(key, value);
+                    break;
+                case "priceRange.medium":
+                    rules.mediumThreshold = parsePrice(key, value);
+                    break;
+                case "priceRange.high":
+                    rules.highThreshold = parsePrice(key, value);
+                    break;
+                default:
+                    rules.parseCategoryRule(key, value);
+            }
+        }
+        if (rules.lowThreshold.compareTo(rules.mediumThreshold) > 0
+                || rules.mediumThreshold.compareTo(rules.highThreshold) > 0) {
+            throw new IllegalArgumentException("priceRange.low, priceRange.medium and priceRange.high must be ascending");
+        }
+        for (CategoryRule rule : rules.categoryRules) {
+            if ((rule.promoteTo == null) != (rule.promoteAbove == null)) {
+                throw new IllegalArgumentException("category." + rule.category
+                        + " needs both promoteAbove and promoteTo, or neither");
+            }
+        }
+        return rules;
+    }
+
+    /**
+     * Checks whether names are uppercased.
+     * @return true if every name is converted to uppercase.
+     */
+    public boolean isUppercaseNames() {
+        return uppercaseNames;
+    }
+
+    /**
+     * Gets a 64-bit fingerprint of the rules. Two rule sets with the same
+     * fingerprint transform every row the same way, so output written under
+     * one can be reused under the other.
+     * @return The fingerprint.
+     */
+    public long fingerprint() {
+        return IncrementalETLEngine.hashRow(toString());
+    }
+
+    /**
+     * Gets the rules in the format of the rules file, one rule per line.
+     * @return The rules.
+     */
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        text.append("name.uppercase=").append(uppercaseNames).append('\n');
+        for (CategoryRule rule : categoryRules) {
+            String key = CATEGORY_PREFIX + rule.category.replace(" ", "\\ ");
+            if (rule.discount != null) {
+                text.append(key).append(".discount=").append(rule.discount.toPlainString()).append('\n');
+            }
+            if (rule.promoteAbove != null) {
+                text.append(key).append(".promoteAbove=").append(rule.promoteAbove.toPlainString()).append('\n');
+                text.append(key).append(".promoteTo=").append(rule.promoteTo).append('\n');
+            }
+        }
+        text.append("priceRange.low=").append(lowThreshold.toPlainString()).append('\n');
+        text.append("priceRange.medium=").append(mediumThreshold.toPlainString()).append('\n');
+        text.append("priceRange.high=").append(highThreshold.toPlainString()).append('\n');
+        return text.toString();
+    }
+
+    /**
+     * Compiles the rules into a decision table for the codes of a category dictionary.
+     * @param categories The dictionary whose codes the table is indexed by.
+     * @return The decision table.
+     */
+    RuleTable compile(CategoryDictionary categories) {
+        return new RuleTable(this, categories);
+    }
+
+    /**
+     * Finds the rule of a category, ignoring case.
+     * @return The rule, or null if the category has no rule.
+     */
+    CategoryRule findRule(String category) {
+        for (CategoryRule rule : categoryRules) {
+            if (rule.category.equalsIgnoreCase(category)) {
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Gets the highest final price in the "Low" range.
+     * @return The threshold, with at most two decimal places.
+     */
+    BigDecimal getLowThreshold() {
+        return lowThreshold;
+    }
+
+    /**
+     * Gets the highest final price in the "Medium" range.
+     * @return The threshold, with at most two decimal places.
+     */
+    BigDecimal getMediumThreshold() {
+        return mediumThreshold;
+    }
+
+    /**
+     * Gets the highest final price in the "High" range.
+     * @return The threshold, with at most two decimal places.
+     */
+    BigDecimal getHighThreshold() {
+        return highThreshold;
+    }
+
+    private CategoryRule categoryRule(String category) {
+        CategoryRule rule = findRule(category);
+        if (rule == null) {
+            rule = new CategoryRule(category);
+            categoryRules.add(rule);
+        }
+        return rule;
+    }
+
+    private void parseCategoryRule(String key, String value) {
+        int dot = key.lastIndexOf('.');
+        if (!key.startsWith(CATEGORY_PREFIX) || dot <= CATEGORY_PREFIX.length()) {
+            throw new IllegalArgumentException("Unknown rule: " + key);
+        }
+        CategoryRule rule = categoryRule(key.substring(CATEGORY_PREFIX.length(), dot));
+        switch (key.substring(dot + 1)) {
+            case "discount":
+                BigDecimal discount = parseDecimal(key, value);
+                if (discount.signum() < 0 || discount.compareTo(BigDecimal.ONE) > 0
+                        || discount.stripTrailingZeros().scale() > MAX_DISCOUNT_DECIMALS) {
+                    throw new IllegalArgumentException(key + " must be between 0 and 1 with at most "
+                            + MAX_DISCOUNT_DECIMALS + " decimal places: " + value);
+                }
+                rule.discount = discount;
+                break;
+            case "promoteAbove":
+                rule.promoteAbove = parsePrice(key, value);
+                break;
+            case "promoteTo":
+                if (value.isEmpty()) {
+                    throw new IllegalArgumentException(key + " must not be empty");
+                }
+                rule.promoteTo = value;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown rule: " + key);
+        }
+    }
+
+    private static boolean parseBoolean(String key, String value) {
+        if (!"true".equalsIgnoreCase(value) && !"false".equalsIgnoreCase(value)) {
+            throw new IllegalArgumentException(key + " must be true or false: " + value);
+        }
+        return Boolean.parseBoolean(value);
+    }
+
+    private static BigDecimal parseDecimal(String key, String value) {
+        try {
+            return new BigDecimal(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(key + " must be a number: " + value);
+        }
+    }
+
+    /**
+     * Parses a price with at most two decimal places and whose cents fit in a
+     * long, so it compares the same in cents.
+     */
+    private static BigDecimal parsePrice(String key, String value) {
+        BigDecimal price = parseDecimal(key, value);
+        if (price.stripTrailingZeros().scale() > 2) {
+            throw new IllegalArgumentException(key + " must have at most two decimal places: " + value);
+        }
+        if (price.abs().compareTo(MAX_PRICE) > 0) {
+            throw new IllegalArgumentException(key + " must be between -" + MAX_PRICE.toPlainString()
+                    + " and " + MAX_PRICE.toPlainString() + ": " + value);
+        }
+        return price;
+    }
+
+    /**
+     * The rules of one category.
+     */
+    static final class CategoryRule {
+        final String category;
+        BigDecimal discount;
+        BigDecimal promoteAbove;
+        String promoteTo;
+
+        CategoryRule(String category) {
+            this.category = category;
+        }
+    }
+}
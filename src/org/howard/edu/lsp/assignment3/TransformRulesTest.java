@@ -0,0 +1,126 @@
+package org.howard.edu.lsp.assignment3;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.Properties;
+import java.util.Random;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit 5 test class for {@link TransformRules} and the {@link ProductTransformer}
+ * paths that apply them.
+ */
+public class TransformRulesTest {
+
+    private static TransformRules parse(String text) throws IOException {
+        Properties properties = new Properties();
+        properties.load(new StringReader(text));
+        return TransformRules.parse(properties);
+    }
+
+    /**
+     * Tests that the rules file shipped in data/ describes the default rules.
+     */
+    @Test
+    @DisplayName("Test shipped rules file matches the defaults")
+    void testShippedFile() throws IOException {
+        TransformRules shipped = TransformRules.load("data/transform-rules.properties");
+        assertEquals(TransformRules.defaults().toString(), shipped.toString());
+        assertEquals(TransformRules.defaults().fingerprint(), shipped.fingerprint());
+    }
+
+    /**
+     * Tests custom rules on the Product path.
+     */
+    @Test
+    @DisplayName("Test custom rules")
+    void testCustomRules() throws IOException {
+        TransformRules rules = parse("name.uppercase=false\n"
+                + "category.Home\\ Goods.discount=0.25\n"
+                + "category.Home\\ Goods.promoteAbove=50\n"
+                + "category.Home\\ Goods.promoteTo=Luxury Home\n"
+                + "priceRange.low=5\n"
+                + "priceRange.medium=20\n"
+                + "priceRange.high=1000\n");
+        ProductTransformer transformer = new ProductTransformer(new CategoryDictionary(), rules);
+
+        Product sofa = transformer.transform(new Product(1, "Sofa", new BigDecimal("100.00"), "home goods"));
+        assertEquals("Sofa", sofa.getName());
+        assertEquals(new BigDecimal("75.00"), sofa.getPrice());
+        assertEquals("Luxury Home", sofa.getCategory());
+        assertEquals("High", sofa.getPriceRange());
+
+        Product lamp = transformer.transform(new Product(2, "Lamp", new BigDecimal("19.999"), "Home Goods"));
+        assertEquals(new BigDecimal("15.00"), lamp.getPrice());
+        assertEquals("Home Goods", lamp.getCategory());
+        assertEquals("Medium", lamp.getPriceRange());
+
+        // Electronics has no rule once a file replaces the defaults.
+        Product tv = transformer.transform(new Product(3, "TV", new BigDecimal("999.99"), "Electronics"));
+        assertEquals(new BigDecimal("999.99"), tv.getPrice());
+        assertEquals("Electronics", tv.getCategory());
+    }
+
+    /**
+     * Tests that the columnar batch path agrees with the Product path under
+     * custom rules, for random prices and categories.
+     */
+    @Test
+    @DisplayName("Test batch path matches Product path under custom rules")
+    void testBatchMatchesProduct() throws IOException {
+        TransformRules rules = parse("category.Toys.discount=0.125\n"
+                + "category.Toys.promoteAbove=80.00\n"
+                + "category.Toys.promoteTo=Collectibles\n"
+                + "category.Books.discount=1\n"
+                + "category.Electronics.discount=0.3\n");
+        String[] categories = {"Toys", "toys", "Books", "Electronics", "Garden"};
+        Random random = new Random(3);
+        ProductBatch batch = new ProductBatch(16);
+        Product[] products = new Product[2_000];
+        for (int i = 0; i < products.length; i++) {
+            BigDecimal price = BigDecimal.valueOf(random.nextInt(200_000), random.nextInt(4));
+            products[i] = new Product(i, "item", price, categories[random.nextInt(categories.length)]);
+            batch.add(products[i]);
+        }
+
+        // The batch has its own dictionary, so the transformer compiles a second table for it.
+        ProductTransformer transformer = new ProductTransformer(new CategoryDictionary(), rules);
+        transformer.transformBatch(batch);
+        for (int i = 0; i < products.length; i++) {
+            assertEquals(transformer.transform(products[i]).toString(), batch.toProduct(i).toString());
+        }
+    }
+
+    /**
+     * Tests that invalid rules are rejected with a message naming the rule.
+     */
+    @Test
+    @DisplayName("Test invalid rules")
+    void testInvalidRules() {
+        String[] invalid = {
+            "unknown=1",
+            "category.Toys.color=red",
+            "category.Toys.discount=1.5",
+            "category.Toys.discount=0.1234",
+            "category.Toys.promoteAbove=10.00",
+            "priceRange.low=10.005",
+            "priceRange.low=200",
+            "priceRange.high=1e30",
+            "priceRange.low=-1e30",
+            "priceRange.high=92233720368547758.08",
+            "category.Toys.promoteAbove=1e30\ncategory.Toys.promoteTo=Big Toys",
+            "name.uppercase=yes",
+        };
+        for (String rule : invalid) {
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> parse(rule), rule);
+            assertNotNull(e.getMessage(), rule);
+        }
+        // The largest threshold whose cents fit in a long still compiles.
+        assertDoesNotThrow(() -> new ProductTransformer(new CategoryDictionary(),
+                parse("priceRange.high=92233720368547758.07")));
+    }
+}
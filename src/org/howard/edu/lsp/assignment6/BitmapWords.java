@@ -0,0 +1,187 @@
+package org.howard.edu.lsp.assignment6;
+
+/**
+ * Word-at-a-time operations on bitmaps held in {@code long[]} arrays, where
+ * bit {@code i} is bit {@code i % 64} of word {@code i / 64}. The binary
+ * operations work on the first {@code a.length} words, and write their
+ * result into {@code a}.
+ * <p>
+ * When the JVM runs with {@code --add-modules jdk.incubator.vector},
+ * {@link #cardinality} and {@link #runCount} hand the work to
+ * {@link VectorBitmapWords}, which counts a full SIMD register of words per
+ * step; otherwise they use the plain loops below.
+ */
+final class BitmapWords {
+
+    /**
+     * Whether the Vector API is available. {@link VectorBitmapWords} must not
+     * be touched unless it is, as it fails to load without the module.
+     */
+    static final boolean VECTORIZED = ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+    private BitmapWords() {
+    }
+
+    /**
+     * Sets {@code a} to {@code a | b}.
+     *
+     * @param a the first bitmap, which receives the result.
+     * @param b the second bitmap, at least as long as {@code a}.
+     */
+    static void or(long[] a, long[] b) {
+        for (int i = 0; i < a.length; i++) {
+            a[i] |= b[i];
+        }
+    }
+
+    /**
+     * Sets {@code a} to {@code a & b}.
+     *
+     * @param a the first bitmap, which receives the result.
+     * @param b the second bitmap, at least as long as {@code a}.
+     */
+    static void and(long[] a, long[] b) {
+        for (int i = 0; i < a.length; i++) {
+            a[i] &= b[i];
+        }
+    }
+
+    /**
+     * Sets {@code a} to {@code a & ~b}.
+     *
+     * @param a the first bitmap, which receives the result.
+     * @param b the second bitmap, at least as long as {@code a}.
+     */
+    static void andNot(long[] a, long[] b) {
+        for (int i = 0; i < a.length; i++) {
+            a[i] &= ~b[i];
+        }
+    }
+
+    /**
+     * Counts the set bits of a bitmap.
+     *
+     * @param a the bitmap.
+     * @return the number of set bits.
+     */
+    static int cardinality(long[] a) {
+        if (VECTORIZED) {
+            return VectorBitmapWords.cardinality(a);
+        }
+        int count = 0;
+        for (long word : a) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Counts the runs of consecutive set bits in a bitmap.
+     *
+     * @param a the bitmap.
+     * @return the number of runs.
+     */
+    static int runCount(long[] a) {
+        if (VECTORIZED) {
+            return VectorBitmapWords.runCount(a);
+        }
+        int count = 0;
+        long carry = 0;
+        for (long word : a) {
+            // A run starts at each set bit whose lower neighbour is clear.
+            count += Long.bitCount(word & ~((word << 1) | carry));
+            carry = word >>> 63;
+        }
+        return count;
+    }
+
+    /**
+     * Sets the bits {@code from} to {@code to}, inclusive.
+     *
+     * @param a the bitmap.
+     * @param from the first bit to set.
+     * @param to the last bit to set.
+     */
+    static void setRange(long[] a, int from, int to) {
+        int first = from >>> 6;
+        int last = to >>> 6;
+        long firstMask = -1L << from;
+        long lastMask = -1L >>> (63 - (to & 63));
+        if (first == last) {
+            a[first] |= firstMask & lastMask;
+            return;
+        }
+        a[first] |= firstMask;
+        for (int i = first + 1; i < last; i++) {
+            a[i] = -1L;
+        }
+        a[last] |= lastMask;
+    }
+
+    /**
+     * Clears the bits {@code from} to {@code to}, inclusive.
+     *
+     * @param a the bitmap.
+     * @param from the first bit to clear.
+     * @param to the last bit to clear.
+     */
+    static void clearRange(long[] a, int from, int to) {
+        int first = from >>> 6;
+        int last = to >>> 6;
+        long firstMask = -1L << from;
+        long lastMask = -1L >>> (63 - (to & 63));
+        if (first == last) {
+            a[first] &= ~(firstMask & lastMask);
+            return;
+        }
+        a[first] &= ~firstMask;
+        for (int i = first + 1; i < last; i++) {
+            a[i] = 0;
+        }
+        a[last] &= ~lastMask;
+    }
+
+    /**
+     * Finds the first set bit at or after a position.
+     *
+     * @param a the bitmap.
+     * @param from the position to start at.
+     * @return the position of the bit, or -1 if no bit from there on is set.
+     */
+    static int nextSetBit(long[] a, int from) {
+        int index = from >>> 6;
+        if (index >= a.length) {
+            return -1;
+        }
+        long word = a[index] & (-1L << from);
+        while (word == 0) {
+            if (++index == a.length) {
+                return -1;
+            }
+            word = a[index];
+        }
+        return index * 64 + Long.numberOfTrailingZeros(word);
+    }
+
+    /**
+     * Finds the first clear bit at or after a position.
+     *
+     * @param a the bitmap.
+     * @param from the position to start at.
+     * @return the position of the bit, or {@code 64 * a.length} if no bit from there on is clear.
+     */
+    static int nextClearBit(long[] a, int from) {
+        int index = from >>> 6;
+        if (index >= a.length) {
+            return a.length * 64;
+        }
+        long word = ~a[index] & (-1L << from);
+        while (word == 0) {
+            if (++index == a.length) {
+                return a.length * 64;
+            }
+            word = ~a[index];
+        }
+        return index * 64 + Long.numberOfTrailingZeros(word);
+    }
+}
@@ -0,0 +1,495 @@
+package org.howard.edu.lsp.assignment6;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * A thread-safe set of integers with the operations of {@link IntegerSet}.
+ * <p>
+ * The elements are spread over a fixed number of stripes by a hash of their
+ * value, and each stripe is a hash table guarded by its own lock. So
+ * {@link #add(int)} and {@link #remove(int)} only lock the stripe of their
+ * item, and threads working on different stripes do not wait for each other.
+ * {@link #contains(int)} first reads its stripe without locking and only
+ * takes the lock if a writer changed the stripe meanwhile, so that readers
+ * never write to memory they share and a read-heavy workload scales with the
+ * number of cores.
+ * <p>
+ * The operations on the whole set lock every stripe, always in the same
+ * order. The queries ({@link #length()}, {@link #largest()}, {@link #toString()},
+ * {@link #snapshot()}, ...) see the set at one point in time, and the bulk
+ * operations ({@link #union}, {@link #intersect}, {@link #diff},
+ * {@link #complement}, {@link #addAll}, {@link #clear}) are atomic: they take a
+ * snapshot of the other set first, then apply it with every stripe of this
+ * set locked, so no thread sees them half done. A bulk operation never holds
+ * the locks of two sets at once, so two threads combining the same two sets
+ * in opposite directions cannot deadlock.
+ */
+public class ConcurrentIntegerSet {
+
+    /**
+     * The largest number of stripes.
+     */
+    private static final int MAX_STRIPES = 1 << 16;
+
+    /**
+     * The stripes, a power of two of them.
+     */
+    private final Stripe[] stripes;
+
+    /**
+     * The number of bits of the hash that select a stripe.
+     */
+    private final int stripeBits;
+
+    /**
+     * One part of the set and the lock that guards it.
+     */
+    private static final class Stripe {
+        final StampedLock lock = new StampedLock();
+
+        /**
+         * The elements of the stripe. It is always a {@link HashStore}, whose
+         * {@code containsOptimistic} can neither fail nor loop forever when it
+         * reads a table that a writer is changing, as the lock-free reads require.
+         * It is volatile so that a reader never sees a store that the bulk
+         * operations put in place before its fields are set.
+         */
+        volatile HashStore store = new HashStore();
+    }
+
+    /**
+     * Constructs an empty set with four stripes per available processor.
+     */
+    public ConcurrentIntegerSet() {
+        this(4 * Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructs an empty set with about the given number of stripes, rounded
+     * up to a power of two: the number of threads that can change the set at
+     * once without waiting.
+     *
+     * @param concurrencyLevel the number of stripes.
+     * @throws IllegalArgumentException if {@code concurrencyLevel} is not positive.
+     */
+    public ConcurrentIntegerSet(int concurrencyLevel) {
+        if (concurrencyLevel <= 0) {
+            throw new IllegalArgumentException("concurrencyLevel must be positive: " + concurrencyLevel);
+        }
+        int count = concurrencyLevel >= MAX_STRIPES ? MAX_STRIPES : Integer.highestOneBit(2 * concurrencyLevel - 1);
+        stripeBits = Integer.numberOfTrailingZeros(count);
+        stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Returns true if the set contains the specified value.
+     *
+     * @param value the value to check for presence in the set.
+     * @return true if the set contains the value, false otherwise.
+     */
+    public boolean contains(int value) {
+        Stripe stripe = stripes[stripeOf(value)];
+        long stamp = stripe.lock.tryOptimisticRead();
+        boolean found = stripe.store.containsOptimistic(value);
+        if (stripe.lock.validate(stamp)) {
+            return found;
+        }
+        stamp = stripe.lock.readLock();
+        try {
+            return stripe.store.contains(value);
+        } finally {
+            stripe.lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Adds an item to the set if it is not already present.
+     *
+     * @param item the integer to add to the set.
+     */
+    public void add(int item) {
+        Stripe stripe = stripes[stripeOf(item)];
+        long stamp = stripe.lock.writeLock();
+        try {
+            stripe.store.add(item);
+        } finally {
+            stripe.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Removes an item from the set if it is present.
+     *
+     * @param item the integer to remove from the set.
+     */
+    public void remove(int item) {
+        Stripe stripe = stripes[stripeOf(item)];
+        long stamp = stripe.lock.writeLock();
+        try {
+            stripe.store.remove(item);
+        } finally {
+            stripe.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Adds every item of an array to the set, atomically. The array may be in
+     * any order and hold duplicates.
+     *
+     * @param items the integers to add to the set.
+     */
+    public void addAll(int[] items) {
+        HashStore[] parts = partition(items);
+        long[] stamps = lockAll(true);
+        try {
+            for (int i = 0; i < stripes.length; i++) {
+                stripes[i].store = (HashStore) stripes[i].store.union(parts[i]);
+            }
+        } finally {
+            unlockAll(stamps, true);
+        }
+    }
+
+    /**
+     * Removes every element of the set, atomically.
+     */
+    public void clear() {
+        long[] stamps = lockAll(true);
+        try {
+            for (Stripe stripe : stripes) {
+                stripe.store.clear();
+            }
+        } finally {
+            unlockAll(stamps, true);
+        }
+    }
+
+    /**
+     * Returns the number of elements in the set.
+     *
+     * @return the number of elements in the set (its cardinality).
+     */
+    public int length() {
+        long[] stamps = lockAll(false);
+        try {
+            int length = 0;
+            for (Stripe stripe : stripes) {
+                length += stripe.store.size();
+            }
+            return length;
+        } finally {
+            unlockAll(stamps, false);
+        }
+    }
+
+    /**
+     * Returns true if the set is empty (contains no elements).
+     *
+     * @return true if the set is empty, false otherwise.
+     */
+    public boolean isEmpty() {
+        return length() == 0;
+    }
+
+    /**
+     * Returns the largest item in the set.
+     *
+     * @return the largest integer in the set.
+     * @throws IllegalStateException if the set is empty.
+     */
+    public int largest() {
+        long[] stamps = lockAll(false);
+        try {
+            boolean empty = true;
+            int largest = Integer.MIN_VALUE;
+            for (Stripe stripe : stripes) {
+                if (stripe.store.size() > 0) {
+                    empty = false;
+                    largest = Math.max(largest, stripe.store.max());
+                }
+            }
+            if (empty) {
+                throw new IllegalStateException("Cannot find largest in an empty set");
+            }
+            return largest;
+        } finally {
+            unlockAll(stamps, false);
+        }
+    }
+
+    /**
+     * Returns the smallest item in the set.
+     *
+     * @return the smallest integer in the set.
+     * @throws IllegalStateException if the set is empty.
+     */
+    public int smallest() {
+        long[] stamps = lockAll(false);
+        try {
+            boolean empty = true;
+            int smallest = Integer.MAX_VALUE;
+            for (Stripe stripe : stripes) {
+                if (stripe.store.size() > 0) {
+                    empty = false;
+                    smallest = Math.min(smallest, stripe.store.min());
+                }
+            }
+            if (empty) {
+                throw new IllegalStateException("Cannot find smallest in an empty set");
+            }
+            return smallest;
+        } finally {
+            unlockAll(stamps, false);
+        }
+    }
+
+    /**
+     * Modifies this set to be the union of this set and the specified set,
+     * as the specified set was at one point in time.
+     *
+     * @param other the set to union with this set.
+     */
+    public void union(ConcurrentIntegerSet other) {
+        if (other != this) {
+            apply(Operation.UNION, other);
+        }
+    }
+
+    /**
+     * Modifies this set to be the intersection of this set and the specified
+     * set, as the specified set was at one point in time.
+     *
+     * @param other the set to intersect with this set.
+     */
+    public void intersect(ConcurrentIntegerSet other) {
+        if (other != this) {
+            apply(Operation.INTERSECT, other);
+        }
+    }
+
+    /**
+     * Modifies this set to be the set difference of this set and the specified
+     * set (this \ other), as the specified set was at one point in time.
+     *
+     * @param other the set to difference with this set.
+     */
+    public void diff(ConcurrentIntegerSet other) {
+        if (other == this) {
+            clear();
+        } else {
+            apply(Operation.DIFF, other);
+        }
+    }
+
+    /**
+     * Modifies this set to be the set complement of this set with respect to
+     * the specified set (other \ this), as the specified set was at one point
+     * in time.
+     *
+     * @param other the set to complement against.
+     */
+    public void complement(ConcurrentIntegerSet other) {
+        if (other == this) {
+            clear();
+        } else {
+            apply(Operation.COMPLEMENT, other);
+        }
+    }
+
+    /**
+     * Returns a copy of the set as it was at one point in time, which the
+     * calling thread can then use without any locking.
+     *
+     * @return a new {@link IntegerSet} holding the elements of this set.
+     */
+    public IntegerSet snapshot() {
+        IntegerSet copy = new IntegerSet();
+        copy.addAll(values());
+        return copy;
+    }
+
+    /**
+     * Compares this set with the specified object for equality. Returns true
+     * if the specified object is also a {@code ConcurrentIntegerSet} and
+     * snapshots of the two sets contain the same values.
+     *
+     * @param o the object to be compared for equality with this set.
+     * @return true if the specified object is equal to this set.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        return snapshot().equals(((ConcurrentIntegerSet) o).snapshot());
+    }
+
+    /**
+     * Returns a hash code for this set: the sum of its elements, as for
+     * {@link IntegerSet#hashCode()}.
+     *
+     * @return the hash code of the set.
+     */
+    @Override
+    public int hashCode() {
+        long[] stamps = lockAll(false);
+        try {
+            int sum = 0;
+            for (Stripe stripe : stripes) {
+                sum += stripe.store.sum();
+            }
+            return sum;
+        } finally {
+            unlockAll(stamps, false);
+        }
+    }
+
+    /**
+     * Returns a string representation of the set, with elements in ascending
+     * order, enclosed in square brackets and separated by commas.
+     * Example: [1, 2, 3]
+     *
+     * @return a string representation of the set.
+     */
+    @Override
+    public String toString() {
+        int[] values = values();
+        Arrays.sort(values);
+        return Arrays.toString(values);
+    }
+
+    /**
+     * The bulk operations that combine this set with a snapshot of another.
+     */
+    private enum Operation {
+        UNION, INTERSECT, DIFF, COMPLEMENT
+    }
+
+    /**
+     * Takes a snapshot of another set and combines each stripe of this set
+     * with the values of the snapshot that belong to it, with every stripe of
+     * this set locked.
+     *
+     * @param operation the operation.
+     * @param other the other set.
+     */
+    private void apply(Operation operation, ConcurrentIntegerSet other) {
+        // Snapshot and split the other set before locking this one.
+        HashStore[] parts = partition(other.values());
+        long[] stamps = lockAll(true);
+        try {
+            for (int i = 0; i < stripes.length; i++) {
+                HashStore store = stripes[i].store;
+                switch (operation) {
+                    case UNION:
+                        store = (HashStore) store.union(parts[i]);
+                        break;
+                    case INTERSECT:
+                        store = (HashStore) store.intersect(parts[i]);
+                        break;
+                    case DIFF:
+                        store = (HashStore) store.diff(parts[i]);
+                        break;
+                    default:
+                        store = (HashStore) store.complement(parts[i]);
+                        break;
+                }
+                stripes[i].store = store;
+            }
+        } finally {
+            unlockAll(stamps, true);
+        }
+    }
+
+    /**
+     * Returns the elements of the set as it was at one point in time.
+     *
+     * @return a new array holding the elements, in no particular order.
+     */
+    private int[] values() {
+        long[] stamps = lockAll(false);
+        try {
+            int length = 0;
+            for (Stripe stripe : stripes) {
+                length += stripe.store.size();
+            }
+            int[] values = new int[length];
+            int[] count = {0};
+            for (Stripe stripe : stripes) {
+                stripe.store.forEach(value -> {
+                    values[count[0]++] = value;
+                    return true;
+                });
+            }
+            return values;
+        } finally {
+            unlockAll(stamps, false);
+        }
+    }
+
+    /**
+     * Splits values into one store per stripe of this set.
+     *
+     * @param values the values, which may hold duplicates.
+     * @return the values of stripe {@code i} at index {@code i}.
+     */
+    private HashStore[] partition(int[] values) {
+        HashStore[] parts = new HashStore[stripes.length];
+        for (int i = 0; i < parts.length; i++) {
+            parts[i] = new HashStore();
+        }
+        for (int value : values) {
+            parts[stripeOf(value)].add(value);
+        }
+        return parts;
+    }
+
+    /**
+     * Locks every stripe, in ascending order.
+     *
+     * @param write whether to take the write locks, else the read locks.
+     * @return the stamps of the locks, for {@link #unlockAll}.
+     */
+    private long[] lockAll(boolean write) {
+        long[] stamps = new long[stripes.length];
+        for (int i = 0; i < stripes.length; i++) {
+            stamps[i] = write ? stripes[i].lock.writeLock() : stripes[i].lock.readLock();
+        }
+        return stamps;
+    }
+
+    /**
+     * Unlocks every stripe locked by {@link #lockAll}.
+     *
+     * @param stamps the stamps of the locks.
+     * @param write whether the locks are write locks.
+     */
+    private void unlockAll(long[] stamps, boolean write) {
+        for (int i = stripes.length - 1; i >= 0; i--) {
+            if (write) {
+                stripes[i].lock.unlockWrite(stamps[i]);
+            } else {
+                stripes[i].lock.unlockRead(stamps[i]);
+            }
+        }
+    }
+
+    /**
+     * Returns the stripe of a value, from the top bits of a multiplicative
+     * hash. {@link HashStore} places values by the low bits of the same
+     * product, so the values of one stripe still spread over its whole table.
+     *
+     * @param value the value.
+     * @return the index of its stripe.
+     */
+    private int stripeOf(int value) {
+        return stripeBits == 0 ? 0 : (value * 0x9E3779B9) >>> (32 - stripeBits);
+    }
+}
@@ -0,0 +1,272 @@
+package org.howard.edu.lsp.assignment6;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit 5 test class for the {@link ConcurrentIntegerSet} class.
+ * This class tests that it behaves as an {@link IntegerSet} on one thread,
+ * and that its operations stay correct and atomic on several.
+ */
+public class ConcurrentIntegerSetTest {
+
+    /**
+     * Tests every operation against {@link IntegerSet} on random sets, with a
+     * single stripe and with many.
+     */
+    @Test
+    @DisplayName("Test operations match IntegerSet")
+    void testMatchesIntegerSet() {
+        Random random = new Random(25);
+        for (int round = 0; round < 80; round++) {
+            int concurrencyLevel = round % 2 == 0 ? 1 : 16;
+            ConcurrentIntegerSet a = new ConcurrentIntegerSet(concurrencyLevel);
+            ConcurrentIntegerSet b = new ConcurrentIntegerSet(17 - concurrencyLevel);
+            IntegerSet expectedA = new IntegerSet();
+            IntegerSet expectedB = new IntegerSet();
+            int bound = 1 + random.nextInt(round % 3 == 0 ? 64 : 10_000);
+            for (int i = random.nextInt(2_000); i > 0; i--) {
+                int value = random.nextInt(2 * bound) - bound;
+                if (random.nextInt(4) == 0) {
+                    a.remove(value);
+                    expectedA.remove(value);
+                } else {
+                    a.add(value);
+                    expectedA.add(value);
+                }
+                value = random.nextInt(2 * bound) - bound;
+                b.add(value);
+                expectedB.add(value);
+            }
+            assertEquals(expectedA.toString(), a.toString());
+            assertEquals(expectedA.length(), a.length());
+            assertEquals(expectedA.hashCode(), a.hashCode());
+            assertEquals(expectedA, a.snapshot());
+            if (!expectedA.isEmpty()) {
+                assertEquals(expectedA.smallest(), a.smallest());
+                assertEquals(expectedA.largest(), a.largest());
+            }
+            for (int i = 0; i < 100; i++) {
+                int value = random.nextInt(2 * bound) - bound;
+                assertEquals(expectedA.contains(value), a.contains(value));
+            }
+
+            switch (round % 4) {
+                case 0:
+                    a.union(b);
+                    expectedA.union(expectedB);
+                    break;
+                case 1:
+                    a.intersect(b);
+                    expectedA.intersect(expectedB);
+                    break;
+                case 2:
+                    a.diff(b);
+                    expectedA.diff(expectedB);
+                    break;
+                default:
+                    a.complement(b);
+                    expectedA.complement(expectedB);
+                    break;
+            }
+            assertEquals(expectedA.toString(), a.toString(), "round " + round);
+            assertEquals(expectedB.toString(), b.toString(), "round " + round);
+            for (int i = 0; i < 100; i++) {
+                int value = random.nextInt(2 * bound) - bound;
+                assertEquals(expectedA.contains(value), a.contains(value), "round " + round);
+            }
+        }
+    }
+
+    /**
+     * Tests the operations of a set with itself, an empty set, and invalid arguments.
+     */
+    @Test
+    @DisplayName("Test edge cases")
+    void testEdgeCases() {
+        assertThrows(IllegalArgumentException.class, () -> new ConcurrentIntegerSet(0));
+        ConcurrentIntegerSet set = new ConcurrentIntegerSet();
+        assertTrue(set.isEmpty());
+        assertThrows(IllegalStateException.class, set::largest);
+        assertThrows(IllegalStateException.class, set::smallest);
+        assertEquals("[]", set.toString());
+
+        set.addAll(new int[] {3, 0, -7, 3});
+        assertEquals("[-7, 0, 3]", set.toString());
+        set.union(set);
+        set.intersect(set);
+        assertEquals(3, set.length());
+        ConcurrentIntegerSet same = new ConcurrentIntegerSet(1);
+        same.addAll(new int[] {0, 3, -7});
+        assertEquals(set, same);
+        assertEquals(set.hashCode(), same.hashCode());
+        set.diff(set);
+        assertTrue(set.isEmpty());
+        assertNotEquals(set, same);
+        same.complement(same);
+        assertTrue(same.isEmpty());
+    }
+
+    /**
+     * Tests that adds and removes from several threads are all applied.
+     * Each thread adds its own range of values, then removes every third one.
+     */
+    @Test
+    @DisplayName("Test concurrent adds and removes")
+    void testConcurrentAddsAndRemoves() throws InterruptedException {
+        ConcurrentIntegerSet set = new ConcurrentIntegerSet(4);
+        int threads = 8;
+        int perThread = 20_000;
+        runAll(threads, index -> {
+            for (int value = index * perThread; value < (index + 1) * perThread; value++) {
+                set.add(value);
+            }
+            for (int value = index * perThread; value < (index + 1) * perThread; value += 3) {
+                set.remove(value);
+            }
+        });
+        int expected = threads * (perThread - (perThread + 2) / 3);
+        assertEquals(expected, set.length());
+        for (int value = 0; value < threads * perThread; value++) {
+            assertEquals(value % perThread % 3 != 0, set.contains(value));
+        }
+    }
+
+    /**
+     * Tests lock-free lookups racing with a writer that keeps growing the
+     * table of the only stripe. Every value added before a lookup started
+     * must be found, and no value that is never added may be.
+     */
+    @Test
+    @DisplayName("Test lookups while the table grows")
+    void testLookupsWhileGrowing() throws InterruptedException {
+        for (int round = 0; round < 5; round++) {
+            ConcurrentIntegerSet set = new ConcurrentIntegerSet(1);
+            AtomicInteger added = new AtomicInteger();
+            int count = 200_000;
+            runAll(3, index -> {
+                if (index == 0) {
+                    for (int value = 1; value <= count; value++) {
+                        set.add(value);
+                        added.set(value);
+                    }
+                    return;
+                }
+                Random random = new Random(index);
+                while (added.get() < count) {
+                    int known = added.get();
+                    if (known > 0) {
+                        int value = 1 + random.nextInt(known);
+                        assertTrue(set.contains(value), "lost " + value);
+                    }
+                    assertFalse(set.contains(-1 - random.nextInt(count)));
+                }
+            });
+            assertEquals(count, set.length());
+        }
+    }
+
+    /**
+     * Tests that readers never see a bulk operation half done. A writer
+     * repeatedly adds and removes a range of values in bulk, while readers
+     * check that the set holds all of the range or none of it.
+     */
+    @Test
+    @DisplayName("Test bulk operations are atomic")
+    void testBulkOperationsAreAtomic() throws InterruptedException {
+        ConcurrentIntegerSet range = new ConcurrentIntegerSet();
+        for (int value = 0; value < 10_000; value++) {
+            range.add(value);
+        }
+        ConcurrentIntegerSet set = new ConcurrentIntegerSet(16);
+        AtomicBoolean done = new AtomicBoolean();
+        runAll(4, index -> {
+            if (index == 0) {
+                try {
+                    for (int i = 0; i < 50; i++) {
+                        // Each step takes the set from empty to full or back.
+                        set.union(range);
+                        set.diff(range);
+                        set.complement(range);
+                        set.intersect(new ConcurrentIntegerSet());
+                    }
+                } finally {
+                    done.set(true);
+                }
+                return;
+            }
+            while (!done.get()) {
+                int length = index == 1 ? set.length() : set.snapshot().length();
+                assertTrue(length == 0 || length == 10_000, "saw a partial set of " + length);
+            }
+        });
+        assertTrue(set.isEmpty());
+    }
+
+    /**
+     * Tests that two threads combining the same two sets in opposite
+     * directions do not deadlock.
+     */
+    @Test
+    @DisplayName("Test opposite bulk operations do not deadlock")
+    void testNoDeadlock() {
+        ConcurrentIntegerSet a = new ConcurrentIntegerSet();
+        ConcurrentIntegerSet b = new ConcurrentIntegerSet();
+        a.addAll(new int[] {1, 2, 3});
+        b.addAll(new int[] {3, 4, 5});
+        assertTimeoutPreemptively(Duration.ofSeconds(20), () -> runAll(2, index -> {
+            for (int i = 0; i < 2_000; i++) {
+                if (index == 0) {
+                    a.union(b);
+                } else {
+                    b.union(a);
+                }
+            }
+        }));
+        assertEquals("[1, 2, 3, 4, 5]", a.toString());
+        assertEquals(a, b);
+    }
+
+    /**
+     * The work of one thread of {@link #runAll}.
+     */
+    private interface Task {
+        void run(int index);
+    }
+
+    /**
+     * Runs a task on several threads at once and waits for them, failing
+     * with the first error any of them threw.
+     */
+    private static void runAll(int threads, Task task) throws InterruptedException {
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> started = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            int index = i;
+            Thread thread = new Thread(() -> {
+                try {
+                    task.run(index);
+                } catch (Throwable t) {
+                    failure.compareAndSet(null, t);
+                }
+            });
+            thread.start();
+            started.add(thread);
+        }
+        for (Thread thread : started) {
+            thread.join();
+        }
+        if (failure.get() != null) {
+            fail(failure.get());
+        }
+    }
+}
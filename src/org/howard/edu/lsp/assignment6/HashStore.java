@@ -0,0 +1,347 @@
+package org.howard.edu.lsp.assignment6;
+
+import java.util.function.IntPredicate;
+
+/**
+ * An {@link IntStore} that keeps its elements in a primitive open-addressing
+ * hash table, so that {@code add}, {@code remove} and {@code contains} take
+ * constant time on average and the set operations take time linear in the
+ * sizes of the sets, without boxing any element into an {@code Integer}.
+ * It costs 8 to 16 bytes per element, whatever the values.
+ */
+final class HashStore extends IntStore {
+    /**
+     * The smallest capacity of the hash table.
+     */
+    private static final int MIN_CAPACITY = 8;
+
+    /**
+     * The largest capacity of the hash table, past which it fills beyond half.
+     */
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    /**
+     * The slot value that marks an empty slot. The element 0 is never stored
+     * in the table; {@link #hasZero} records whether it is in the set.
+     */
+    private static final int EMPTY = 0;
+
+    /**
+     * The hash table, linearly probed. Its length is a power of two and it
+     * is never more than half full.
+     */
+    private int[] table = new int[MIN_CAPACITY];
+
+    /**
+     * Whether the set contains 0, which cannot be stored in the table.
+     */
+    private boolean hasZero = false;
+
+    /**
+     * The number of elements in the set, including 0.
+     */
+    private int size = 0;
+
+    @Override
+    IntStore newEmpty() {
+        return new HashStore();
+    }
+
+    @Override
+    int size() {
+        return size;
+    }
+
+    @Override
+    void clear() {
+        table = new int[MIN_CAPACITY];
+        hasZero = false;
+        size = 0;
+    }
+
+    @Override
+    boolean contains(int value) {
+        if (value == EMPTY) {
+            return hasZero;
+        }
+        return table[indexOf(table, value)] == value;
+    }
+
+    /**
+     * Returns true if the set contains the value, for a reader that holds no
+     * lock and validates the result afterwards. The table is read once and at
+     * most its length of slots are probed, so a writer that changes or grows
+     * the table meanwhile can make the answer wrong, but cannot make the
+     * lookup fail or loop forever.
+     *
+     * @param value the value to check for presence in the set.
+     * @return true if the value was found.
+     */
+    boolean containsOptimistic(int value) {
+        if (value == EMPTY) {
+            return hasZero;
+        }
+        int[] slots = table;
+        int mask = slots.length - 1;
+        int index = hash(value) & mask;
+        for (int probes = 0; probes < slots.length; probes++) {
+            int slot = slots[index];
+            if (slot == value) {
+                return true;
+            }
+            if (slot == EMPTY) {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+        return false;
+    }
+
+    @Override
+    int max() {
+        int largest = hasZero ? 0 : Integer.MIN_VALUE;
+        for (int value : table) {
+            if (value != EMPTY && value > largest) {
+                largest = value;
+            }
+        }
+        return largest;
+    }
+
+    @Override
+    int min() {
+        int smallest = hasZero ? 0 : Integer.MAX_VALUE;
+        for (int value : table) {
+            if (value != EMPTY && value < smallest) {
+                smallest = value;
+            }
+        }
+        return smallest;
+    }
+
+    @Override
+    void add(int item) {
+        if (item == EMPTY) {
+            if (!hasZero) {
+                hasZero = true;
+                size++;
+            }
+            return;
+        }
+        int index = indexOf(table, item);
+        if (table[index] == item) {
+            return;
+        }
+        if (tableSize() == MAX_CAPACITY - 1) {
+            // Linear probing needs at least one empty slot.
+            throw new IllegalStateException("IntegerSet is full");
+        }
+        table[index] = item;
+        size++;
+        if (2 * tableSize() > table.length && table.length < MAX_CAPACITY) {
+            table = rehash(table, table.length * 2);
+        }
+    }
+
+    @Override
+    void remove(int item) {
+        if (item == EMPTY) {
+            if (hasZero) {
+                hasZero = false;
+                size--;
+            }
+            return;
+        }
+        int index = indexOf(table, item);
+        if (table[index] != item) {
+            return;
+        }
+        deleteSlot(index);
+        size--;
+    }
+
+    @Override
+    boolean forEach(IntPredicate action) {
+        if (hasZero && !action.test(0)) {
+            return false;
+        }
+        for (int value : table) {
+            if (value != EMPTY && !action.test(value)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    boolean containsAll(IntStore other) {
+        if (!(other instanceof HashStore)) {
+            return super.containsAll(other);
+        }
+        HashStore hashed = (HashStore) other;
+        if (hashed.hasZero && !hasZero) {
+            return false;
+        }
+        for (int value : hashed.table) {
+            if (value != EMPTY && !contains(value)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    int sum() {
+        int sum = 0;
+        for (int value : table) {
+            sum += value;
+        }
+        return sum;
+    }
+
+    @Override
+    IntStore union(IntStore other) {
+        // Grow once up front instead of once per doubling.
+        int needed = tableSize() + other.size();
+        if (needed > table.length / 2) {
+            table = rehash(table, capacityFor(needed));
+        }
+        return super.union(other);
+    }
+
+    @Override
+    IntStore intersect(IntStore other) {
+        // Probe the larger set with the elements of the smaller one.
+        if (other.size() < size) {
+            return filter(other, this, true);
+        }
+        return filter(this, other, true);
+    }
+
+    @Override
+    IntStore diff(IntStore other) {
+        if (other.size() < size) {
+            // Removing each element of the smaller set is cheaper than rebuilding this one.
+            other.forEach(value -> {
+                remove(value);
+                return true;
+            });
+            return this;
+        }
+        return filter(this, other, false);
+    }
+
+    /**
+     * Builds a table sized for {@code source} at once, and shrinks it if far
+     * fewer elements were kept.
+     */
+    @Override
+    IntStore filter(IntStore source, IntStore filter, boolean keep) {
+        HashStore result = new HashStore();
+        int[] slots = new int[capacityFor(source.size())];
+        int[] count = {0};
+        source.forEach(value -> {
+            if (value == EMPTY) {
+                result.hasZero = filter.contains(value) == keep;
+            } else if (filter.contains(value) == keep) {
+                slots[indexOf(slots, value)] = value;
+                count[0]++;
+            }
+            return true;
+        });
+        result.table = count[0] < slots.length / 8 ? rehash(slots, capacityFor(count[0])) : slots;
+        result.size = count[0] + (result.hasZero ? 1 : 0);
+        return result;
+    }
+
+    /**
+     * Empties a slot, moving later entries of its probe run back so that
+     * every remaining element can still be found from its home slot.
+     *
+     * @param index the slot to empty.
+     */
+    private void deleteSlot(int index) {
+        int mask = table.length - 1;
+        int gap = index;
+        int next = (gap + 1) & mask;
+        while (table[next] != EMPTY) {
+            int home = hash(table[next]) & mask;
+            // Move the entry into the gap unless its home slot lies after the gap, cyclically.
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                table[gap] = table[next];
+                gap = next;
+            }
+            next = (next + 1) & mask;
+        }
+        table[gap] = EMPTY;
+    }
+
+    /**
+     * Returns the number of elements stored in the table, which excludes 0.
+     *
+     * @return the number of non-zero elements.
+     */
+    private int tableSize() {
+        return hasZero ? size - 1 : size;
+    }
+
+    /**
+     * Finds the slot of a non-zero value in a table: the slot holding it,
+     * or the empty slot where it would be inserted.
+     *
+     * @param table the hash table to search.
+     * @param value the value to look for.
+     * @return the index of the slot.
+     */
+    private static int indexOf(int[] table, int value) {
+        int mask = table.length - 1;
+        int index = hash(value) & mask;
+        while (table[index] != EMPTY && table[index] != value) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    /**
+     * Copies the elements of a table into a new table of the given capacity.
+     *
+     * @param table the table to copy.
+     * @param capacity the capacity of the new table, a power of two.
+     * @return the new table.
+     */
+    private static int[] rehash(int[] table, int capacity) {
+        int[] result = new int[capacity];
+        for (int value : table) {
+            if (value != EMPTY) {
+                result[indexOf(result, value)] = value;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the capacity of a table that holds the given number of
+     * elements at most half full.
+     *
+     * @param elements the number of elements.
+     * @return a power of two, at least {@link #MIN_CAPACITY}.
+     */
+    private static int capacityFor(int elements) {
+        if (elements > MAX_CAPACITY / 2) {
+            return MAX_CAPACITY;
+        }
+        return Math.max(MIN_CAPACITY, Integer.highestOneBit(Math.max(1, 2 * elements - 1)) << 1);
+    }
+
+    /**
+     * Spreads the bits of a value so that runs of consecutive values do not
+     * fill runs of consecutive slots.
+     *
+     * @param value the value to hash.
+     * @return the mixed hash.
+     */
+    private static int hash(int value) {
+        int h = value * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
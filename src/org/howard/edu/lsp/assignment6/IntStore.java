@@ -0,0 +1,197 @@
+package org.howard.edu.lsp.assignment6;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * The storage behind an {@link IntegerSet}, one subclass per
+ * {@link IntegerSet.Representation}. The set operations have generic
+ * versions here that work between any two stores; a subclass overrides
+ * them with faster versions for a store of its own kind.
+ * <p>
+ * An {@code IntegerSet} never passes a store to an operation on itself,
+ * so the operations need not handle {@code other == this}.
+ */
+abstract class IntStore {
+
+    /**
+     * Returns an empty store of the same kind as this one.
+     *
+     * @return a new, empty store.
+     */
+    abstract IntStore newEmpty();
+
+    /**
+     * Returns the number of elements in the store.
+     *
+     * @return the number of elements.
+     */
+    abstract int size();
+
+    /**
+     * Returns true if the store contains the specified value.
+     *
+     * @param value the value to look for.
+     * @return true if the value is in the store.
+     */
+    abstract boolean contains(int value);
+
+    /**
+     * Adds a value to the store if it is not already present.
+     *
+     * @param value the value to add.
+     */
+    abstract void add(int value);
+
+    /**
+     * Removes a value from the store if it is present.
+     *
+     * @param value the value to remove.
+     */
+    abstract void remove(int value);
+
+    /**
+     * Removes every element from the store.
+     */
+    abstract void clear();
+
+    /**
+     * Returns the smallest element of a store that is not empty.
+     *
+     * @return the smallest element.
+     */
+    abstract int min();
+
+    /**
+     * Returns the largest element of a store that is not empty.
+     *
+     * @return the largest element.
+     */
+    abstract int max();
+
+    /**
+     * Adds every value of an array to the store, in any order and with
+     * duplicates allowed.
+     *
+     * @param values the values to add.
+     */
+    void addAll(int[] values) {
+        for (int value : values) {
+            add(value);
+        }
+    }
+
+    /**
+     * Passes the elements of the store, in any order, to an action until
+     * the action returns false.
+     *
+     * @param action the action, which returns false to stop.
+     * @return true if every element was passed to the action.
+     */
+    abstract boolean forEach(IntPredicate action);
+
+    /**
+     * Returns the elements of the store in ascending order.
+     *
+     * @return a new array holding the elements.
+     */
+    int[] toSortedArray() {
+        int[] values = new int[size()];
+        int[] count = {0};
+        forEach(value -> {
+            values[count[0]++] = value;
+            return true;
+        });
+        Arrays.sort(values);
+        return values;
+    }
+
+    /**
+     * Returns true if this store contains every element of another store.
+     *
+     * @param other the other store.
+     * @return true if every element of {@code other} is in this store.
+     */
+    boolean containsAll(IntStore other) {
+        return other.forEach(this::contains);
+    }
+
+    /**
+     * Returns the sum of the elements, the hash code of a set holding them.
+     *
+     * @return the sum of the elements, wrapping on overflow.
+     */
+    int sum() {
+        int[] sum = {0};
+        forEach(value -> {
+            sum[0] += value;
+            return true;
+        });
+        return sum[0];
+    }
+
+    /**
+     * Adds the elements of another store to this one.
+     *
+     * @param other the other store.
+     * @return the store holding the union: this store or a new one of the same kind.
+     */
+    IntStore union(IntStore other) {
+        other.forEach(value -> {
+            add(value);
+            return true;
+        });
+        return this;
+    }
+
+    /**
+     * Keeps only the elements of this store that are in another store.
+     *
+     * @param other the other store.
+     * @return the store holding the intersection: this store or a new one of the same kind.
+     */
+    IntStore intersect(IntStore other) {
+        return filter(this, other, true);
+    }
+
+    /**
+     * Removes the elements of another store from this one.
+     *
+     * @param other the other store.
+     * @return the store holding the difference: this store or a new one of the same kind.
+     */
+    IntStore diff(IntStore other) {
+        return filter(this, other, false);
+    }
+
+    /**
+     * Computes the elements of another store that are not in this one.
+     *
+     * @param other the other store.
+     * @return the store holding the complement: this store or a new one of the same kind.
+     */
+    IntStore complement(IntStore other) {
+        return filter(other, this, false);
+    }
+
+    /**
+     * Collects the elements of {@code source} that are in {@code filter} (if
+     * {@code keep} is true) or are not in it (if {@code keep} is false) into
+     * a new store of the same kind as this one.
+     *
+     * @param source the store whose elements are tested.
+     * @param filter the store the elements are tested against.
+     * @param keep whether to keep the elements found in {@code filter}.
+     * @return the new store.
+     */
+    IntStore filter(IntStore source, IntStore filter, boolean keep) {
+        IntStore result = newEmpty();
+        source.forEach(value -> {
+            if (filter.contains(value) == keep) {
+                result.add(value);
+            }
+            return true;
+        });
+        return result;
+    }
+}
@@ -1,26 +1,96 @@
 package org.howard.edu.lsp.assignment6;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Collections;
+import java.util.Arrays;
 
 /**
  * The {@code IntegerSet} class represents a set of integers.
- * It uses an {@code ArrayList<Integer>} for internal storage and ensures
- * that no duplicate elements are stored. It provides standard set operations
- * such as union, intersection, and difference.
+ * It stores its elements without boxing them into {@code Integer} objects,
+ * in one of the {@link Representation representations} chosen when the set
+ * is created. It provides standard set operations such as union,
+ * intersection, and difference, which take time linear in the sizes of the
+ * sets. Sets of different representations can be combined and compared.
  */
 public class IntegerSet {
+
+    /**
+     * The ways an {@code IntegerSet} can store its elements.
+     */
+    public enum Representation {
+        /**
+         * A primitive open-addressing hash table: 8 to 16 bytes per element,
+         * whatever the values. The default.
+         */
+        HASH,
+        /**
+         * Roaring-style containers: a sorted array, a bitmap or a list of
+         * runs for each range of 65536 values, whichever is smallest. Dense
+         * ranges cost at most 1 bit per possible value and sparse ones 2 bytes
+         * per element, and the set operations between two such sets work a
+         * 64-bit word at a time.
+         */
+        ROARING,
+        /**
+         * A sorted array: 4 to 6 bytes per element, constant-time
+         * {@link #smallest()} and {@link #largest()}, and binary-search
+         * {@link #contains(int)}. The set operations merge the arrays, and
+         * gallop through the larger one when the sizes differ widely. Adding
+         * or removing one element shifts the ones after it, so build large
+         * sets with {@link #addAll(int[])}.
+         */
+        SORTED
+    }
+
+    /**
+     * The representation the set was created with.
+     */
+    private final Representation representation;
+
+    /**
+     * The storage of the elements.
+     */
+    private IntStore store;
+
     /**
-     * The internal list to store the unique elements of the set.
+     * Constructs an empty set stored in a hash table.
+     */
+    public IntegerSet() {
+        this(Representation.HASH);
+    }
+
+    /**
+     * Constructs an empty set with the given representation.
+     *
+     * @param representation how the set stores its elements.
+     */
+    public IntegerSet(Representation representation) {
+        this.representation = representation;
+        switch (representation) {
+            case ROARING:
+                this.store = new RoaringStore();
+                break;
+            case SORTED:
+                this.store = new SortedStore();
+                break;
+            default:
+                this.store = new HashStore();
+                break;
+        }
+    }
+
+    /**
+     * Returns the representation the set was created with.
+     *
+     * @return how the set stores its elements.
      */
-    private List<Integer> set = new ArrayList<Integer>();
+    public Representation getRepresentation() {
+        return representation;
+    }
 
     /**
      * Clears the internal representation of the set, removing all elements.
      */
     public void clear() {
-        set.clear();
+        store.clear();
     }
 
     /**
@@ -29,41 +99,40 @@ public class IntegerSet {
      * @return the number of elements in the set (its cardinality).
      */
     public int length() {
-        return set.size();
+        return store.size();
     }
 
     /**
      * Compares this IntegerSet with the specified object for equality.
      * Returns true if the specified object is also an IntegerSet and
-     * the two sets contain all of the same values, regardless of order.
+     * the two sets contain all of the same values, regardless of order
+     * or representation.
      *
      * @param o the object to be compared for equality with this set.
      * @return true if the specified object is equal to this set.
      */
     @Override
     public boolean equals(Object o) {
-        // 1. Check if it's the same object
         if (this == o) {
             return true;
         }
-
-        // 2. Check if the object is null or of a different class
         if (o == null || getClass() != o.getClass()) {
             return false;
         }
-
-        // 3. Cast the object to IntegerSet
         IntegerSet otherSet = (IntegerSet) o;
+        // Sizes are equal and there are no duplicates, so one containment check is enough.
+        return this.length() == otherSet.length() && this.store.containsAll(otherSet.store);
+    }
 
-        // 4. Optimization: Check if lengths are different
-        if (this.length() != otherSet.length()) {
-            return false;
-        }
-
-        // 5. Check for element containment (order-independent)
-        // Since duplicates aren't allowed and sizes are equal,
-        // this.containsAll(other) is sufficient.
-        return this.set.containsAll(otherSet.set);
+    /**
+     * Returns a hash code for this set: the sum of its elements, as for a
+     * {@code java.util.Set<Integer>}, so that equal sets have equal hash codes.
+     *
+     * @return the hash code of the set.
+     */
+    @Override
+    public int hashCode() {
+        return store.sum();
     }
 
     /**
@@ -73,7 +142,7 @@ public class IntegerSet {
      * @return true if the set contains the value, false otherwise.
      */
     public boolean contains(int value) {
-        return set.contains(value);
+        return store.contains(value);
     }
 
     /**
@@ -86,7 +155,7 @@ public class IntegerSet {
         if (isEmpty()) {
             throw new IllegalStateException("Cannot find largest in an empty set");
         }
-        return Collections.max(set);
+        return store.max();
     }
 
     /**
@@ -99,7 +168,7 @@ public class IntegerSet {
         if (isEmpty()) {
             throw new IllegalStateException("Cannot find smallest in an empty set");
         }
-        return Collections.min(set);
+        return store.min();
     }
 
     /**
@@ -108,9 +177,18 @@ public class IntegerSet {
      * @param item the integer to add to the set.
      */
     public void add(int item) {
-        if (!contains(item)) {
-            set.add(item);
-        }
+        store.add(item);
+    }
+
+    /**
+     * Adds every item of an array to the set. The array may be in any order
+     * and hold duplicates; a {@link Representation#SORTED SORTED} set sorts it
+     * once and merges it in, instead of inserting the items one at a time.
+     *
+     * @param items the integers to add to the set.
+     */
+    public void addAll(int[] items) {
+        store.addAll(items);
     }
 
     /**
@@ -119,9 +197,7 @@ public class IntegerSet {
      * @param item the integer to remove from the set.
      */
     public void remove(int item) {
-        // Use Integer.valueOf() to ensure Java calls remove(Object)
-        // not remove(int index).
-        set.remove(Integer.valueOf(item));
+        store.remove(item);
     }
 
     /**
@@ -131,9 +207,8 @@ public class IntegerSet {
      * @param other the IntegerSet to union with this set.
      */
     public void union(IntegerSet other) {
-        // Private members are accessible to other instances of the same class.
-        for (int item : other.set) {
-            this.add(item); // The add() method handles duplicate checking
+        if (other != this) {
+            store = store.union(other.store);
         }
     }
 
@@ -144,9 +219,9 @@ public class IntegerSet {
      * @param other the IntegerSet to intersect with this set.
      */
     public void intersect(IntegerSet other) {
-        // retainAll(c) keeps only the elements in this list
-        // that are also contained in the specified collection.
-        set.retainAll(other.set);
+        if (other != this) {
+            store = store.intersect(other.store);
+        }
     }
 
     /**
@@ -157,9 +232,11 @@ public class IntegerSet {
      * @param other the IntegerSet to difference with this set.
      */
     public void diff(IntegerSet other) {
-        // removeAll(c) removes all of this list's elements that
-        // are also contained in the specified collection.
-        set.removeAll(other.set);
+        if (other == this) {
+            clear();
+        } else {
+            store = store.diff(other.store);
+        }
     }
 
     /**
@@ -170,14 +247,11 @@ public class IntegerSet {
      * @param other the IntegerSet to complement against.
      */
     public void complement(IntegerSet other) {
-        // Create a temporary list based on 'other.set'
-        List<Integer> tempSet = new ArrayList<>(other.set);
-
-        // Perform the difference (other \ this)
-        tempSet.removeAll(this.set);
-
-        // Assign the resulting complement set to 'this.set'
-        this.set = tempSet;
+        if (other == this) {
+            clear();
+        } else {
+            store = store.complement(other.store);
+        }
     }
 
     /**
@@ -186,20 +260,18 @@ public class IntegerSet {
      * @return true if the set is empty, false otherwise.
      */
     public boolean isEmpty() {
-        return set.isEmpty();
+        return store.size() == 0;
     }
 
     /**
      * Returns a string representation of the set, with elements
-     * enclosed in square brackets and separated by commas.
+     * in ascending order, enclosed in square brackets and separated by commas.
      * Example: [1, 2, 3]
      *
      * @return a string representation of the set.
      */
     @Override
     public String toString() {
-        // The default ArrayList.toString() method provides
-        // the exact format required: [1, 2, 3]
-        return set.toString();
+        return Arrays.toString(store.toSortedArray());
     }
-}
\ No newline at end of file
+}
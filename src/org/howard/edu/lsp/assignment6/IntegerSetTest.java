@@ -1,6 +1,10 @@
 package org.howard.edu.lsp.assignment6;
 
 import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.Random;
+import java.util.TreeSet;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -368,8 +372,289 @@ public class IntegerSetTest {
         assertEquals("[1]", setA.toString());
         setA.add(2);
         setA.add(3);
-        // ArrayList.toString() guarantees order, which is fine
-        // for this test as long as it's consistent.
+        // Elements are listed in ascending order, whatever order they were added in.
         assertEquals("[1, 2, 3]", setA.toString());
+        setB.add(3);
+        setB.add(-7);
+        setB.add(0);
+        assertEquals("[-7, 0, 3]", setB.toString());
+    }
+
+    /**
+     * Tests the {@link IntegerSet#hashCode()} method.
+     * Verifies that equal sets have equal hash codes.
+     */
+    @Test
+    @DisplayName("Test hashCode()")
+    void testHashCode() {
+        setA.add(1);
+        setA.add(-2);
+        setA.add(0);
+        setB.add(0);
+        setB.add(-2);
+        setB.add(1);
+        assertEquals(setA.hashCode(), setB.hashCode());
+        assertEquals(new IntegerSet().hashCode(), new IntegerSet().hashCode());
+    }
+
+    /**
+     * Tests every operation against {@link TreeSet} on random sets of every
+     * pair of representations, including 0, negative values, enough removals
+     * to move entries in the hash table, and dense ranges that fill the
+     * bitmap and run containers of the roaring representation.
+     */
+    @Test
+    @DisplayName("Test operations match java.util.TreeSet")
+    void testMatchesTreeSet() {
+        Random random = new Random(21);
+        IntegerSet.Representation[] representations = IntegerSet.Representation.values();
+        for (int round = 0; round < 400; round++) {
+            IntegerSet a = new IntegerSet(representations[round % representations.length]);
+            IntegerSet b = new IntegerSet(representations[round / representations.length % representations.length]);
+            TreeSet<Integer> expectedA = new TreeSet<>();
+            TreeSet<Integer> expectedB = new TreeSet<>();
+            int bound = 1 + random.nextInt(round % 3 == 0 ? 64 : 200_000);
+            fill(random, bound, a, expectedA);
+            fill(random, bound, b, expectedB);
+            assertEquals(expectedA.toString(), a.toString());
+            assertEquals(expectedA.size(), a.length());
+            if (!expectedA.isEmpty()) {
+                assertEquals(expectedA.first().intValue(), a.smallest());
+                assertEquals(expectedA.last().intValue(), a.largest());
+            }
+            for (int i = 0; i < 100; i++) {
+                int value = random.nextInt(2 * bound) - bound;
+                assertEquals(expectedA.contains(value), a.contains(value));
+            }
+
+            TreeSet<Integer> expected = new TreeSet<>(expectedA);
+            switch (round / 8 % 4) {
+                case 0:
+                    a.union(b);
+                    expected.addAll(expectedB);
+                    break;
+                case 1:
+                    a.intersect(b);
+                    expected.retainAll(expectedB);
+                    break;
+                case 2:
+                    a.diff(b);
+                    expected.removeAll(expectedB);
+                    break;
+                default:
+                    a.complement(b);
+                    expected = new TreeSet<>(expectedB);
+                    expected.removeAll(expectedA);
+                    break;
+            }
+            String message = "round " + round + ": " + a.getRepresentation() + " with " + b.getRepresentation();
+            assertEquals(expected.toString(), a.toString(), message);
+            assertEquals(expected.size(), a.length(), message);
+            assertEquals(expectedB.toString(), b.toString(), message);
+
+            IntegerSet copy = new IntegerSet(b.getRepresentation());
+            for (int value : expected) {
+                copy.add(value);
+            }
+            assertEquals(a, copy, message);
+            assertEquals(a.hashCode(), copy.hashCode(), message);
+            if (!expected.isEmpty()) {
+                copy.remove(expected.first());
+                assertNotEquals(a, copy, message);
+            }
+        }
+    }
+
+    /**
+     * Adds and removes random values: scattered ones, and ranges of
+     * consecutive or nearly consecutive ones.
+     */
+    private static void fill(Random random, int bound, IntegerSet set, TreeSet<Integer> expected) {
+        for (int i = random.nextInt(3_000); i > 0; i--) {
+            int value = random.nextInt(2 * bound) - bound;
+            if (random.nextInt(4) == 0) {
+                set.remove(value);
+                expected.remove(value);
+            } else {
+                set.add(value);
+                expected.add(value);
+            }
+        }
+        for (int i = random.nextInt(3); i > 0; i--) {
+            int start = random.nextInt(2 * bound) - bound;
+            int length = random.nextInt(20_000);
+            int step = 1 + random.nextInt(3);
+            boolean removing = random.nextInt(3) == 0;
+            for (int value = start; value < start + length; value += step) {
+                if (removing) {
+                    set.remove(value);
+                    expected.remove(value);
+                } else {
+                    set.add(value);
+                    expected.add(value);
+                }
+            }
+        }
+    }
+
+    /**
+     * Tests the roaring representation at the edges of the int range and
+     * while chunks move between their array, bitmap and run containers.
+     */
+    @Test
+    @DisplayName("Test roaring containers")
+    void testRoaringContainers() {
+        IntegerSet set = new IntegerSet(IntegerSet.Representation.ROARING);
+        set.add(Integer.MAX_VALUE);
+        set.add(Integer.MIN_VALUE);
+        set.add(-1);
+        set.add(0);
+        set.add(65_535);
+        set.add(65_536);
+        assertEquals("[-2147483648, -1, 0, 65535, 65536, 2147483647]", set.toString());
+        assertEquals(Integer.MIN_VALUE, set.smallest());
+        assertEquals(Integer.MAX_VALUE, set.largest());
+
+        // A full range becomes runs, every other value a bitmap, a few values an array.
+        TreeSet<Integer> expected = new TreeSet<>();
+        set.clear();
+        for (int value = -100_000; value < 300_000; value++) {
+            set.add(value);
+            expected.add(value);
+        }
+        for (int value = 0; value < 200_000; value += 2) {
+            set.remove(value);
+            expected.remove(value);
+        }
+        for (int value = 1; value < 200_000; value += 3) {
+            set.remove(value);
+            expected.remove(value);
+        }
+        assertEquals(expected.size(), set.length());
+        assertEquals(expected.toString(), set.toString());
+
+        IntegerSet other = new IntegerSet(IntegerSet.Representation.ROARING);
+        for (int value = 50_000; value < 250_000; value += 7) {
+            other.add(value);
+        }
+        IntegerSet union = new IntegerSet(IntegerSet.Representation.ROARING);
+        union.union(set);
+        union.union(other);
+        IntegerSet intersection = new IntegerSet(IntegerSet.Representation.ROARING);
+        intersection.union(set);
+        intersection.intersect(other);
+        // |A u B| = |A| + |B| - |A n B|
+        assertEquals(set.length() + other.length() - intersection.length(), union.length());
+        union.diff(set);
+        union.complement(other);
+        // (B \ A) complemented against B leaves A n B.
+        assertEquals(intersection, union);
+    }
+
+    /**
+     * Tests the {@link IntegerSet#addAll(int[])} method on every representation.
+     * Verifies that unsorted items and duplicates are added once each, and
+     * that items are merged with the elements already in the set.
+     */
+    @Test
+    @DisplayName("Test addAll()")
+    void testAddAll() {
+        for (IntegerSet.Representation representation : IntegerSet.Representation.values()) {
+            IntegerSet set = new IntegerSet(representation);
+            set.addAll(new int[] {5, -3, 5, 0, 12, -3});
+            assertEquals("[-3, 0, 5, 12]", set.toString(), representation.name());
+            set.addAll(new int[] {12, 1, Integer.MIN_VALUE});
+            set.addAll(new int[0]);
+            assertEquals("[-2147483648, -3, 0, 1, 5, 12]", set.toString(), representation.name());
+            assertEquals(6, set.length(), representation.name());
+            assertEquals(Integer.MIN_VALUE, set.smallest(), representation.name());
+            assertEquals(12, set.largest(), representation.name());
+        }
+    }
+
+    /**
+     * Tests the sorted representation on sets of very different sizes, where
+     * the operations gallop through the larger set, from either side.
+     */
+    @Test
+    @DisplayName("Test sorted sets of very different sizes")
+    void testSortedGallop() {
+        int[] large = new int[100_000];
+        for (int i = 0; i < large.length; i++) {
+            large[i] = 3 * i;
+        }
+        int[] small = {-5, 0, 1, 3, 150_000, 150_001, 299_997, 400_000};
+        TreeSet<Integer> expectedLarge = new TreeSet<>();
+        for (int value : large) {
+            expectedLarge.add(value);
+        }
+        TreeSet<Integer> expectedSmall = new TreeSet<>();
+        for (int value : small) {
+            expectedSmall.add(value);
+        }
+        for (int operation = 0; operation < 8; operation++) {
+            boolean largeFirst = operation < 4;
+            IntegerSet a = new IntegerSet(IntegerSet.Representation.SORTED);
+            IntegerSet b = new IntegerSet(IntegerSet.Representation.SORTED);
+            a.addAll(largeFirst ? large : small);
+            b.addAll(largeFirst ? small : large);
+            TreeSet<Integer> expected = new TreeSet<>(largeFirst ? expectedLarge : expectedSmall);
+            TreeSet<Integer> other = largeFirst ? expectedSmall : expectedLarge;
+            switch (operation % 4) {
+                case 0:
+                    a.union(b);
+                    expected.addAll(other);
+                    break;
+                case 1:
+                    a.intersect(b);
+                    expected.retainAll(other);
+                    break;
+                case 2:
+                    a.diff(b);
+                    expected.removeAll(other);
+                    break;
+                default:
+                    a.complement(b);
+                    TreeSet<Integer> complement = new TreeSet<>(other);
+                    complement.removeAll(expected);
+                    expected = complement;
+                    break;
+            }
+            assertEquals(expected.toString(), a.toString(), "operation " + operation);
+            assertEquals(expected.first().intValue(), a.smallest(), "operation " + operation);
+            assertEquals(expected.last().intValue(), a.largest(), "operation " + operation);
+        }
+        IntegerSet a = new IntegerSet(IntegerSet.Representation.SORTED);
+        IntegerSet b = new IntegerSet(IntegerSet.Representation.HASH);
+        a.addAll(large);
+        b.addAll(large);
+        assertEquals(a, b);
+        assertEquals(b, a);
+    }
+
+    /**
+     * Tests that the set operations on large sets take linear time.
+     */
+    @Test
+    @DisplayName("Test set operations on large sets")
+    void testLargeSets() {
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            for (int i = 0; i < 500_000; i++) {
+                setA.add(i * 2);
+                setB.add(i * 3);
+            }
+            IntegerSet union = new IntegerSet();
+            union.union(setA);
+            union.union(setB);
+            // Multiples of 2 or 3 below 1,500,000: 500,000 + 500,000 - 166,667 multiples of 6.
+            assertEquals(833_333, union.length());
+            setA.intersect(setB);
+            assertEquals(166_667, setA.length());
+            union.diff(setA);
+            assertEquals(666_666, union.length());
+            assertFalse(union.contains(6));
+            assertTrue(union.contains(4));
+            assertTrue(union.contains(9));
+        });
     }
 }
\ No newline at end of file
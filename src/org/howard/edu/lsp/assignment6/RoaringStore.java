@@ -0,0 +1,900 @@
+package org.howard.edu.lsp.assignment6;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * An {@link IntStore} that splits the int range into chunks of 65536 values
+ * and keeps each chunk that holds any element in the smallest of three
+ * containers, in the manner of a roaring bitmap:
+ * <ul>
+ * <li>an array container, a sorted {@code char[]} of up to 4096 values
+ * (2 bytes per element);</li>
+ * <li>a bitmap container, 1024 words with one bit per value (8 KB);</li>
+ * <li>a run container, the start and length of each run of consecutive
+ * values (4 bytes per run).</li>
+ * </ul>
+ * Sparse chunks cost 2 bytes per element and dense ones at most 1 bit, so
+ * 100 million ids that fill their ranges take about 12 MB instead of the
+ * 0.8 to 1.6 GB of a {@link HashStore}. The set operations between two
+ * roaring stores combine the containers of matching chunks, bitmaps through
+ * the word-level OR, AND and ANDNOT of {@link BitmapWords}, and skip the
+ * chunks that only one side holds.
+ */
+final class RoaringStore extends IntStore {
+    /**
+     * The most values an array container holds; past it a bitmap is smaller.
+     */
+    private static final int ARRAY_MAX = 4096;
+
+    /**
+     * The number of words in a bitmap container.
+     */
+    private static final int BITMAP_WORDS = 1024;
+
+    /**
+     * The size of a bitmap container in bytes.
+     */
+    private static final int BITMAP_BYTES = BITMAP_WORDS * 8;
+
+    /**
+     * The chunk keys, ascending. A key is the high 16 bits of the chunk's
+     * values with the sign bit flipped, so that keys sort like the values.
+     */
+    private char[] keys = new char[4];
+
+    /**
+     * The container of each chunk, never empty, parallel to {@link #keys}.
+     */
+    private Container[] containers = new Container[4];
+
+    /**
+     * The number of chunks.
+     */
+    private int count = 0;
+
+    /**
+     * The number of elements, summed over the containers.
+     */
+    private int size = 0;
+
+    @Override
+    IntStore newEmpty() {
+        return new RoaringStore();
+    }
+
+    @Override
+    int size() {
+        return size;
+    }
+
+    @Override
+    void clear() {
+        keys = new char[4];
+        containers = new Container[4];
+        count = 0;
+        size = 0;
+    }
+
+    @Override
+    boolean contains(int value) {
+        int index = find(key(value));
+        return index >= 0 && containers[index].contains(value & 0xFFFF);
+    }
+
+    @Override
+    void add(int value) {
+        char key = key(value);
+        int index = find(key);
+        if (index < 0) {
+            insertChunk(-index - 1, key, new ArrayContainer(value & 0xFFFF));
+            size++;
+            return;
+        }
+        Container container = containers[index];
+        int before = container.cardinality();
+        containers[index] = container.add(value & 0xFFFF);
+        size += containers[index].cardinality() - before;
+    }
+
+    @Override
+    void remove(int value) {
+        int index = find(key(value));
+        if (index < 0) {
+            return;
+        }
+        Container container = containers[index];
+        int before = container.cardinality();
+        Container result = container.remove(value & 0xFFFF);
+        if (result == null) {
+            removeChunk(index);
+            size -= before;
+        } else {
+            containers[index] = result;
+            size -= before - result.cardinality();
+        }
+    }
+
+    @Override
+    int min() {
+        return high(keys[0]) | containers[0].first();
+    }
+
+    @Override
+    int max() {
+        return high(keys[count - 1]) | containers[count - 1].last();
+    }
+
+    /**
+     * Passes the elements in ascending order.
+     */
+    @Override
+    boolean forEach(IntPredicate action) {
+        for (int i = 0; i < count; i++) {
+            if (!containers[i].forEach(high(keys[i]), action)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    int[] toSortedArray() {
+        int[] values = new int[size];
+        int[] position = {0};
+        // The elements already come in ascending order.
+        forEach(value -> {
+            values[position[0]++] = value;
+            return true;
+        });
+        return values;
+    }
+
+    @Override
+    boolean containsAll(IntStore other) {
+        if (!(other instanceof RoaringStore)) {
+            return super.containsAll(other);
+        }
+        RoaringStore roaring = (RoaringStore) other;
+        for (int j = 0; j < roaring.count; j++) {
+            int index = find(roaring.keys[j]);
+            if (index < 0 || roaring.containers[j].andNot(containers[index]) != null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    IntStore union(IntStore other) {
+        if (!(other instanceof RoaringStore)) {
+            return super.union(other);
+        }
+        return combine(this, (RoaringStore) other, Operation.OR, false);
+    }
+
+    @Override
+    IntStore intersect(IntStore other) {
+        if (!(other instanceof RoaringStore)) {
+            return super.intersect(other);
+        }
+        return combine(this, (RoaringStore) other, Operation.AND, false);
+    }
+
+    @Override
+    IntStore diff(IntStore other) {
+        if (!(other instanceof RoaringStore)) {
+            return super.diff(other);
+        }
+        return combine(this, (RoaringStore) other, Operation.AND_NOT, false);
+    }
+
+    @Override
+    IntStore complement(IntStore other) {
+        if (!(other instanceof RoaringStore)) {
+            return super.complement(other);
+        }
+        return combine((RoaringStore) other, this, Operation.AND_NOT, true);
+    }
+
+    /**
+     * The operations that combine two stores chunk by chunk.
+     */
+    private enum Operation {
+        OR, AND, AND_NOT
+    }
+
+    /**
+     * Combines two stores into a new one, chunk by chunk. Chunks that only
+     * {@code a} holds are kept by OR and AND_NOT, chunks that only {@code b}
+     * holds are kept by OR, and matching chunks are combined.
+     *
+     * @param a the first store.
+     * @param b the second store, whose containers are copied if kept.
+     * @param operation the operation.
+     * @param copyA whether the kept containers of {@code a} are copied, because {@code a} stays in use.
+     * @return the new store.
+     */
+    private static RoaringStore combine(RoaringStore a, RoaringStore b, Operation operation, boolean copyA) {
+        int capacity = operation == Operation.OR ? a.count + b.count : a.count;
+        RoaringStore result = new RoaringStore();
+        result.keys = new char[Math.max(4, capacity)];
+        result.containers = new Container[Math.max(4, capacity)];
+        int i = 0;
+        int j = 0;
+        while (i < a.count || j < b.count) {
+            if (j == b.count || (i < a.count && a.keys[i] < b.keys[j])) {
+                if (operation != Operation.AND) {
+                    result.appendChunk(a.keys[i], copyA ? a.containers[i].copy() : a.containers[i]);
+                }
+                i++;
+            } else if (i == a.count || b.keys[j] < a.keys[i]) {
+                if (operation == Operation.OR) {
+                    result.appendChunk(b.keys[j], b.containers[j].copy());
+                }
+                j++;
+            } else {
+                Container combined;
+                if (operation == Operation.OR) {
+                    combined = a.containers[i].or(b.containers[j]);
+                } else if (operation == Operation.AND) {
+                    combined = a.containers[i].and(b.containers[j]);
+                } else {
+                    combined = a.containers[i].andNot(b.containers[j]);
+                }
+                if (combined != null) {
+                    result.appendChunk(a.keys[i], combined);
+                }
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Appends a chunk after every existing one. The arrays must have room.
+     */
+    private void appendChunk(char key, Container container) {
+        keys[count] = key;
+        containers[count] = container;
+        count++;
+        size += container.cardinality();
+    }
+
+    /**
+     * Inserts a chunk at a position, growing the arrays if they are full.
+     */
+    private void insertChunk(int index, char key, Container container) {
+        if (count == keys.length) {
+            int capacity = count + (count >> 1);
+            keys = Arrays.copyOf(keys, capacity);
+            containers = Arrays.copyOf(containers, capacity);
+        }
+        System.arraycopy(keys, index, keys, index + 1, count - index);
+        System.arraycopy(containers, index, containers, index + 1, count - index);
+        keys[index] = key;
+        containers[index] = container;
+        count++;
+    }
+
+    /**
+     * Removes the chunk at a position.
+     */
+    private void removeChunk(int index) {
+        System.arraycopy(keys, index + 1, keys, index, count - index - 1);
+        System.arraycopy(containers, index + 1, containers, index, count - index - 1);
+        count--;
+        containers[count] = null;
+    }
+
+    /**
+     * Finds a chunk by its key.
+     *
+     * @param key the key of the chunk.
+     * @return the index of the chunk, or {@code -(insertion point) - 1} if there is none.
+     */
+    private int find(char key) {
+        // The last chunk is the one most often looked up when values are added in order.
+        if (count > 0 && keys[count - 1] == key) {
+            return count - 1;
+        }
+        return Arrays.binarySearch(keys, 0, count, key);
+    }
+
+    /**
+     * Returns the key of the chunk of a value.
+     */
+    private static char key(int value) {
+        return (char) ((value >>> 16) ^ 0x8000);
+    }
+
+    /**
+     * Returns the high 16 bits of the values of a chunk.
+     */
+    private static int high(char key) {
+        return (key ^ 0x8000) << 16;
+    }
+
+    /**
+     * Builds the smallest container for the values set in a bitmap.
+     *
+     * @param words the bitmap of the values, which the container may keep.
+     * @return the container, or null if no value is set.
+     */
+    private static Container fromWords(long[] words) {
+        int cardinality = BitmapWords.cardinality(words);
+        if (cardinality == 0) {
+            return null;
+        }
+        int runs = BitmapWords.runCount(words);
+        int arrayBytes = cardinality <= ARRAY_MAX ? 2 * cardinality : Integer.MAX_VALUE;
+        if (4 * runs < Math.min(arrayBytes, BITMAP_BYTES)) {
+            return RunContainer.fromWords(words, runs, cardinality);
+        }
+        if (cardinality <= ARRAY_MAX) {
+            return ArrayContainer.fromWords(words, cardinality);
+        }
+        return new BitmapContainer(words, cardinality);
+    }
+
+    /**
+     * The values of one chunk, as their low 16 bits. The binary operations
+     * never change their operands and return a new container, or null if
+     * the result is empty.
+     */
+    private abstract static class Container {
+
+        /**
+         * Returns the number of values in the container.
+         */
+        abstract int cardinality();
+
+        /**
+         * Returns true if the container holds a value.
+         */
+        abstract boolean contains(int low);
+
+        /**
+         * Adds a value.
+         * @return this container, or a new one of another kind that holds the result.
+         */
+        abstract Container add(int low);
+
+        /**
+         * Removes a value.
+         * @return this container, a new one of another kind that holds the result, or null if it is empty.
+         */
+        abstract Container remove(int low);
+
+        /**
+         * Returns the smallest value.
+         */
+        abstract int first();
+
+        /**
+         * Returns the largest value.
+         */
+        abstract int last();
+
+        /**
+         * Passes the values, combined with the high bits of the chunk, in
+         * ascending order to an action until it returns false.
+         */
+        abstract boolean forEach(int high, IntPredicate action);
+
+        /**
+         * Returns a new bitmap of the values.
+         */
+        abstract long[] toWords();
+
+        /**
+         * Sets the bits of the values in a bitmap.
+         */
+        abstract void orInto(long[] words);
+
+        /**
+         * Clears the bits of the values in a bitmap.
+         */
+        abstract void andNotInto(long[] words);
+
+        /**
+         * Returns a copy that can be changed without changing this container.
+         */
+        abstract Container copy();
+
+        Container or(Container other) {
+            long[] words = toWords();
+            other.orInto(words);
+            return fromWords(words);
+        }
+
+        Container and(Container other) {
+            if (other instanceof ArrayContainer) {
+                return other.and(this);
+            }
+            long[] words = toWords();
+            BitmapWords.and(words, other.toWords());
+            return fromWords(words);
+        }
+
+        Container andNot(Container other) {
+            long[] words = toWords();
+            other.andNotInto(words);
+            return fromWords(words);
+        }
+    }
+
+    /**
+     * A sorted array of up to {@link #ARRAY_MAX} values.
+     */
+    private static final class ArrayContainer extends Container {
+        private char[] values;
+        private int cardinality;
+
+        ArrayContainer(int low) {
+            values = new char[4];
+            values[0] = (char) low;
+            cardinality = 1;
+        }
+
+        private ArrayContainer(char[] values, int cardinality) {
+            this.values = values;
+            this.cardinality = cardinality;
+        }
+
+        static ArrayContainer fromWords(long[] words, int cardinality) {
+            char[] values = new char[cardinality];
+            int position = 0;
+            for (int i = 0; i < words.length; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    values[position++] = (char) (i * 64 + Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            return new ArrayContainer(values, cardinality);
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        boolean contains(int low) {
+            return Arrays.binarySearch(values, 0, cardinality, (char) low) >= 0;
+        }
+
+        @Override
+        Container add(int low) {
+            int index = Arrays.binarySearch(values, 0, cardinality, (char) low);
+            if (index >= 0) {
+                return this;
+            }
+            if (cardinality == ARRAY_MAX) {
+                long[] words = toWords();
+                words[low >>> 6] |= 1L << low;
+                return RoaringStore.fromWords(words);
+            }
+            index = -index - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_MAX, Math.max(4, cardinality + (cardinality >> 1))));
+            }
+            System.arraycopy(values, index, values, index + 1, cardinality - index);
+            values[index] = (char) low;
+            cardinality++;
+            return this;
+        }
+
+        @Override
+        Container remove(int low) {
+            int index = Arrays.binarySearch(values, 0, cardinality, (char) low);
+            if (index < 0) {
+                return this;
+            }
+            if (cardinality == 1) {
+                return null;
+            }
+            System.arraycopy(values, index + 1, values, index, cardinality - index - 1);
+            cardinality--;
+            return this;
+        }
+
+        @Override
+        int first() {
+            return values[0];
+        }
+
+        @Override
+        int last() {
+            return values[cardinality - 1];
+        }
+
+        @Override
+        boolean forEach(int high, IntPredicate action) {
+            for (int i = 0; i < cardinality; i++) {
+                if (!action.test(high | values[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        long[] toWords() {
+            long[] words = new long[BITMAP_WORDS];
+            orInto(words);
+            return words;
+        }
+
+        @Override
+        void orInto(long[] words) {
+            for (int i = 0; i < cardinality; i++) {
+                words[values[i] >>> 6] |= 1L << values[i];
+            }
+        }
+
+        @Override
+        void andNotInto(long[] words) {
+            for (int i = 0; i < cardinality; i++) {
+                words[values[i] >>> 6] &= ~(1L << values[i]);
+            }
+        }
+
+        @Override
+        Container copy() {
+            return new ArrayContainer(Arrays.copyOf(values, cardinality), cardinality);
+        }
+
+        @Override
+        Container or(Container other) {
+            if (!(other instanceof ArrayContainer)
+                    || cardinality + ((ArrayContainer) other).cardinality > ARRAY_MAX) {
+                return super.or(other);
+            }
+            // Merge the two sorted arrays.
+            ArrayContainer array = (ArrayContainer) other;
+            char[] merged = new char[cardinality + array.cardinality];
+            int i = 0;
+            int j = 0;
+            int n = 0;
+            while (i < cardinality && j < array.cardinality) {
+                char a = values[i];
+                char b = array.values[j];
+                merged[n++] = a <= b ? a : b;
+                i += a <= b ? 1 : 0;
+                j += b <= a ? 1 : 0;
+            }
+            while (i < cardinality) {
+                merged[n++] = values[i++];
+            }
+            while (j < array.cardinality) {
+                merged[n++] = array.values[j++];
+            }
+            return new ArrayContainer(merged, n);
+        }
+
+        @Override
+        Container and(Container other) {
+            return filter(other, true);
+        }
+
+        @Override
+        Container andNot(Container other) {
+            return filter(other, false);
+        }
+
+        /**
+         * Keeps the values that {@code other} holds, or does not hold.
+         */
+        private Container filter(Container other, boolean keep) {
+            char[] kept = new char[cardinality];
+            int n = 0;
+            if (other instanceof ArrayContainer) {
+                // Walk both sorted arrays instead of searching the other one for each value.
+                ArrayContainer array = (ArrayContainer) other;
+                int j = 0;
+                for (int i = 0; i < cardinality; i++) {
+                    while (j < array.cardinality && array.values[j] < values[i]) {
+                        j++;
+                    }
+                    if ((j < array.cardinality && array.values[j] == values[i]) == keep) {
+                        kept[n++] = values[i];
+                    }
+                }
+            } else {
+                for (int i = 0; i < cardinality; i++) {
+                    if (other.contains(values[i]) == keep) {
+                        kept[n++] = values[i];
+                    }
+                }
+            }
+            return n == 0 ? null : new ArrayContainer(kept, n);
+        }
+    }
+
+    /**
+     * A bitmap of all 65536 values, used for more than {@link #ARRAY_MAX} values.
+     */
+    private static final class BitmapContainer extends Container {
+        private final long[] words;
+        private int cardinality;
+
+        BitmapContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        boolean contains(int low) {
+            return (words[low >>> 6] & (1L << low)) != 0;
+        }
+
+        @Override
+        Container add(int low) {
+            if (!contains(low)) {
+                words[low >>> 6] |= 1L << low;
+                cardinality++;
+            }
+            return this;
+        }
+
+        @Override
+        Container remove(int low) {
+            if (!contains(low)) {
+                return this;
+            }
+            words[low >>> 6] &= ~(1L << low);
+            cardinality--;
+            if (cardinality <= ARRAY_MAX) {
+                return ArrayContainer.fromWords(words, cardinality);
+            }
+            return this;
+        }
+
+        @Override
+        int first() {
+            return BitmapWords.nextSetBit(words, 0);
+        }
+
+        @Override
+        int last() {
+            int i = words.length - 1;
+            while (words[i] == 0) {
+                i--;
+            }
+            return i * 64 + 63 - Long.numberOfLeadingZeros(words[i]);
+        }
+
+        @Override
+        boolean forEach(int high, IntPredicate action) {
+            for (int i = 0; i < words.length; i++) {
+                long word = words[i];
+                while (word != 0) {
+                    if (!action.test(high | (i * 64 + Long.numberOfTrailingZeros(word)))) {
+                        return false;
+                    }
+                    word &= word - 1;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        long[] toWords() {
+            return words.clone();
+        }
+
+        @Override
+        void orInto(long[] target) {
+            BitmapWords.or(target, words);
+        }
+
+        @Override
+        void andNotInto(long[] target) {
+            BitmapWords.andNot(target, words);
+        }
+
+        @Override
+        Container copy() {
+            return new BitmapContainer(words.clone(), cardinality);
+        }
+    }
+
+    /**
+     * The runs of consecutive values, each as its start and its length minus one.
+     */
+    private static final class RunContainer extends Container {
+        private char[] runs;
+        private int runCount;
+        private int cardinality;
+
+        private RunContainer(char[] runs, int runCount, int cardinality) {
+            this.runs = runs;
+            this.runCount = runCount;
+            this.cardinality = cardinality;
+        }
+
+        static RunContainer fromWords(long[] words, int runCount, int cardinality) {
+            char[] runs = new char[2 * runCount];
+            int n = 0;
+            for (int start = BitmapWords.nextSetBit(words, 0); start >= 0; ) {
+                int end = BitmapWords.nextClearBit(words, start) - 1;
+                runs[n++] = (char) start;
+                runs[n++] = (char) (end - start);
+                start = BitmapWords.nextSetBit(words, end + 1);
+            }
+            return new RunContainer(runs, runCount, cardinality);
+        }
+
+        private int start(int run) {
+            return runs[2 * run];
+        }
+
+        private int end(int run) {
+            return runs[2 * run] + runs[2 * run + 1];
+        }
+
+        /**
+         * Finds the last run that starts at or before a value.
+         * @return the index of the run, or -1 if every run starts after the value.
+         */
+        private int findRun(int low) {
+            int lo = 0;
+            int hi = runCount - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                if (start(mid) <= low) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid - 1;
+                }
+            }
+            return hi;
+        }
+
+        /**
+         * Returns this container, or the array or bitmap of its values if
+         * either has become smaller.
+         */
+        private Container shrink() {
+            int arrayBytes = cardinality <= ARRAY_MAX ? 2 * cardinality : Integer.MAX_VALUE;
+            if (4 * runCount < Math.min(arrayBytes, BITMAP_BYTES)) {
+                return this;
+            }
+            return RoaringStore.fromWords(toWords());
+        }
+
+        private void insertRun(int run, int start, int end) {
+            if (2 * runCount == runs.length) {
+                runs = Arrays.copyOf(runs, Math.max(4, runs.length + runs.length / 2 + 2) & ~1);
+            }
+            System.arraycopy(runs, 2 * run, runs, 2 * run + 2, 2 * (runCount - run));
+            runs[2 * run] = (char) start;
+            runs[2 * run + 1] = (char) (end - start);
+            runCount++;
+        }
+
+        private void deleteRun(int run) {
+            System.arraycopy(runs, 2 * run + 2, runs, 2 * run, 2 * (runCount - run - 1));
+            runCount--;
+        }
+
+        private void setRun(int run, int start, int end) {
+            runs[2 * run] = (char) start;
+            runs[2 * run + 1] = (char) (end - start);
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        boolean contains(int low) {
+            int run = findRun(low);
+            return run >= 0 && low <= end(run);
+        }
+
+        @Override
+        Container add(int low) {
+            int run = findRun(low);
+            if (run >= 0 && low <= end(run)) {
+                return this;
+            }
+            boolean joinsBefore = run >= 0 && end(run) + 1 == low;
+            boolean joinsAfter = run + 1 < runCount && start(run + 1) == low + 1;
+            if (joinsBefore && joinsAfter) {
+                setRun(run, start(run), end(run + 1));
+                deleteRun(run + 1);
+            } else if (joinsBefore) {
+                setRun(run, start(run), low);
+            } else if (joinsAfter) {
+                setRun(run + 1, low, end(run + 1));
+            } else {
+                insertRun(run + 1, low, low);
+            }
+            cardinality++;
+            return shrink();
+        }
+
+        @Override
+        Container remove(int low) {
+            int run = findRun(low);
+            if (run < 0 || low > end(run)) {
+                return this;
+            }
+            if (cardinality == 1) {
+                return null;
+            }
+            int start = start(run);
+            int end = end(run);
+            if (start == end) {
+                deleteRun(run);
+            } else if (low == start) {
+                setRun(run, start + 1, end);
+            } else if (low == end) {
+                setRun(run, start, end - 1);
+            } else {
+                setRun(run, start, low - 1);
+                insertRun(run + 1, low + 1, end);
+            }
+            cardinality--;
+            return shrink();
+        }
+
+        @Override
+        int first() {
+            return start(0);
+        }
+
+        @Override
+        int last() {
+            return end(runCount - 1);
+        }
+
+        @Override
+        boolean forEach(int high, IntPredicate action) {
+            for (int run = 0; run < runCount; run++) {
+                for (int low = start(run), end = end(run); low <= end; low++) {
+                    if (!action.test(high | low)) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+        @Override
+        long[] toWords() {
+            long[] words = new long[BITMAP_WORDS];
+            orInto(words);
+            return words;
+        }
+
+        @Override
+        void orInto(long[] words) {
+            for (int run = 0; run < runCount; run++) {
+                BitmapWords.setRange(words, start(run), end(run));
+            }
+        }
+
+        @Override
+        void andNotInto(long[] words) {
+            for (int run = 0; run < runCount; run++) {
+                BitmapWords.clearRange(words, start(run), end(run));
+            }
+        }
+
+        @Override
+        Container copy() {
+            return new RunContainer(Arrays.copyOf(runs, 2 * runCount), runCount, cardinality);
+        }
+    }
+}
@@ -0,0 +1,357 @@
+package org.howard.edu.lsp.assignment6;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * An {@link IntStore} that keeps its elements in ascending order in a
+ * primitive {@code int[]}, so that {@code min} and {@code max} take constant
+ * time, {@code contains} is a binary search, and the set operations are
+ * merges of two sorted arrays. When one set is much smaller than the other,
+ * the merges gallop: they find where each element of the smaller set goes in
+ * the larger one with an exponential search from the previous position, and
+ * copy or skip the values between in one step. Adding or removing a single
+ * element shifts the elements after it, so {@link #addAll} builds a set in
+ * bulk. It costs 4 to 6 bytes per element, whatever the values.
+ */
+final class SortedStore extends IntStore {
+    /**
+     * The smallest capacity of the array.
+     */
+    private static final int MIN_CAPACITY = 8;
+
+    /**
+     * The size ratio past which the merges gallop through the larger set
+     * instead of stepping through both.
+     */
+    private static final int GALLOP_RATIO = 8;
+
+    /**
+     * The elements, in ascending order, in the first {@link #size} slots.
+     */
+    private int[] values = new int[MIN_CAPACITY];
+
+    /**
+     * The number of elements in the set.
+     */
+    private int size = 0;
+
+    @Override
+    IntStore newEmpty() {
+        return new SortedStore();
+    }
+
+    @Override
+    int size() {
+        return size;
+    }
+
+    @Override
+    void clear() {
+        values = new int[MIN_CAPACITY];
+        size = 0;
+    }
+
+    @Override
+    boolean contains(int value) {
+        return Arrays.binarySearch(values, 0, size, value) >= 0;
+    }
+
+    @Override
+    int min() {
+        return values[0];
+    }
+
+    @Override
+    int max() {
+        return values[size - 1];
+    }
+
+    @Override
+    void add(int value) {
+        int index = Arrays.binarySearch(values, 0, size, value);
+        if (index >= 0) {
+            return;
+        }
+        index = -index - 1;
+        if (size == values.length) {
+            values = Arrays.copyOf(values, grow(size));
+        }
+        System.arraycopy(values, index, values, index + 1, size - index);
+        values[index] = value;
+        size++;
+    }
+
+    @Override
+    void remove(int value) {
+        int index = Arrays.binarySearch(values, 0, size, value);
+        if (index < 0) {
+            return;
+        }
+        System.arraycopy(values, index + 1, values, index, size - index - 1);
+        size--;
+    }
+
+    /**
+     * Sorts the values once and merges them in, instead of shifting the
+     * elements for each value.
+     */
+    @Override
+    void addAll(int[] added) {
+        int[] sorted = added.clone();
+        Arrays.sort(sorted);
+        int count = 0;
+        for (int value : sorted) {
+            if (count == 0 || sorted[count - 1] != value) {
+                sorted[count++] = value;
+            }
+        }
+        if (count == 0) {
+            return;
+        }
+        if (size == 0) {
+            values = count < sorted.length / 2 ? Arrays.copyOf(sorted, count) : sorted;
+            size = count;
+            return;
+        }
+        assign(merge(values, size, sorted, count, true, true, true));
+    }
+
+    @Override
+    boolean forEach(IntPredicate action) {
+        for (int i = 0; i < size; i++) {
+            if (!action.test(values[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    int[] toSortedArray() {
+        return Arrays.copyOf(values, size);
+    }
+
+    @Override
+    boolean containsAll(IntStore other) {
+        int[] sorted = sortedValues(other);
+        int count = other.size();
+        int index = 0;
+        for (int i = 0; i < count; i++) {
+            index = gallop(values, index, size, sorted[i]);
+            if (index == size || values[index] != sorted[i]) {
+                return false;
+            }
+            index++;
+        }
+        return true;
+    }
+
+    @Override
+    int sum() {
+        int sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += values[i];
+        }
+        return sum;
+    }
+
+    @Override
+    IntStore union(IntStore other) {
+        return assign(merge(values, size, sortedValues(other), other.size(), true, true, true));
+    }
+
+    @Override
+    IntStore intersect(IntStore other) {
+        return assign(merge(values, size, sortedValues(other), other.size(), false, true, false));
+    }
+
+    @Override
+    IntStore diff(IntStore other) {
+        return assign(merge(values, size, sortedValues(other), other.size(), true, false, false));
+    }
+
+    @Override
+    IntStore complement(IntStore other) {
+        return assign(merge(sortedValues(other), other.size(), values, size, true, false, false));
+    }
+
+    /**
+     * Replaces the elements with the result of a merge.
+     *
+     * @param merged the result of the merge.
+     * @return this store.
+     */
+    private SortedStore assign(Merged merged) {
+        int[] result = merged.values;
+        // Do not keep a mostly empty array, such as the result of a small intersection.
+        values = merged.count < result.length / 4
+                ? Arrays.copyOf(result, Math.max(MIN_CAPACITY, merged.count)) : result;
+        size = merged.count;
+        return this;
+    }
+
+    /**
+     * The values produced by a merge, in the first {@code count} slots.
+     */
+    private static final class Merged {
+        final int[] values;
+        int count;
+
+        Merged(int capacity) {
+            values = new int[Math.max(MIN_CAPACITY, capacity)];
+        }
+
+        void append(int value) {
+            values[count++] = value;
+        }
+
+        void append(int[] source, int from, int to) {
+            System.arraycopy(source, from, values, count, to - from);
+            count += to - from;
+        }
+    }
+
+    /**
+     * Merges two sorted arrays of distinct values into a new one, keeping the
+     * values found only in {@code a}, only in {@code b}, or in both, as asked.
+     *
+     * @param a the first values, in ascending order.
+     * @param countA the number of values in {@code a}.
+     * @param b the second values, in ascending order.
+     * @param countB the number of values in {@code b}.
+     * @param onlyA whether to keep the values found only in {@code a}.
+     * @param both whether to keep the values found in both.
+     * @param onlyB whether to keep the values found only in {@code b}.
+     * @return the kept values.
+     */
+    private static Merged merge(int[] a, int countA, int[] b, int countB,
+                                boolean onlyA, boolean both, boolean onlyB) {
+        int capacity = (onlyA ? countA : 0) + (onlyB ? countB : 0);
+        if (!onlyA && !onlyB) {
+            capacity = Math.min(countA, countB);
+        }
+        Merged result = new Merged(capacity);
+        if (countA >= GALLOP_RATIO * (long) countB) {
+            gallop(result, a, countA, b, countB, onlyA, both, onlyB);
+        } else if (countB >= GALLOP_RATIO * (long) countA) {
+            gallop(result, b, countB, a, countA, onlyB, both, onlyA);
+        } else {
+            int i = 0;
+            int j = 0;
+            while (i < countA && j < countB) {
+                if (a[i] < b[j]) {
+                    if (onlyA) {
+                        result.append(a[i]);
+                    }
+                    i++;
+                } else if (a[i] > b[j]) {
+                    if (onlyB) {
+                        result.append(b[j]);
+                    }
+                    j++;
+                } else {
+                    if (both) {
+                        result.append(a[i]);
+                    }
+                    i++;
+                    j++;
+                }
+            }
+            if (onlyA) {
+                result.append(a, i, countA);
+            }
+            if (onlyB) {
+                result.append(b, j, countB);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Merges a small sorted array into a much larger one by galloping through
+     * the larger one: it takes time logarithmic in the gaps between the small
+     * set's values in the large one, plus the time to copy what is kept.
+     *
+     * @param result receives the kept values.
+     * @param large the larger values, in ascending order.
+     * @param countLarge the number of values in {@code large}.
+     * @param small the smaller values, in ascending order.
+     * @param countSmall the number of values in {@code small}.
+     * @param onlyLarge whether to keep the values found only in {@code large}.
+     * @param both whether to keep the values found in both.
+     * @param onlySmall whether to keep the values found only in {@code small}.
+     */
+    private static void gallop(Merged result, int[] large, int countLarge, int[] small, int countSmall,
+                               boolean onlyLarge, boolean both, boolean onlySmall) {
+        int index = 0;
+        for (int i = 0; i < countSmall; i++) {
+            int value = small[i];
+            int next = gallop(large, index, countLarge, value);
+            if (onlyLarge) {
+                result.append(large, index, next);
+            }
+            if (next < countLarge && large[next] == value) {
+                if (both) {
+                    result.append(value);
+                }
+                next++;
+            } else if (onlySmall) {
+                result.append(value);
+            }
+            index = next;
+        }
+        if (onlyLarge) {
+            result.append(large, index, countLarge);
+        }
+    }
+
+    /**
+     * Finds the first of {@code values[from..to)} that is at least
+     * {@code key}, by probing 1, 2, 4, ... slots ahead of {@code from} and then
+     * searching the last step, so that a key close to {@code from} is found
+     * in few steps.
+     *
+     * @param values the values, in ascending order.
+     * @param from the first index to search.
+     * @param to the index past the last one to search.
+     * @param key the value to look for.
+     * @return the index of the first value not less than {@code key}, or {@code to}.
+     */
+    private static int gallop(int[] values, int from, int to, int key) {
+        int low = from;
+        int high = from;
+        int step = 1;
+        while (high < to && values[high] < key) {
+            low = high + 1;
+            high = to - high > step ? high + step : to;
+            step <<= 1;
+        }
+        int index = Arrays.binarySearch(values, low, high, key);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    /**
+     * Returns the elements of a store in ascending order, without copying
+     * them if it is a {@code SortedStore}.
+     *
+     * @param store the store.
+     * @return an array whose first {@code store.size()} values are the elements.
+     */
+    private static int[] sortedValues(IntStore store) {
+        return store instanceof SortedStore ? ((SortedStore) store).values : store.toSortedArray();
+    }
+
+    /**
+     * Returns the capacity to grow a full array of the given length to.
+     *
+     * @param length the current length.
+     * @return about one and a half times the length.
+     */
+    private static int grow(int length) {
+        if (length >= Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("IntegerSet is full");
+        }
+        return (int) Math.min(Integer.MAX_VALUE - 8, length + (length >> 1) + 1L);
+    }
+}
@@ -0,0 +1,86 @@
+package org.howard.edu.lsp.assignment6;
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The counting operations of {@link BitmapWords} written with the incubating
+ * Vector API, so that each step counts the bits of as many words as the CPU's
+ * widest vector holds. This class is only loaded when the JVM was started with
+ * {@code --add-modules jdk.incubator.vector}; see {@link BitmapWords#VECTORIZED}.
+ * <p>
+ * The binary operations have no version here: the JIT compiler already turns
+ * their plain loops into vector instructions, and measured faster than the
+ * Vector API on them.
+ */
+final class VectorBitmapWords {
+
+    private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+
+    private VectorBitmapWords() {
+    }
+
+    /**
+     * Counts the set bits of a bitmap.
+     *
+     * @param a the bitmap.
+     * @return the number of set bits.
+     */
+    static int cardinality(long[] a) {
+        LongVector counts = LongVector.zero(SPECIES);
+        int i = 0;
+        for (int bound = SPECIES.loopBound(a.length); i < bound; i += SPECIES.length()) {
+            counts = counts.add(bitCounts(LongVector.fromArray(SPECIES, a, i)));
+        }
+        int count = (int) counts.reduceLanes(VectorOperators.ADD);
+        for (; i < a.length; i++) {
+            count += Long.bitCount(a[i]);
+        }
+        return count;
+    }
+
+    /**
+     * Counts the runs of consecutive set bits in a bitmap, as
+     * {@link BitmapWords#runCount} does, reading each word's lower neighbour
+     * from a second load one word behind instead of carrying it.
+     *
+     * @param a the bitmap.
+     * @return the number of runs.
+     */
+    static int runCount(long[] a) {
+        if (a.length == 0) {
+            return 0;
+        }
+        int count = Long.bitCount(a[0] & ~(a[0] << 1));
+        LongVector counts = LongVector.zero(SPECIES);
+        int i = 1;
+        for (int bound = 1 + SPECIES.loopBound(a.length - 1); i < bound; i += SPECIES.length()) {
+            LongVector words = LongVector.fromArray(SPECIES, a, i);
+            LongVector carries = LongVector.fromArray(SPECIES, a, i - 1).lanewise(VectorOperators.LSHR, 63);
+            LongVector starts = words.lanewise(VectorOperators.AND_NOT,
+                    words.lanewise(VectorOperators.LSHL, 1).or(carries));
+            counts = counts.add(bitCounts(starts));
+        }
+        count += (int) counts.reduceLanes(VectorOperators.ADD);
+        for (; i < a.length; i++) {
+            count += Long.bitCount(a[i] & ~((a[i] << 1) | (a[i - 1] >>> 63)));
+        }
+        return count;
+    }
+
+    /**
+     * Counts the set bits of every lane at once with the shift-and-add
+     * population count, as the Vector API of Java 17 has no lanewise bit count.
+     *
+     * @param v the words.
+     * @return the number of set bits of each word, in its lane.
+     */
+    private static LongVector bitCounts(LongVector v) {
+        v = v.sub(v.lanewise(VectorOperators.LSHR, 1).and(0x5555555555555555L));
+        v = v.and(0x3333333333333333L).add(v.lanewise(VectorOperators.LSHR, 2).and(0x3333333333333333L));
+        v = v.add(v.lanewise(VectorOperators.LSHR, 4)).and(0x0F0F0F0F0F0F0F0FL);
+        // Add up the eight byte counts of each lane into its top byte.
+        return v.mul(0x0101010101010101L).lanewise(VectorOperators.LSHR, 56);
+    }
+}
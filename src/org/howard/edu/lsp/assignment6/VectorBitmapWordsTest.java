@@ -0,0 +1,79 @@
+package org.howard.edu.lsp.assignment6;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * JUnit 5 test class for the {@link VectorBitmapWords} class, which must
+ * give the same counts as the scalar loops in {@link BitmapWords}. The tests are
+ * skipped when the JVM runs without {@code --add-modules jdk.incubator.vector}.
+ */
+public class VectorBitmapWordsTest {
+
+    /**
+     * Tests cardinality and runCount against plain loops, on lengths that are
+     * and are not a multiple of the vector length, so that both the vector
+     * loop and the scalar tail are exercised.
+     */
+    @Test
+    @DisplayName("Test vector counts against scalar loops")
+    void testMatchesScalar() {
+        assumeTrue(BitmapWords.VECTORIZED, "jdk.incubator.vector is not available");
+        Random random = new Random(23);
+        for (int length : new int[] {0, 1, 2, 3, 7, 8, 9, 17, 64, 1023, 1024}) {
+            long[] words = randomWords(random, length);
+            int cardinality = 0;
+            int runs = 0;
+            for (int bit = 0; bit < 64 * length; bit++) {
+                if (isSet(words, bit)) {
+                    cardinality++;
+                    if (bit == 0 || !isSet(words, bit - 1)) {
+                        runs++;
+                    }
+                }
+            }
+            assertEquals(cardinality, VectorBitmapWords.cardinality(words), "cardinality, length " + length);
+            assertEquals(runs, VectorBitmapWords.runCount(words), "runCount, length " + length);
+        }
+    }
+
+    /**
+     * Tests full, empty and alternating bitmaps: the largest per-lane counts,
+     * and a run that crosses every word boundary.
+     */
+    @Test
+    @DisplayName("Test vector counts of full and empty bitmaps")
+    void testCountExtremes() {
+        assumeTrue(BitmapWords.VECTORIZED, "jdk.incubator.vector is not available");
+        long[] words = new long[1024];
+        assertEquals(0, VectorBitmapWords.cardinality(words));
+        assertEquals(0, VectorBitmapWords.runCount(words));
+        Arrays.fill(words, -1L);
+        assertEquals(65536, VectorBitmapWords.cardinality(words));
+        assertEquals(1, VectorBitmapWords.runCount(words));
+        Arrays.fill(words, 0x5555555555555555L);
+        assertEquals(32768, VectorBitmapWords.runCount(words));
+    }
+
+    private static boolean isSet(long[] words, int bit) {
+        return (words[bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    private static long[] randomWords(Random random, int length) {
+        long[] words = new long[length];
+        for (int i = 0; i < length; i++) {
+            // Mix dense, sparse and random words.
+            switch (random.nextInt(3)) {
+                case 0 -> words[i] = random.nextLong();
+                case 1 -> words[i] = random.nextLong() & random.nextLong() & random.nextLong();
+                default -> words[i] = random.nextLong() | random.nextLong() | random.nextLong();
+            }
+        }
+        return words;
+    }
+}